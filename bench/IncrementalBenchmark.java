@@ -0,0 +1,118 @@
+import java.util.*;
+
+/**
+ * IncrementalBenchmark
+ * Times IncrementalScanner.edit against a full rescan on synthetic corpora of
+ * growing size. Each session types and deletes characters at a cursor in the
+ * middle of the document and now and then jumps to another line, as an
+ * editor does. Edit time should stay flat as the document grows. After every
+ * session the incremental tokens, errors and symbol table are checked against
+ * a full rescan of the edited text.
+ * Usage: java -Xmx4g -cp src:bench IncrementalBenchmark [MB,MB,...] [edits]
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class IncrementalBenchmark {
+    
+    private static final String TYPED = "declare Counter = Counter + 1\n## note\nloop Counter < 10 { \"s\" }\n";
+    
+    public static void main(String[] args) {
+        String[] sizes = (args.length > 0 ? args[0] : "1,4,16").split(",");
+        int edits = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        
+        System.out.printf("%6s %10s %12s %14s %9s%n", "MB", "Tokens", "rescan(ms)", "edit(us/edit)", "Speedup");
+        System.out.println("-".repeat(55));
+        for (String size : sizes) {
+            String source = SyntheticCorpus.generate(Long.parseLong(size.trim()) << 20, SyntheticCorpus.Kind.MIXED);
+            
+            long rescan = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                new ManualScanner(source).scan();
+                rescan = Math.min(rescan, System.nanoTime() - start);
+            }
+            
+            IncrementalScanner document = new IncrementalScanner(source);
+            session(document, edits / 4, 1);        // Warm-up
+            long start = System.nanoTime();
+            session(document, edits, 2);
+            double perEdit = (System.nanoTime() - start) / (double) edits;
+            check(document);
+            System.out.printf("%6s %10d %12.1f %14.2f %8.0fx%n", size.trim(), document.getTokenBuffer().size(),
+                              rescan / 1e6, perEdit / 1e3, rescan / perEdit);
+        }
+        System.out.println("\nIncremental tokens, errors and symbols match a full rescan after every session");
+    }
+    
+    /**
+     * Type TYPED at a cursor, deleting a character now and then, and jump to
+     * a random line every 500 edits
+     */
+    private static void session(IncrementalScanner document, int edits, long seed) {
+        Random random = new Random(seed);
+        int length = document.getText().length();
+        int cursor = length / 2;
+        for (int i = 0; i < edits; i++) {
+            if (i % 500 == 0) {
+                cursor = lineStart(document.getTokenBuffer(), random.nextInt(length));
+            }
+            if (i % 7 == 6 && cursor > 0) {
+                document.edit(cursor - 1, 1, "");
+                cursor--;
+                length--;
+            } else {
+                document.edit(cursor, 0, String.valueOf(TYPED.charAt(i % TYPED.length())));
+                cursor++;
+                length++;
+            }
+        }
+    }
+    
+    /**
+     * Start of the first token at or after an offset that begins a line
+     */
+    private static int lineStart(TokenBuffer tokens, int offset) {
+        for (int i = tokens.firstAtOrAfter(offset); i < tokens.size(); i++) {
+            if (tokens.getColumn(i) == 1) {
+                return tokens.getStart(i);
+            }
+        }
+        return 0;
+    }
+    
+    private static void check(IncrementalScanner document) {
+        ManualScanner expected = new ManualScanner(document.getText());
+        expected.scan();
+        TokenBuffer a = expected.getTokenBuffer();
+        TokenBuffer b = document.getTokenBuffer();
+        if (a.size() != b.size()) {
+            fail(b.size() + " tokens after the edits, " + a.size() + " from a full rescan");
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.getType(i) != b.getType(i) || a.getStart(i) != b.getStart(i) || a.getLength(i) != b.getLength(i)
+                || a.getLine(i) != b.getLine(i) || a.getColumn(i) != b.getColumn(i)) {
+                fail("token " + i + " is " + b.get(i) + ", expected " + a.get(i));
+            }
+        }
+        if (!expected.getErrorHandler().getErrors().equals(document.getErrorHandler().getErrors())) {
+            fail("errors differ from a full rescan");
+        }
+        SymbolTable symbolsA = expected.getSymbolTable();
+        SymbolTable symbolsB = document.getSymbolTable();
+        if (symbolsA.getUniqueIdentifierCount() != symbolsB.getUniqueIdentifierCount()
+            || symbolsA.getTotalIdentifierOccurrences() != symbolsB.getTotalIdentifierOccurrences()) {
+            fail("symbol tables differ in size");
+        }
+        for (int i = 0; i < symbolsA.getUniqueIdentifierCount(); i++) {
+            String name = symbolsA.getName(symbolsA.getIdAt(i));
+            if (!Objects.equals(symbolsA.getSymbolInfo(name), symbolsB.getSymbolInfo(name))
+                || !name.equals(symbolsB.getName(symbolsB.getIdAt(i)))) {
+                fail("symbol " + i + " differs: " + symbolsB.getSymbolInfo(name) + " vs. "
+                     + symbolsA.getSymbolInfo(name));
+            }
+        }
+    }
+    
+    private static void fail(String message) {
+        throw new IllegalStateException(message);
+    }
+}
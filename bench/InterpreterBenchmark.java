@@ -0,0 +1,136 @@
+import java.io.*;
+
+/**
+ * InterpreterBenchmark
+ * Runs loop and function-call microprograms on the bytecode VM and on the
+ * reference TreeWalker, checks that both print the same output, and reports
+ * the best run time of each. Compile time is measured separately.
+ * Usage: java -cp src:bench InterpreterBenchmark [scale] [rounds]
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class InterpreterBenchmark {
+    
+    private static final String[][] PROGRAMS = {
+        {"loop-sum",
+         "start\n"
+         + "    declare I = 0\n"
+         + "    declare Sum = 0\n"
+         + "    loop I < N\n"
+         + "        Sum += I\n"
+         + "        I++\n"
+         + "    output Sum\n"
+         + "finish\n"},
+        {"nested-loops",
+         "start\n"
+         + "    declare Grid[100]\n"
+         + "    declare Round = 0\n"
+         + "    declare Total = 0\n"
+         + "    loop Round < N / 100\n"
+         + "        declare J = 0\n"
+         + "        loop J < 100\n"
+         + "            Grid[J] = Grid[J] + J * Round % 7\n"
+         + "            condition Grid[J] > 1000\n"
+         + "                Grid[J] -= 1000\n"
+         + "            J++\n"
+         + "        Round++\n"
+         + "    declare K = 0\n"
+         + "    loop K < 100\n"
+         + "        Total += Grid[K]\n"
+         + "        K++\n"
+         + "    output Total\n"
+         + "finish\n"},
+        {"fibonacci",
+         "start\n"
+         + "    function Fib(X)\n"
+         + "        condition X < 2\n"
+         + "            return X\n"
+         + "        return Fib(X - 1) + Fib(X - 2)\n"
+         + "    declare Depth = 8\n"
+         + "    declare Limit = N\n"
+         + "    loop Limit > 1\n"
+         + "        Depth++\n"
+         + "        Limit /= 2\n"
+         + "    output Fib(Depth)\n"
+         + "finish\n"},
+        {"call-loop",
+         "start\n"
+         + "    function Step(Acc, Value)\n"
+         + "        condition Value % 3 == 0\n"
+         + "            return Acc + Value * 2\n"
+         + "        return Acc - Value\n"
+         + "    declare I = 0\n"
+         + "    declare Acc = 0\n"
+         + "    loop I < N\n"
+         + "        Acc = Step(Acc, I)\n"
+         + "        I++\n"
+         + "    output Acc\n"
+         + "finish\n"},
+        {"function-loop",
+         "start\n"
+         + "    function Count(Limit)\n"
+         + "        declare I = 0\n"
+         + "        declare Odd = 0\n"
+         + "        loop I < Limit\n"
+         + "            condition I % 2 == 1 && I != 7\n"
+         + "                Odd += 1\n"
+         + "            I++\n"
+         + "        return Odd\n"
+         + "    output Count(N)\n"
+         + "finish\n"},
+    };
+    
+    public static void main(String[] args) {
+        long scale = args.length > 0 ? Long.parseLong(args[0]) : 2_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        
+        System.out.printf("%-16s %12s %12s %12s %10s  %s%n",
+                          "Program", "Compile(ms)", "VM(ms)", "Walker(ms)", "Speedup", "Output");
+        System.out.println("-".repeat(80));
+        for (String[] program : PROGRAMS) {
+            String source = program[1].replace("N", Long.toString(scale));
+            SyntaxTree tree = new Parser(new ManualScanner(source)).parse();
+            
+            long start = System.nanoTime();
+            Bytecode bytecode = new Compiler(tree).compile();
+            long compile = System.nanoTime() - start;
+            if (bytecode == null) {
+                throw new IllegalStateException(program[0] + " does not compile");
+            }
+            
+            String expected = walk(tree);
+            String actual = execute(bytecode);
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException(program[0] + ": VM printed " + actual.trim()
+                                                + ", tree walker printed " + expected.trim());
+            }
+            
+            long vm = Long.MAX_VALUE;
+            long walker = Long.MAX_VALUE;
+            for (int i = 0; i < rounds; i++) {
+                start = System.nanoTime();
+                execute(bytecode);
+                long executed = System.nanoTime();
+                walk(tree);
+                long walked = System.nanoTime();
+                vm = Math.min(vm, executed - start);
+                walker = Math.min(walker, walked - executed);
+            }
+            
+            System.out.printf("%-16s %12.2f %12.1f %12.1f %9.1fx  %s%n",
+                              program[0], compile / 1e6, vm / 1e6, walker / 1e6, (double) walker / vm,
+                              actual.trim());
+        }
+    }
+    
+    private static String execute(Bytecode bytecode) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new VM(bytecode, new PrintStream(output), new StringReader("")).run();
+        return output.toString();
+    }
+    
+    private static String walk(SyntaxTree tree) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new TreeWalker(tree, new PrintStream(output), new StringReader("")).run();
+        return output.toString();
+    }
+}
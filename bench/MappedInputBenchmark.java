@@ -0,0 +1,87 @@
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * MappedInputBenchmark
+ * Compares the ManualScanner.main read path (BufferedReader.readLine into a
+ * StringBuilder) with the streaming Reader path and the memory-mapped path.
+ * Usage: java -Xmx4g -cp src:bench MappedInputBenchmark [size-MB] [rounds]
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class MappedInputBenchmark {
+    
+    public static void main(String[] args) throws IOException {
+        long sizeMB = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        
+        Path file = Files.createTempFile("simplelang-bench", ".lang");
+        file.toFile().deleteOnExit();
+        SyntheticCorpus.write(file, sizeMB << 20, SyntheticCorpus.Kind.MIXED);
+        long bytes = Files.size(file);
+        System.out.printf("Synthetic input: %,d bytes%n", bytes);
+        
+        // Warm up each path once
+        readLinePath(file);
+        streamPath(file);
+        mappedPath(file);
+        
+        long readLine = Long.MAX_VALUE;
+        long stream = Long.MAX_VALUE;
+        long mapped = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            readLine = Math.min(readLine, time(() -> readLinePath(file)));
+            stream = Math.min(stream, time(() -> streamPath(file)));
+            mapped = Math.min(mapped, time(() -> mappedPath(file)));
+        }
+        
+        report("readLine + StringBuilder", readLine, bytes, readLine);
+        report("FileReader streaming", stream, bytes, readLine);
+        report("Memory-mapped", mapped, bytes, readLine);
+    }
+    
+    private interface Run {
+        long run() throws IOException;
+    }
+    
+    private static long time(Run run) throws IOException {
+        long start = System.nanoTime();
+        long tokens = run.run();
+        long elapsed = System.nanoTime() - start;
+        if (tokens <= 0) {
+            throw new IllegalStateException("No tokens scanned");
+        }
+        return elapsed;
+    }
+    
+    private static void report(String name, long nanos, long bytes, long baseline) {
+        System.out.printf("%-28s %8.1f ms %8.1f MB/s  speedup x%.2f%n", name, nanos / 1e6,
+                          bytes / (nanos / 1e9) / (1 << 20), (double) baseline / nanos);
+    }
+    
+    /**
+     * The path used by ManualScanner.main
+     */
+    private static long readLinePath(Path file) throws IOException {
+        return count(new ManualScanner(ManualScanner.readSource(file.toString())));
+    }
+    
+    private static long streamPath(Path file) throws IOException {
+        try (Reader reader = ManualScanner.openSource(file.toString())) {
+            return count(new ManualScanner(reader));
+        }
+    }
+    
+    private static long mappedPath(Path file) throws IOException {
+        try (Reader reader = new MappedFileReader(file)) {
+            return count(new ManualScanner(reader));
+        }
+    }
+    
+    private static long count(ManualScanner scanner) {
+        long tokens = 0;
+        while (scanner.nextToken() != null) {
+            tokens++;
+        }
+        return tokens;
+    }
+}
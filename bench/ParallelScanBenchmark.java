@@ -0,0 +1,157 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ParallelScanBenchmark
+ * Times scan() against scanParallel() on synthetic corpora (one of them
+ * strewn with runs of invalid characters) and checks that both produce the
+ * same tokens, errors, symbol table and statistics, with runs of invalid
+ * characters coalesced and not, in normal and recovery mode. Short random
+ * inputs are checked the same way with small chunk counts, so that chunk
+ * boundaries fall inside comments, strings and invalid runs.
+ * Usage: java -Xmx4g -cp src:bench ParallelScanBenchmark [MB] [rounds] [random inputs]
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class ParallelScanBenchmark {
+    
+    private static final String ALPHABET = "#*#*\n\n  \t\"\"\\nAbZ_09.'+-=<>!&|%/(){}[],;:@$`~ #*\"tx";
+    
+    public static void main(String[] args) {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int randomInputs = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        
+        Map<String, String> corpora = new LinkedHashMap<>();
+        for (SyntheticCorpus.Kind kind : SyntheticCorpus.Kind.values()) {
+            corpora.put(kind.name().toLowerCase(), SyntheticCorpus.generate((long) megabytes << 20, kind));
+        }
+        corpora.put("invalid runs", withInvalidRuns(corpora.get("mixed")));
+        
+        System.out.printf("%d threads, %d MB per corpus%n%n", ForkJoinPool.getCommonPoolParallelism(), megabytes);
+        System.out.printf("%-14s %-9s %10s %10s %12s %9s%n", "Corpus", "Coalesce", "Errors", "scan(ms)",
+                          "parallel(ms)", "Speedup");
+        System.out.println("-".repeat(69));
+        for (Map.Entry<String, String> corpus : corpora.entrySet()) {
+            for (boolean coalesce : new boolean[] {false, true}) {
+                long sequential = Long.MAX_VALUE;
+                long parallel = Long.MAX_VALUE;
+                int errors = 0;
+                for (int round = 0; round < rounds; round++) {
+                    ManualScanner expected = scanner(corpus.getValue(), coalesce, false);
+                    long start = System.nanoTime();
+                    expected.scan();
+                    sequential = Math.min(sequential, System.nanoTime() - start);
+                    
+                    ManualScanner actual = scanner(corpus.getValue(), coalesce, false);
+                    start = System.nanoTime();
+                    actual.scanParallel();
+                    parallel = Math.min(parallel, System.nanoTime() - start);
+                    if (round == 0) {
+                        check(expected, actual, corpus.getKey() + (coalesce ? " coalesced" : ""));
+                        errors = expected.getErrorHandler().getErrorCount();
+                    }
+                }
+                System.out.printf("%-14s %-9s %10d %10.1f %12.1f %8.1fx%n", corpus.getKey(), coalesce ? "on" : "off",
+                                  errors, sequential / 1e6, parallel / 1e6, (double) sequential / parallel);
+            }
+        }
+        
+        Random random = new Random(42);
+        for (int i = 0; i < randomInputs; i++) {
+            StringBuilder source = new StringBuilder();
+            for (int n = random.nextInt(300); n > 0; n--) {
+                source.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            for (boolean coalesce : new boolean[] {false, true}) {
+                for (boolean recovery : new boolean[] {false, true}) {
+                    ManualScanner expected = scanner(source.toString(), coalesce, recovery);
+                    expected.scan();
+                    for (int chunks = 2; chunks <= 4; chunks++) {
+                        ManualScanner actual = scanner(source.toString(), coalesce, recovery);
+                        actual.scanParallel(chunks);
+                        check(expected, actual, "random input " + i + " (coalesce " + coalesce + ", recovery "
+                                                + recovery + ", " + chunks + " chunks)");
+                    }
+                }
+            }
+        }
+        System.out.printf("%nscanParallel() matches scan() on every corpus and on %d random inputs%n", randomInputs);
+    }
+    
+    private static ManualScanner scanner(String source, boolean coalesce, boolean recovery) {
+        ManualScanner scanner = new ManualScanner(source);
+        scanner.getErrorHandler().setCoalesceInvalidRuns(coalesce);
+        scanner.setRecoveryMode(recovery);
+        return scanner;
+    }
+    
+    /**
+     * Append a run of invalid characters to every third line, and start every
+     * seventh line with one
+     */
+    private static String withInvalidRuns(String source) {
+        StringBuilder out = new StringBuilder(source.length() + source.length() / 4);
+        int line = 0;
+        int from = 0;
+        for (int end = source.indexOf('\n'); end >= 0; end = source.indexOf('\n', from)) {
+            if (line % 7 == 0) {
+                out.append("@@ $");
+            }
+            out.append(source, from, end);
+            if (line % 3 == 0) {
+                out.append(" `~~ @ $$$");
+            }
+            out.append('\n');
+            from = end + 1;
+            line++;
+        }
+        return out.append(source, from, source.length()).toString();
+    }
+    
+    private static void check(ManualScanner expected, ManualScanner actual, String input) {
+        TokenBuffer a = expected.getTokenBuffer();
+        TokenBuffer b = actual.getTokenBuffer();
+        if (a.size() != b.size()) {
+            fail(input, a.size() + " tokens from scan(), " + b.size() + " from scanParallel()");
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.getType(i) != b.getType(i) || a.getStart(i) != b.getStart(i) || a.getLength(i) != b.getLength(i)
+                || a.getLine(i) != b.getLine(i) || a.getColumn(i) != b.getColumn(i)) {
+                fail(input, "token " + i + " is " + b.get(i) + ", expected " + a.get(i));
+            }
+        }
+        
+        ErrorHandler errorsA = expected.getErrorHandler();
+        ErrorHandler errorsB = actual.getErrorHandler();
+        if (errorsA.getErrorCount() != errorsB.getErrorCount() || !errorsA.getErrors().equals(errorsB.getErrors())) {
+            fail(input, errorsB.getErrorCount() + " errors from scanParallel(), " + errorsA.getErrorCount()
+                        + " from scan(): " + errorsB.getErrors() + " vs. " + errorsA.getErrors());
+        }
+        
+        SymbolTable symbolsA = expected.getSymbolTable();
+        SymbolTable symbolsB = actual.getSymbolTable();
+        if (symbolsA.getUniqueIdentifierCount() != symbolsB.getUniqueIdentifierCount()) {
+            fail(input, "symbol tables differ in size");
+        }
+        for (int i = 0; i < symbolsA.getUniqueIdentifierCount(); i++) {
+            int idA = symbolsA.getIdAt(i);
+            int idB = symbolsB.getIdAt(i);
+            if (!symbolsA.getName(idA).equals(symbolsB.getName(idB))
+                || symbolsA.getFirstLine(idA) != symbolsB.getFirstLine(idB)
+                || symbolsA.getFirstColumn(idA) != symbolsB.getFirstColumn(idB)
+                || symbolsA.getFrequency(idA) != symbolsB.getFrequency(idB)) {
+                fail(input, "symbol " + i + " differs: " + symbolsB.getName(idB) + " vs. " + symbolsA.getName(idA));
+            }
+        }
+        
+        if (!expected.getTokenCounts().equals(actual.getTokenCounts())
+            || expected.getCommentsRemoved() != actual.getCommentsRemoved()
+            || expected.getLinesProcessed() != actual.getLinesProcessed()) {
+            fail(input, "statistics differ");
+        }
+    }
+    
+    private static void fail(String input, String message) {
+        throw new IllegalStateException(input + ": " + message);
+    }
+}
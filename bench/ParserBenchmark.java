@@ -0,0 +1,72 @@
+/**
+ * ParserBenchmark
+ * Compares scanning alone with scanning plus parsing on synthetic corpora,
+ * so parse throughput can be checked against lexing throughput. Also times
+ * the fused pipeline (parser pulling tokens from the scanner through a
+ * TokenWindow) and the TokenPipe variant with the scanner on another thread.
+ * Usage: java -Xmx4g -cp src:bench ParserBenchmark [size-MB] [rounds]
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class ParserBenchmark {
+    
+    public static void main(String[] args) {
+        long sizeMB = args.length > 0 ? Long.parseLong(args[0]) : 16;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        
+        System.out.printf("%-12s %10s %10s %10s %10s %10s %10s %12s%n",
+                          "Input", "Scan(ms)", "Parse(ms)", "Scan MB/s", "Parse MB/s", "Fused(ms)", "Pipe(ms)",
+                          "Nodes");
+        System.out.println("-".repeat(90));
+        for (SyntheticCorpus.Kind kind : SyntheticCorpus.Kind.values()) {
+            String source = SyntheticCorpus.generate(sizeMB << 20, kind);
+            
+            // Warm up every path once
+            long nodes = parse(scan(source));
+            fused(source);
+            piped(source);
+            
+            long scan = Long.MAX_VALUE;
+            long parse = Long.MAX_VALUE;
+            long fused = Long.MAX_VALUE;
+            long piped = Long.MAX_VALUE;
+            for (int i = 0; i < rounds; i++) {
+                long start = System.nanoTime();
+                ManualScanner scanner = scan(source);
+                long scanned = System.nanoTime();
+                nodes = parse(scanner);
+                long parsed = System.nanoTime();
+                fused(source);
+                long fusedEnd = System.nanoTime();
+                piped(source);
+                long pipedEnd = System.nanoTime();
+                scan = Math.min(scan, scanned - start);
+                parse = Math.min(parse, parsed - scanned);
+                fused = Math.min(fused, fusedEnd - parsed);
+                piped = Math.min(piped, pipedEnd - fusedEnd);
+            }
+            
+            double megabytes = source.length() / (1024.0 * 1024.0);
+            System.out.printf("%-12s %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %12d%n",
+                              kind, scan / 1e6, parse / 1e6, megabytes / (scan / 1e9),
+                              megabytes / (parse / 1e9), fused / 1e6, piped / 1e6, nodes);
+        }
+    }
+    
+    private static ManualScanner scan(String source) {
+        ManualScanner scanner = new ManualScanner(source);
+        scanner.scan();
+        return scanner;
+    }
+    
+    private static long parse(ManualScanner scanner) {
+        return new Parser(scanner.getTokenBuffer()).parse().size();
+    }
+    
+    private static long fused(String source) {
+        return new Parser(new ManualScanner(source)).parse().size();
+    }
+    
+    private static long piped(String source) {
+        return new Parser(new TokenPipe(new ManualScanner(source)).start()).parse().size();
+    }
+}
@@ -0,0 +1,105 @@
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * ReportBenchmark
+ * Scans a synthetic corpus and times writing its token list and symbol
+ * table to a file the way the print methods used to (one println and one
+ * String.format per line on an autoflushing PrintStream, like System.out)
+ * and through ReportWriter in each format. The text output is checked to be
+ * byte-identical to the println output.
+ * Usage: java -cp src:bench ReportBenchmark [MB] [rounds]
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class ReportBenchmark {
+    
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        
+        String source = SyntheticCorpus.generate((long) megabytes << 20, SyntheticCorpus.Kind.MIXED);
+        ManualScanner scanner = new ManualScanner(source);
+        scanner.scan();
+        TokenBuffer tokens = scanner.getTokenBuffer();
+        SymbolTable symbols = scanner.getSymbolTable();
+        System.out.printf("%d MB mixed corpus, %d tokens, %d identifiers%n%n", megabytes, tokens.size(),
+                          symbols.getUniqueIdentifierCount());
+        
+        Path println = Files.createTempFile("report-println", ".txt");
+        Path report = Files.createTempFile("report-writer", ".txt");
+        try {
+            long baseline = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(println.toFile()),
+                                                                                8192), true)) {
+                    printLegacy(out, tokens, symbols);
+                }
+                baseline = Math.min(baseline, System.nanoTime() - start);
+            }
+            
+            System.out.printf("%-22s %10s %10s %10s%n", "Writer", "Time(ms)", "MB/s", "Speedup");
+            System.out.println("-".repeat(55));
+            print("println + format", baseline, Files.size(println), baseline);
+            for (ReportWriter.Format format : ReportWriter.Format.values()) {
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < rounds; round++) {
+                    long start = System.nanoTime();
+                    try (ReportWriter writer = ReportWriter.create(format, new FileOutputStream(report.toFile()))) {
+                        writer.tokens(tokens);
+                        writer.symbolTable(symbols);
+                    }
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                print("ReportWriter " + format.name().toLowerCase(), best, Files.size(report), baseline);
+                if (format == ReportWriter.Format.TEXT && Files.mismatch(println, report) != -1) {
+                    throw new IllegalStateException("Text report differs from println output at byte "
+                                                    + Files.mismatch(println, report));
+                }
+            }
+            System.out.println("\nText report is byte-identical to the println output");
+        } finally {
+            Files.deleteIfExists(println);
+            Files.deleteIfExists(report);
+        }
+    }
+    
+    /**
+     * Token list and symbol table as printTokens() and printSymbolTable() used to print them
+     */
+    private static void printLegacy(PrintStream out, TokenBuffer tokens, SymbolTable symbols) {
+        out.println("\n" + "=".repeat(80));
+        out.println("TOKENS");
+        out.println("=".repeat(80));
+        for (Token token : tokens) {
+            out.println(token);
+        }
+        out.println("=".repeat(80));
+        
+        out.println("\n" + "=".repeat(80));
+        out.println("SYMBOL TABLE");
+        out.println("=".repeat(80));
+        if (symbols.getUniqueIdentifierCount() == 0) {
+            out.println("No identifiers found.");
+        } else {
+            out.println(String.format("%-20s %-15s %-10s %-10s %s",
+                                      "Name", "Type", "First Line", "First Col", "Frequency"));
+            out.println("-".repeat(80));
+            for (int i = 0; i < symbols.getUniqueIdentifierCount(); i++) {
+                int id = symbols.getIdAt(i);
+                out.println(String.format("%-20s %-15s Line: %-4d Col: %-4d Frequency: %d",
+                                          symbols.getName(id), "IDENTIFIER", symbols.getFirstLine(id),
+                                          symbols.getFirstColumn(id), symbols.getFrequency(id)));
+            }
+            out.println("-".repeat(80));
+            out.println("Total unique identifiers: " + symbols.getUniqueIdentifierCount());
+            out.println("Total identifier occurrences: " + symbols.getTotalIdentifierOccurrences());
+        }
+        out.println("=".repeat(80));
+    }
+    
+    private static void print(String name, long nanos, long bytes, long baseline) {
+        System.out.printf("%-22s %10.1f %10.1f %9.1fx%n", name, nanos / 1e6, bytes / 1048576.0 / (nanos / 1e9),
+                          (double) baseline / nanos);
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.*;
+
+/**
+ * RunSkipperBenchmark
+ * Compares the scalar, SWAR and vector RunSkipper implementations on comment
+ * and string bodies of growing length (millions of characters crossed per
+ * second, results checked against the scalar skipper), then times full scans
+ * of comment-heavy corpora with the skipper this JVM runs with. The vector
+ * skipper is included when vector/VectorRunSkipper is on the class path and
+ * the JVM runs with --add-modules jdk.incubator.vector.
+ * Usage: java -Xmx4g [--add-modules jdk.incubator.vector] [-Dsimplelang.skip=scalar|swar|vector]
+ *             -cp src:bench:vector RunSkipperBenchmark [MB]
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class RunSkipperBenchmark {
+    
+    private static final int CHARS_PER_ROUND = 64 << 20;
+    
+    public static void main(String[] args) {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        
+        List<RunSkipper> skippers = new ArrayList<>();
+        skippers.add(RunSkipper.create("scalar"));
+        skippers.add(RunSkipper.create("swar"));
+        try {
+            skippers.add(RunSkipper.create("vector"));
+        } catch (IllegalStateException e) {
+            System.out.println("Vector skipper not available (needs vector/ on the class path and "
+                               + "--add-modules jdk.incubator.vector); skipped\n");
+        }
+        
+        System.out.printf("%-8s %-10s %9s %12s %9s%n", "Skipper", "Stops", "Body", "Mchars/s", "Speedup");
+        System.out.println("-".repeat(52));
+        for (String stops : new String[] {"*", "\"\\\n"}) {
+            for (int body : new int[] {16, 64, 256, 4096, 1 << 20}) {
+                double scalar = 0;
+                for (RunSkipper skipper : skippers) {
+                    double rate = rate(skipper, stops, body);
+                    if (scalar == 0) {
+                        scalar = rate;
+                    }
+                    System.out.printf("%-8s %-10s %9d %12.0f %8.1fx%n", skipper.getName(),
+                                      stops.equals("*") ? "'*'" : "'\"' '\\' LF", body, rate, rate / scalar);
+                }
+            }
+        }
+        
+        System.out.printf("%nFull scans with the %s skipper (-D%s):%n", RunSkipper.INSTANCE.getName(),
+                          RunSkipper.PROPERTY);
+        Map<String, String> corpora = new LinkedHashMap<>();
+        corpora.put("comments", SyntheticCorpus.generate((long) megabytes << 20, SyntheticCorpus.Kind.COMMENTS));
+        corpora.put("documented", SyntheticCorpus.generate((long) megabytes << 20, SyntheticCorpus.Kind.DOCUMENTED));
+        corpora.put("4K comments", commentBlocks(megabytes << 20, 4096));
+        for (Map.Entry<String, String> corpus : corpora.entrySet()) {
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                new ManualScanner(corpus.getValue()).scan();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%-12s %8.1f ms %8.1f MB/s%n", corpus.getKey(), best / 1e6,
+                              corpus.getValue().length() / (best / 1e9) / (1 << 20));
+        }
+    }
+    
+    /**
+     * Body text: lowercase words, spaces and a newline every 60 characters,
+     * without any of the stop characters
+     */
+    private static char[] body(int length, String stops) {
+        char[] text = new char[length + 1];
+        Random random = new Random(length);
+        for (int i = 0; i < length; i++) {
+            char ch = i % 60 == 59 ? '\n' : random.nextInt(6) == 0 ? ' ' : (char) ('a' + random.nextInt(26));
+            text[i] = stops.indexOf(ch) >= 0 ? ' ' : ch;
+        }
+        text[length] = stops.charAt(0);
+        return text;
+    }
+    
+    /**
+     * Characters crossed per microsecond, best of five rounds
+     */
+    private static double rate(RunSkipper skipper, String stops, int length) {
+        char[] text = body(length, stops);
+        char a = stops.charAt(0);
+        char b = stops.charAt(stops.length() > 1 ? 1 : 0);
+        char c = stops.charAt(stops.length() - 1);
+        long expected = RunSkipper.create("scalar").skipUntil(text, 0, text.length, a, b, c);
+        long actual = skipper.skipUntil(text, 0, text.length, a, b, c);
+        if (actual != expected) {
+            throw new IllegalStateException(skipper.getName() + " skipper returned " + Long.toHexString(actual)
+                                            + ", expected " + Long.toHexString(expected));
+        }
+        int calls = Math.max(1, CHARS_PER_ROUND / length);
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long sum = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sum += skipper.skipUntil(text, 0, text.length, a, b, c);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            if (sum != expected * calls) {
+                throw new IllegalStateException("Inconsistent result");
+            }
+        }
+        return (double) calls * length / (best / 1e3);
+    }
+    
+    /**
+     * Multi-line comments with bodies of a given length, each followed by a statement
+     */
+    private static String commentBlocks(int size, int body) {
+        StringBuilder text = new StringBuilder(size + body);
+        String block = "#*" + new String(body(body, "*")).replace('*', ' ') + "*#\n";
+        for (int i = 0; text.length() < size; i++) {
+            text.append(block).append("declare Value_").append(i).append(" = 1\n");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,152 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * ScannerBenchmark
+ * Repeatable throughput baseline for the scanners: tokens/s, MB/s and
+ * allocation per scan on tests/test1-5.lang and on synthetic corpora.
+ * The JFlex scanner is included when the generated Yylex class is on the classpath.
+ * Usage: java -Xmx4g -cp src:bench ScannerBenchmark [--sizes 1,16,256] [--kinds MIXED,...]
+ *                                                    [--warmup N] [--iterations N] [--tests dir]
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class ScannerBenchmark {
+    
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    /**
+     * A scanner under test: scans the whole input and returns the token count
+     */
+    private interface Subject {
+        long scan(String source) throws Exception;
+    }
+    
+    private int warmup = 3;
+    private int iterations = 5;
+    
+    public static void main(String[] args) throws Exception {
+        ScannerBenchmark benchmark = new ScannerBenchmark();
+        long[] sizes = {1, 16};
+        List<SyntheticCorpus.Kind> kinds = Arrays.asList(SyntheticCorpus.Kind.values());
+        String tests = "tests";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = Arrays.stream(args[i + 1].split(",")).mapToLong(Long::parseLong).toArray();
+                    break;
+                case "--kinds":
+                    kinds = new ArrayList<>();
+                    for (String kind : args[i + 1].split(",")) {
+                        kinds.add(SyntheticCorpus.Kind.valueOf(kind.toUpperCase()));
+                    }
+                    break;
+                case "--warmup":
+                    benchmark.warmup = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--iterations":
+                    benchmark.iterations = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--tests":
+                    tests = args[i + 1];
+                    break;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+        
+        Map<String, Subject> subjects = new LinkedHashMap<>();
+        subjects.put("ManualScanner", source -> new ManualScanner(source).scan().size());
+        Subject jflex = jflexSubject();
+        if (jflex != null) {
+            subjects.put("Yylex", jflex);
+        } else {
+            System.out.println("Yylex not on the classpath (run jflex on src/Scanner.flex); JFlex scanner skipped");
+        }
+        
+        System.out.println(String.format("%-14s %-24s %10s %10s %12s %9s %12s %10s",
+                                       "Scanner", "Input", "Size(KB)", "Time(ms)", "Tokens/s", "MB/s",
+                                       "Alloc/op(MB)", "Alloc MB/s"));
+        System.out.println("-".repeat(108));
+        
+        for (int i = 1; i <= 5; i++) {
+            Path file = Paths.get(tests, "test" + i + ".lang");
+            if (Files.exists(file)) {
+                String source = ManualScanner.readSource(file.toString());
+                for (Map.Entry<String, Subject> subject : subjects.entrySet()) {
+                    benchmark.run(subject.getKey(), file.getFileName().toString(), source, subject.getValue());
+                }
+            }
+        }
+        for (long size : sizes) {
+            for (SyntheticCorpus.Kind kind : kinds) {
+                String source = SyntheticCorpus.generate(size << 20, kind);
+                for (Map.Entry<String, Subject> subject : subjects.entrySet()) {
+                    benchmark.run(subject.getKey(), kind + " " + size + "MB", source, subject.getValue());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Look up the JFlex scanner reflectively, so the benchmark builds without it
+     */
+    private static Subject jflexSubject() {
+        try {
+            Class<?> yylex = Class.forName("Yylex");
+            Constructor<?> constructor = yylex.getConstructor(Reader.class);
+            Method next = yylex.getMethod("yylex");
+            return source -> {
+                Object scanner = constructor.newInstance(new StringReader(source));
+                long tokens = 0;
+                Token token;
+                while ((token = (Token) next.invoke(scanner)) != null) {
+                    tokens++;
+                    if (token.getType() == TokenType.EOF) {
+                        break;
+                    }
+                }
+                return tokens;
+            };
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Warm up, then report the mean of the measured iterations
+     */
+    private void run(String name, String input, String source, Subject subject) throws Exception {
+        long tokens = 0;
+        for (int i = 0; i < warmup; i++) {
+            tokens = subject.scan(source);
+        }
+        
+        // Small inputs are repeated so every measurement takes at least ~50 ms
+        int repeat = (int) Math.max(1, 20_000_000L / Math.max(source.length(), 1));
+        long nanos = 0;
+        long allocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long allocStart = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int r = 0; r < repeat; r++) {
+                subject.scan(source);
+            }
+            nanos += System.nanoTime() - start;
+            allocated += THREADS.getCurrentThreadAllocatedBytes() - allocStart;
+        }
+        
+        double scans = (double) iterations * repeat;
+        double seconds = nanos / 1e9;
+        double megabytes = source.length() / (1024.0 * 1024.0);
+        System.out.println(String.format("%-14s %-24s %10.1f %10.3f %12.0f %9.2f %12.3f %10.1f",
+                                       name, input, source.length() / 1024.0, nanos / 1e6 / scans,
+                                       tokens * scans / seconds, megabytes * scans / seconds,
+                                       allocated / scans / (1024.0 * 1024.0),
+                                       allocated / (1024.0 * 1024.0) / seconds));
+    }
+}
@@ -0,0 +1,107 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * SyntheticCorpus Class
+ * Generates large SimpleLang sources for benchmarking. Every kind repeats a
+ * block of valid code that stresses one part of the scanner.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class SyntheticCorpus {
+    
+    /**
+     * Corpus kinds
+     */
+    public enum Kind {
+        MIXED(
+            "## Generated block\n" +
+            "function Compute_%d(Alpha, Beta)\n" +
+            "    declare Total_%d = Alpha * 2 + Beta ** 3 - 17\n" +
+            "    #* running totals are kept\n" +
+            "       for every iteration *#\n" +
+            "    loop Total_%d <= 100000\n" +
+            "        Total_%d += 3.14159\n" +
+            "        condition Total_%d != 42 && Beta >= -1\n" +
+            "            output \"Value: \\t\"\n" +
+            "        else\n" +
+            "            output 'x'\n" +
+            "    return Total_%d\n" +
+            "\n"),
+        IDENTIFIERS(
+            "declare Counter_%d = Offset_%d + Index_value_%d * Scale_%d\n" +
+            "Result_%d = Counter_%d - Left_margin + Right_margin_%d\n" +
+            "Accumulator = Accumulator + Counter_%d\n"),
+        COMMENTS(
+            "## Single line comment number %d explaining the next statement\n" +
+            "#* Multi-line comment %d\n" +
+            "   with several lines of prose ** and stars\n" +
+            "   that the scanner has to skip *#\n" +
+            "declare Value_%d = 1\n"),
+        STRINGS(
+            "output \"Line %d: the quick brown fox jumps over the lazy dog\\n\"\n" +
+            "output \"Tabs\\tand \\\"quotes\\\" and backslashes \\\\ in string %d\"\n" +
+            "output 'a' output '\\n' output '\\''\n"),
+        OPERATORS(
+            "X%d += (Y ** 2 - Z) * 3 / 4 % 5 ; X%d -= 1 ; X%d *= 2 ; X%d /= 3\n" +
+            "condition (A == B) && (C != D) || (E <= F) && (G >= H) && !(I < J) || K > L\n" +
+            "X%d++ ; Y-- ; { [ X%d , Y ] } ; Z = -42 + 17 - 3.5\n"),
+        DOCUMENTED(
+            "#*\n" +
+            " * Function Step_%d\n" +
+            " *\n" +
+            " *   the caller passes the current totals, which are checked against the limits before use\n".repeat(12) +
+            " *#\n" +
+            "function Step_%d(Alpha, Beta)\n" +
+            "    ## Keep the running total below the limit; the caller passes the current totals, which are checked against the limits before use\n" +
+            "                declare Total_%d = Alpha + Beta\n" +
+            "                output \"Step %d: the caller passes the current totals, which are checked against the limits before use\"\n" +
+            "    return Total_%d\n" +
+            "\n");
+        
+        private final String block;
+        
+        Kind(String block) {
+            this.block = block;
+        }
+    }
+    
+    /**
+     * Generate a program of roughly the requested size in memory
+     * @param chars Target number of characters
+     * @param kind Corpus kind
+     * @return Source code
+     */
+    public static String generate(long chars, Kind kind) {
+        StringBuilder out = new StringBuilder((int) Math.min(chars + 1024, Integer.MAX_VALUE - 16));
+        out.append("start\n");
+        for (int i = 0; out.length() < chars; i++) {
+            out.append(kind.block.replace("%d", Integer.toString(i % 1000)));
+        }
+        out.append("finish\n");
+        return out.toString();
+    }
+    
+    /**
+     * Write a program of roughly the requested size
+     * @param path Output file
+     * @param bytes Target size in bytes
+     * @param kind Corpus kind
+     * @return The path written
+     * @throws IOException if the file cannot be written
+     */
+    public static Path write(Path path, long bytes, Kind kind) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(path), StandardCharsets.US_ASCII), 1 << 16)) {
+            out.write("start\n");
+            long written = 6;
+            for (int i = 0; written < bytes; i++) {
+                String block = kind.block.replace("%d", Integer.toString(i % 1000));
+                out.write(block);
+                written += block.length();
+            }
+            out.write("finish\n");
+        }
+        return path;
+    }
+}
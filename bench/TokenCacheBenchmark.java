@@ -0,0 +1,108 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * TokenCacheBenchmark
+ * Writes a corpus of synthetic .lang files and times scanning every file,
+ * a cold run through an empty TokenCache (scan and store) and a warm run
+ * (hash and load). The warm run is also split into hashing alone, so its
+ * cost can be compared with the scan it replaces.
+ * Usage: java -cp src:bench TokenCacheBenchmark [files] [KB-per-file] [rounds]
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class TokenCacheBenchmark {
+    
+    public static void main(String[] args) throws IOException {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int kilobytes = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        
+        Path root = Files.createTempDirectory("token-cache-bench");
+        Path corpus = Files.createDirectory(root.resolve("corpus"));
+        Path cacheDirectory = root.resolve("cache");
+        try {
+            SyntheticCorpus.Kind[] kinds = SyntheticCorpus.Kind.values();
+            List<Path> files = new ArrayList<>();
+            for (int i = 0; i < fileCount; i++) {
+                // Vary the seed of the content so no two files are identical
+                String source = "## file " + i + "\n"
+                                + SyntheticCorpus.generate((long) kilobytes << 10, kinds[i % kinds.length]);
+                Path file = corpus.resolve("file" + i + ".lang");
+                Files.writeString(file, source);
+                files.add(file);
+            }
+            long bytes = (long) fileCount * kilobytes << 10;
+            System.out.printf("%d files, %d KB each (%.1f MB)%n%n", fileCount, kilobytes, bytes / 1048576.0);
+            
+            long scan = Long.MAX_VALUE;
+            long cold = Long.MAX_VALUE;
+            long warm = Long.MAX_VALUE;
+            long hash = Long.MAX_VALUE;
+            long check = 0;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                for (Path file : files) {
+                    ManualScanner scanner = new ManualScanner(ManualScanner.readSource(file.toString()));
+                    scanner.scan();
+                    check += scanner.getTotalTokens();
+                }
+                scan = Math.min(scan, System.nanoTime() - start);
+                
+                deleteTree(cacheDirectory);
+                TokenCache cache = new TokenCache(cacheDirectory, Long.MAX_VALUE);
+                start = System.nanoTime();
+                for (Path file : files) {
+                    long key = TokenCache.key(file);
+                    ManualScanner scanner = new ManualScanner(ManualScanner.readSource(file.toString()));
+                    scanner.scan();
+                    cache.put(key, scanner);
+                }
+                cold = Math.min(cold, System.nanoTime() - start);
+                
+                cache = new TokenCache(cacheDirectory, Long.MAX_VALUE);
+                start = System.nanoTime();
+                for (Path file : files) {
+                    TokenCache.Entry entry = cache.get(TokenCache.key(file));
+                    check += entry.getTotalTokens();
+                }
+                warm = Math.min(warm, System.nanoTime() - start);
+                if (cache.getHits() != fileCount) {
+                    throw new IllegalStateException("Warm run missed " + cache.getMisses() + " files");
+                }
+                
+                start = System.nanoTime();
+                for (Path file : files) {
+                    check += TokenCache.key(file);
+                }
+                hash = Math.min(hash, System.nanoTime() - start);
+            }
+            
+            System.out.printf("%-22s %10s %10s%n", "Run", "Time(ms)", "MB/s");
+            System.out.println("-".repeat(44));
+            print("Scan (no cache)", scan, bytes);
+            print("Cold (scan + store)", cold, bytes);
+            print("Warm (hash + load)", warm, bytes);
+            print("  of which hashing", hash, bytes);
+            System.out.printf("%nWarm speedup over scan: %.1fx (checksum %d)%n", (double) scan / warm, check);
+        } finally {
+            deleteTree(root);
+        }
+    }
+    
+    private static void print(String name, long nanos, long bytes) {
+        System.out.printf("%-22s %10.1f %10.1f%n", name, nanos / 1e6, bytes / 1048576.0 / (nanos / 1e9));
+    }
+    
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
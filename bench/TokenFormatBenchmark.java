@@ -0,0 +1,116 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * TokenFormatBenchmark
+ * Scans a synthetic corpus of each kind and compares writing its tokens as
+ * text (the TOKENS listing printed by ManualScanner) with writing them in
+ * the binary token format, by size and write time. It also times reading
+ * the binary stream back, both walking it and materializing Token objects,
+ * and checks that the round trip reproduces the scanner's tokens.
+ * Usage: java -cp src:bench TokenFormatBenchmark [MB] [rounds]
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class TokenFormatBenchmark {
+    
+    /**
+     * Output stream that only counts bytes
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+        
+        @Override
+        public void write(int b) {
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        
+        System.out.printf("%-11s %9s %10s %10s %7s %10s %10s %10s %10s%n", "Corpus", "Tokens", "Text(KB)",
+                          "Binary(KB)", "Ratio", "Text(ms)", "Write(ms)", "Walk(ms)", "Read(ms)");
+        System.out.println("-".repeat(97));
+        long check = 0;
+        for (SyntheticCorpus.Kind kind : SyntheticCorpus.Kind.values()) {
+            String source = SyntheticCorpus.generate((long) megabytes << 20, kind);
+            ManualScanner scanner = new ManualScanner(source);
+            scanner.scan();
+            TokenBuffer tokens = scanner.getTokenBuffer();
+            List<Token> expected = scanner.getTokens();
+            
+            ByteArrayOutputStream binary = new ByteArrayOutputStream();
+            try (TokenWriter writer = new TokenWriter(binary)) {
+                writer.writeAll(tokens);
+            }
+            ByteBuffer data = ByteBuffer.wrap(binary.toByteArray());
+            checkRoundTrip(expected, new TokenReader(data).readAll(), kind);
+            
+            long textSize = 0;
+            long binarySize = 0;
+            long text = Long.MAX_VALUE;
+            long write = Long.MAX_VALUE;
+            long walk = Long.MAX_VALUE;
+            long read = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                CountingOutputStream sink = new CountingOutputStream();
+                long start = System.nanoTime();
+                PrintStream out = new PrintStream(new BufferedOutputStream(sink, 1 << 16), false);
+                for (int i = 0; i < tokens.size(); i++) {
+                    out.println(tokens.get(i));
+                }
+                out.flush();
+                text = Math.min(text, System.nanoTime() - start);
+                textSize = sink.count;
+                
+                sink = new CountingOutputStream();
+                start = System.nanoTime();
+                try (TokenWriter writer = new TokenWriter(sink)) {
+                    writer.writeAll(tokens);
+                }
+                write = Math.min(write, System.nanoTime() - start);
+                binarySize = sink.count;
+                
+                start = System.nanoTime();
+                TokenReader reader = new TokenReader(data);
+                while (reader.next()) {
+                    check += reader.start() + reader.length();
+                }
+                walk = Math.min(walk, System.nanoTime() - start);
+                
+                start = System.nanoTime();
+                reader = new TokenReader(data);
+                while (reader.next()) {
+                    check += reader.token().getLexeme().length();
+                }
+                read = Math.min(read, System.nanoTime() - start);
+            }
+            
+            System.out.printf("%-11s %9d %10d %10d %6.1f%% %10.1f %10.1f %10.1f %10.1f%n", kind.name().toLowerCase(),
+                              tokens.size(), textSize >> 10, binarySize >> 10, 100.0 * binarySize / textSize,
+                              text / 1e6, write / 1e6, walk / 1e6, read / 1e6);
+        }
+        System.out.printf("%nRound trip reproduces the scanner's tokens for every corpus (checksum %d)%n", check);
+    }
+    
+    private static void checkRoundTrip(List<Token> expected, List<Token> actual, SyntheticCorpus.Kind kind) {
+        if (expected.size() != actual.size()) {
+            throw new IllegalStateException(kind + ": " + actual.size() + " tokens read, " + expected.size() + " written");
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            Token a = expected.get(i);
+            Token b = actual.get(i);
+            if (a.getType() != b.getType() || !a.getLexeme().equals(b.getLexeme()) || a.getStart() != b.getStart()
+                || a.getLine() != b.getLine() || a.getColumn() != b.getColumn()) {
+                throw new IllegalStateException(kind + ": token " + i + " read as " + b + ", written as " + a);
+            }
+        }
+    }
+}
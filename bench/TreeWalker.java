@@ -0,0 +1,444 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * TreeWalker
+ * Reference interpreter that evaluates the SyntaxTree directly, the way a
+ * straightforward interpreter would: boxed values, a HashMap per call frame
+ * and exceptions for return, break and continue. It has the same semantics
+ * as the bytecode VM and is the baseline for InterpreterBenchmark.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class TreeWalker {
+    
+    private static final class Return extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final Object value;
+        
+        Return(Object value) {
+            super(null, null, false, false);
+            this.value = value;
+        }
+    }
+    
+    private static final class Break extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        Break() {
+            super(null, null, false, false);
+        }
+    }
+    
+    private static final class Continue extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        Continue() {
+            super(null, null, false, false);
+        }
+    }
+    
+    private final SyntaxTree tree;
+    private final PrintStream out;
+    private final BufferedReader in;
+    private final Map<String, Integer> functions;
+    private final Map<String, Object> globals;
+    private Map<String, Object> locals;     // Frame of the running function (globals in main)
+    
+    public TreeWalker(SyntaxTree tree, PrintStream out, Reader in) {
+        this.tree = tree;
+        this.out = out;
+        this.in = new BufferedReader(in);
+        this.functions = new HashMap<>();
+        this.globals = new HashMap<>();
+        this.locals = globals;
+    }
+    
+    public void run() {
+        collectFunctions(tree.getRoot());
+        block(tree.getRoot());
+    }
+    
+    private void collectFunctions(int node) {
+        for (int child = tree.getFirstChild(node); child != SyntaxTree.NONE; child = tree.getNextSibling(child)) {
+            if (tree.getKind(child) == NodeKind.FUNCTION) {
+                functions.putIfAbsent(tree.getLexeme(tree.getFirstChild(child)), child);
+            }
+            collectFunctions(child);
+        }
+    }
+    
+    // ==================== Statements ====================
+    
+    private void block(int node) {
+        for (int child = tree.getFirstChild(node); child != SyntaxTree.NONE; child = tree.getNextSibling(child)) {
+            statement(child);
+        }
+    }
+    
+    private void statement(int node) {
+        int first = tree.getFirstChild(node);
+        switch (tree.getKind(node)) {
+            case DECLARE:
+                locals.put(tree.getLexeme(first), evaluate(tree.getNextSibling(first)));
+                break;
+            case DECLARE_ARRAY: {
+                Object size = evaluate(tree.getNextSibling(first));
+                if (!(size instanceof Long) || (Long) size < 0 || (Long) size > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Invalid array size " + display(size));
+                }
+                Object[] array = new Object[(int) (long) (Long) size];
+                Arrays.fill(array, 0L);
+                locals.put(tree.getLexeme(first), array);
+                break;
+            }
+            case ASSIGN: {
+                Object value = evaluate(tree.getNextSibling(first));
+                TokenType operator = tree.getTokenType(node);
+                if (operator != TokenType.OP_ASSIGN) {
+                    value = arithmetic(assignOperator(operator), evaluate(first), value);
+                }
+                store(first, value);
+                break;
+            }
+            case INCREMENT: {
+                Object value = evaluate(first);
+                store(first, arithmetic(TokenType.OP_INCREMENT == tree.getTokenType(node)
+                                        ? TokenType.OP_PLUS : TokenType.OP_MINUS, value, 1L));
+                break;
+            }
+            case OUTPUT:
+                out.println(display(evaluate(first)));
+                break;
+            case INPUT:
+                store(first, input());
+                break;
+            case CONDITION: {
+                int then = tree.getNextSibling(first);
+                if (truth(evaluate(first))) {
+                    block(then);
+                } else if (tree.getNextSibling(then) != SyntaxTree.NONE) {
+                    block(tree.getNextSibling(then));
+                }
+                break;
+            }
+            case LOOP:
+                while (truth(evaluate(first))) {
+                    try {
+                        block(tree.getNextSibling(first));
+                    } catch (Break e) {
+                        break;
+                    } catch (Continue e) {
+                        // Next iteration
+                    }
+                }
+                break;
+            case RETURN:
+                throw new Return(evaluate(first));
+            case BREAK:
+                throw new Break();
+            case CONTINUE:
+                throw new Continue();
+            case CALL:
+                evaluate(node);
+                break;
+            case BLOCK:
+                block(node);
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private static TokenType assignOperator(TokenType operator) {
+        switch (operator) {
+            case OP_PLUS_ASSIGN:
+                return TokenType.OP_PLUS;
+            case OP_MINUS_ASSIGN:
+                return TokenType.OP_MINUS;
+            case OP_MULTIPLY_ASSIGN:
+                return TokenType.OP_MULTIPLY;
+            default:
+                return TokenType.OP_DIVIDE;
+        }
+    }
+    
+    private void store(int target, Object value) {
+        if (tree.getKind(target) == NodeKind.INDEX) {
+            Object[] array = array(lookup(tree.getLexeme(target)));
+            array[index(array, evaluate(tree.getFirstChild(target)))] = value;
+        } else if (locals.containsKey(tree.getLexeme(target)) || locals == globals) {
+            locals.put(tree.getLexeme(target), value);
+        } else {
+            globals.put(tree.getLexeme(target), value);
+        }
+    }
+    
+    private Object lookup(String name) {
+        return locals.containsKey(name) ? locals.get(name) : globals.get(name);
+    }
+    
+    private Object input() {
+        String text;
+        try {
+            text = in.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (text == null) {
+            throw new IllegalStateException("No more input");
+        }
+        text = text.trim();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            // Not an integer
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return text;
+        }
+    }
+    
+    // ==================== Expressions ====================
+    
+    private Object evaluate(int node) {
+        int first = tree.getFirstChild(node);
+        switch (tree.getKind(node)) {
+            case INTEGER:
+                return Long.parseLong(tree.getLexeme(node));
+            case FLOAT:
+                return Double.parseDouble(tree.getLexeme(node));
+            case STRING: {
+                String lexeme = tree.getLexeme(node);
+                return unescape(lexeme.substring(1, lexeme.length() - 1));
+            }
+            case CHAR: {
+                String lexeme = tree.getLexeme(node);
+                return unescape(lexeme.substring(1, lexeme.length() - 1)).charAt(0);
+            }
+            case BOOLEAN:
+                return tree.getLexeme(node).equals("true");
+            case NAME:
+                return lookup(tree.getLexeme(node));
+            case INDEX: {
+                Object[] array = array(lookup(tree.getLexeme(node)));
+                return array[index(array, evaluate(first))];
+            }
+            case UNARY: {
+                Object value = evaluate(first);
+                switch (tree.getTokenType(node)) {
+                    case OP_NOT:
+                        return !truth(value);
+                    case OP_MINUS:
+                        return value instanceof Double ? (Object) (-(Double) value) : (Object) (-integer(value));
+                    default:
+                        return value instanceof Double ? value : (Object) integer(value);
+                }
+            }
+            case BINARY: {
+                TokenType operator = tree.getTokenType(node);
+                if (operator == TokenType.OP_AND) {
+                    return truth(evaluate(first)) && truth(evaluate(tree.getNextSibling(first)));
+                }
+                if (operator == TokenType.OP_OR) {
+                    return truth(evaluate(first)) || truth(evaluate(tree.getNextSibling(first)));
+                }
+                Object left = evaluate(first);
+                Object right = evaluate(tree.getNextSibling(first));
+                switch (operator) {
+                    case OP_EQUAL:
+                    case OP_NOT_EQUAL:
+                    case OP_LESS:
+                    case OP_LESS_EQUAL:
+                    case OP_GREATER:
+                    case OP_GREATER_EQUAL:
+                        return compare(operator, left, right);
+                    default:
+                        return arithmetic(operator, left, right);
+                }
+            }
+            case CALL:
+                return call(node);
+            default:
+                throw new IllegalStateException("Unexpected " + tree.getKind(node));
+        }
+    }
+    
+    private Object call(int node) {
+        int callee = functions.get(tree.getLexeme(node));
+        Map<String, Object> frame = new HashMap<>();
+        int parameter = tree.getFirstChild(tree.getChild(callee, 1));
+        for (int argument = tree.getFirstChild(node); argument != SyntaxTree.NONE;
+             argument = tree.getNextSibling(argument)) {
+            frame.put(tree.getLexeme(parameter), evaluate(argument));
+            parameter = tree.getNextSibling(parameter);
+        }
+        Map<String, Object> caller = locals;
+        locals = frame;
+        try {
+            block(tree.getChild(callee, 2));
+            return null;
+        } catch (Return e) {
+            return e.value;
+        } finally {
+            locals = caller;
+        }
+    }
+    
+    private static String unescape(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                c = text.charAt(++i);
+                c = c == 'n' ? '\n' : c == 't' ? '\t' : c == 'r' ? '\r' : c;
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+    
+    // ==================== Values ====================
+    
+    private static boolean isNumber(Object value) {
+        return value instanceof Long || value instanceof Double || value instanceof Character;
+    }
+    
+    private static long integer(Object value) {
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+        throw new IllegalStateException("Invalid operand " + display(value));
+    }
+    
+    private static double number(Object value) {
+        return value instanceof Double ? (Double) value : integer(value);
+    }
+    
+    private static Object arithmetic(TokenType operator, Object left, Object right) {
+        if (operator == TokenType.OP_PLUS && (left instanceof String || right instanceof String)) {
+            return display(left) + display(right);
+        }
+        if (!isNumber(left) || !isNumber(right)) {
+            throw new IllegalStateException("Invalid operands " + display(left) + " and " + display(right));
+        }
+        if (!(left instanceof Double) && !(right instanceof Double)) {
+            long x = integer(left);
+            long y = integer(right);
+            switch (operator) {
+                case OP_PLUS:
+                    return x + y;
+                case OP_MINUS:
+                    return x - y;
+                case OP_MULTIPLY:
+                    return x * y;
+                case OP_DIVIDE:
+                case OP_MODULO:
+                    if (y == 0) {
+                        throw new IllegalStateException("Division by zero");
+                    }
+                    return operator == TokenType.OP_DIVIDE ? x / y : x % y;
+                default:
+                    return y < 0 ? (Object) Math.pow(x, y) : (Object) VM.power(x, y);
+            }
+        }
+        double x = number(left);
+        double y = number(right);
+        switch (operator) {
+            case OP_PLUS:
+                return x + y;
+            case OP_MINUS:
+                return x - y;
+            case OP_MULTIPLY:
+                return x * y;
+            case OP_DIVIDE:
+                return x / y;
+            case OP_MODULO:
+                return x % y;
+            default:
+                return Math.pow(x, y);
+        }
+    }
+    
+    private static boolean compare(TokenType operator, Object left, Object right) {
+        int order;
+        if (isNumber(left) && isNumber(right)) {
+            if (!(left instanceof Double) && !(right instanceof Double)) {
+                order = Long.compare(integer(left), integer(right));
+            } else {
+                double x = number(left);
+                double y = number(right);
+                if (Double.isNaN(x) || Double.isNaN(y)) {
+                    return operator == TokenType.OP_NOT_EQUAL;
+                }
+                order = Double.compare(x == 0.0 ? 0.0 : x, y == 0.0 ? 0.0 : y);
+            }
+        } else if (left instanceof String && right instanceof String) {
+            order = ((String) left).compareTo((String) right);
+        } else if (operator == TokenType.OP_EQUAL || operator == TokenType.OP_NOT_EQUAL) {
+            boolean equal = left instanceof Object[] ? left == right : Objects.equals(left, right);
+            return equal == (operator == TokenType.OP_EQUAL);
+        } else {
+            throw new IllegalStateException("Cannot order " + display(left) + " and " + display(right));
+        }
+        switch (operator) {
+            case OP_EQUAL:
+                return order == 0;
+            case OP_NOT_EQUAL:
+                return order != 0;
+            case OP_LESS:
+                return order < 0;
+            case OP_LESS_EQUAL:
+                return order <= 0;
+            case OP_GREATER:
+                return order > 0;
+            default:
+                return order >= 0;
+        }
+    }
+    
+    private static boolean truth(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Double) {
+            return (Double) value != 0.0;
+        }
+        if (value instanceof String) {
+            return !((String) value).isEmpty();
+        }
+        if (value instanceof Object[]) {
+            return true;
+        }
+        return value != null && integer(value) != 0;
+    }
+    
+    private static Object[] array(Object value) {
+        if (!(value instanceof Object[])) {
+            throw new IllegalStateException("Not an array: " + display(value));
+        }
+        return (Object[]) value;
+    }
+    
+    private static int index(Object[] array, Object value) {
+        long i = integer(value);
+        if (i < 0 || i >= array.length) {
+            throw new IllegalStateException("Array index " + i + " out of bounds for length " + array.length);
+        }
+        return (int) i;
+    }
+    
+    private static String display(Object value) {
+        if (value == null) {
+            return "none";
+        }
+        if (value instanceof Object[]) {
+            return "array[" + ((Object[]) value).length + "]";
+        }
+        return value.toString();
+    }
+}
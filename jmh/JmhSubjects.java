@@ -0,0 +1,63 @@
+import java.io.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * JmhSubjects
+ * Inputs and scanners for the JMH benchmark (jmh/benchmarks). JMH needs its
+ * benchmarks in a named package, which cannot refer to the scanner classes
+ * in the default package, so the benchmark looks this class up once per
+ * trial and then only calls the returned functions.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public final class JmhSubjects {
+    
+    private JmhSubjects() {
+    }
+    
+    /**
+     * Load a benchmark input
+     * @param input A source file (e.g. tests/test1.lang), or KIND:MB for a synthetic corpus (e.g. MIXED:16)
+     * @return Source code
+     * @throws IOException if the file cannot be read
+     */
+    public static String source(String input) throws IOException {
+        int colon = input.indexOf(':');
+        if (colon < 0) {
+            return ManualScanner.readSource(input);
+        }
+        SyntheticCorpus.Kind kind = SyntheticCorpus.Kind.valueOf(input.substring(0, colon).toUpperCase());
+        return SyntheticCorpus.generate(Long.parseLong(input.substring(colon + 1)) << 20, kind);
+    }
+    
+    /**
+     * Get a scanner under test: it scans a whole source and returns the token count
+     * @param name ManualScanner or Yylex
+     */
+    public static ToLongFunction<String> scanner(String name) {
+        switch (name) {
+            case "ManualScanner":
+                return source -> new ManualScanner(source).scan().size();
+            case "Yylex":
+                return JmhSubjects::yylex;
+            default:
+                throw new IllegalArgumentException("Unknown scanner: " + name);
+        }
+    }
+    
+    private static long yylex(String source) {
+        try {
+            Yylex scanner = new Yylex(new StringReader(source));
+            long tokens = 0;
+            Token token;
+            while ((token = scanner.yylex()) != null) {
+                tokens++;
+                if (token.getType() == TokenType.EOF) {
+                    break;
+                }
+            }
+            return tokens;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
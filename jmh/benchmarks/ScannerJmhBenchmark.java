@@ -0,0 +1,77 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * ScannerJmhBenchmark
+ * JMH version of bench/ScannerBenchmark: scans tests/test1-5.lang and the
+ * synthetic corpora with ManualScanner and the JFlex Yylex scanner. Scans/s
+ * is the primary score; the tokens and bytes counters give tokens/s and
+ * bytes/s, and the GC profiler (always on) gives the allocation rate.
+ * Usage: mvn -P jmh package && java -jar target/benchmarks.jar [JMH options]
+ *        e.g. -p input=IDENTIFIERS:1024 -jvmArgsAppend -Xmx12g
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScannerJmhBenchmark {
+    
+    @Param({"ManualScanner", "Yylex"})
+    public String scanner;
+    
+    @Param({"tests/test1.lang", "tests/test2.lang", "tests/test3.lang", "tests/test4.lang", "tests/test5.lang",
+            "MIXED:1", "IDENTIFIERS:1", "COMMENTS:1", "STRINGS:1", "OPERATORS:1", "DOCUMENTED:1",
+            "MIXED:16", "IDENTIFIERS:16", "COMMENTS:16", "STRINGS:16", "OPERATORS:16", "DOCUMENTED:16"})
+    public String input;
+    
+    private String source;
+    private ToLongFunction<String> subject;
+    
+    /**
+     * Tokens and characters scanned, reported per second next to the scan rate
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long tokens;
+        public long bytes;
+    }
+    
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws ReflectiveOperationException {
+        Class<?> subjects = Class.forName("JmhSubjects");
+        source = (String) subjects.getMethod("source", String.class).invoke(null, input);
+        subject = (ToLongFunction<String>) subjects.getMethod("scanner", String.class).invoke(null, scanner);
+    }
+    
+    @Benchmark
+    public void scan(Counters counters, Blackhole blackhole) {
+        long tokens = subject.applyAsLong(source);
+        counters.tokens += tokens;
+        counters.bytes += source.length();
+        blackhole.consume(tokens);
+    }
+    
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                       .parent(new CommandLineOptions(args))
+                       .include(ScannerJmhBenchmark.class.getName())
+                       .addProfiler(GCProfiler.class)
+                       .build()).run();
+    }
+}
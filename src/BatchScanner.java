@@ -0,0 +1,349 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+import javax.management.JMException;
+
+/**
+ * BatchScanner Class
+ * Scans many source files in one JVM. Files are scanned concurrently on a
+ * work-stealing ForkJoinPool with one ManualScanner per file. Each worker merges
+ * its file's symbol table into a shared ConcurrentSymbolTable and its statistics
+ * into a shared ScannerMetrics (which can be polled over JMX while the batch
+ * runs); errors are merged into the aggregate report in file order.
+ * With a TokenCache, files whose contents have not changed since an earlier
+ * run are loaded from the cache instead of being scanned.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class BatchScanner {
+    
+    private static final String EXTENSION = ".lang";
+    
+    /**
+     * Inner class to store the result of scanning one file
+     */
+    private static class FileResult {
+        Path path;
+        long bytes;
+        long nanos;
+        int tokens;
+        int lines;
+        int comments;
+        ErrorHandler errorHandler;
+        boolean cached;         // Loaded from the token cache
+        String failure;         // Set when the file could not be read
+        
+        FileResult(Path path) {
+            this.path = path;
+        }
+    }
+    
+    private int threads;
+    private List<FileResult> results;
+    private TokenCache cache;       // null if every file is scanned
+    
+    // Aggregate results
+    private ConcurrentSymbolTable symbols;
+    private SymbolTable symbolTable;
+    private ScannerMetrics metrics;
+    private long totalBytes;
+    private long wallNanos;
+    private int totalTokens;
+    private int totalLines;
+    private int totalComments;
+    private int totalErrors;
+    
+    /**
+     * Constructor
+     * @param threads Parallelism of the scanning pool
+     */
+    public BatchScanner(int threads) {
+        this.threads = threads;
+        this.results = new ArrayList<>();
+        this.symbols = new ConcurrentSymbolTable();
+        this.symbolTable = new SymbolTable();
+        this.metrics = new ScannerMetrics();
+    }
+    
+    /**
+     * Load unchanged files from a cache and store the results of scanned files in it
+     * @param cache Token cache, or null to scan every file
+     */
+    public void setCache(TokenCache cache) {
+        this.cache = cache;
+    }
+    
+    /**
+     * Expand command line arguments into a sorted list of source files.
+     * A directory contributes all .lang files below it; an argument containing
+     * *, ?, [ or { is a glob (e.g. "tests/**.lang"); anything else is a file.
+     * @param args Files, directories or globs
+     * @return Source files without duplicates
+     * @throws IOException if a directory cannot be walked
+     */
+    public static List<Path> collectFiles(List<String> args) throws IOException {
+        Set<Path> files = new TreeSet<>();
+        for (String arg : args) {
+            int glob = indexOfGlob(arg);
+            if (glob >= 0) {
+                int slash = arg.lastIndexOf('/', glob);
+                Path base = Paths.get(slash >= 0 ? arg.substring(0, slash + 1) : "");
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + arg);
+                try (Stream<Path> walk = Files.walk(base.toString().isEmpty() ? Paths.get(".") : base)) {
+                    walk.filter(Files::isRegularFile)
+                        .map(path -> base.toString().isEmpty() ? Paths.get(".").relativize(path) : path)
+                        .filter(matcher::matches)
+                        .forEach(files::add);
+                }
+            } else if (Files.isDirectory(Paths.get(arg))) {
+                try (Stream<Path> walk = Files.walk(Paths.get(arg))) {
+                    walk.filter(path -> Files.isRegularFile(path) && path.toString().endsWith(EXTENSION))
+                        .forEach(files::add);
+                }
+            } else {
+                files.add(Paths.get(arg));
+            }
+        }
+        return new ArrayList<>(files);
+    }
+    
+    private static int indexOfGlob(String arg) {
+        for (int i = 0; i < arg.length(); i++) {
+            if ("*?[{".indexOf(arg.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Scan all files and merge the results in file order
+     * @param files Source files
+     */
+    public void scanAll(List<Path> files) {
+        List<Callable<FileResult>> tasks = new ArrayList<>();
+        for (Path file : files) {
+            int index = results.size() + tasks.size();
+            tasks.add(() -> scanFile(file, index));
+        }
+        
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            for (Future<FileResult> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch scan interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch scan failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        symbolTable = symbols.toSymbolTable();
+        wallNanos += System.nanoTime() - start;
+        
+        for (FileResult result : results.subList(results.size() - files.size(), results.size())) {
+            if (result.failure != null) {
+                continue;
+            }
+            totalBytes += result.bytes;
+            totalTokens += result.tokens;
+            totalLines += result.lines;
+            totalComments += result.comments;
+            totalErrors += result.errorHandler.getErrorCount();
+        }
+    }
+    
+    /**
+     * Scan one file with its own scanner (only the summary is kept)
+     */
+    private FileResult scanFile(Path path, int index) {
+        FileResult result = new FileResult(path);
+        try {
+            long start = System.nanoTime();
+            long key = 0;
+            if (cache != null) {
+                key = TokenCache.key(path);
+                TokenCache.Entry entry = cache.get(key);
+                if (entry != null) {
+                    result.nanos = System.nanoTime() - start;
+                    result.bytes = Files.size(path);
+                    result.tokens = entry.getTotalTokens();
+                    result.lines = entry.getLinesProcessed();
+                    result.comments = entry.getCommentsRemoved();
+                    result.cached = true;
+                    symbols.merge(entry.getSymbolTable(), index);
+                    metrics.add(entry, result.bytes, result.nanos);
+                    result.errorHandler = entry.getErrorHandler();
+                    return result;
+                }
+            }
+            ManualScanner scanner = new ManualScanner(ManualScanner.readSource(path.toString()));
+            scanner.scan();
+            result.nanos = System.nanoTime() - start;
+            result.bytes = Files.size(path);
+            if (cache != null) {
+                try {
+                    cache.put(key, scanner);
+                } catch (IOException e) {
+                    // The cache is only an optimization; the file is scanned again next time
+                }
+            }
+            result.tokens = scanner.getTotalTokens();
+            result.lines = scanner.getLinesProcessed();
+            result.comments = scanner.getCommentsRemoved();
+            symbols.merge(scanner.getSymbolTable(), index);
+            metrics.add(scanner, result.bytes);
+            result.errorHandler = scanner.getErrorHandler();
+        } catch (IOException e) {
+            result.failure = e.getMessage();
+        }
+        return result;
+    }
+    
+    /**
+     * Print per-file results
+     */
+    public void printFiles() {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("BATCH SCAN: " + results.size() + " files, " + threads + " threads");
+        System.out.println("=".repeat(80));
+        System.out.println(String.format("%-40s %8s %6s %6s %8s %7s",
+                                       "File", "Tokens", "Lines", "Errors", "Time(ms)", "MB/s"));
+        System.out.println("-".repeat(80));
+        
+        for (FileResult result : results) {
+            if (result.failure != null) {
+                System.out.println(String.format("%-40s %s", result.path, "Error reading file: " + result.failure));
+            } else {
+                System.out.println(String.format("%-40s %8d %6d %6d %8.2f %7.2f", result.path,
+                                               result.tokens, result.lines, result.errorHandler.getErrorCount(),
+                                               result.nanos / 1e6, megabytesPerSecond(result.bytes, result.nanos)));
+            }
+        }
+        
+        System.out.println("-".repeat(80));
+        System.out.println(String.format("Total: %d tokens, %d bytes in %.2f ms (%.2f MB/s, %.0f tokens/s)",
+                                       totalTokens, totalBytes, wallNanos / 1e6,
+                                       megabytesPerSecond(totalBytes, wallNanos),
+                                       totalTokens / (Math.max(wallNanos, 1) / 1e9)));
+        if (cache != null) {
+            System.out.println(String.format("Cache: %d hits, %d misses (%d invalid entries), %d evictions, "
+                                           + "%d entries, %d bytes",
+                                           cache.getHits(), cache.getMisses(), cache.getInvalidEntries(),
+                                           cache.getEvictions(), cache.getEntryCount(), cache.getSize()));
+        }
+        System.out.println("=".repeat(80));
+    }
+    
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return bytes / (1024.0 * 1024.0) / (Math.max(nanos, 1) / 1e9);
+    }
+    
+    /**
+     * Print aggregate statistics
+     */
+    public void printStatistics() {
+        ReportWriter report = ReportWriter.text();
+        report.beginStatistics("AGGREGATE STATISTICS");
+        report.statistic("Total Tokens", totalTokens);
+        report.statistic("Lines Processed", totalLines);
+        report.statistic("Comments Removed", totalComments);
+        report.statistic("Lexical Errors", totalErrors);
+        // Sorted by count (descending)
+        report.tokenCounts(metrics.snapshot());
+        report.endStatistics();
+        report.flush();
+    }
+    
+    /**
+     * Print the errors of every file that has any
+     */
+    public void printErrors() {
+        for (FileResult result : results) {
+            if (result.failure == null && result.errorHandler.hasErrors()) {
+                System.out.println("\nFile: " + result.path);
+                result.errorHandler.printErrors();
+            }
+        }
+    }
+    
+    /**
+     * Get aggregate symbol table (first occurrence is in the first file using the identifier)
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+    
+    /**
+     * Get running statistics of the scanned files (updated as each file finishes)
+     */
+    public ScannerMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Get total number of tokens
+     */
+    public int getTotalTokens() {
+        return totalTokens;
+    }
+    
+    /**
+     * Get total number of lexical errors
+     */
+    public int getErrorCount() {
+        return totalErrors;
+    }
+    
+    /**
+     * Main method
+     * Usage: java BatchScanner [--threads N] [--cache DIR [--cache-size MB]] <file | directory | glob>...
+     */
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String cacheDirectory = null;
+        long cacheBytes = TokenCache.DEFAULT_MAX_BYTES;
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheDirectory = args[++i];
+            } else if (args[i].equals("--cache-size") && i + 1 < args.length) {
+                cacheBytes = Long.parseLong(args[++i]) << 20;
+            } else {
+                inputs.add(args[i]);
+            }
+        }
+        if (inputs.isEmpty() || threads < 1 || cacheBytes < 0) {
+            System.out.println("Usage: java BatchScanner [--threads N] [--cache DIR [--cache-size MB]] "
+                               + "<file | directory | glob>...");
+            return;
+        }
+        
+        try {
+            List<Path> files = collectFiles(inputs);
+            BatchScanner batch = new BatchScanner(threads);
+            if (cacheDirectory != null) {
+                batch.setCache(new TokenCache(Paths.get(cacheDirectory), cacheBytes));
+            }
+            batch.getMetrics().register("BatchScanner");
+            batch.scanAll(files);
+            
+            // Print results
+            batch.printFiles();
+            batch.getSymbolTable().printSymbolTable();
+            batch.printStatistics();
+            batch.printErrors();
+            
+        } catch (IOException e) {
+            System.err.println("Error reading input: " + e.getMessage());
+        } catch (JMException e) {
+            System.err.println("Error registering metrics: " + e.getMessage());
+        }
+    }
+}
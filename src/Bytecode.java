@@ -0,0 +1,165 @@
+/**
+ * Bytecode Class
+ * Compiled SimpleLang program for the register VM: one int[] code array with
+ * the instructions of every function (main first), constant pools, and the
+ * entry point, parameter count and register count of each function.
+ * An instruction is an opcode followed by its operands; register operands are
+ * relative to the current frame.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class Bytecode {
+    
+    // Opcodes (operands in comments: d = destination register, a/b/s = source registers)
+    public static final int HALT = 0;
+    public static final int LOAD_INT = 1;       // d, integer constant index
+    public static final int LOAD_FLOAT = 2;     // d, float constant index
+    public static final int LOAD_STRING = 3;    // d, string constant index
+    public static final int LOAD_CHAR = 4;      // d, character
+    public static final int LOAD_BOOL = 5;      // d, 0 or 1
+    public static final int MOVE = 6;           // d, s
+    public static final int GET_GLOBAL = 7;     // d, global register
+    public static final int SET_GLOBAL = 8;     // global register, s
+    public static final int ADD = 9;            // d, a, b
+    public static final int SUB = 10;
+    public static final int MUL = 11;
+    public static final int DIV = 12;
+    public static final int MOD = 13;
+    public static final int POW = 14;
+    public static final int EQ = 15;            // d, a, b
+    public static final int NE = 16;
+    public static final int LT = 17;
+    public static final int LE = 18;
+    public static final int GT = 19;
+    public static final int GE = 20;
+    public static final int NOT = 21;           // d, a
+    public static final int NEG = 22;
+    public static final int POS = 23;
+    public static final int INC = 24;           // r
+    public static final int DEC = 25;           // r
+    public static final int ADDI = 26;          // r, immediate
+    public static final int JUMP = 27;          // target
+    public static final int JUMP_IF_FALSE = 28; // a, target
+    public static final int JUMP_IF_NOT_EQ = 29; // a, b, target
+    public static final int JUMP_IF_NOT_NE = 30;
+    public static final int JUMP_IF_NOT_LT = 31;
+    public static final int JUMP_IF_NOT_LE = 32;
+    public static final int JUMP_IF_NOT_GT = 33;
+    public static final int JUMP_IF_NOT_GE = 34;
+    public static final int NEW_ARRAY = 35;     // d, size
+    public static final int GET_INDEX = 36;     // d, array, index
+    public static final int SET_INDEX = 37;     // array, index, s
+    public static final int CALL = 38;          // d, function, first argument, argument count
+    public static final int RETURN = 39;        // s
+    public static final int RETURN_NONE = 40;
+    public static final int OUTPUT = 41;        // s
+    public static final int INPUT = 42;         // d
+    
+    private static final String[] NAMES = {
+        "HALT", "LOAD_INT", "LOAD_FLOAT", "LOAD_STRING", "LOAD_CHAR", "LOAD_BOOL", "MOVE",
+        "GET_GLOBAL", "SET_GLOBAL", "ADD", "SUB", "MUL", "DIV", "MOD", "POW",
+        "EQ", "NE", "LT", "LE", "GT", "GE", "NOT", "NEG", "POS", "INC", "DEC", "ADDI",
+        "JUMP", "JUMP_IF_FALSE", "JUMP_IF_NOT_EQ", "JUMP_IF_NOT_NE", "JUMP_IF_NOT_LT",
+        "JUMP_IF_NOT_LE", "JUMP_IF_NOT_GT", "JUMP_IF_NOT_GE",
+        "NEW_ARRAY", "GET_INDEX", "SET_INDEX", "CALL", "RETURN", "RETURN_NONE", "OUTPUT", "INPUT"
+    };
+    
+    // Number of operands by opcode
+    private static final int[] OPERANDS = {
+        0, 2, 2, 2, 2, 2, 2,
+        2, 2, 3, 3, 3, 3, 3, 3,
+        3, 3, 3, 3, 3, 3, 2, 2, 2, 1, 1, 2,
+        1, 2, 3, 3, 3,
+        3, 3, 3,
+        2, 3, 3, 4, 1, 0, 1, 1
+    };
+    
+    final int[] code;
+    final int[] lines;              // Source line of each code word
+    final long[] integers;
+    final double[] floats;
+    final String[] strings;
+    
+    // Functions (0 is the main program)
+    final String[] functionNames;
+    final int[] entries;
+    final int[] parameterCounts;
+    final int[] registerCounts;
+    
+    Bytecode(int[] code, int[] lines, long[] integers, double[] floats, String[] strings,
+             String[] functionNames, int[] entries, int[] parameterCounts, int[] registerCounts) {
+        this.code = code;
+        this.lines = lines;
+        this.integers = integers;
+        this.floats = floats;
+        this.strings = strings;
+        this.functionNames = functionNames;
+        this.entries = entries;
+        this.parameterCounts = parameterCounts;
+        this.registerCounts = registerCounts;
+    }
+    
+    /**
+     * Get the number of code words
+     */
+    public int size() {
+        return code.length;
+    }
+    
+    /**
+     * Get the number of functions, including the main program
+     */
+    public int getFunctionCount() {
+        return functionNames.length;
+    }
+    
+    /**
+     * Get the length in code words of an instruction
+     * @param opcode Opcode
+     */
+    public static int instructionLength(int opcode) {
+        return 1 + OPERANDS[opcode];
+    }
+    
+    /**
+     * Print the program one instruction per line, grouped by function
+     */
+    public void disassemble() {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("BYTECODE (" + code.length + " words)");
+        System.out.println("=".repeat(80));
+        
+        StringBuilder line = new StringBuilder();
+        for (int f = 0; f < functionNames.length; f++) {
+            int end = f + 1 < entries.length ? entries[f + 1] : code.length;
+            System.out.println(functionNames[f] + " (parameters: " + parameterCounts[f]
+                               + ", registers: " + registerCounts[f] + ")");
+            for (int pc = entries[f]; pc < end; pc += instructionLength(code[pc])) {
+                int opcode = code[pc];
+                line.setLength(0);
+                line.append(String.format("  %5d  %-16s", pc, NAMES[opcode]));
+                for (int i = 1; i <= OPERANDS[opcode]; i++) {
+                    line.append(i == 1 ? " " : ", ").append(code[pc + i]);
+                }
+                switch (opcode) {
+                    case LOAD_INT:
+                        line.append("    ; ").append(integers[code[pc + 2]]);
+                        break;
+                    case LOAD_FLOAT:
+                        line.append("    ; ").append(floats[code[pc + 2]]);
+                        break;
+                    case LOAD_STRING:
+                        line.append("    ; \"").append(strings[code[pc + 2]]).append('"');
+                        break;
+                    case CALL:
+                        line.append("    ; ").append(functionNames[code[pc + 2]]);
+                        break;
+                    default:
+                        break;
+                }
+                System.out.println(line);
+            }
+        }
+        
+        System.out.println("=".repeat(80));
+    }
+}
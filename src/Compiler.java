@@ -0,0 +1,827 @@
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Compiler Class
+ * Compiles the SyntaxTree of a SimpleLang program to Bytecode for the
+ * register VM. Variables live in fixed registers of their function's frame
+ * (the variables of the main program are the globals); temporaries are
+ * allocated above them in stack order. Blocks do not open scopes: a function
+ * sees its parameters, its own declarations and the globals.
+ * Functions may be called before their definition.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class Compiler {
+    
+    private static final int MAIN = 0;
+    
+    private final SyntaxTree tree;
+    
+    // Code
+    private int[] code;
+    private int[] lines;
+    private int size;
+    private int line;               // Line of the node being compiled
+    
+    // Constant pools
+    private final List<Long> integers;
+    private final List<Double> floats;
+    private final List<String> strings;
+    private final Map<Long, Integer> integerIndex;
+    private final Map<Double, Integer> floatIndex;
+    private final Map<String, Integer> stringIndex;
+    
+    // Functions (0 is the main program)
+    private final Map<String, Integer> functionIndex;
+    private final List<Integer> functionNodes;
+    private final List<String> functionNames;
+    private int[] entries;
+    private int[] parameterCounts;
+    private int[] registerCounts;
+    
+    // Current function
+    private final Map<String, Integer> globals;
+    private Map<String, Integer> locals;
+    private int function;
+    private int nextRegister;       // Registers below are variables or live temporaries
+    private int maxRegister;
+    
+    // Enclosing loops: start address and pending 'break' jumps
+    private final ArrayDeque<Integer> loopStarts;
+    private final ArrayDeque<List<Integer>> loopBreaks;
+    
+    // Compile errors
+    private final List<String> errors;
+    
+    /**
+     * Constructor
+     * @param tree Syntax tree of a program without syntax errors
+     */
+    public Compiler(SyntaxTree tree) {
+        this.tree = tree;
+        this.code = new int[256];
+        this.lines = new int[256];
+        this.integers = new ArrayList<>();
+        this.floats = new ArrayList<>();
+        this.strings = new ArrayList<>();
+        this.integerIndex = new HashMap<>();
+        this.floatIndex = new HashMap<>();
+        this.stringIndex = new HashMap<>();
+        this.functionIndex = new HashMap<>();
+        this.functionNodes = new ArrayList<>();
+        this.functionNames = new ArrayList<>();
+        this.globals = new HashMap<>();
+        this.loopStarts = new ArrayDeque<>();
+        this.loopBreaks = new ArrayDeque<>();
+        this.errors = new ArrayList<>();
+    }
+    
+    /**
+     * Compile the program
+     * @return Bytecode, or null if there were compile errors
+     */
+    public Bytecode compile() {
+        int program = tree.getRoot();
+        functionNodes.add(program);
+        functionNames.add("main");
+        collectFunctions(program);
+        int count = functionNodes.size();
+        entries = new int[count];
+        parameterCounts = new int[count];
+        registerCounts = new int[count];
+        
+        // Main program: its variables are the globals
+        collectDeclarations(program, globals);
+        beginFunction(MAIN, globals);
+        compileStatements(program);
+        emit(Bytecode.HALT);
+        endFunction();
+        
+        for (int f = 1; f < count; f++) {
+            int node = functionNodes.get(f);
+            int parameters = tree.getChild(node, 1);
+            Map<String, Integer> variables = new HashMap<>();
+            for (int p = tree.getFirstChild(parameters); p != SyntaxTree.NONE; p = tree.getNextSibling(p)) {
+                if (variables.putIfAbsent(tree.getLexeme(p), variables.size()) != null) {
+                    error(p, "Duplicate parameter");
+                }
+            }
+            parameterCounts[f] = variables.size();
+            collectDeclarations(tree.getChild(node, 2), variables);
+            beginFunction(f, variables);
+            compileStatements(tree.getChild(node, 2));
+            emit(Bytecode.RETURN_NONE);
+            endFunction();
+        }
+        
+        if (!errors.isEmpty()) {
+            return null;
+        }
+        return new Bytecode(Arrays.copyOf(code, size), Arrays.copyOf(lines, size),
+                            integers.stream().mapToLong(Long::longValue).toArray(),
+                            floats.stream().mapToDouble(Double::doubleValue).toArray(),
+                            strings.toArray(new String[0]), functionNames.toArray(new String[0]),
+                            entries, parameterCounts, registerCounts);
+    }
+    
+    // ==================== Declarations ====================
+    
+    /**
+     * Number every function definition in the tree (nested ones included)
+     */
+    private void collectFunctions(int node) {
+        for (int child = tree.getFirstChild(node); child != SyntaxTree.NONE; child = tree.getNextSibling(child)) {
+            if (tree.getKind(child) == NodeKind.FUNCTION) {
+                int name = tree.getFirstChild(child);
+                if (functionIndex.putIfAbsent(tree.getLexeme(name), functionNodes.size()) != null) {
+                    error(name, "Duplicate function");
+                } else {
+                    functionNodes.add(child);
+                    functionNames.add(tree.getLexeme(name));
+                }
+            }
+            if (canContainStatements(tree.getKind(child))) {
+                collectFunctions(child);
+            }
+        }
+    }
+    
+    /**
+     * Give a register to every variable declared in a block, outside nested functions
+     */
+    private void collectDeclarations(int node, Map<String, Integer> variables) {
+        for (int child = tree.getFirstChild(node); child != SyntaxTree.NONE; child = tree.getNextSibling(child)) {
+            switch (tree.getKind(child)) {
+                case DECLARE:
+                case DECLARE_ARRAY:
+                    variables.putIfAbsent(tree.getLexeme(tree.getFirstChild(child)), variables.size());
+                    break;
+                case FUNCTION:
+                    continue;
+                default:
+                    break;
+            }
+            if (canContainStatements(tree.getKind(child))) {
+                collectDeclarations(child, variables);
+            }
+        }
+    }
+    
+    /**
+     * Check whether nodes of a kind can have statements below them (expressions
+     * cannot, and long operator chains make them deep)
+     */
+    private static boolean canContainStatements(NodeKind kind) {
+        return kind.compareTo(NodeKind.BINARY) < 0;
+    }
+    
+    private void beginFunction(int index, Map<String, Integer> variables) {
+        function = index;
+        locals = variables;
+        entries[index] = size;
+        nextRegister = variables.size();
+        maxRegister = nextRegister;
+    }
+    
+    private void endFunction() {
+        registerCounts[function] = Math.max(maxRegister, 1);
+    }
+    
+    // ==================== Statements ====================
+    
+    /**
+     * Compile the children of a PROGRAM or BLOCK node
+     */
+    private void compileStatements(int block) {
+        for (int child = tree.getFirstChild(block); child != SyntaxTree.NONE; child = tree.getNextSibling(child)) {
+            compileStatement(child);
+        }
+    }
+    
+    private void compileStatement(int node) {
+        int mark = nextRegister;
+        line = tree.getLine(node);
+        int first = tree.getFirstChild(node);
+        switch (tree.getKind(node)) {
+            case DECLARE:
+                assign(first, TokenType.OP_ASSIGN, tree.getNextSibling(first));
+                break;
+            case DECLARE_ARRAY: {
+                int length = expression(tree.getNextSibling(first));
+                storeVariable(first, length, Bytecode.NEW_ARRAY);
+                break;
+            }
+            case ASSIGN:
+                assign(first, tree.getTokenType(node), tree.getNextSibling(first));
+                break;
+            case INCREMENT:
+                increment(first, tree.getTokenType(node) == TokenType.OP_INCREMENT ? 1 : -1);
+                break;
+            case OUTPUT:
+                emit(Bytecode.OUTPUT, expression(first));
+                break;
+            case INPUT: {
+                int temp = temp();
+                emit(Bytecode.INPUT, temp);
+                storeVariable(first, temp, Bytecode.MOVE);
+                break;
+            }
+            case CONDITION: {
+                List<Integer> toElse = new ArrayList<>();
+                jumpIfFalse(first, toElse);
+                int then = tree.getNextSibling(first);
+                compileStatements(then);
+                int otherwise = tree.getNextSibling(then);
+                if (otherwise == SyntaxTree.NONE) {
+                    patch(toElse, size);
+                } else {
+                    int toEnd = emitJump(Bytecode.JUMP);
+                    patch(toElse, size);
+                    compileStatements(otherwise);
+                    patch(toEnd, size);
+                }
+                break;
+            }
+            case LOOP: {
+                int start = size;
+                List<Integer> exits = new ArrayList<>();
+                jumpIfFalse(first, exits);
+                loopStarts.push(start);
+                loopBreaks.push(exits);
+                compileStatements(tree.getNextSibling(first));
+                loopStarts.pop();
+                loopBreaks.pop();
+                emit(Bytecode.JUMP, start);
+                patch(exits, size);
+                break;
+            }
+            case FUNCTION:
+                // Compiled separately
+                break;
+            case RETURN:
+                if (function == MAIN) {
+                    error(node, "'return' outside function");
+                } else {
+                    emit(Bytecode.RETURN, expression(first));
+                }
+                break;
+            case BREAK:
+                if (loopBreaks.isEmpty()) {
+                    error(node, "'break' outside loop");
+                } else {
+                    loopBreaks.peek().add(emitJump(Bytecode.JUMP));
+                }
+                break;
+            case CONTINUE:
+                if (loopStarts.isEmpty()) {
+                    error(node, "'continue' outside loop");
+                } else {
+                    emit(Bytecode.JUMP, loopStarts.peek());
+                }
+                break;
+            case CALL:
+                expressionInto(node, temp());
+                break;
+            case BLOCK:
+                compileStatements(node);
+                break;
+            default:
+                error(node, "Unexpected " + tree.getKind(node));
+                break;
+        }
+        nextRegister = mark;
+    }
+    
+    /**
+     * Compile target = value or target op= value
+     */
+    private void assign(int target, TokenType operator, int value) {
+        int binary = operator == TokenType.OP_ASSIGN ? -1 : assignOperator(operator);
+        if (tree.getKind(target) == NodeKind.INDEX) {
+            int array = variable(target);
+            int index = expression(tree.getFirstChild(target));
+            int result = temp();
+            if (binary < 0) {
+                expressionInto(value, result);
+            } else {
+                emit(Bytecode.GET_INDEX, result, array, index);
+                emit(binary, result, result, expression(value));
+            }
+            emit(Bytecode.SET_INDEX, array, index, result);
+            return;
+        }
+        
+        Integer local = locals.get(tree.getLexeme(target));
+        if (local != null) {
+            // Fast path: x += k with a small integer literal
+            long immediate = binary == Bytecode.ADD ? smallInteger(value) : Long.MIN_VALUE;
+            if (immediate != Long.MIN_VALUE) {
+                emit(Bytecode.ADDI, local, (int) immediate);
+            } else if (binary < 0) {
+                expressionInto(value, local);
+            } else {
+                emit(binary, local, local, expression(value));
+            }
+            return;
+        }
+        
+        int global = global(target);
+        int result = temp();
+        if (binary < 0) {
+            expressionInto(value, result);
+        } else {
+            emit(Bytecode.GET_GLOBAL, result, global);
+            emit(binary, result, result, expression(value));
+        }
+        emit(Bytecode.SET_GLOBAL, global, result);
+    }
+    
+    private static int assignOperator(TokenType operator) {
+        switch (operator) {
+            case OP_PLUS_ASSIGN:
+                return Bytecode.ADD;
+            case OP_MINUS_ASSIGN:
+                return Bytecode.SUB;
+            case OP_MULTIPLY_ASSIGN:
+                return Bytecode.MUL;
+            default:
+                return Bytecode.DIV;
+        }
+    }
+    
+    /**
+     * Get the value of an integer literal that fits an immediate operand
+     * @return Value, or Long.MIN_VALUE if the node is not such a literal
+     */
+    private long smallInteger(int node) {
+        if (tree.getKind(node) != NodeKind.INTEGER) {
+            return Long.MIN_VALUE;
+        }
+        long value = integerValue(node);
+        return value > Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? value : Long.MIN_VALUE;
+    }
+    
+    private void increment(int target, int delta) {
+        Integer local = locals.get(tree.getLexeme(target));
+        if (local != null) {
+            emit(delta > 0 ? Bytecode.INC : Bytecode.DEC, local);
+            return;
+        }
+        int global = global(target);
+        int temp = temp();
+        emit(Bytecode.GET_GLOBAL, temp, global);
+        emit(delta > 0 ? Bytecode.INC : Bytecode.DEC, temp);
+        emit(Bytecode.SET_GLOBAL, global, temp);
+    }
+    
+    /**
+     * Store a register into a named variable: with MOVE as a plain copy, or
+     * with another opcode taking (destination, source) such as NEW_ARRAY
+     */
+    private void storeVariable(int name, int source, int opcode) {
+        Integer local = locals.get(tree.getLexeme(name));
+        if (local != null) {
+            emit(opcode, local, source);
+            return;
+        }
+        int global = global(name);
+        if (opcode != Bytecode.MOVE) {
+            int temp = temp();
+            emit(opcode, temp, source);
+            source = temp;
+        }
+        emit(Bytecode.SET_GLOBAL, global, source);
+    }
+    
+    // ==================== Expressions ====================
+    
+    /**
+     * Compile an expression into some register (a variable's own register if possible)
+     * @return Register holding the value
+     */
+    private int expression(int node) {
+        if (tree.getKind(node) == NodeKind.NAME) {
+            Integer local = locals.get(tree.getLexeme(node));
+            if (local != null) {
+                return local;
+            }
+        }
+        int temp = temp();
+        expressionInto(node, temp);
+        return temp;
+    }
+    
+    /**
+     * Compile an expression into a given register
+     */
+    private void expressionInto(int node, int target) {
+        int mark = nextRegister;
+        int first = tree.getFirstChild(node);
+        switch (tree.getKind(node)) {
+            case INTEGER:
+                emit(Bytecode.LOAD_INT, target, integerConstant(integerValue(node)));
+                break;
+            case FLOAT:
+                emit(Bytecode.LOAD_FLOAT, target, floatConstant(floatValue(node)));
+                break;
+            case STRING: {
+                String lexeme = tree.getLexeme(node);
+                emit(Bytecode.LOAD_STRING, target, stringConstant(unescape(lexeme, 1, lexeme.length() - 1)));
+                break;
+            }
+            case CHAR: {
+                String lexeme = tree.getLexeme(node);
+                emit(Bytecode.LOAD_CHAR, target, unescape(lexeme, 1, lexeme.length() - 1).charAt(0));
+                break;
+            }
+            case BOOLEAN:
+                emit(Bytecode.LOAD_BOOL, target, tree.getLexeme(node).equals("true") ? 1 : 0);
+                break;
+            case NAME: {
+                Integer local = locals.get(tree.getLexeme(node));
+                if (local != null) {
+                    if (local != target) {
+                        emit(Bytecode.MOVE, target, local);
+                    }
+                } else {
+                    emit(Bytecode.GET_GLOBAL, target, global(node));
+                }
+                break;
+            }
+            case INDEX:
+                emit(Bytecode.GET_INDEX, target, variable(node), expression(first));
+                break;
+            case CALL:
+                call(node, target);
+                break;
+            case UNARY: {
+                int operand = expression(first);
+                int opcode = tree.getTokenType(node) == TokenType.OP_NOT ? Bytecode.NOT
+                           : tree.getTokenType(node) == TokenType.OP_MINUS ? Bytecode.NEG : Bytecode.POS;
+                emit(opcode, target, operand);
+                break;
+            }
+            case BINARY: {
+                TokenType operator = tree.getTokenType(node);
+                if (operator == TokenType.OP_AND || operator == TokenType.OP_OR) {
+                    logical(node, target);
+                    break;
+                }
+                binary(node, target);
+                break;
+            }
+            default:
+                error(node, "Unexpected " + tree.getKind(node));
+                break;
+        }
+        nextRegister = mark;
+    }
+    
+    /**
+     * Compile a chain of arithmetic and comparison operators down the left
+     * operands in a loop; intermediate results go to one temporary
+     */
+    private void binary(int node, int target) {
+        int[] chain = leftChain(node, operator -> operator != TokenType.OP_AND && operator != TokenType.OP_OR);
+        int value = expression(tree.getFirstChild(chain[chain.length - 1]));
+        int accumulator = chain.length > 1 ? temp() : target;
+        for (int i = chain.length - 1; i >= 0; i--) {
+            int mark = nextRegister;
+            int right = expression(tree.getNextSibling(tree.getFirstChild(chain[i])));
+            int result = i == 0 ? target : accumulator;
+            emit(binaryOpcode(tree.getTokenType(chain[i])), result, value, right);
+            nextRegister = mark;
+            value = result;
+        }
+    }
+    
+    /**
+     * Collect the BINARY nodes from a node down its left operands while their
+     * operators pass a test, so that left-associative chains such as
+     * 1 + 1 + ... + 1 are compiled without recursing once per operator
+     * @return Chain from the given node down (at least the node itself)
+     */
+    private int[] leftChain(int node, Predicate<TokenType> operators) {
+        int[] chain = new int[8];
+        int count = 0;
+        int at = node;
+        do {
+            if (count == chain.length) {
+                chain = Arrays.copyOf(chain, count * 2);
+            }
+            chain[count++] = at;
+            at = tree.getFirstChild(at);
+        } while (tree.getKind(at) == NodeKind.BINARY && operators.test(tree.getTokenType(at)));
+        return Arrays.copyOf(chain, count);
+    }
+    
+    private static int binaryOpcode(TokenType operator) {
+        switch (operator) {
+            case OP_PLUS:
+                return Bytecode.ADD;
+            case OP_MINUS:
+                return Bytecode.SUB;
+            case OP_MULTIPLY:
+                return Bytecode.MUL;
+            case OP_DIVIDE:
+                return Bytecode.DIV;
+            case OP_MODULO:
+                return Bytecode.MOD;
+            case OP_EXPONENT:
+                return Bytecode.POW;
+            case OP_EQUAL:
+                return Bytecode.EQ;
+            case OP_NOT_EQUAL:
+                return Bytecode.NE;
+            case OP_LESS:
+                return Bytecode.LT;
+            case OP_LESS_EQUAL:
+                return Bytecode.LE;
+            case OP_GREATER:
+                return Bytecode.GT;
+            default:
+                return Bytecode.GE;
+        }
+    }
+    
+    /**
+     * Compile && and || to a boolean with short-circuit jumps
+     */
+    private void logical(int node, int target) {
+        List<Integer> toFalse = new ArrayList<>();
+        jumpIfFalse(node, toFalse);
+        emit(Bytecode.LOAD_BOOL, target, 1);
+        int toEnd = emitJump(Bytecode.JUMP);
+        patch(toFalse, size);
+        emit(Bytecode.LOAD_BOOL, target, 0);
+        patch(toEnd, size);
+    }
+    
+    /**
+     * Compile a condition as jumps taken when it is false (comparisons use
+     * fused compare-and-jump instructions)
+     * @param exits Receives the addresses of jumps to patch with the false target
+     */
+    private void jumpIfFalse(int node, List<Integer> exits) {
+        int mark = nextRegister;
+        int first = tree.getFirstChild(node);
+        int opcode = -1;
+        if (tree.getKind(node) == NodeKind.BINARY) {
+            switch (tree.getTokenType(node)) {
+                case OP_AND: {
+                    int[] chain = leftChain(node, operator -> operator == TokenType.OP_AND);
+                    jumpIfFalse(tree.getFirstChild(chain[chain.length - 1]), exits);
+                    for (int i = chain.length - 1; i >= 0; i--) {
+                        jumpIfFalse(tree.getNextSibling(tree.getFirstChild(chain[i])), exits);
+                    }
+                    return;
+                }
+                case OP_OR: {
+                    // Every operand but the last jumps to the body when true
+                    int[] chain = leftChain(node, operator -> operator == TokenType.OP_OR);
+                    List<Integer> toBody = new ArrayList<>();
+                    int operand = tree.getFirstChild(chain[chain.length - 1]);
+                    for (int i = chain.length - 1; i >= 0; i--) {
+                        List<Integer> toNext = new ArrayList<>();
+                        jumpIfFalse(operand, toNext);
+                        toBody.add(emitJump(Bytecode.JUMP));
+                        patch(toNext, size);
+                        operand = tree.getNextSibling(tree.getFirstChild(chain[i]));
+                    }
+                    jumpIfFalse(operand, exits);
+                    patch(toBody, size);
+                    return;
+                }
+                case OP_EQUAL:
+                    opcode = Bytecode.JUMP_IF_NOT_EQ;
+                    break;
+                case OP_NOT_EQUAL:
+                    opcode = Bytecode.JUMP_IF_NOT_NE;
+                    break;
+                case OP_LESS:
+                    opcode = Bytecode.JUMP_IF_NOT_LT;
+                    break;
+                case OP_LESS_EQUAL:
+                    opcode = Bytecode.JUMP_IF_NOT_LE;
+                    break;
+                case OP_GREATER:
+                    opcode = Bytecode.JUMP_IF_NOT_GT;
+                    break;
+                case OP_GREATER_EQUAL:
+                    opcode = Bytecode.JUMP_IF_NOT_GE;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (opcode >= 0) {
+            int left = expression(first);
+            int right = expression(tree.getNextSibling(first));
+            emit(opcode, left, right, -1);
+        } else {
+            emit(Bytecode.JUMP_IF_FALSE, expression(node), -1);
+        }
+        exits.add(size - 1);
+        nextRegister = mark;
+    }
+    
+    /**
+     * Compile a call: arguments go to consecutive registers, which become the
+     * first registers (parameters) of the callee's frame
+     */
+    private void call(int node, int target) {
+        Integer callee = functionIndex.get(tree.getLexeme(node));
+        int count = tree.getChildCount(node);
+        if (callee == null) {
+            error(node, "Undefined function");
+            return;
+        }
+        if (count != parameterCount(callee)) {
+            error(node, "Expected " + parameterCount(callee) + " arguments, found " + count);
+            return;
+        }
+        int first = nextRegister;
+        for (int i = 0; i < count; i++) {
+            temp();
+        }
+        int register = first;
+        for (int arg = tree.getFirstChild(node); arg != SyntaxTree.NONE; arg = tree.getNextSibling(arg)) {
+            expressionInto(arg, register++);
+        }
+        emit(Bytecode.CALL, target, callee, first, count);
+    }
+    
+    private int parameterCount(int function) {
+        return tree.getChildCount(tree.getChild(functionNodes.get(function), 1));
+    }
+    
+    // ==================== Variables ====================
+    
+    /**
+     * Get a register holding the value of a variable (loaded from the globals if needed)
+     */
+    private int variable(int name) {
+        Integer local = locals.get(tree.getLexeme(name));
+        if (local != null) {
+            return local;
+        }
+        int temp = temp();
+        emit(Bytecode.GET_GLOBAL, temp, global(name));
+        return temp;
+    }
+    
+    /**
+     * Get the register of a global variable (in the main program's frame)
+     */
+    private int global(int name) {
+        Integer global = globals.get(tree.getLexeme(name));
+        if (global == null) {
+            error(name, "Undeclared variable");
+            return 0;
+        }
+        return global;
+    }
+    
+    private int temp() {
+        int register = nextRegister++;
+        maxRegister = Math.max(maxRegister, nextRegister);
+        return register;
+    }
+    
+    // ==================== Literals ====================
+    
+    private long integerValue(int node) {
+        String lexeme = tree.getLexeme(node);
+        try {
+            return Long.parseLong(lexeme);
+        } catch (NumberFormatException e) {
+            error(node, "Integer literal out of range");
+            return 0;
+        }
+    }
+    
+    private double floatValue(int node) {
+        return Double.parseDouble(tree.getLexeme(node));
+    }
+    
+    /**
+     * Replace escape sequences in the body of a string or character literal
+     */
+    private static String unescape(String lexeme, int from, int to) {
+        StringBuilder out = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char c = lexeme.charAt(i);
+            if (c == '\\' && i + 1 < to) {
+                c = lexeme.charAt(++i);
+                switch (c) {
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    default:
+                        break;
+                }
+            }
+            out.append(c);
+        }
+        return out.toString();
+    }
+    
+    private int integerConstant(long value) {
+        return integerIndex.computeIfAbsent(value, v -> {
+            integers.add(v);
+            return integers.size() - 1;
+        });
+    }
+    
+    private int floatConstant(double value) {
+        return floatIndex.computeIfAbsent(value, v -> {
+            floats.add(v);
+            return floats.size() - 1;
+        });
+    }
+    
+    private int stringConstant(String value) {
+        return stringIndex.computeIfAbsent(value, v -> {
+            strings.add(v);
+            return strings.size() - 1;
+        });
+    }
+    
+    // ==================== Code emission ====================
+    
+    private void emit(int... words) {
+        if (size + words.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, size + words.length));
+            lines = Arrays.copyOf(lines, code.length);
+        }
+        for (int word : words) {
+            lines[size] = line;
+            code[size++] = word;
+        }
+    }
+    
+    /**
+     * Emit a jump with an unknown target
+     * @return Address of the target operand
+     */
+    private int emitJump(int opcode) {
+        emit(opcode, -1);
+        return size - 1;
+    }
+    
+    private void patch(int address, int target) {
+        code[address] = target;
+    }
+    
+    private void patch(List<Integer> addresses, int target) {
+        for (int address : addresses) {
+            code[address] = target;
+        }
+    }
+    
+    // ==================== Errors ====================
+    
+    private void error(int node, String message) {
+        errors.add("[COMPILE ERROR] at Line " + tree.getLine(node) + ", Col " + tree.getColumn(node)
+                   + ": '" + tree.getLexeme(node) + "' - " + message);
+    }
+    
+    /**
+     * Get total number of compile errors
+     */
+    public int getErrorCount() {
+        return errors.size();
+    }
+    
+    /**
+     * Get all compile errors as a list
+     */
+    public List<String> getErrors() {
+        return new ArrayList<>(errors);
+    }
+    
+    /**
+     * Print all compile errors
+     */
+    public void printErrors() {
+        if (errors.isEmpty()) {
+            return;
+        }
+        
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("COMPILE ERRORS DETECTED: " + errors.size());
+        System.out.println("=".repeat(80));
+        
+        for (String error : errors) {
+            System.out.println(error);
+        }
+        
+        System.out.println("=".repeat(80));
+    }
+}
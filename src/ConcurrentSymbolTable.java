@@ -0,0 +1,273 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ConcurrentSymbolTable Class
+ * Symbol table shared by scanners running on several threads (e.g. one per file).
+ * Names live in lock-striped open-addressing tables: lookups of existing names
+ * take no lock, and only inserting a new name locks its stripe. Frequencies are
+ * LongAdder counters. The first occurrence is the smallest (file, line, column)
+ * offered for a name, so the result does not depend on thread scheduling;
+ * toSymbolTable() lists the symbols in the order a sequential scan would.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class ConcurrentSymbolTable {
+    
+    private static final int STRIPE_BITS = 6;
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+    
+    /**
+     * Inner class to store the first occurrence of a symbol
+     */
+    private static class Position {
+        final int file;
+        final int line;
+        final int column;
+        
+        Position(int file, int line, int column) {
+            this.file = file;
+            this.line = line;
+            this.column = column;
+        }
+        
+        boolean before(int file, int line, int column) {
+            return this.file != file ? this.file < file
+                 : this.line != line ? this.line < line
+                 : this.column < column;
+        }
+    }
+    
+    /**
+     * Inner class to store symbol information
+     */
+    private static class Entry {
+        final String name;
+        final int hash;
+        final LongAdder frequency = new LongAdder();
+        final AtomicReference<Position> first = new AtomicReference<>();
+        
+        Entry(String name, int hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+        
+        /**
+         * Keep the earliest of the current and the given first occurrence
+         */
+        void offerFirst(int file, int line, int column) {
+            Position current = first.get();
+            if (current != null && current.before(file, line, column)) {
+                return;
+            }
+            Position candidate = new Position(file, line, column);
+            while (current == null || !current.before(file, line, column)) {
+                if (first.compareAndSet(current, candidate)) {
+                    return;
+                }
+                current = first.get();
+            }
+        }
+    }
+    
+    /**
+     * One lock stripe: a linear probing table that readers search without locking.
+     * Slots are only ever filled, and a grown table is published as a whole.
+     */
+    private static class Stripe {
+        volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(INITIAL_STRIPE_CAPACITY);
+        int size;                                   // Guarded by the stripe
+        
+        Entry find(char[] text, int start, int length, int hash) {
+            AtomicReferenceArray<Entry> slots = table;
+            int mask = slots.length() - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                Entry entry = slots.get(slot);
+                if (entry == null || (entry.hash == hash && matches(entry.name, text, start, length))) {
+                    return entry;
+                }
+            }
+        }
+        
+        synchronized Entry insert(char[] text, int start, int length, int hash) {
+            Entry entry = find(text, start, length, hash);
+            if (entry != null) {
+                return entry;
+            }
+            entry = new Entry(new String(text, start, length), hash);
+            if ((size + 1) * 2 > table.length()) {
+                AtomicReferenceArray<Entry> grown = new AtomicReferenceArray<>(table.length() * 2);
+                for (int i = 0; i < table.length(); i++) {
+                    Entry old = table.get(i);
+                    if (old != null) {
+                        put(grown, old);
+                    }
+                }
+                put(grown, entry);
+                table = grown;
+            } else {
+                put(table, entry);
+            }
+            size++;
+            return entry;
+        }
+        
+        private static void put(AtomicReferenceArray<Entry> slots, Entry entry) {
+            int mask = slots.length() - 1;
+            int slot = entry.hash & mask;
+            while (slots.get(slot) != null) {
+                slot = (slot + 1) & mask;
+            }
+            slots.set(slot, entry);
+        }
+        
+        private static boolean matches(String name, char[] text, int start, int length) {
+            if (name.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (name.charAt(i) != text[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    private final Stripe[] stripes;
+    
+    /**
+     * Constructor
+     */
+    public ConcurrentSymbolTable() {
+        stripes = new Stripe[1 << STRIPE_BITS];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+    
+    /**
+     * Add an identifier occurrence (thread-safe)
+     * @param text Source characters
+     * @param start Offset of the identifier
+     * @param length Number of characters
+     * @param file Index of the source file (orders first occurrences across files)
+     * @param line Line number of occurrence
+     * @param column Column number of occurrence
+     */
+    public void addIdentifier(char[] text, int start, int length, int file, int line, int column) {
+        Entry entry = entry(text, start, length);
+        entry.frequency.increment();
+        entry.offerFirst(file, line, column);
+    }
+    
+    /**
+     * Add an identifier occurrence (thread-safe)
+     * @param name Identifier name
+     * @param file Index of the source file
+     * @param line Line number of occurrence
+     * @param column Column number of occurrence
+     */
+    public void addIdentifier(String name, int file, int line, int column) {
+        addIdentifier(name.toCharArray(), 0, name.length(), file, line, column);
+    }
+    
+    /**
+     * Merge a table built by one thread for one file (thread-safe; tables of
+     * different files can be merged concurrently and in any order)
+     * @param other Symbol table of the file
+     * @param file Index of the source file
+     */
+    public void merge(SymbolTable other, int file) {
+        char[] name = new char[0];
+        for (int i = 0; i < other.getUniqueIdentifierCount(); i++) {
+            int id = other.getIdAt(i);
+            String text = other.getName(id);
+            if (name.length < text.length()) {
+                name = new char[Math.max(text.length(), name.length * 2)];
+            }
+            text.getChars(0, text.length(), name, 0);
+            Entry entry = entry(name, 0, text.length());
+            entry.frequency.add(other.getFrequency(id));
+            entry.offerFirst(file, other.getFirstLine(id), other.getFirstColumn(id));
+        }
+    }
+    
+    private Entry entry(char[] text, int start, int length) {
+        int h = 0;
+        for (int i = start; i < start + length; i++) {
+            h = 31 * h + text[i];
+        }
+        h ^= h >>> 16;
+        Stripe stripe = stripes[(h * 0x9E3779B9) >>> (32 - STRIPE_BITS)];
+        Entry entry = stripe.find(text, start, length, h);
+        return entry != null ? entry : stripe.insert(text, start, length, h);
+    }
+    
+    private List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            AtomicReferenceArray<Entry> slots = stripe.table;
+            for (int i = 0; i < slots.length(); i++) {
+                Entry entry = slots.get(i);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * Snapshot as a sequential symbol table, in order of first occurrence
+     * (file, line, column) exactly as a sequential scan would list them.
+     * Call it after all threads have finished adding.
+     * @return New symbol table (first lines are per file)
+     */
+    public SymbolTable toSymbolTable() {
+        List<Entry> entries = entries();
+        entries.sort((a, b) -> {
+            Position p = a.first.get();
+            Position q = b.first.get();
+            return p.before(q.file, q.line, q.column) ? -1 : q.before(p.file, p.line, p.column) ? 1 : 0;
+        });
+        SymbolTable table = new SymbolTable();
+        for (Entry entry : entries) {
+            Position first = entry.first.get();
+            table.addSymbol(entry.name, first.line, first.column, (int) entry.frequency.sum());
+        }
+        return table;
+    }
+    
+    /**
+     * Check if an identifier exists in the symbol table
+     * @param name Identifier name
+     * @return true if identifier exists
+     */
+    public boolean contains(String name) {
+        int h = name.hashCode();
+        h ^= h >>> 16;
+        return stripes[(h * 0x9E3779B9) >>> (32 - STRIPE_BITS)].find(name.toCharArray(), 0, name.length(), h) != null;
+    }
+    
+    /**
+     * Get total number of unique identifiers
+     * @return Number of unique identifiers
+     */
+    public int getUniqueIdentifierCount() {
+        return entries().size();
+    }
+    
+    /**
+     * Get total number of identifier occurrences
+     * @return Total frequency of all identifiers
+     */
+    public long getTotalIdentifierOccurrences() {
+        long total = 0;
+        for (Entry entry : entries()) {
+            total += entry.frequency.sum();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * ErrorCode Enum
+ * Defines the kinds of lexical errors reported by the scanners, with the
+ * fixed parts of their messages.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public enum ErrorCode {
+    INVALID_CHARACTER(null, null),
+    MALFORMED_LITERAL(null, null),
+    INVALID_IDENTIFIER(null, null),
+    UNCLOSED_COMMENT("#*...", "Multi-line comment not closed"),
+    UNTERMINATED_STRING("\"...", "String literal not terminated"),
+    UNTERMINATED_CHAR("'...", "Character literal not terminated"),
+    INVALID_ESCAPE(null, "Invalid escape sequence"),
+    IDENTIFIER_TOO_LONG(null, null),
+    SKIPPED_INPUT(null, null);
+    
+    private final String fixedLexeme;
+    private final String fixedReason;
+    
+    /**
+     * Constructor
+     * @param fixedLexeme Lexeme shown for every error of this kind (null if taken from the source)
+     * @param fixedReason Reason shown for every error of this kind (null if it depends on the lexeme)
+     */
+    ErrorCode(String fixedLexeme, String fixedReason) {
+        this.fixedLexeme = fixedLexeme;
+        this.fixedReason = fixedReason;
+    }
+    
+    /**
+     * Get the lexeme shown for every error of this kind
+     * @return Fixed lexeme, or null if each error has its own
+     */
+    public String getFixedLexeme() {
+        return fixedLexeme;
+    }
+    
+    /**
+     * Get the reason shown for every error of this kind
+     * @return Fixed reason, or null if it is rendered from the lexeme
+     */
+    public String getFixedReason() {
+        return fixedReason;
+    }
+}
@@ -3,44 +3,94 @@ import java.util.*;
 /**
  * ErrorHandler Class
  * Handles lexical errors during scanning.
+ * Errors are stored as an error code, a packed line/column and a lexeme slice
+ * of an internal text store in parallel primitive arrays; messages are only
+ * rendered when errors are printed or requested. A limit on the number of
+ * stored errors can be set (later ones are only counted; no limit by default),
+ * and runs of adjacent invalid characters can be coalesced into one error, so
+ * memory can be bounded on binary or garbage input.
+ * As in TokenBuffer, the unused capacity is a gap that an incremental rescan
+ * moves to the edit (replace/shift); errors after it keep their old lines
+ * plus a shared delta.
  * CS4031 - Compiler Construction - Assignment 01
  */
 public class ErrorHandler {
     
+    /** Default maximum number of stored errors (no limit; see setMaxErrors()) */
+    public static final int DEFAULT_MAX_ERRORS = Integer.MAX_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final ErrorCode[] CODES = ErrorCode.values();
+    
+    private byte[] codes;
+    private long[] positions;       // line << 32 | column
+    private int[] starts;           // Lexeme offset in text (unused for fixed lexemes)
+    private int[] lengths;          // Lexeme length in text; run length for invalid characters
+    private String[] reasons;       // Caller-supplied reasons; null until first used
+    private int size;               // Number of stored errors
+    private StringBuilder text;     // Lexeme storage
+    private int deadText;           // Characters in text of errors that were replaced
+    
+    // Errors [gap, size) are stored at the end of the arrays, with lineShift still to add
+    private int gap;
+    private long lineShift;         // lineDelta << 32
+    
+    private int errorCount;         // Stored and dropped errors
+    private int maxErrors;
+    private boolean coalesceInvalidRuns;
+    
+    // Last invalid character reported, for coalescing
+    private int runLine;
+    private int runEnd;             // Column just after the run; 0 = no run
+    private boolean runStored;
+    
     /**
-     * Inner class to store error information
+     * Constructor
      */
-    private static class LexicalError {
-        String errorType;
-        int line;
-        int column;
-        String lexeme;
-        String reason;
-        
-        LexicalError(String errorType, int line, int column, String lexeme, String reason) {
-            this.errorType = errorType;
-            this.line = line;
-            this.column = column;
-            this.lexeme = lexeme;
-            this.reason = reason;
-        }
-        
-        @Override
-        public String toString() {
-            return String.format("[ERROR] %s at Line %d, Col %d: '%s' - %s", 
-                               errorType, line, column, lexeme, reason);
+    public ErrorHandler() {
+        codes = new byte[INITIAL_CAPACITY];
+        positions = new long[INITIAL_CAPACITY];
+        starts = new int[INITIAL_CAPACITY];
+        lengths = new int[INITIAL_CAPACITY];
+        size = 0;
+        text = new StringBuilder();
+        errorCount = 0;
+        maxErrors = DEFAULT_MAX_ERRORS;
+        coalesceInvalidRuns = false;
+    }
+    
+    /**
+     * Set the maximum number of stored errors. Errors reported after that are
+     * counted by getErrorCount() but not stored or printed.
+     * @param maxErrors Maximum number of stored errors (Integer.MAX_VALUE for no limit)
+     */
+    public void setMaxErrors(int maxErrors) {
+        if (maxErrors < 0) {
+            throw new IllegalArgumentException("Negative error limit: " + maxErrors);
         }
+        this.maxErrors = maxErrors;
     }
     
-    private List<LexicalError> errors;
-    private int errorCount;
+    /**
+     * Get the maximum number of stored errors
+     */
+    public int getMaxErrors() {
+        return maxErrors;
+    }
     
     /**
-     * Constructor
+     * Report a run of invalid characters that directly follow each other on a
+     * line as one error instead of one error per character
+     * @param coalesce true to coalesce runs
      */
-    public ErrorHandler() {
-        errors = new ArrayList<>();
-        errorCount = 0;
+    public void setCoalesceInvalidRuns(boolean coalesce) {
+        this.coalesceInvalidRuns = coalesce;
+    }
+    
+    /**
+     * Check whether runs of invalid characters are coalesced
+     */
+    public boolean isCoalescingInvalidRuns() {
+        return coalesceInvalidRuns;
     }
     
     /**
@@ -50,9 +100,40 @@ public class ErrorHandler {
      * @param column Column number
      */
     public void reportInvalidCharacter(char ch, int line, int column) {
-        String lexeme = String.valueOf(ch);
-        String reason = "Invalid character '" + ch + "' (ASCII: " + (int)ch + ")";
-        addError("INVALID_CHARACTER", line, column, lexeme, reason);
+        reportInvalidRun(ch, line, column, 1);
+    }
+    
+    /**
+     * Report a run of invalid characters; only its first character is stored
+     * @param ch First invalid character
+     * @param line Line number
+     * @param column Column of the first character
+     * @param length Number of characters
+     */
+    private void reportInvalidRun(char ch, int line, int column, int length) {
+        if (coalesceInvalidRuns) {
+            if (line == runLine && column == runEnd) {
+                runEnd += length;
+                if (runStored) {
+                    lengths[size - 1] += length;
+                }
+                return;
+            }
+            runStored = addError(ErrorCode.INVALID_CHARACTER, line, column, null);
+            if (runStored) {
+                lengths[size - 1] = length;
+                text.append(ch);
+            }
+            runLine = line;
+            runEnd = column + length;
+            return;
+        }
+        for (int k = 0; k < length; k++) {
+            if (addError(ErrorCode.INVALID_CHARACTER, line, column + k, null)) {
+                lengths[size - 1] = 1;
+                text.append(ch);
+            }
+        }
     }
     
     /**
@@ -63,7 +144,7 @@ public class ErrorHandler {
      * @param reason Specific reason
      */
     public void reportMalformedLiteral(String lexeme, int line, int column, String reason) {
-        addError("MALFORMED_LITERAL", line, column, lexeme, reason);
+        addError(ErrorCode.MALFORMED_LITERAL, line, column, lexeme, 0, lexeme.length(), reason);
     }
     
     /**
@@ -74,7 +155,7 @@ public class ErrorHandler {
      * @param reason Specific reason
      */
     public void reportInvalidIdentifier(String lexeme, int line, int column, String reason) {
-        addError("INVALID_IDENTIFIER", line, column, lexeme, reason);
+        addError(ErrorCode.INVALID_IDENTIFIER, line, column, lexeme, 0, lexeme.length(), reason);
     }
     
     /**
@@ -83,7 +164,7 @@ public class ErrorHandler {
      * @param column Column number where comment started
      */
     public void reportUnclosedComment(int line, int column) {
-        addError("UNCLOSED_COMMENT", line, column, "#*...", "Multi-line comment not closed");
+        addError(ErrorCode.UNCLOSED_COMMENT, line, column, null);
     }
     
     /**
@@ -92,7 +173,7 @@ public class ErrorHandler {
      * @param column Column number
      */
     public void reportUnterminatedString(int line, int column) {
-        addError("UNTERMINATED_STRING", line, column, "\"...", "String literal not terminated");
+        addError(ErrorCode.UNTERMINATED_STRING, line, column, null);
     }
     
     /**
@@ -101,7 +182,7 @@ public class ErrorHandler {
      * @param column Column number
      */
     public void reportUnterminatedCharLiteral(int line, int column) {
-        addError("UNTERMINATED_CHAR", line, column, "'...", "Character literal not terminated");
+        addError(ErrorCode.UNTERMINATED_CHAR, line, column, null);
     }
     
     /**
@@ -111,7 +192,21 @@ public class ErrorHandler {
      * @param column Column number
      */
     public void reportInvalidEscapeSequence(String sequence, int line, int column) {
-        addError("INVALID_ESCAPE", line, column, sequence, "Invalid escape sequence");
+        addError(ErrorCode.INVALID_ESCAPE, line, column, sequence, 0, sequence.length(), null);
+    }
+    
+    /**
+     * Report an invalid escape sequence error given by a slice of the source
+     * @param source Source characters
+     * @param start Offset of the backslash
+     * @param length Number of characters
+     * @param line Line number
+     * @param column Column number
+     */
+    public void reportInvalidEscapeSequence(char[] source, int start, int length, int line, int column) {
+        if (addError(ErrorCode.INVALID_ESCAPE, line, column, null)) {
+            setLexeme(source, start, length);
+        }
     }
     
     /**
@@ -121,16 +216,281 @@ public class ErrorHandler {
      * @param column Column number
      */
     public void reportIdentifierTooLong(String lexeme, int line, int column) {
-        addError("IDENTIFIER_TOO_LONG", line, column, lexeme, 
-                "Identifier exceeds maximum length of 31 characters (length: " + lexeme.length() + ")");
+        addError(ErrorCode.IDENTIFIER_TOO_LONG, line, column, lexeme, 0, lexeme.length(), null);
+    }
+    
+    /**
+     * Report identifier exceeding maximum length, given by a slice of the source
+     * @param source Source characters
+     * @param start Offset of the identifier
+     * @param length Number of characters
+     * @param line Line number
+     * @param column Column number
+     */
+    public void reportIdentifierTooLong(char[] source, int start, int length, int line, int column) {
+        if (addError(ErrorCode.IDENTIFIER_TOO_LONG, line, column, null)) {
+            setLexeme(source, start, length);
+        }
+    }
+    
+    /**
+     * Report input skipped by error recovery, starting with an invalid
+     * character; as for invalid character runs, only that character is stored
+     * @param source Source characters
+     * @param start Offset of the invalid character
+     * @param length Number of characters skipped
+     * @param line Line number
+     * @param column Column number
+     */
+    public void reportSkippedInput(char[] source, int start, int length, int line, int column) {
+        if (addError(ErrorCode.SKIPPED_INPUT, line, column, null)) {
+            lengths[size - 1] = length;
+            text.append(source[start]);
+        }
+    }
+    
+    /**
+     * Add an error exactly as another handler stored it (loading a saved scan).
+     * The error limit applies, but invalid character runs are not coalesced again.
+     * @param code Error code
+     * @param line Line number
+     * @param column Column number
+     * @param lexeme Stored lexeme (ignored for codes with a fixed lexeme)
+     * @param reason Reason, or null if the code determines it
+     */
+    public void addStoredError(ErrorCode code, int line, int column, String lexeme, String reason) {
+        String text = code.getFixedLexeme() != null ? "" : lexeme;
+        addError(code, line, column, text, 0, text.length(), reason);
+    }
+    
+    /**
+     * Count errors that were reported but not stored (loading a saved scan)
+     * @param count Number of dropped errors
+     */
+    public void addDroppedErrors(int count) {
+        errorCount += count;
+    }
+    
+    /**
+     * Add an error whose lexeme is copied from a slice of a character sequence
+     */
+    private void addError(ErrorCode code, int line, int column, CharSequence lexeme, int start, int length,
+                          String reason) {
+        if (addError(code, line, column, reason)) {
+            lengths[size - 1] = length;
+            text.append(lexeme, start, start + length);
+        }
+    }
+    
+    /**
+     * Set the lexeme of the error just stored to a slice of the source
+     */
+    private void setLexeme(char[] source, int start, int length) {
+        lengths[size - 1] = length;
+        text.append(source, start, length);
     }
     
     /**
-     * Add an error to the error list
+     * Count an error and store it (without lexeme) unless the limit is reached
+     * @return true if the error was stored
      */
-    private void addError(String errorType, int line, int column, String lexeme, String reason) {
-        errors.add(new LexicalError(errorType, line, column, lexeme, reason));
+    private boolean addError(ErrorCode code, int line, int column, String reason) {
+        if (gap != size) {
+            moveGap(size);
+        }
         errorCount++;
+        runEnd = 0;
+        if (size >= maxErrors) {
+            return false;
+        }
+        if (size == codes.length) {
+            grow(size + 1);
+        }
+        codes[size] = (byte) code.ordinal();
+        positions[size] = ((long) line << 32) | (column & 0xFFFFFFFFL);
+        starts[size] = text.length();
+        lengths[size] = 0;
+        if (reason != null || reasons != null) {
+            if (reasons == null) {
+                reasons = new String[codes.length];
+            }
+            reasons[size] = reason;
+        }
+        size++;
+        gap++;
+        return true;
+    }
+    
+    private void grow(int minCapacity) {
+        int capacity = Math.max(codes.length * 2, minCapacity);
+        int tail = size - gap;
+        int from = codes.length - tail;
+        int to = capacity - tail;
+        codes = Arrays.copyOf(codes, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        System.arraycopy(codes, from, codes, to, tail);
+        System.arraycopy(positions, from, positions, to, tail);
+        System.arraycopy(starts, from, starts, to, tail);
+        System.arraycopy(lengths, from, lengths, to, tail);
+        if (reasons != null) {
+            reasons = Arrays.copyOf(reasons, capacity);
+            System.arraycopy(reasons, from, reasons, to, tail);
+        }
+    }
+    
+    /**
+     * Append errors [from, to) reported for a later part of the source.
+     * The limit and coalescing of this handler apply to the appended errors.
+     * @param other Error handler of the later part
+     * @param from First error index
+     * @param to End error index (exclusive)
+     * @param lineOffset Number added to the other handler's line numbers
+     */
+    public void merge(ErrorHandler other, int from, int to, int lineOffset) {
+        other.moveGap(other.size);
+        for (int i = from; i < to; i++) {
+            int line = other.getLine(i) + lineOffset;
+            int column = other.getColumn(i);
+            int start = other.starts[i];
+            int length = other.lengths[i];
+            if (other.codes[i] == ErrorCode.INVALID_CHARACTER.ordinal()) {
+                // A run may continue a run of this handler
+                reportInvalidRun(other.text.charAt(start), line, column, length);
+            } else {
+                addError(CODES[other.codes[i]], line, column, other.text, start, length,
+                         other.reasons != null ? other.reasons[i] : null);
+            }
+        }
+    }
+    
+    /**
+     * Replace errors [from, to) with errors [otherFrom, otherTo) of another handler
+     * (rescan of an edited region). The error limit does not apply. The gap
+     * moves to just after the new errors.
+     * @param from First error index
+     * @param to End error index (exclusive)
+     * @param other Error handler of the rescan
+     * @param otherFrom First error index in other
+     * @param otherTo End error index in other (exclusive)
+     */
+    public void replace(int from, int to, ErrorHandler other, int otherFrom, int otherTo) {
+        if (from < 0 || from > to || to > size) {
+            throw new IndexOutOfBoundsException("Error range [" + from + ", " + to + ") out of bounds for size " + size);
+        }
+        other.moveGap(other.size);
+        int count = otherTo - otherFrom;
+        moveGap(from);
+        int tail = codes.length - size;
+        for (int i = from; i < to; i++) {
+            deadText += textLength(i + tail);
+        }
+        size -= to - from;          // Errors [from, to) now follow the gap: drop them into it
+        if (size + count > codes.length) {
+            grow(size + count);
+        }
+        if (other.reasons != null && reasons == null) {
+            reasons = new String[codes.length];
+        }
+        for (int i = 0; i < count; i++) {
+            int j = otherFrom + i;
+            codes[from + i] = other.codes[j];
+            positions[from + i] = other.positions[j];
+            starts[from + i] = text.length();
+            lengths[from + i] = other.lengths[j];
+            text.append(other.text, other.starts[j], other.starts[j] + other.textLength(j));
+            if (reasons != null) {
+                reasons[from + i] = other.reasons != null ? other.reasons[j] : null;
+            }
+        }
+        size += count;
+        gap += count;
+        if (gap == size) {
+            lineShift = 0;
+        }
+        errorCount += count - (to - from);
+        runEnd = 0;
+        if (deadText > text.length() - deadText + 4096) {
+            compactText();
+        }
+    }
+    
+    /**
+     * Drop lexeme text of replaced errors
+     */
+    private void compactText() {
+        StringBuilder compacted = new StringBuilder(text.length() - deadText);
+        int tail = codes.length - size;
+        for (int i = 0; i < size; i++) {
+            int slot = i < gap ? i : i + tail;
+            int start = starts[slot];
+            starts[slot] = compacted.length();
+            compacted.append(text, start, start + textLength(slot));
+        }
+        text = compacted;
+        deadText = 0;
+    }
+    
+    /**
+     * Move errors from an index on after an edit of the source. The gap moves
+     * to the index, and only the errors that can be on the line where the edit
+     * ended are updated now.
+     * @param from First error index (all later errors are after the edit)
+     * @param to End of the errors reported for tokens that start on that line (exclusive)
+     * @param line Line on which the edit ended
+     * @param lineDelta Number added to every line number
+     * @param columnDelta Number added to the column of errors on that line
+     */
+    public void shift(int from, int to, int line, int lineDelta, int columnDelta) {
+        moveGap(from);
+        int tail = codes.length - size;
+        for (int i = from; i < to; i++) {
+            if (getLine(i) == line) {
+                positions[i + tail] += columnDelta;
+            }
+        }
+        if (gap < size) {
+            lineShift += (long) lineDelta << 32;
+        }
+        runEnd = 0;
+    }
+    
+    /**
+     * Move the gap to an error index, applying the line delta to the errors
+     * that move in front of it and taking it off those that move behind it
+     */
+    private void moveGap(int index) {
+        int tail = codes.length - size;
+        if (index < gap) {
+            int count = gap - index;
+            System.arraycopy(codes, index, codes, index + tail, count);
+            System.arraycopy(positions, index, positions, index + tail, count);
+            System.arraycopy(starts, index, starts, index + tail, count);
+            System.arraycopy(lengths, index, lengths, index + tail, count);
+            if (reasons != null) {
+                System.arraycopy(reasons, index, reasons, index + tail, count);
+            }
+            for (int i = index + tail; i < gap + tail; i++) {
+                positions[i] -= lineShift;
+            }
+        } else if (index > gap) {
+            int count = index - gap;
+            System.arraycopy(codes, gap + tail, codes, gap, count);
+            System.arraycopy(positions, gap + tail, positions, gap, count);
+            System.arraycopy(starts, gap + tail, starts, gap, count);
+            System.arraycopy(lengths, gap + tail, lengths, gap, count);
+            if (reasons != null) {
+                System.arraycopy(reasons, gap + tail, reasons, gap, count);
+            }
+            for (int i = gap; i < index; i++) {
+                positions[i] += lineShift;
+            }
+        }
+        gap = index;
+        if (gap == size) {
+            lineShift = 0;
+        }
     }
     
     /**
@@ -142,7 +502,7 @@ public class ErrorHandler {
     }
     
     /**
-     * Get the total number of errors
+     * Get the total number of errors (including errors over the limit)
      * @return Error count
      */
     public int getErrorCount() {
@@ -150,32 +510,188 @@ public class ErrorHandler {
     }
     
     /**
-     * Print all errors
+     * Get the number of stored errors
+     * @return Number of errors that can be accessed by index
      */
-    public void printErrors() {
-        if (errors.isEmpty()) {
-            return;
+    public int getStoredErrorCount() {
+        return size;
+    }
+    
+    /**
+     * Get the number of errors that were counted but not stored
+     */
+    public int getDroppedErrorCount() {
+        return errorCount - size;
+    }
+    
+    /**
+     * Get the code of a stored error
+     */
+    public ErrorCode getCode(int index) {
+        int slot = slot(index);
+        return CODES[codes[slot]];
+    }
+    
+    /**
+     * Get the line of a stored error
+     */
+    public int getLine(int index) {
+        return (int) (position(index) >>> 32);
+    }
+    
+    /**
+     * Get the column of a stored error
+     */
+    public int getColumn(int index) {
+        return (int) position(index);
+    }
+    
+    private long position(int index) {
+        int slot = slot(index);
+        return index < gap ? positions[slot] : positions[slot] + lineShift;
+    }
+    
+    /**
+     * Get the lexeme of a stored error
+     */
+    public String getLexeme(int index) {
+        int slot = slot(index);
+        String fixed = CODES[codes[slot]].getFixedLexeme();
+        return fixed != null ? fixed : text.substring(starts[slot], starts[slot] + textLength(slot));
+    }
+    
+    /**
+     * Get the reason of a stored error
+     */
+    public String getReason(int index) {
+        int slot = slot(index);
+        ErrorCode code = CODES[codes[slot]];
+        if (code.getFixedReason() != null) {
+            return code.getFixedReason();
+        }
+        if (reasons != null && reasons[slot] != null) {
+            return reasons[slot];
+        }
+        StringBuilder reason = new StringBuilder(64);
+        appendLexemeReason(reason, slot);
+        return reason.toString();
+    }
+    
+    /**
+     * Get the number of lexeme characters of a stored error in the text store
+     * (invalid character runs and skipped input keep only their first character)
+     * @param slot Array slot of the error
+     */
+    private int textLength(int slot) {
+        int code = codes[slot];
+        if (code == ErrorCode.INVALID_CHARACTER.ordinal() || code == ErrorCode.SKIPPED_INPUT.ordinal()) {
+            return Math.min(lengths[slot], 1);
         }
-        
-        System.out.println("\n" + "=".repeat(80));
-        System.out.println("LEXICAL ERRORS DETECTED: " + errorCount);
-        System.out.println("=".repeat(80));
-        
-        for (LexicalError error : errors) {
-            System.out.println(error);
+        return lengths[slot];
+    }
+    
+    /**
+     * Check an error index and get the array slot that holds the error
+     */
+    private int slot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Error index " + index + " out of bounds for size " + size);
         }
-        
-        System.out.println("=".repeat(80));
+        return index < gap ? index : index + codes.length - size;
+    }
+    
+    /**
+     * Render the message of a stored error
+     * @param out Destination
+     * @param index Error index
+     */
+    public void appendError(StringBuilder out, int index) {
+        out.append("[ERROR] ").append(getCode(index).name())
+           .append(" at Line ").append(getLine(index))
+           .append(", Col ").append(getColumn(index))
+           .append(": '");
+        appendLexeme(out, index);
+        out.append("' - ");
+        appendReason(out, index);
+    }
+    
+    /**
+     * Render the lexeme of a stored error
+     * @param out Destination
+     * @param index Error index
+     */
+    public void appendLexeme(StringBuilder out, int index) {
+        int slot = slot(index);
+        String fixed = CODES[codes[slot]].getFixedLexeme();
+        if (fixed != null) {
+            out.append(fixed);
+        } else {
+            out.append(text, starts[slot], starts[slot] + textLength(slot));
+        }
+    }
+    
+    /**
+     * Render the reason of a stored error
+     * @param out Destination
+     * @param index Error index
+     */
+    public void appendReason(StringBuilder out, int index) {
+        int slot = slot(index);
+        ErrorCode code = CODES[codes[slot]];
+        if (code.getFixedReason() != null) {
+            out.append(code.getFixedReason());
+        } else if (reasons != null && reasons[slot] != null) {
+            out.append(reasons[slot]);
+        } else {
+            appendLexemeReason(out, slot);
+        }
+    }
+    
+    /**
+     * Render the reason of an error whose reason depends on its lexeme
+     * @param out Destination
+     * @param slot Array slot of the error
+     */
+    private void appendLexemeReason(StringBuilder out, int slot) {
+        int start = starts[slot];
+        int length = lengths[slot];
+        if (codes[slot] == ErrorCode.INVALID_CHARACTER.ordinal()) {
+            char ch = text.charAt(start);
+            if (length == 1) {
+                out.append("Invalid character '").append(ch).append("' (ASCII: ").append((int) ch).append(')');
+            } else {
+                out.append("Run of ").append(length).append(" invalid characters starting with '")
+                   .append(ch).append("' (ASCII: ").append((int) ch).append(')');
+            }
+        } else if (codes[slot] == ErrorCode.SKIPPED_INPUT.ordinal()) {
+            char ch = text.charAt(start);
+            out.append("Invalid character '").append(ch).append("' (ASCII: ").append((int) ch)
+               .append("), skipped ").append(length).append(" characters to the next token boundary");
+        } else if (codes[slot] == ErrorCode.IDENTIFIER_TOO_LONG.ordinal()) {
+            out.append("Identifier exceeds maximum length of 31 characters (length: ").append(length).append(')');
+        }
+    }
+    
+    /**
+     * Print all errors
+     */
+    public void printErrors() {
+        ReportWriter report = ReportWriter.text();
+        report.errors(this);
+        report.flush();
     }
     
     /**
-     * Get all errors as a list
+     * Get all stored errors as a list
      * @return List of error strings
      */
     public List<String> getErrors() {
-        List<String> errorStrings = new ArrayList<>();
-        for (LexicalError error : errors) {
-            errorStrings.add(error.toString());
+        List<String> errorStrings = new ArrayList<>(size);
+        StringBuilder out = new StringBuilder(128);
+        for (int i = 0; i < size; i++) {
+            out.setLength(0);
+            appendError(out, i);
+            errorStrings.add(out.toString());
         }
         return errorStrings;
     }
@@ -184,7 +700,13 @@ public class ErrorHandler {
      * Clear all errors
      */
     public void clear() {
-        errors.clear();
+        size = 0;
+        gap = 0;
+        lineShift = 0;
         errorCount = 0;
+        text.setLength(0);
+        deadText = 0;
+        reasons = null;
+        runEnd = 0;
     }
 }
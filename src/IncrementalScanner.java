@@ -0,0 +1,455 @@
+import java.util.*;
+
+/**
+ * IncrementalScanner Class
+ * Keeps the tokens, symbol table and errors of a document up to date while it
+ * is edited. An edit is re-lexed from the last token it cannot have affected
+ * until the new tokens resynchronize with the old ones; tokens, first
+ * occurrences and errors after that point are only moved. The text, tokens,
+ * errors and symbol order are kept in gap buffers whose gap follows the
+ * edits, so moving them costs the tokens on the line where the edit ended
+ * plus the distance from the previous edit, not the rest of the document.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class IncrementalScanner {
+    
+    private static final int RESCAN_WINDOW = 1024;      // Text after an edit first shown to the rescan
+    
+    private char[] text;            // Characters [gapStart, length) are stored at the end of the array
+    private int length;
+    private int gapStart;
+    private TokenBuffer tokens;
+    private SymbolTable symbolTable;
+    private ErrorHandler errorHandler;
+    private int[] errorStarts;      // Start of the token each error was reported for
+    private int errors;
+    
+    // Errors [errorGap, errors) are stored at the end of errorStarts, with errorShift still to add
+    private int errorGap;
+    private int errorShift;
+    
+    // Offsets of the occurrences of each symbol, by symbol ID. Each list keeps the
+    // occurrences after token occurrenceGap at its end, with occurrenceShift still to add
+    private int[][] occurrences;
+    private int[] occurrenceCounts;
+    private int[] occurrenceSplits;
+    private int occurrenceGap;
+    private int occurrenceShift;
+    
+    // Damage of the last edit
+    private int rescanned;
+    private int replaced;
+    
+    /**
+     * Constructor
+     * @param input Initial source code
+     */
+    public IncrementalScanner(String input) {
+        this.text = input.toCharArray();
+        this.length = text.length;
+        this.gapStart = length;
+        this.symbolTable = new SymbolTable();
+        
+        ManualScanner scanner = ManualScanner.resume(text, length, new Text(), 0, 1, 1, null, 0, -1);
+        scanner.scan();
+        this.tokens = scanner.getTokenBuffer();
+        this.errorHandler = scanner.getErrorHandler();
+        this.errors = errorHandler.getErrorCount();
+        this.errorStarts = new int[Math.max(errors, 16)];
+        for (int i = 0; i < errors; i++) {
+            errorStarts[i] = scanner.getErrorStart(i);
+        }
+        this.errorGap = errors;
+        this.occurrences = new int[64][];
+        this.occurrenceCounts = new int[64];
+        this.occurrenceSplits = new int[64];
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getType(i) == TokenType.IDENTIFIER) {
+                int id = symbolTable.addIdentifier(text, tokens.getStart(i), tokens.getLength(i),
+                                                   tokens.getLine(i), tokens.getColumn(i));
+                tokens.setSymbol(i, id);
+                addOccurrence(id, tokens.getStart(i));
+            }
+        }
+        this.occurrenceGap = tokens.size();
+        this.rescanned = tokens.size();
+        this.replaced = 0;
+    }
+    
+    /**
+     * Replace part of the document and update tokens, symbol table and errors
+     * @param offset Offset of the first replaced character
+     * @param removed Number of characters removed
+     * @param inserted Text inserted at offset
+     */
+    public void edit(int offset, int removed, String inserted) {
+        if (offset < 0 || removed < 0 || offset + removed > length) {
+            throw new IndexOutOfBoundsException("Edit [" + offset + ", " + (offset + removed)
+                                                + ") out of bounds for length " + length);
+        }
+        int delta = inserted.length() - removed;
+        
+        // 1. Restart at a token whose scan (with look-ahead) ended before the edit
+        //    and that does not start inside a lowercase run
+        int first = tokens.firstAtOrAfter(offset - ScannerDFA.MAX_LOOKAHEAD + 1) - 1;
+        while (first >= 0 && !wordBoundary(tokens.getStart(first))) {
+            first--;
+        }
+        int restart = 0;
+        int restartLine = 1;
+        int restartColumn = 1;
+        if (first >= 0) {
+            restart = tokens.getStart(first);
+            restartLine = tokens.getLine(first);
+            restartColumn = tokens.getColumn(first);
+        } else {
+            first = 0;
+        }
+        
+        // 2. Apply the edit, noting where its end was and is now
+        long oldEnd = position(restart, restartLine, restartColumn, offset + removed);
+        splice(offset, removed, inserted);
+        long newEnd = position(restart, restartLine, restartColumn, offset + inserted.length());
+        int editLine = (int) (oldEnd >>> 32);
+        int lineDelta = (int) (newEnd >>> 32) - editLine;
+        int columnDelta = (int) newEnd - (int) oldEnd;
+        
+        // 3. Rescan until a token start after the edit matches an old one. The scanner
+        //    sees the text up to the gap; move the gap on until the join is clear of it
+        int editEnd = offset + inserted.length();
+        ManualScanner scanner;
+        int join;
+        for (int window = RESCAN_WINDOW; ; window *= 4) {
+            moveGap((int) Math.min(length, (long) editEnd + window));
+            scanner = ManualScanner.resume(text, gapStart, tokens.getSource(), restart, restartLine, restartColumn,
+                                           tokens, delta, editEnd);
+            scanner.scan();
+            join = scanner.getJoinStart();
+            if (gapStart == length || (join != Integer.MAX_VALUE && join + ScannerDFA.MAX_LOOKAHEAD <= gapStart)) {
+                break;
+            }
+        }
+        TokenBuffer fresh = scanner.getTokenBuffer();
+        int last = join == Integer.MAX_VALUE ? tokens.size() : tokens.firstAtOrAfter(join - delta);
+        
+        // 4. Symbols: drop old occurrences in [first, last), move the rest, add new ones
+        Set<Integer> lost = new HashSet<>();
+        moveOccurrenceGap(first);
+        for (int i = first; i < last; i++) {
+            int id = tokens.getSymbol(i);
+            if (id >= 0) {
+                occurrenceSplits[id]++;         // Its next occurrence is this one: drop it
+                removeOccurrence(id);
+                if (symbolTable.removeOccurrence(id, tokens.getLine(i), tokens.getColumn(i))) {
+                    lost.add(id);
+                } else if (symbolTable.getFrequency(id) == 0) {
+                    lost.remove(id);
+                }
+            }
+        }
+        occurrenceShift += delta;
+        if (last < tokens.size()) {
+            symbolTable.shiftOccurrences(tokens.getLine(last), tokens.getColumn(last),
+                                         editLine, lineDelta, columnDelta);
+        }
+        for (int i = 0; i < fresh.size(); i++) {
+            if (fresh.getType(i) == TokenType.IDENTIFIER) {
+                int id = symbolTable.addOccurrence(text, fresh.getStart(i), fresh.getLength(i),
+                                                   fresh.getLine(i), fresh.getColumn(i));
+                fresh.setSymbol(i, id);
+                addOccurrence(id, fresh.getStart(i));
+                lost.remove(id);
+            }
+        }
+        occurrenceGap = first + fresh.size();
+        
+        // 5. Errors: replace those of the rescanned tokens, move the rest
+        int errorFrom = errorsBefore(restart);
+        int errorTo = join == Integer.MAX_VALUE ? errors : errorsBefore(join - delta);
+        int freshErrors = scanner.errorsBefore(join);
+        errorHandler.replace(errorFrom, errorTo, scanner.getErrorHandler(), 0, freshErrors);
+        replaceErrorStarts(errorFrom, errorTo, scanner, freshErrors, delta);
+        int lineEnd = editEnd;
+        while (lineEnd < length && charAt(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        errorHandler.shift(errorFrom + freshErrors, Math.max(errorsBefore(lineEnd), errorFrom + freshErrors),
+                           editLine, lineDelta, columnDelta);
+        
+        // 6. Tokens
+        tokens.replace(first, last, fresh);
+        tokens.shift(first + fresh.size(), delta, editLine, lineDelta, columnDelta);
+        
+        // First occurrences that were removed and not rescanned are after the join
+        for (int id : lost) {
+            int next = tokens.firstAtOrAfter(nextOccurrence(id));
+            symbolTable.setFirstOccurrence(id, tokens.getLine(next), tokens.getColumn(next));
+        }
+        
+        rescanned = fresh.size();
+        replaced = last - first;
+    }
+    
+    /**
+     * Check that a token start is not preceded by a lowercase letter
+     */
+    private boolean wordBoundary(int start) {
+        return start == 0 || charAt(start - 1) < 'a' || charAt(start - 1) > 'z';
+    }
+    
+    /**
+     * Line and column of an offset, counted from a known position
+     * @return line << 32 | column
+     */
+    private long position(int from, int line, int column, int to) {
+        for (int i = from; i < to; i++) {
+            if (charAt(i) == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return ((long) line << 32) | column;
+    }
+    
+    /**
+     * Replace [offset, offset + removed) of the text, leaving the gap after the inserted text
+     */
+    private void splice(int offset, int removed, String inserted) {
+        moveGap(offset);
+        length -= removed;          // The removed characters now follow the gap: drop them into it
+        if (length + inserted.length() > text.length) {
+            int tail = length - gapStart;
+            char[] grown = new char[Math.max(length + inserted.length(), text.length + (text.length >> 1))];
+            System.arraycopy(text, 0, grown, 0, gapStart);
+            System.arraycopy(text, text.length - tail, grown, grown.length - tail, tail);
+            text = grown;
+        }
+        inserted.getChars(0, inserted.length(), text, gapStart);
+        gapStart += inserted.length();
+        length += inserted.length();
+    }
+    
+    /**
+     * Move the text gap to an offset
+     */
+    private void moveGap(int offset) {
+        int tail = text.length - length;
+        if (offset < gapStart) {
+            System.arraycopy(text, offset, text, offset + tail, gapStart - offset);
+        } else {
+            System.arraycopy(text, gapStart + tail, text, gapStart, offset - gapStart);
+        }
+        gapStart = offset;
+    }
+    
+    private char charAt(int index) {
+        return index < gapStart ? text[index] : text[index + text.length - length];
+    }
+    
+    /**
+     * Add an occurrence of a symbol just before the occurrence gap
+     */
+    private void addOccurrence(int id, int offset) {
+        if (id >= occurrences.length) {
+            int capacity = Math.max(occurrences.length * 2, id + 1);
+            occurrences = Arrays.copyOf(occurrences, capacity);
+            occurrenceCounts = Arrays.copyOf(occurrenceCounts, capacity);
+            occurrenceSplits = Arrays.copyOf(occurrenceSplits, capacity);
+        }
+        int[] list = occurrences[id];
+        int count = occurrenceCounts[id];
+        int split = occurrenceSplits[id];
+        if (list == null || count == list.length) {
+            int[] grown = new int[list == null ? 4 : count * 2];
+            if (list != null) {
+                System.arraycopy(list, 0, grown, 0, split);
+                System.arraycopy(list, split, grown, grown.length - (count - split), count - split);
+            }
+            occurrences[id] = list = grown;
+        }
+        list[split] = offset;
+        occurrenceSplits[id] = split + 1;
+        occurrenceCounts[id] = count + 1;
+    }
+    
+    /**
+     * Remove the last occurrence of a symbol before the occurrence gap
+     */
+    private void removeOccurrence(int id) {
+        occurrenceSplits[id]--;
+        occurrenceCounts[id]--;
+    }
+    
+    /**
+     * Get the offset of the first occurrence of a symbol after the occurrence gap
+     */
+    private int nextOccurrence(int id) {
+        int[] list = occurrences[id];
+        return list[occurrenceSplits[id] + list.length - occurrenceCounts[id]] + occurrenceShift;
+    }
+    
+    /**
+     * Move the occurrence gap to a token index: the occurrences of the tokens
+     * crossed move to the other side of the gap in their symbol's list
+     */
+    private void moveOccurrenceGap(int index) {
+        for (int i = occurrenceGap - 1; i >= index; i--) {
+            int id = tokens.getSymbol(i);
+            if (id >= 0) {
+                int[] list = occurrences[id];
+                int split = --occurrenceSplits[id];
+                list[split + list.length - occurrenceCounts[id]] = list[split] - occurrenceShift;
+            }
+        }
+        for (int i = occurrenceGap; i < index; i++) {
+            int id = tokens.getSymbol(i);
+            if (id >= 0) {
+                int[] list = occurrences[id];
+                int split = occurrenceSplits[id]++;
+                list[split] = list[split + list.length - occurrenceCounts[id]] + occurrenceShift;
+            }
+        }
+        occurrenceGap = index;
+    }
+    
+    private int errorStart(int index) {
+        return index < errorGap ? errorStarts[index] : errorStarts[index + errorStarts.length - errors] + errorShift;
+    }
+    
+    /**
+     * Count the errors reported for tokens starting before an offset
+     */
+    private int errorsBefore(int offset) {
+        int lo = 0;
+        int hi = errors;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (errorStart(mid) < offset) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /**
+     * Replace the starts of errors [from, to) with those of a rescan; later
+     * errors move by the length change of the edit
+     */
+    private void replaceErrorStarts(int from, int to, ManualScanner scanner, int count, int delta) {
+        moveErrorGap(from);
+        errors -= to - from;
+        if (errors + count > errorStarts.length) {
+            int tail = errors - errorGap;
+            int[] grown = new int[Math.max(errorStarts.length * 2, errors + count)];
+            System.arraycopy(errorStarts, 0, grown, 0, errorGap);
+            System.arraycopy(errorStarts, errorStarts.length - tail, grown, grown.length - tail, tail);
+            errorStarts = grown;
+        }
+        for (int i = 0; i < count; i++) {
+            errorStarts[from + i] = scanner.getErrorStart(i);
+        }
+        errors += count;
+        errorGap += count;
+        errorShift = errorGap < errors ? errorShift + delta : 0;
+    }
+    
+    /**
+     * Move the error gap, applying errorShift to the starts that move in front
+     * of it and taking it off those that move behind it
+     */
+    private void moveErrorGap(int index) {
+        int tail = errorStarts.length - errors;
+        if (index < errorGap) {
+            System.arraycopy(errorStarts, index, errorStarts, index + tail, errorGap - index);
+            for (int i = index + tail; i < errorGap + tail; i++) {
+                errorStarts[i] -= errorShift;
+            }
+        } else if (index > errorGap) {
+            System.arraycopy(errorStarts, errorGap + tail, errorStarts, errorGap, index - errorGap);
+            for (int i = errorGap; i < index; i++) {
+                errorStarts[i] += errorShift;
+            }
+        }
+        errorGap = index;
+    }
+    
+    /**
+     * Get the current text
+     */
+    public String getText() {
+        return new StringBuilder(length).append(text, 0, gapStart)
+                                        .append(text, gapStart + text.length - length, length - gapStart).toString();
+    }
+    
+    /**
+     * Get the token buffer (offsets refer to the current text)
+     */
+    public TokenBuffer getTokenBuffer() {
+        return tokens;
+    }
+    
+    /**
+     * Get symbol table
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+    
+    /**
+     * Get error handler
+     */
+    public ErrorHandler getErrorHandler() {
+        return errorHandler;
+    }
+    
+    /**
+     * Get number of tokens produced by the rescan of the last edit
+     */
+    public int getRescannedTokens() {
+        return rescanned;
+    }
+    
+    /**
+     * Get number of old tokens replaced by the last edit
+     */
+    public int getReplacedTokens() {
+        return replaced;
+    }
+    
+    /**
+     * Live view of the text that token offsets refer to
+     */
+    private class Text implements CharSequence {
+        @Override
+        public int length() {
+            return length;
+        }
+        
+        @Override
+        public char charAt(int index) {
+            return IncrementalScanner.this.charAt(index);
+        }
+        
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            int tail = text.length - length;
+            if (end <= gapStart) {
+                return new String(text, start, end - start);
+            }
+            if (start >= gapStart) {
+                return new String(text, start + tail, end - start);
+            }
+            return new StringBuilder(end - start).append(text, start, gapStart - start)
+                                                 .append(text, gapStart + tail, end - gapStart).toString();
+        }
+        
+        @Override
+        public String toString() {
+            return getText();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.*;
+
+/**
+ * KeywordTable Class
+ * Recognizes keywords and boolean literals straight from the source characters.
+ * A perfect hash on length, first and last character selects the only possible
+ * spelling, which is then compared once; nothing is allocated and nothing is
+ * rescanned. Shared by ManualScanner and the JFlex scanner actions.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public final class KeywordTable {
+    
+    private static final int BITS = 5;
+    private static final int SIZE = 1 << BITS;      // At least the number of spellings
+    
+    private static final char[][] SPELLINGS = new char[SIZE][];
+    private static final TokenType[] TYPES = new TokenType[SIZE];
+    private static final int MULTIPLIER;
+    
+    /** Longest keyword / boolean spelling */
+    public static final int MAX_LENGTH;
+    
+    static {
+        // Fixed lowercase spellings taken from TokenType
+        List<String> words = new ArrayList<>();
+        List<TokenType> types = new ArrayList<>();
+        int maxLength = 0;
+        for (TokenType type : TokenType.values()) {
+            for (String spelling : type.getSpellings()) {
+                if (!spelling.isEmpty() && Character.isLowerCase(spelling.charAt(0))) {
+                    words.add(spelling);
+                    types.add(type);
+                    maxLength = Math.max(maxLength, spelling.length());
+                }
+            }
+        }
+        MAX_LENGTH = maxLength;
+        MULTIPLIER = findMultiplier(words);
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            int slot = hash(word.length(), word.charAt(0), word.charAt(word.length() - 1), MULTIPLIER);
+            SPELLINGS[slot] = word.toCharArray();
+            TYPES[slot] = types.get(i);
+        }
+    }
+    
+    private KeywordTable() {
+    }
+    
+    private static int hash(int length, char first, char last, int multiplier) {
+        // Multiplicative hashing: the top bits of the product depend on every key bit
+        return ((first << 16 ^ last << 8 ^ length) * multiplier) >>> (32 - BITS);
+    }
+    
+    /**
+     * Find a multiplier for which no two spellings share a slot
+     */
+    private static int findMultiplier(List<String> words) {
+        for (int multiplier = 1; multiplier < 1 << 24; multiplier += 2) {
+            boolean[] used = new boolean[SIZE];
+            boolean perfect = true;
+            for (String word : words) {
+                int slot = hash(word.length(), word.charAt(0), word.charAt(word.length() - 1), multiplier);
+                if (used[slot]) {
+                    perfect = false;
+                    break;
+                }
+                used[slot] = true;
+            }
+            if (perfect) {
+                return multiplier;
+            }
+        }
+        throw new IllegalStateException("No perfect hash for the keyword spellings");
+    }
+    
+    /**
+     * Look up text[from, to) as a keyword or boolean literal
+     * @param text Source characters
+     * @param from Offset of the first character
+     * @param to End offset (exclusive)
+     * @return Keyword type or BOOLEAN_LITERAL, or null if the text is neither
+     */
+    public static TokenType lookup(char[] text, int from, int to) {
+        int length = to - from;
+        if (length < 1 || length > MAX_LENGTH) {
+            return null;
+        }
+        int slot = hash(length, text[from], text[to - 1], MULTIPLIER);
+        char[] spelling = SPELLINGS[slot];
+        if (spelling == null || spelling.length != length) {
+            return null;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text[from + i] != spelling[i]) {
+                return null;
+            }
+        }
+        return TYPES[slot];
+    }
+}
@@ -0,0 +1,68 @@
+import java.io.*;
+
+/**
+ * LineEndingReader Class
+ * Reader filter that normalizes line endings as ManualScanner.readSource()
+ * does: "\r\n" and a bare '\r' read as '\n', and a last line without a line
+ * ending gets one. Streamed sources then scan exactly like whole-file ones.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class LineEndingReader extends Reader {
+    
+    private Reader in;
+    private int last;               // Last char read ('\r', '\n', another char, or -1 before the first)
+    
+    /**
+     * Constructor
+     * @param in Reader to normalize
+     */
+    public LineEndingReader(Reader in) {
+        this.in = in;
+        this.last = -1;
+    }
+    
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (in == null) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        int n;
+        do {
+            int count = in.read(cbuf, off, len);
+            if (count < 0) {
+                if (last == -1 || last == '\r' || last == '\n') {
+                    return -1;
+                }
+                cbuf[off] = '\n';           // The last line has no line ending
+                last = '\n';
+                return 1;
+            }
+            
+            // Compact in place, dropping the '\n' of each "\r\n"
+            int previous = last;
+            n = off;
+            for (int i = off; i < off + count; i++) {
+                char c = cbuf[i];
+                if (c == '\r') {
+                    cbuf[n++] = '\n';
+                } else if (c != '\n' || previous != '\r') {
+                    cbuf[n++] = c;
+                }
+                previous = c;
+            }
+            last = previous;
+        } while (n == off);
+        return n - off;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+            in = null;
+        }
+    }
+}
@@ -1,48 +1,151 @@
 import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 /**
  * ManualScanner - DFA-Based Lexical Analyzer
  * CS4031 - Compiler Construction - Assignment 01
  * Implements manual token recognition using minimized DFA transition tables
+ * (built in ScannerDFA) in a single forward pass per token.
+ * Works either on a complete source string (scan(), or scanParallel() for
+ * large inputs) or as a pull-based streaming tokenizer over a
+ * Reader/ReadableByteChannel (nextToken()/Iterator).
  */
-public class ManualScanner {
+public class ManualScanner implements Iterator<Token> {
+    
+    // Version of the scan results (tokens, symbols, errors and statistics); bump it when they
+    // change so that results saved by TokenCache are not reused
+    public static final int VERSION = 1;
+    
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int PARALLEL_MIN_CHUNK = 256 * 1024;
+    private static final TokenType[] TYPES = TokenType.values();
+    
+    // Opt-in recognizer profiling (-Dsimplelang.profile=true); a constant, so it costs nothing when off
+    private static final boolean PROFILE = ScannerProfile.ENABLED;
+    
+    // Comment and string bodies are crossed by the run skipper picked with -Dsimplelang.skip
+    private static final RunSkipper SKIPPER = RunSkipper.INSTANCE;
+    
+    // Characters where error recovery resumes scanning: whitespace, ';', '{', '}'
+    // and the first letters of keywords (at the start of a word)
+    private static final boolean[] SYNC = new boolean[128];
+    private static final boolean[] WORD_SYNC = new boolean[128];
+    
+    static {
+        for (int c = 0; c < 128; c++) {
+            SYNC[c] = Character.isWhitespace(c);
+        }
+        SYNC[';'] = true;
+        SYNC['{'] = true;
+        SYNC['}'] = true;
+        for (TokenType type : TokenType.values()) {
+            for (String spelling : type.getSpellings()) {
+                if (!spelling.isEmpty() && Character.isLowerCase(spelling.charAt(0))) {
+                    WORD_SYNC[spelling.charAt(0)] = true;
+                }
+            }
+        }
+    }
+    
+    // Input window: buf[0, limit) holds source characters starting at bufferOffset
+    private char[] buf;
+    private int limit;
+    private long bufferOffset;
+    private Reader reader;          // null when the whole source is in buf
+    private boolean finished;       // EOF token already produced
+    private int chunkEnd;           // Tokens starting here belong to the next chunk (parallel scan)
+    private ChunkState chunk;       // null unless scanning a chunk
     
-    private String input;
     private int pos;
     private int line;
     private int column;
-    private int lineStartPos;
+    private int wordEnd;            // End of a lowercase run being resolved
+    private boolean recovery;       // Panic-mode error recovery
+    private long unclosedFrom;      // No comment opened at or after this source offset is closed
+    
+    // Start of the token most recently returned by scanToken() (it ends at pos)
+    private int tokenStart;
+    private int tokenLine;
+    private int tokenColumn;
+    private int tokenSymbol;        // Symbol ID of the current identifier
     
-    private List<Token> tokens;
+    private TokenBuffer tokens;
     private SymbolTable symbolTable;
     private ErrorHandler errorHandler;
     
     // Statistics
-    private Map<TokenType, Integer> tokenCounts;
+    private int[] tokenCounts;      // By TokenType.ordinal()
     private int totalTokens;
     private int linesProcessed;
     private int commentsRemoved;
+    private long scanNanos;         // Time spent in scan()/scanParallel()
+    
+    // Profile (null unless PROFILE) and the outcome of the current scanToken() call
+    private ScannerProfile profile;
+    private ScannerProfile.Recognizer profiledRecognizer;
+    private boolean profiledSuccess;
+    private int profiledScanned;
+    private long profileStart;
     
     /**
      * Constructor
      * @param input Source code input
      */
     public ManualScanner(String input) {
-        this.input = input;
+        this(input.toCharArray(), input.length(), null);
+    }
+    
+    /**
+     * Constructor for streaming mode. Characters are read through a refillable
+     * buffer, so memory use does not depend on the size of the input.
+     * @param reader Source code reader
+     */
+    public ManualScanner(Reader reader) {
+        this(new char[STREAM_BUFFER_SIZE], 0, reader);
+    }
+    
+    /**
+     * Constructor for streaming mode over a byte channel (UTF-8 encoded source)
+     * @param channel Source code channel
+     */
+    public ManualScanner(ReadableByteChannel channel) {
+        this(Channels.newReader(channel, StandardCharsets.UTF_8));
+    }
+    
+    private ManualScanner(char[] buf, int limit, Reader reader) {
+        this.buf = buf;
+        this.limit = limit;
+        this.bufferOffset = 0;
+        this.reader = reader;
+        this.finished = false;
+        this.chunkEnd = Integer.MAX_VALUE;
+        
         this.pos = 0;
         this.line = 1;
         this.column = 1;
-        this.lineStartPos = 0;
+        this.wordEnd = 0;
+        this.recovery = false;
+        this.unclosedFrom = Long.MAX_VALUE;
         
-        this.tokens = new ArrayList<>();
+        // A streamed window is overwritten on refill, so lexemes must be copied out
+        this.tokens = reader == null ? new TokenBuffer(CharBuffer.wrap(buf)) : new TokenBuffer();
         this.symbolTable = new SymbolTable();
         this.errorHandler = new ErrorHandler();
         
-        this.tokenCounts = new HashMap<>();
+        this.tokenCounts = new int[TYPES.length];
         this.totalTokens = 0;
         this.linesProcessed = 0;
         this.commentsRemoved = 0;
+        this.scanNanos = 0;
+        this.profile = PROFILE ? new ScannerProfile() : null;
     }
     
     /**
@@ -50,646 +153,865 @@ public class ManualScanner {
      * @return List of tokens
      */
     public List<Token> scan() {
-        while (pos < input.length()) {
-            Token token = nextToken();
-            if (token != null) {
-                // Don't add whitespace and comments to token list (they're handled during pre-processing)
-                if (token.getType() != TokenType.WHITESPACE && 
-                    token.getType() != TokenType.COMMENT_SINGLE && 
-                    token.getType() != TokenType.COMMENT_MULTI) {
-                    tokens.add(token);
-                    totalTokens++;
-                    tokenCounts.put(token.getType(), tokenCounts.getOrDefault(token.getType(), 0) + 1);
-                    
-                    // Add identifiers to symbol table
-                    if (token.getType() == TokenType.IDENTIFIER) {
-                        symbolTable.addIdentifier(token.getLexeme(), token.getLine(), token.getColumn());
-                    }
-                }
+        long start = System.nanoTime();
+        TokenType type;
+        while ((type = nextTokenType()) != null) {
+            if (reader == null) {
+                tokens.add(type, tokenStart, pos - tokenStart, tokenLine, tokenColumn);
+            } else {
+                tokens.add(type, tokenText(type), tokenLine, tokenColumn);
+            }
+            if (type == TokenType.IDENTIFIER && chunk == null) {
+                tokens.setSymbol(tokens.size() - 1, tokenSymbol);
             }
         }
-        
-        // Add EOF token
-        Token eofToken = new Token(TokenType.EOF, "", line, column);
-        tokens.add(eofToken);
-        totalTokens++;
-        tokenCounts.put(TokenType.EOF, 1);
-        
-        linesProcessed = line;
-        
-        return tokens;
+        scanNanos += System.nanoTime() - start;
+        return tokens.asList();
     }
     
     /**
-     * Get next token using pattern matching priority
-     * Priority order (highest to lowest):
-     * 1. Multi-line comments
-     * 2. Single-line comments  
-     * 3. Multi-character operators (**, ==, !=, <=, >=, &&, ||, +=, -=, *=, /=, ++, --)
-     * 4. Keywords
-     * 5. Boolean literals
-     * 6. Identifiers
-     * 7. Floating-point literals
-     * 8. Integer literals
-     * 9. String literals
-     * 10. Character literals
-     * 11. Single-character operators and punctuators
-     * 12. Whitespace
+     * Parallel scanning method for large inputs (not available in streaming mode).
+     * Uses about four chunks per worker of the common fork/join pool; on a single
+     * core this is the same as scan().
+     * @return List of tokens, identical to scan()
      */
-    private Token nextToken() {
-        if (pos >= input.length()) {
-            return null;
-        }
-        
-        int startLine = line;
-        int startColumn = column;
-        
-        // Priority 1: Multi-line comments (#* ... *#)
-        Token multiLineComment = scanMultiLineComment();
-        if (multiLineComment != null) {
-            commentsRemoved++;
-            return multiLineComment;
-        }
-        
-        // Priority 2: Single-line comments (##...)
-        Token singleLineComment = scanSingleLineComment();
-        if (singleLineComment != null) {
-            commentsRemoved++;
-            return singleLineComment;
-        }
-        
-        // Priority 3: Multi-character operators (must check before single-char)
-        Token multiCharOp = scanMultiCharOperator();
-        if (multiCharOp != null) {
-            return multiCharOp;
-        }
-        
-        // Priority 4: Keywords (must check before identifiers)
-        Token keyword = scanKeyword();
-        if (keyword != null) {
-            return keyword;
+    public List<Token> scanParallel() {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int chunks = parallelism > 1 ? Math.min(parallelism * 4, limit / PARALLEL_MIN_CHUNK) : 1;
+        return scanParallel(Math.max(chunks, 1));
+    }
+    
+    /**
+     * Parallel scanning method. The source is split into chunks just after newlines
+     * and every chunk is scanned speculatively on the fork/join pool as if it began
+     * at a token boundary, with lines counted from 1. The chunks are then reconciled
+     * in order: when the previous chunk's last token (a multi-line comment or string)
+     * runs past a chunk's start, the chunk is rescanned from the true end of that
+     * token until it reaches a token the speculative scan also found, and the
+     * speculative result is used from there on. Line numbers are shifted by the
+     * newline count before each chunk. Tokens, symbol table, errors and statistics
+     * are the same as for a sequential scan().
+     * @param chunkCount Number of chunks to split the source into
+     * @return List of tokens
+     */
+    public List<Token> scanParallel(int chunkCount) {
+        if (reader != null) {
+            throw new IllegalStateException("Parallel scanning needs the whole source");
         }
-        
-        // Priority 5: Boolean literals (must check before identifiers)
-        Token boolLiteral = scanBooleanLiteral();
-        if (boolLiteral != null) {
-            return boolLiteral;
+        if (pos != 0 || finished) {
+            throw new IllegalStateException("Scanner has already been used");
         }
         
-        // Priority 6: Identifiers
-        Token identifier = scanIdentifier();
-        if (identifier != null) {
-            return identifier;
+        // Chunk boundaries: the first line start after each even split point
+        int[] bounds = new int[Math.max(chunkCount, 1) + 1];
+        int count = 0;
+        for (int k = 1; k < chunkCount; k++) {
+            int at = Math.max((int) ((long) limit * k / chunkCount), bounds[count] + 1);
+            while (at < limit && buf[at - 1] != '\n') {
+                at++;
+            }
+            if (at < limit) {
+                bounds[++count] = at;
+            }
         }
-        
-        // Priority 7: Floating-point literals (must check before integers)
-        Token floatLiteral = scanFloatingPointLiteral();
-        if (floatLiteral != null) {
-            return floatLiteral;
+        bounds[++count] = limit;
+        if (count == 1) {
+            return scan();
         }
+        long start = System.nanoTime();
         
-        // Priority 8: Integer literals
-        Token intLiteral = scanIntegerLiteral();
-        if (intLiteral != null) {
-            return intLiteral;
+        // 1. Speculative scan of every chunk and newline counts
+        ManualScanner[] parts = new ManualScanner[count];
+        int[] newlines = new int[count];
+        for (int i = 0; i < count; i++) {
+            parts[i] = chunk(bounds[i], bounds[i + 1], 1);
         }
-        
-        // Priority 9: String literals
-        Token stringLiteral = scanStringLiteral();
-        if (stringLiteral != null) {
-            return stringLiteral;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        pool.invoke(new ChunkTask(0, count, i -> {
+            parts[i].scan();
+            int n = 0;
+            for (int p = bounds[i]; p < bounds[i + 1]; p++) {
+                if (buf[p] == '\n') {
+                    n++;
+                }
+            }
+            newlines[i] = n;
+        }));
+        
+        // 2. Reconcile chunk starts with the true end of the previous chunk
+        ManualScanner[] heads = new ManualScanner[count];   // Rescanned start of a chunk
+        int[] headOffsets = new int[count];
+        int[] offsets = new int[count];                     // Newlines before chunk i
+        int[] keepFrom = new int[count];                    // Speculative tokens kept from here
+        int end = 0;
+        int endLine = 1;
+        int endColumn = 1;
+        int lineOffset = 0;
+        for (int i = 0; i < count; i++) {
+            ManualScanner part = parts[i];
+            offsets[i] = lineOffset;
+            lineOffset += newlines[i];
+            keepFrom[i] = bounds[i];
+            
+            if (end != bounds[i]) {
+                keepFrom[i] = Integer.MAX_VALUE;
+                if (end >= bounds[i + 1]) {
+                    continue;
+                }
+                ManualScanner head = chunk(end, bounds[i + 1], endColumn);
+                head.chunk.join = part.tokens;
+                head.scan();
+                heads[i] = head;
+                headOffsets[i] = endLine - 1;
+                if (head.chunk.joinStart == Integer.MAX_VALUE) {
+                    end = head.pos;
+                    endLine = head.line + headOffsets[i];
+                    endColumn = head.column;
+                    continue;
+                }
+                keepFrom[i] = head.chunk.joinStart;
+            }
+            end = part.pos;
+            endLine = part.line + offsets[i];
+            endColumn = part.column;
         }
         
-        // Priority 10: Character literals
-        Token charLiteral = scanCharacterLiteral();
-        if (charLiteral != null) {
-            return charLiteral;
-        }
+        // 3. Symbol tables of the kept tokens
+        pool.invoke(new ChunkTask(0, count, i -> {
+            if (heads[i] != null) {
+                heads[i].collectSymbols(0);
+            }
+            parts[i].collectSymbols(parts[i].tokens.firstAtOrAfter(keepFrom[i]));
+        }));
         
-        // Priority 11: Single-character operators and punctuators
-        Token singleChar = scanSingleCharToken();
-        if (singleChar != null) {
-            return singleChar;
+        // 4. Merge in source order
+        for (int i = 0; i < count; i++) {
+            if (heads[i] != null) {
+                merge(heads[i], 0, heads[i].chunk.joinStart, headOffsets[i]);
+            }
+            merge(parts[i], keepFrom[i], Integer.MAX_VALUE, offsets[i]);
         }
         
-        // Priority 12: Whitespace
-        Token whitespace = scanWhitespace();
-        if (whitespace != null) {
-            return whitespace;
+        pos = limit;
+        line = endLine;
+        column = endColumn;
+        finished = true;
+        scanNanos += System.nanoTime() - start;
+        if (PROFILE) {
+            profile.commitEvents();
         }
-        
-        // Error: Invalid character
-        char ch = input.charAt(pos);
-        errorHandler.reportInvalidCharacter(ch, startLine, startColumn);
-        advance();
-        return new Token(TokenType.ERROR, String.valueOf(ch), startLine, startColumn);
+        return tokens.asList();
     }
     
     /**
-     * Scan multi-line comment using DFA
-     * Regex: #\*([^*]|\*+[^*#])*\*+#
+     * Create a scanner for the chunk [from, to) of this scanner's source.
+     * Its last token may extend past to; lines are counted from 1.
      */
-    private Token scanMultiLineComment() {
-        if (!peek("#*")) {
-            return null;
+    private ManualScanner chunk(int from, int to, int startColumn) {
+        ManualScanner part = new ManualScanner(buf, limit, null);
+        part.tokens = new TokenBuffer(tokens.getSource());
+        part.chunk = new ChunkState();
+        // Chunk errors are indexed by token start; the limit and coalescing apply when they
+        // are merged (a run coalesced in a chunk could start before the chunk's join point)
+        part.errorHandler.setMaxErrors(Integer.MAX_VALUE);
+        part.errorHandler.setCoalesceInvalidRuns(false);
+        if (symbolTable.hasOccurrenceIndex()) {
+            part.symbolTable.indexOccurrences();
         }
-        
-        int startPos = pos;
-        int startLine = line;
-        int startColumn = column;
-        
-        advance(); // consume #
-        advance(); // consume *
-        
-        boolean foundEnd = false;
-        while (pos < input.length()) {
-            if (peek("*#")) {
-                advance(); // consume *
-                advance(); // consume #
-                foundEnd = true;
-                break;
-            }
-            advance();
-        }
-        
-        if (!foundEnd) {
-            errorHandler.reportUnclosedComment(startLine, startColumn);
-        }
-        
-        String lexeme = input.substring(startPos, pos);
-        return new Token(TokenType.COMMENT_MULTI, lexeme, startLine, startColumn);
+        part.recovery = recovery;
+        part.pos = from;
+        part.column = startColumn;
+        part.chunkEnd = to;
+        return part;
     }
     
     /**
-     * Scan single-line comment using DFA
-     * Regex: ##[^\n]*
-     * DFA: 3 states (start -> # -> ## -> content)
+     * Create a scanner that rescans an edited source from a token boundary
+     * (incremental scanning). It stops before the first significant token after
+     * the edit that the previous token buffer also has, shifted by the edit's
+     * change in length. Identifiers are not added to its symbol table.
+     * @param buf Edited source characters
+     * @param length Number of characters in buf
+     * @param source Source the new tokens refer to
+     * @param from Offset of a token start before the edit
+     * @param line Line number at from
+     * @param column Column number at from
+     * @param previous Tokens before the edit
+     * @param shift Change in source length made by the edit
+     * @param editEnd Offset just after the inserted text; a join must start after it
+     * @return Scanner positioned at from
      */
-    private Token scanSingleLineComment() {
-        if (!peek("##")) {
-            return null;
-        }
-        
-        int startPos = pos;
-        int startLine = line;
-        int startColumn = column;
-        
-        advance(); // consume first #
-        advance(); // consume second #
-        
-        // Consume until newline
-        while (pos < input.length() && input.charAt(pos) != '\n') {
-            advance();
-        }
-        
-        String lexeme = input.substring(startPos, pos);
-        return new Token(TokenType.COMMENT_SINGLE, lexeme, startLine, startColumn);
+    static ManualScanner resume(char[] buf, int length, CharSequence source, int from, int line, int column,
+                                TokenBuffer previous, int shift, int editEnd) {
+        ManualScanner scanner = new ManualScanner(buf, length, null);
+        scanner.tokens = new TokenBuffer(source);
+        scanner.chunk = new ChunkState();
+        scanner.chunk.join = previous;
+        scanner.chunk.joinShift = shift;
+        scanner.chunk.joinAfter = editEnd;
+        scanner.errorHandler.setMaxErrors(Integer.MAX_VALUE);
+        scanner.pos = from;
+        scanner.line = line;
+        scanner.column = column;
+        return scanner;
     }
     
     /**
-     * Scan multi-character operators
-     * **, ==, !=, <=, >=, &&, ||, +=, -=, *=, /=, ++, --
+     * Get the start of the token where a rescan joined the previous tokens
+     * @return Source offset, or Integer.MAX_VALUE if the rescan reached the end
      */
-    private Token scanMultiCharOperator() {
-        int startLine = line;
-        int startColumn = column;
-        char ch = input.charAt(pos);
-        
-        if (pos + 1 < input.length()) {
-            char next = input.charAt(pos + 1);
-            String twoChar = "" + ch + next;
-            
-            TokenType type = null;
-            switch (twoChar) {
-                case "**": type = TokenType.OP_EXPONENT; break;
-                case "==": type = TokenType.OP_EQUAL; break;
-                case "!=": type = TokenType.OP_NOT_EQUAL; break;
-                case "<=": type = TokenType.OP_LESS_EQUAL; break;
-                case ">=": type = TokenType.OP_GREATER_EQUAL; break;
-                case "&&": type = TokenType.OP_AND; break;
-                case "||": type = TokenType.OP_OR; break;
-                case "+=": type = TokenType.OP_PLUS_ASSIGN; break;
-                case "-=": type = TokenType.OP_MINUS_ASSIGN; break;
-                case "*=": type = TokenType.OP_MULTIPLY_ASSIGN; break;
-                case "/=": type = TokenType.OP_DIVIDE_ASSIGN; break;
-                case "++": type = TokenType.OP_INCREMENT; break;
-                case "--": type = TokenType.OP_DECREMENT; break;
-            }
-            
-            if (type != null) {
-                advance();
-                advance();
-                return new Token(type, twoChar, startLine, startColumn);
+    int getJoinStart() {
+        return chunk.joinStart;
+    }
+    
+    /**
+     * Get the number of errors reported for tokens starting before an offset (chunk scans)
+     */
+    int errorsBefore(int offset) {
+        return ChunkState.countBefore(chunk.errorStarts, chunk.errors, offset);
+    }
+    
+    /**
+     * Get the start of the token an error was reported for (chunk scans)
+     */
+    int getErrorStart(int index) {
+        return chunk.errorStarts[index];
+    }
+    
+    /**
+     * Add the identifiers of a chunk's tokens from index first on to its symbol table
+     */
+    private void collectSymbols(int first) {
+        for (int i = first; i < tokens.size(); i++) {
+            if (tokens.getType(i) == TokenType.IDENTIFIER) {
+                tokens.setSymbol(i, symbolTable.addIdentifier(buf, tokens.getStart(i), tokens.getLength(i),
+                                                              tokens.getLine(i), tokens.getColumn(i)));
             }
         }
-        
-        return null;
     }
     
     /**
-     * Scan keyword
-     * Keywords: start, finish, loop, condition, declare, output, input, function, return, break, continue, else
+     * Append the results of a chunk scan for the source range [from, to)
      */
-    private Token scanKeyword() {
-        int startPos = pos;
-        int startLine = line;
-        int startColumn = column;
-        
-        // Keywords are lowercase letters only
-        if (!Character.isLowerCase(input.charAt(pos))) {
-            return null;
+    private void merge(ManualScanner part, int from, int to, int lineOffset) {
+        TokenBuffer partTokens = part.tokens;
+        int first = partTokens.firstAtOrAfter(from);
+        int last = partTokens.firstAtOrAfter(to);
+        ChunkState log = part.chunk;
+        
+        int size = tokens.size();
+        tokens.addAll(partTokens, first, last, lineOffset);
+        tokens.remapSymbols(size, tokens.size(), symbolTable.merge(part.symbolTable, lineOffset));
+        errorHandler.merge(part.errorHandler, ChunkState.countBefore(log.errorStarts, log.errors, from),
+                           ChunkState.countBefore(log.errorStarts, log.errors, to), lineOffset);
+        commentsRemoved += ChunkState.countBefore(log.commentStarts, log.comments, to)
+                           - ChunkState.countBefore(log.commentStarts, log.comments, from);
+        
+        for (int i = 0; i < tokenCounts.length; i++) {
+            tokenCounts[i] += part.tokenCounts[i];
         }
-        
-        StringBuilder sb = new StringBuilder();
-        while (pos < input.length() && Character.isLowerCase(input.charAt(pos))) {
-            sb.append(input.charAt(pos));
-            advance();
+        totalTokens += part.totalTokens;
+        for (int i = 0; i < first; i++) {
+            // Tokens of a speculative scan before the join point
+            tokenCounts[partTokens.getType(i).ordinal()]--;
+            totalTokens--;
         }
-        
-        String word = sb.toString();
-        TokenType type = null;
-        
-        switch (word) {
-            case "start": type = TokenType.KEYWORD_START; break;
-            case "finish": type = TokenType.KEYWORD_FINISH; break;
-            case "loop": type = TokenType.KEYWORD_LOOP; break;
-            case "condition": type = TokenType.KEYWORD_CONDITION; break;
-            case "declare": type = TokenType.KEYWORD_DECLARE; break;
-            case "output": type = TokenType.KEYWORD_OUTPUT; break;
-            case "input": type = TokenType.KEYWORD_INPUT; break;
-            case "function": type = TokenType.KEYWORD_FUNCTION; break;
-            case "return": type = TokenType.KEYWORD_RETURN; break;
-            case "break": type = TokenType.KEYWORD_BREAK; break;
-            case "continue": type = TokenType.KEYWORD_CONTINUE; break;
-            case "else": type = TokenType.KEYWORD_ELSE; break;
+        if (last > first && partTokens.getType(last - 1) == TokenType.EOF) {
+            linesProcessed = part.linesProcessed + lineOffset;
         }
-        
-        if (type != null) {
-            return new Token(type, word, startLine, startColumn);
+        if (PROFILE) {
+            profile.merge(part.profile);
         }
-        
-        // Not a keyword, backtrack
-        pos = startPos;
-        line = startLine;
-        column = startColumn;
-        return null;
     }
     
     /**
-     * Scan boolean literal using DFA
-     * Regex: (true|false)
-     * DFA: 8 states
+     * Record comment and error positions of a chunk scan, and check whether the
+     * token just scanned is the point where a rescan joins the speculative scan
+     * (the same token start, not inside a lowercase run for either scan)
+     * @return true if the rescan should stop before this token
      */
-    private Token scanBooleanLiteral() {
-        int startPos = pos;
-        int startLine = line;
-        int startColumn = column;
-        
-        if (peek("true")) {
-            String lexeme = input.substring(pos, pos + 4);
-            advance(); advance(); advance(); advance();
-            return new Token(TokenType.BOOLEAN_LITERAL, lexeme, startLine, startColumn);
+    private boolean chunkJoins(TokenType type) {
+        if (type == TokenType.COMMENT_SINGLE || type == TokenType.COMMENT_MULTI) {
+            chunk.commentStarts = ChunkState.add(chunk.commentStarts, chunk.comments++, tokenStart);
         }
-        
-        if (peek("false")) {
-            String lexeme = input.substring(pos, pos + 5);
-            advance(); advance(); advance(); advance(); advance();
-            return new Token(TokenType.BOOLEAN_LITERAL, lexeme, startLine, startColumn);
+        while (chunk.errors < errorHandler.getErrorCount()) {
+            chunk.errorStarts = ChunkState.add(chunk.errorStarts, chunk.errors++, tokenStart);
         }
-        
-        return null;
+        if (chunk.join == null || tokenStart <= chunk.joinAfter || type == TokenType.WHITESPACE
+            || type == TokenType.COMMENT_SINGLE || type == TokenType.COMMENT_MULTI) {
+            return false;
+        }
+        if (tokenStart > 0 && buf[tokenStart - 1] >= 'a' && buf[tokenStart - 1] <= 'z') {
+            return false;
+        }
+        int start = tokenStart - chunk.joinShift;
+        int index = chunk.join.firstAtOrAfter(start);
+        if (index < chunk.join.size() && chunk.join.getStart(index) == start) {
+            chunk.joinStart = tokenStart;
+            return true;
+        }
+        return false;
     }
     
     /**
-     * Scan identifier using DFA
-     * Regex: [A-Z][a-z0-9_]{0,30}
-     * DFA: 2 states (start -> uppercase -> (lowercase|digit|_)*)
+     * Extra state of a scanner working on one chunk of a parallel scan (or an incremental rescan)
      */
-    private Token scanIdentifier() {
-        int startPos = pos;
-        int startLine = line;
-        int startColumn = column;
-        
-        // Must start with uppercase letter
-        if (!Character.isUpperCase(input.charAt(pos))) {
-            return null;
-        }
-        
-        advance(); // consume first uppercase letter
-        
-        // Continue with lowercase, digits, or underscore
-        while (pos < input.length()) {
-            char ch = input.charAt(pos);
-            if (Character.isLowerCase(ch) || Character.isDigit(ch) || ch == '_') {
-                advance();
-            } else {
-                break;
+    private static class ChunkState {
+        int[] commentStarts = new int[16];
+        int comments;
+        int[] errorStarts = new int[16];
+        int errors;
+        TokenBuffer join;                       // Speculative tokens a rescan tries to join
+        int joinShift;                          // Offset in this scan minus offset in join
+        int joinAfter = -1;                     // Only tokens starting after this offset can join
+        int joinStart = Integer.MAX_VALUE;      // Start of the first shared token
+        
+        static int[] add(int[] starts, int n, int offset) {
+            if (n == starts.length) {
+                starts = Arrays.copyOf(starts, n * 2);
             }
+            starts[n] = offset;
+            return starts;
         }
         
-        String lexeme = input.substring(startPos, pos);
-        
-        // Check length constraint (max 31 characters)
-        if (lexeme.length() > 31) {
-            errorHandler.reportIdentifierTooLong(lexeme, startLine, startColumn);
+        static int countBefore(int[] starts, int n, int offset) {
+            int lo = 0;
+            int hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < offset) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
         }
-        
-        return new Token(TokenType.IDENTIFIER, lexeme, startLine, startColumn);
     }
     
     /**
-     * Scan floating-point literal using DFA
-     * Regex: [+-]?[0-9]+\.[0-9]{1,6}
-     * DFA: 5 states
+     * Fork/join task running an action for every chunk index in [lo, hi)
      */
-    private Token scanFloatingPointLiteral() {
-        int startPos = pos;
-        int startLine = line;
-        int startColumn = column;
-        int savePos = pos;
-        int saveLine = line;
-        int saveColumn = column;
-        
-        // Optional sign
-        if (input.charAt(pos) == '+' || input.charAt(pos) == '-') {
-            advance();
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int lo;
+        private final int hi;
+        private final IntConsumer action;
+        
+        ChunkTask(int lo, int hi, IntConsumer action) {
+            this.lo = lo;
+            this.hi = hi;
+            this.action = action;
         }
         
-        // Must have at least one digit
-        if (pos >= input.length() || !Character.isDigit(input.charAt(pos))) {
-            pos = savePos;
-            line = saveLine;
-            column = saveColumn;
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ChunkTask(lo, mid, action), new ChunkTask(mid, hi, action));
+            } else {
+                action.accept(lo);
+            }
+        }
+    }
+    
+    /**
+     * Get the next token without storing it (streaming mode).
+     * Whitespace and comments are skipped; the last token is EOF.
+     * @return Next token, or null after EOF has been returned
+     * @throws IllegalStateException if the token starts past 2 GB of streamed
+     *         input (Token offsets are ints; use nextTokenType() and getTokenOffset())
+     */
+    public Token nextToken() {
+        TokenType type = nextTokenType();
+        if (type == null) {
             return null;
         }
-        
-        // Consume digits before decimal point
-        while (pos < input.length() && Character.isDigit(input.charAt(pos))) {
-            advance();
+        if (reader == null) {
+            return new Token(type, tokens.getSource(), tokenStart, pos - tokenStart, tokenLine, tokenColumn);
         }
-        
-        // Must have decimal point
-        if (pos >= input.length() || input.charAt(pos) != '.') {
-            pos = savePos;
-            line = saveLine;
-            column = saveColumn;
+        return new Token(type, tokenText(type), intOffset(bufferOffset + tokenStart), tokenLine, tokenColumn);
+    }
+    
+    @Override
+    public boolean hasNext() {
+        return !finished;
+    }
+    
+    @Override
+    public Token next() {
+        Token token = nextToken();
+        if (token == null) {
+            throw new NoSuchElementException();
+        }
+        return token;
+    }
+    
+    /**
+     * Scan the next significant token and update statistics and the symbol table.
+     * No Token object is created and nothing is stored: the token is described by
+     * getTokenStart(), getTokenLength(), getTokenLine(), getTokenColumn() and
+     * appendTokenText() until the next call (pull mode, see TokenWindow).
+     * @return Token type (EOF once at the end), or null when scanning is finished
+     */
+    public TokenType nextTokenType() {
+        if (finished) {
             return null;
         }
         
-        advance(); // consume '.'
-        
-        // Must have at least one decimal digit
-        if (pos >= input.length() || !Character.isDigit(input.charAt(pos))) {
-            pos = savePos;
-            line = saveLine;
-            column = saveColumn;
+        TokenType type;
+        while (pos < chunkEnd && (type = PROFILE ? profiledScanToken() : scanToken()) != null) {
+            if (chunk != null && chunkJoins(type)) {
+                finished = true;
+                return null;
+            }
+            // Don't report whitespace and comments (they're handled during pre-processing)
+            if (type != TokenType.WHITESPACE && 
+                type != TokenType.COMMENT_SINGLE && 
+                type != TokenType.COMMENT_MULTI) {
+                totalTokens++;
+                tokenCounts[type.ordinal()]++;
+                
+                // Add identifiers to symbol table (chunks collect them after reconciliation)
+                if (type == TokenType.IDENTIFIER && chunk == null) {
+                    // Only the occurrence index keeps the source offset
+                    int offset = symbolTable.hasOccurrenceIndex() ? intOffset(bufferOffset + tokenStart) : 0;
+                    tokenSymbol = symbolTable.addIdentifier(buf, tokenStart, pos - tokenStart, offset,
+                                                            tokenLine, tokenColumn);
+                }
+                return type;
+            }
+        }
+        if (pos < limit) {
+            // The rest of the input belongs to the next chunk
+            finished = true;
             return null;
         }
         
-        // Consume decimal digits (simplified: no strict 1-6 limit for basic implementation)
-        int decimalCount = 0;
-        while (pos < input.length() && Character.isDigit(input.charAt(pos))) {
-            advance();
-            decimalCount++;
+        // EOF token
+        tokenStart = pos;
+        tokenLine = line;
+        tokenColumn = column;
+        totalTokens++;
+        tokenCounts[TokenType.EOF.ordinal()] = 1;
+        linesProcessed = line;
+        finished = true;
+        if (PROFILE && chunk == null) {
+            profile.commitEvents();
         }
-        
-        String lexeme = input.substring(startPos, pos);
-        return new Token(TokenType.FLOAT_LITERAL, lexeme, startLine, startColumn);
+        return TokenType.EOF;
     }
     
     /**
-     * Scan integer literal using DFA
-     * Regex: [+-]?[0-9]+
-     * DFA: 3 states (start -> sign -> digits)
+     * Get the source offset of the token last returned by nextTokenType()
+     * @throws IllegalStateException if the offset is past 2 GB of streamed input (use getTokenOffset())
      */
-    private Token scanIntegerLiteral() {
-        int startPos = pos;
-        int startLine = line;
-        int startColumn = column;
-        
-        // Optional sign
-        if (input.charAt(pos) == '+' || input.charAt(pos) == '-') {
-            advance();
-        }
-        
-        // Must have at least one digit
-        if (pos >= input.length() || !Character.isDigit(input.charAt(pos))) {
-            pos = startPos;
-            line = startLine;
-            column = startColumn;
-            return null;
+    public int getTokenStart() {
+        return intOffset(bufferOffset + tokenStart);
+    }
+    
+    /**
+     * Get the source offset of the token last returned by nextTokenType(),
+     * also past 2 GB of streamed input
+     */
+    public long getTokenOffset() {
+        return bufferOffset + tokenStart;
+    }
+    
+    /**
+     * Narrow a source offset for Token, TokenBuffer and SymbolTable, which keep int offsets
+     * @throws IllegalStateException if the offset does not fit in an int
+     */
+    private static int intOffset(long offset) {
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Source offset " + offset + " exceeds the int offsets of tokens; "
+                                            + "read input past 2 GB with nextTokenType() and getTokenOffset()");
         }
-        
-        // Consume all digits
-        while (pos < input.length() && Character.isDigit(input.charAt(pos))) {
-            advance();
+        return (int) offset;
+    }
+    
+    /**
+     * Get the length of the token last returned by nextTokenType()
+     */
+    public int getTokenLength() {
+        return pos - tokenStart;
+    }
+    
+    public int getTokenLine() {
+        return tokenLine;
+    }
+    
+    public int getTokenColumn() {
+        return tokenColumn;
+    }
+    
+    /**
+     * Append the text of the token last returned by nextTokenType()
+     * @param out Destination
+     */
+    public void appendTokenText(StringBuilder out) {
+        out.append(buf, tokenStart, pos - tokenStart);
+    }
+    
+    /**
+     * Get the source that getTokenStart() offsets point into
+     * @return Shared source, or null in streaming mode (token text must be copied with appendTokenText())
+     */
+    public CharSequence getSource() {
+        return reader == null ? tokens.getSource() : null;
+    }
+    
+    /**
+     * Scan the next token and record it in the profile
+     */
+    private TokenType profiledScanToken() {
+        profileStart = System.nanoTime();
+        TokenType type = scanToken();
+        if (type != null) {
+            int length = pos - tokenStart;
+            profile.record(profiledRecognizer, profiledSuccess, length, Math.max(profiledScanned - length, 0),
+                           System.nanoTime() - profileStart);
         }
-        
-        String lexeme = input.substring(startPos, pos);
-        return new Token(TokenType.INTEGER_LITERAL, lexeme, startLine, startColumn);
+        return type;
     }
     
     /**
-     * Scan string literal using DFA
-     * Regex: "([^"\\\n]|\\["\\ntr])*"
-     * DFA: 4 states (start -> " -> content -> ")
+     * Note the recognizer of the current scanToken() call (profiling)
+     * @param scanned Characters read from tokenStart, before any retraction
      */
-    private Token scanStringLiteral() {
-        if (input.charAt(pos) != '"') {
+    private void profiled(ScannerProfile.Recognizer recognizer, boolean success, int scanned) {
+        profiledRecognizer = recognizer;
+        profiledSuccess = success;
+        profiledScanned = scanned;
+    }
+    
+    /**
+     * Get the lexeme of the current token (shared constant for fixed spellings)
+     */
+    private String tokenText(TokenType type) {
+        String fixed = type.fixedLexeme(pos - tokenStart);
+        return fixed != null ? fixed : new String(buf, tokenStart, pos - tokenStart);
+    }
+    
+    /**
+     * Scan the next token by running the minimized DFA (see ScannerDFA) from the
+     * current position. The token starts at tokenStart/tokenLine/tokenColumn and
+     * ends at pos; no Token object is created. One forward pass with maximal munch; the pattern matching
+     * priority order of LanguageGrammar.txt section 2 is encoded in the table:
+     * 1. Multi-line comments
+     * 2. Single-line comments  
+     * 3. Multi-character operators (**, ==, !=, <=, >=, &&, ||, +=, -=, *=, /=, ++, --)
+     * 4. Keywords
+     * 5. Boolean literals
+     * 6. Identifiers
+     * 7. Floating-point literals
+     * 8. Integer literals
+     * 9. String literals
+     * 10. Character literals
+     * 11. Single-character operators and punctuators
+     * 12. Whitespace
+     */
+    private TokenType scanToken() {
+        // Still resolving a lowercase run that was not a keyword
+        if (pos < wordEnd) {
+            return scanWordToken();
+        }
+        
+        tokenStart = pos;
+        tokenLine = line;
+        tokenColumn = column;
+        if (pos >= limit && !fill()) {
             return null;
         }
         
-        int startPos = pos;
         int startLine = line;
         int startColumn = column;
         
-        advance(); // consume opening "
-        
-        StringBuilder content = new StringBuilder();
-        boolean closed = false;
+        int state = ScannerDFA.START;
+        int previous = ScannerDFA.DEAD;
+        TokenType lastAccepted = null;
+        int lastLength = 0;
+        int lastLine = line;
+        int lastColumn = column;
         
-        while (pos < input.length()) {
-            char ch = input.charAt(pos);
-            
-            if (ch == '"') {
-                advance(); // consume closing "
-                closed = true;
-                break;
-            } else if (ch == '\\') {
-                advance(); // consume backslash
-                if (pos >= input.length()) {
+        while (true) {
+            if (pos >= limit) {
+                if (reader == null) {
                     break;
                 }
-                char escapeChar = input.charAt(pos);
-                // Valid escape sequences: ", \, n, t, r
-                if (escapeChar == '"' || escapeChar == '\\' || escapeChar == 'n' || 
-                    escapeChar == 't' || escapeChar == 'r') {
-                    content.append('\\').append(escapeChar);
-                    advance();
-                } else {
-                    errorHandler.reportInvalidEscapeSequence("\\" + escapeChar, line, column);
-                    advance();
+                if (ScannerDFA.isDiscardable(state)
+                    && !(recovery && ScannerDFA.trap(state) == ScannerDFA.TRAP_UNCLOSED_COMMENT)) {
+                    // Comment or whitespace text is never needed again
+                    // (recovery may cut an unclosed comment back to its first line)
+                    tokenStart = pos;
+                    lastLength = 0;
                 }
-            } else if (ch == '\n') {
-                // String cannot span multiple lines
+                if (!fill()) {
+                    break;
+                }
+            }
+            byte skip = ScannerDFA.skip(state);
+            if (state == previous && skip != ScannerDFA.SKIP_NONE
+                && !(recovery && ScannerDFA.trap(state) == ScannerDFA.TRAP_UNCLOSED_COMMENT)) {
+                // After one step around a self-loop, cross the rest of the run in one pass
+                // (short runs such as single spaces stay on the table)
+                int from = pos;
+                skipRun(state, skip);
+                if (pos != from) {
+                    if (ScannerDFA.accepting(state) != null) {
+                        lastLength = pos - tokenStart;
+                        lastLine = line;
+                        lastColumn = column;
+                    }
+                    if (pos >= limit) {
+                        continue;
+                    }
+                }
+            }
+            char ch = buf[pos];
+            if (ch == '\n' && recovery && ScannerDFA.trap(state) == ScannerDFA.TRAP_UNCLOSED_COMMENT
+                && bufferOffset + tokenStart >= unclosedFrom) {
+                // An earlier comment already ran to the end unclosed, so this one is too
                 break;
-            } else {
-                content.append(ch);
-                advance();
+            }
+            int next = ScannerDFA.next(state, ch);
+            if (next == ScannerDFA.DEAD) {
+                break;
+            }
+            if (ScannerDFA.action(next) == ScannerDFA.ACTION_INVALID_ESCAPE) {
+                errorHandler.reportInvalidEscapeSequence(buf, pos - 1, 2, line, column);
+            }
+            advance();
+            previous = state;
+            state = next;
+            
+            TokenType accepted = ScannerDFA.accepting(state);
+            if (accepted != null) {
+                lastAccepted = accepted;
+                lastLength = pos - tokenStart;
+                lastLine = line;
+                lastColumn = column;
             }
         }
+        int scanned = pos - tokenStart;
         
-        if (!closed) {
-            errorHandler.reportUnterminatedString(startLine, startColumn);
+        switch (ScannerDFA.trap(state)) {
+            case ScannerDFA.TRAP_UNCLOSED_COMMENT:
+                if (PROFILE) {
+                    profiled(ScannerProfile.Recognizer.MULTI_LINE_COMMENT, false, scanned);
+                }
+                errorHandler.reportUnclosedComment(startLine, startColumn);
+                commentsRemoved++;
+                if (recovery) {
+                    // The comment only covers the rest of its first line
+                    unclosedFrom = Math.min(unclosedFrom, bufferOffset + tokenStart);
+                    pos = tokenStart;
+                    line = startLine;
+                    column = startColumn;
+                    while (pos < limit && buf[pos] != '\n') {
+                        advance();
+                    }
+                }
+                return TokenType.COMMENT_MULTI;
+            case ScannerDFA.TRAP_UNTERMINATED_STRING:
+                if (PROFILE) {
+                    profiled(ScannerProfile.Recognizer.STRING_LITERAL, false, scanned);
+                }
+                errorHandler.reportUnterminatedString(startLine, startColumn);
+                return recovery ? TokenType.ERROR : TokenType.STRING_LITERAL;
+            case ScannerDFA.TRAP_UNTERMINATED_CHAR:
+                if (PROFILE) {
+                    profiled(ScannerProfile.Recognizer.CHAR_LITERAL, false, scanned);
+                }
+                errorHandler.reportUnterminatedCharLiteral(startLine, startColumn);
+                if (recovery) {
+                    skipToSync();
+                    return TokenType.ERROR;
+                }
+                return TokenType.CHAR_LITERAL;
+            case ScannerDFA.TRAP_WORD:
+                if (PROFILE) {
+                    // The whole run is read again by scanWordToken()
+                    long now = System.nanoTime();
+                    profile.record(ScannerProfile.Recognizer.KEYWORD, false, 0, scanned, now - profileStart);
+                    profileStart = now;
+                }
+                // Lowercase runs never contain newlines, so resetting the column is enough
+                wordEnd = pos;
+                pos = tokenStart;
+                column = startColumn;
+                return scanWordToken();
         }
         
-        String lexeme = input.substring(startPos, pos);
-        return new Token(TokenType.STRING_LITERAL, lexeme, startLine, startColumn);
-    }
-    
-    /**
-     * Scan character literal
-     * Regex: '([^'\\\n]|\\['\\ntr])'
-     */
-    private Token scanCharacterLiteral() {
-        if (input.charAt(pos) != '\'') {
-            return null;
+        if (lastAccepted == null) {
+            if (PROFILE) {
+                profiled(ScannerProfile.Recognizer.INVALID_CHARACTER, false, scanned);
+            }
+            // Error: Invalid character
+            pos = tokenStart;
+            line = startLine;
+            column = startColumn;
+            advance();
+            return invalidInput(startLine, startColumn);
         }
         
-        int startPos = pos;
-        int startLine = line;
-        int startColumn = column;
-        
-        advance(); // consume opening '
+        if (PROFILE) {
+            profiled(ScannerProfile.recognizerOf(lastAccepted, lastLength), true, scanned);
+        }
         
-        boolean closed = false;
-        boolean hasContent = false;
+        // Retract to the last accepting state (only "12." followed by a non-digit)
+        pos = tokenStart + lastLength;
+        line = lastLine;
+        column = lastColumn;
         
-        while (pos < input.length()) {
-            char ch = input.charAt(pos);
-            
-            if (ch == '\'') {
-                advance(); // consume closing '
-                closed = true;
-                break;
-            } else if (ch == '\\') {
-                advance(); // consume backslash
-                if (pos >= input.length()) {
+        if (lastAccepted == TokenType.IDENTIFIER && lastLength > 31) {
+            errorHandler.reportIdentifierTooLong(buf, tokenStart, lastLength, startLine, startColumn);
+        } else if (lastAccepted == TokenType.COMMENT_SINGLE || lastAccepted == TokenType.COMMENT_MULTI) {
+            commentsRemoved++;
+        }
+        return lastAccepted;
+    }
+    
+    /**
+     * Consume the characters from pos that keep the automaton in a state (see
+     * ScannerDFA.skip()), up to limit, without a table step per character.
+     * SKIP_UNTIL runs go through RunSkipper (scalar, SWAR or vector, see
+     * -Dsimplelang.skip). Line and column are updated from the newlines crossed.
+     */
+    private void skipRun(int state, byte skip) {
+        char[] buf = this.buf;
+        int end = limit;
+        int p = pos;
+        int newlines = 0;
+        int lastNewline = 0;
+        if (skip == ScannerDFA.SKIP_UNTIL) {
+            char[] stops = ScannerDFA.stopCharacters(state);
+            long run = SKIPPER.skipUntil(buf, p, end, stops[0], stops[1], stops[2]);
+            p = (int) run;
+            newlines = (int) (run >>> 32);
+            if (newlines > 0) {
+                lastNewline = p - 1;
+                while (buf[lastNewline] != '\n') {
+                    lastNewline--;
+                }
+            }
+        } else {
+            boolean[] loops = ScannerDFA.loopCharacters(state);
+            for (; p < end; p++) {
+                char ch = buf[p];
+                if (ch >= 128 || !loops[ch]) {
                     break;
                 }
-                char escapeChar = input.charAt(pos);
-                if (escapeChar == '\'' || escapeChar == '\\' || escapeChar == 'n' || 
-                    escapeChar == 't' || escapeChar == 'r') {
-                    advance();
-                    hasContent = true;
-                } else {
-                    errorHandler.reportInvalidEscapeSequence("\\" + escapeChar, line, column);
-                    advance();
+                if (ch == '\n') {
+                    newlines++;
+                    lastNewline = p;
                 }
-                break; // character literal can only have one character
-            } else if (ch == '\n') {
-                break;
-            } else {
-                advance();
-                hasContent = true;
-                break; // character literal can only have one character
             }
         }
-        
-        // Consume closing quote if not already
-        if (pos < input.length() && input.charAt(pos) == '\'') {
-            advance();
-            closed = true;
-        }
-        
-        if (!closed) {
-            errorHandler.reportUnterminatedCharLiteral(startLine, startColumn);
+        if (newlines == 0) {
+            column += p - pos;
+        } else {
+            line += newlines;
+            column = p - lastNewline;
         }
-        
-        String lexeme = input.substring(startPos, pos);
-        return new Token(TokenType.CHAR_LITERAL, lexeme, startLine, startColumn);
+        pos = p;
     }
     
     /**
-     * Scan single-character operators and punctuators
+     * Resolve the next token inside a lowercase run that is not a single keyword.
+     * A keyword is only recognized when it spans the rest of the run; otherwise a
+     * leading "true"/"false" is a boolean literal and any other letter is an invalid character.
      */
-    private Token scanSingleCharToken() {
+    private TokenType scanWordToken() {
         int startLine = line;
         int startColumn = column;
-        char ch = input.charAt(pos);
+        tokenStart = pos;
+        tokenLine = line;
+        tokenColumn = column;
+        int remaining = wordEnd - pos;
         
         TokenType type = null;
-        
-        switch (ch) {
-            case '+': type = TokenType.OP_PLUS; break;
-            case '-': type = TokenType.OP_MINUS; break;
-            case '*': type = TokenType.OP_MULTIPLY; break;
-            case '/': type = TokenType.OP_DIVIDE; break;
-            case '%': type = TokenType.OP_MODULO; break;
-            case '<': type = TokenType.OP_LESS; break;
-            case '>': type = TokenType.OP_GREATER; break;
-            case '!': type = TokenType.OP_NOT; break;
-            case '=': type = TokenType.OP_ASSIGN; break;
-            case '(': type = TokenType.PUNC_LPAREN; break;
-            case ')': type = TokenType.PUNC_RPAREN; break;
-            case '{': type = TokenType.PUNC_LBRACE; break;
-            case '}': type = TokenType.PUNC_RBRACE; break;
-            case '[': type = TokenType.PUNC_LBRACKET; break;
-            case ']': type = TokenType.PUNC_RBRACKET; break;
-            case ',': type = TokenType.PUNC_COMMA; break;
-            case ';': type = TokenType.PUNC_SEMICOLON; break;
-            case ':': type = TokenType.PUNC_COLON; break;
+        int length = 0;
+        if (remaining <= KeywordTable.MAX_LENGTH) {
+            type = KeywordTable.lookup(buf, pos, wordEnd);
+            length = remaining;
+        }
+        if (type == null && remaining >= 4 && KeywordTable.lookup(buf, pos, pos + 4) == TokenType.BOOLEAN_LITERAL) {
+            type = TokenType.BOOLEAN_LITERAL;
+            length = 4;
+        }
+        if (type == null && remaining >= 5 && KeywordTable.lookup(buf, pos, pos + 5) == TokenType.BOOLEAN_LITERAL) {
+            type = TokenType.BOOLEAN_LITERAL;
+            length = 5;
         }
         
-        if (type != null) {
+        if (PROFILE) {
+            profiled(ScannerProfile.Recognizer.WORD_RUN, type != null, 0);
+        }
+        if (type == null) {
             advance();
-            return new Token(type, String.valueOf(ch), startLine, startColumn);
+            return invalidInput(startLine, startColumn);
         }
         
-        return null;
+        pos += length;
+        column += length;
+        return type;
     }
     
     /**
-     * Scan whitespace
+     * Report the invalid character at tokenStart. In recovery mode the error
+     * token extends to the next synchronizing character.
+     * @return ERROR
      */
-    private Token scanWhitespace() {
-        int startPos = pos;
-        int startLine = line;
-        int startColumn = column;
-        
-        char ch = input.charAt(pos);
-        if (!Character.isWhitespace(ch)) {
-            return null;
+    private TokenType invalidInput(int startLine, int startColumn) {
+        if (recovery) {
+            skipToSync();
         }
-        
-        while (pos < input.length() && Character.isWhitespace(input.charAt(pos))) {
+        if (pos - tokenStart == 1) {
+            errorHandler.reportInvalidCharacter(buf[tokenStart], startLine, startColumn);
+        } else {
+            errorHandler.reportSkippedInput(buf, tokenStart, pos - tokenStart, startLine, startColumn);
+        }
+        return TokenType.ERROR;
+    }
+    
+    /**
+     * Advance to the next character where a token can plausibly start
+     * (panic-mode recovery; never crosses a newline)
+     */
+    private void skipToSync() {
+        while ((pos < limit || fill()) && !isSync(pos)) {
             advance();
         }
-        
-        String lexeme = input.substring(startPos, pos);
-        return new Token(TokenType.WHITESPACE, lexeme, startLine, startColumn);
     }
     
     /**
-     * Peek ahead n characters
+     * Check whether error recovery resumes scanning at a position (after tokenStart)
      */
-    private boolean peek(String str) {
-        if (pos + str.length() > input.length()) {
+    private boolean isSync(int at) {
+        char ch = buf[at];
+        if (ch >= 128) {
+            return Character.isWhitespace(ch);
+        }
+        if (SYNC[ch]) {
+            return true;
+        }
+        if (!WORD_SYNC[ch]) {
             return false;
         }
-        return input.substring(pos, pos + str.length()).equals(str);
+        char before = buf[at - 1];
+        return !(Character.isLetterOrDigit(before) || before == '_');
     }
     
     /**
      * Advance position and update line/column tracking
      */
     private void advance() {
-        if (pos < input.length()) {
-            char ch = input.charAt(pos);
+        if (pos < limit) {
+            char ch = buf[pos];
             if (ch == '\n') {
                 line++;
                 column = 1;
-                lineStartPos = pos + 1;
             } else {
                 column++;
             }
@@ -698,50 +1020,172 @@ public class ManualScanner {
     }
     
     /**
-     * Print all tokens
+     * Refill the streaming window. Characters before tokenStart are dropped and
+     * the window only grows when a single token does not fit.
+     * @return false at end of input
      */
-    public void printTokens() {
-        System.out.println("\n" + "=".repeat(80));
-        System.out.println("TOKENS");
-        System.out.println("=".repeat(80));
+    private boolean fill() {
+        if (reader == null) {
+            return false;
+        }
         
-        for (Token token : tokens) {
-            System.out.println(token);
+        int shift = tokenStart;
+        if (shift > 0) {
+            System.arraycopy(buf, shift, buf, 0, limit - shift);
+            limit -= shift;
+            pos -= shift;
+            wordEnd = Math.max(wordEnd - shift, 0);
+            tokenStart = 0;
+            bufferOffset += shift;
+        }
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
         }
         
-        System.out.println("=".repeat(80));
+        try {
+            int n;
+            do {
+                n = reader.read(buf, limit, buf.length - limit);
+            } while (n == 0);
+            if (n < 0) {
+                return false;
+            }
+            limit += n;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Turn panic-mode error recovery on or off (before scanning). With recovery,
+     * an invalid character, and the text after an unterminated character
+     * literal, are skipped up to the next whitespace, ';', '{', '}' or keyword
+     * start and become one ERROR token with one error. An unterminated string
+     * becomes an ERROR token, and an unclosed comment only covers the rest of
+     * its line, so the code after it is still scanned.
+     * @param recovery true to enable recovery
+     */
+    public void setRecoveryMode(boolean recovery) {
+        this.recovery = recovery;
+    }
+    
+    /**
+     * Check whether panic-mode error recovery is enabled
+     */
+    public boolean isRecoveryMode() {
+        return recovery;
+    }
+    
+    /**
+     * Print all tokens
+     */
+    public void printTokens() {
+        ReportWriter report = ReportWriter.text();
+        report.tokens(tokens);
+        report.flush();
     }
     
     /**
      * Print statistics
      */
     public void printStatistics() {
-        System.out.println("\n" + "=".repeat(80));
-        System.out.println("SCANNING STATISTICS");
-        System.out.println("=".repeat(80));
-        System.out.println("Total Tokens: " + totalTokens);
-        System.out.println("Lines Processed: " + linesProcessed);
-        System.out.println("Comments Removed: " + commentsRemoved);
-        System.out.println("\nToken Count by Type:");
-        System.out.println("-".repeat(80));
-        
-        // Sort token types by count (descending)
-        tokenCounts.entrySet().stream()
-            .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-            .forEach(entry -> {
-                System.out.printf("  %-30s : %5d\n", entry.getKey(), entry.getValue());
-            });
-        
-        System.out.println("=".repeat(80));
+        ReportWriter report = ReportWriter.text();
+        writeStatistics(report);
+        report.flush();
+    }
+    
+    /**
+     * Write statistics to a report
+     * @param report Destination
+     */
+    public void writeStatistics(ReportWriter report) {
+        report.beginStatistics("SCANNING STATISTICS");
+        report.statistic("Total Tokens", totalTokens);
+        report.statistic("Lines Processed", linesProcessed);
+        report.statistic("Comments Removed", commentsRemoved);
+        // Sorted by count (descending)
+        report.tokenCounts(tokenCounts);
+        report.endStatistics();
+    }
+    
+    /**
+     * Get token counts by type (EOF included)
+     */
+    public Map<TokenType, Integer> getTokenCounts() {
+        Map<TokenType, Integer> counts = new EnumMap<>(TokenType.class);
+        for (TokenType type : TYPES) {
+            if (tokenCounts[type.ordinal()] > 0) {
+                counts.put(type, tokenCounts[type.ordinal()]);
+            }
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+    
+    /**
+     * Get the number of tokens of a type
+     */
+    public int getTokenCount(TokenType type) {
+        return tokenCounts[type.ordinal()];
+    }
+    
+    /**
+     * Get total number of tokens
+     */
+    public int getTotalTokens() {
+        return totalTokens;
+    }
+    
+    /**
+     * Get number of lines processed
+     */
+    public int getLinesProcessed() {
+        return linesProcessed;
+    }
+    
+    /**
+     * Get number of comments removed
+     */
+    public int getCommentsRemoved() {
+        return commentsRemoved;
+    }
+    
+    /**
+     * Get number of characters scanned so far
+     */
+    public long getCharactersScanned() {
+        return bufferOffset + pos;
+    }
+    
+    /**
+     * Get time spent in scan() and scanParallel() (not in streaming nextToken() calls)
+     */
+    public long getScanNanos() {
+        return scanNanos;
     }
     
     /**
      * Get tokens list
      */
     public List<Token> getTokens() {
+        return tokens.asList();
+    }
+    
+    /**
+     * Get tokens in struct-of-arrays form
+     */
+    public TokenBuffer getTokenBuffer() {
         return tokens;
     }
     
+    /**
+     * Get the recognizer profile
+     * @return Profile, or null unless run with -Dsimplelang.profile=true
+     */
+    public ScannerProfile getProfile() {
+        return profile;
+    }
+    
     /**
      * Get symbol table
      */
@@ -756,38 +1200,117 @@ public class ManualScanner {
         return errorHandler;
     }
     
+    /**
+     * Read a UTF-8 source file line by line (every line, including the last, ends
+     * with '\n'; "\r\n" and a bare '\r' end a line too)
+     * @param filename Input file
+     * @return Source code
+     * @throws IOException if the file cannot be read
+     */
+    public static String readSource(String filename) throws IOException {
+        StringBuilder content = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                content.append(line).append('\n');
+            }
+        }
+        return content.toString();
+    }
+    
+    /**
+     * Open a UTF-8 source file for streaming; it reads the same chars as readSource() returns
+     * @param filename Input file
+     * @return Source code reader
+     * @throws IOException if the file cannot be opened
+     */
+    public static Reader openSource(String filename) throws IOException {
+        return new LineEndingReader(new FileReader(filename, StandardCharsets.UTF_8));
+    }
+    
     /**
      * Main method for testing
+     * With --stream, tokens are printed as they are scanned instead of after
+     * reading the whole file; --mmap does the same over a memory-mapped file.
+     * With --parallel, the file is scanned in chunks on all available cores.
+     * With --format ndjson or csv, the report is written in that format
+     * instead of the text layout.
+     * With -Dsimplelang.profile=true, a recognizer profile is printed at the end.
      */
     public static void main(String[] args) {
-        if (args.length == 0) {
-            System.out.println("Usage: java ManualScanner <input-file>");
+        String mode = null;
+        ReportWriter.Format format = ReportWriter.Format.TEXT;
+        String filename = null;
+        boolean usage = false;
+        for (int i = 0; i < args.length && !usage; i++) {
+            if (args[i].equals("--format") && i + 1 < args.length) {
+                try {
+                    format = ReportWriter.Format.parse(args[++i]);
+                } catch (IllegalArgumentException e) {
+                    usage = true;
+                }
+            } else if ((args[i].equals("--stream") || args[i].equals("--mmap") || args[i].equals("--parallel"))
+                       && mode == null) {
+                mode = args[i];
+            } else if (!args[i].startsWith("--") && filename == null) {
+                filename = args[i];
+            } else {
+                usage = true;
+            }
+        }
+        if (usage || filename == null) {
+            System.out.println("Usage: java ManualScanner [--stream | --mmap | --parallel] "
+                               + "[--format text|ndjson|csv] <input-file>");
             return;
         }
         
         try {
-            // Read input file
-            String filename = args[0];
-            StringBuilder content = new StringBuilder();
-            BufferedReader reader = new BufferedReader(new FileReader(filename));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append('\n');
-            }
-            reader.close();
+            ManualScanner scanner;
+            ReportWriter report = ReportWriter.create(format, System.out);
             
-            // Create scanner and scan
-            ManualScanner scanner = new ManualScanner(content.toString());
-            scanner.scan();
+            if (mode != null && !mode.equals("--parallel")) {
+                Reader reader = mode.equals("--mmap")
+                    ? new MappedFileReader(Paths.get(filename))
+                    : openSource(filename);
+                scanner = new ManualScanner(reader);
+                
+                StringBuilder text = new StringBuilder();
+                TokenType type;
+                report.beginTokens();
+                while ((type = scanner.nextTokenType()) != null) {
+                    int length = scanner.getTokenLength();
+                    text.setLength(0);
+                    if (type.fixedLexeme(length) == null) {
+                        scanner.appendTokenText(text);
+                    }
+                    report.token(type, text, 0, length, scanner.getTokenLine(), scanner.getTokenColumn());
+                }
+                report.endTokens();
+                reader.close();
+            } else {
+                // Create scanner and scan
+                scanner = new ManualScanner(readSource(filename));
+                if (mode != null) {
+                    scanner.scanParallel();
+                } else {
+                    scanner.scan();
+                }
+                report.tokens(scanner.getTokenBuffer());
+            }
             
             // Print results
-            scanner.printTokens();
-            scanner.getSymbolTable().printSymbolTable();
-            scanner.printStatistics();
-            scanner.getErrorHandler().printErrors();
+            report.symbolTable(scanner.getSymbolTable());
+            scanner.writeStatistics(report);
+            report.errors(scanner.getErrorHandler());
+            report.flush();
+            if (PROFILE) {
+                scanner.getProfile().printReport();
+            }
             
         } catch (IOException e) {
             System.err.println("Error reading file: " + e.getMessage());
+        } catch (UncheckedIOException e) {
+            System.err.println("Error reading file: " + e.getCause().getMessage());
         }
     }
 }
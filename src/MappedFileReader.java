@@ -0,0 +1,228 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * MappedFileReader Class
+ * Reader over a memory-mapped source file. ASCII bytes are read straight out
+ * of the mapping into the caller's char buffer; only non-ASCII sequences go
+ * through a UTF-8 decoder (malformed bytes become U+FFFD). Line endings are
+ * normalized as ManualScanner.readSource() does: "\r\n" and a bare '\r' read
+ * as '\n', and a last line without a line ending gets one.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class MappedFileReader extends Reader {
+    
+    private static final long REGION_SIZE = 1L << 30;   // Files larger than this are mapped piecewise
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int MAX_SEQUENCE = 4;          // Longest UTF-8 byte sequence
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long CARRIAGE_RETURNS = LOW_BITS * '\r';
+    
+    private FileChannel channel;
+    private long fileSize;
+    private long regionStart;       // File offset of the current region
+    private MappedByteBuffer region;
+    private final ByteBuffer chunk;     // ASCII run being widened to chars
+    private final CharsetDecoder ascii; // Widens ASCII runs (its loop is intrinsified for heap buffers)
+    private final CharsetDecoder decoder;
+    private final ByteBuffer sequence;  // Lead byte and continuation bytes of one non-ASCII sequence
+    private final CharBuffer decoded;   // Chars decoded from it that have not been returned yet
+    private int last;               // Last byte read ('\r', '\n', another byte, or -1 before the first)
+    
+    /**
+     * Constructor
+     * @param path Source file to map
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        this.ascii = StandardCharsets.US_ASCII.newDecoder();
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.sequence = ByteBuffer.allocate(MAX_SEQUENCE);
+        this.decoded = CharBuffer.allocate(MAX_SEQUENCE);
+        this.decoded.flip();
+        this.last = -1;
+        map(0);
+    }
+    
+    /**
+     * Map the region starting at a file offset
+     */
+    private void map(long offset) throws IOException {
+        regionStart = offset;
+        region = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(REGION_SIZE, fileSize - offset));
+        region.order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    /**
+     * Make sure the current region has bytes left, mapping the next one if needed
+     * @return false at the end of the file
+     */
+    private boolean hasRemaining() throws IOException {
+        if (region.hasRemaining()) {
+            return true;
+        }
+        long offset = regionStart + region.limit();
+        if (offset >= fileSize) {
+            return false;
+        }
+        map(offset);
+        return true;
+    }
+    
+    /**
+     * Decode the non-ASCII sequence at the current position into decoded. The
+     * sequence is the lead byte and the continuation bytes after it, at most
+     * MAX_SEQUENCE bytes; a UTF-8 decoder never lets a malformed sequence run
+     * past a byte that is not a continuation byte, so decoding it on its own
+     * gives the same chars as decoding the whole file.
+     */
+    private void decodeSequence() throws IOException {
+        sequence.clear();
+        sequence.put(region.get());
+        while (sequence.hasRemaining() && hasRemaining() && (region.get(region.position()) & 0xC0) == 0x80) {
+            sequence.put(region.get());
+        }
+        sequence.flip();
+        decoded.clear();
+        decoder.reset();
+        decoder.decode(sequence, decoded, true);
+        decoder.flush(decoded);
+        decoded.flip();
+        last = 0x80;
+    }
+    
+    /**
+     * Find the end of the run of ASCII bytes other than '\r' that starts at a
+     * position, testing eight bytes at a time (SWAR) in the mapping itself
+     * @return Position of the first '\r' or non-ASCII byte, or stop
+     */
+    private static int plainRun(MappedByteBuffer bytes, int p, int stop) {
+        while (p + Long.BYTES <= stop) {
+            long word = bytes.getLong(p);
+            long carriageReturns = word ^ CARRIAGE_RETURNS;
+            if (((word | (carriageReturns - LOW_BITS) & ~carriageReturns) & HIGH_BITS) != 0) {
+                break;
+            }
+            p += Long.BYTES;
+        }
+        while (p < stop) {
+            byte b = bytes.get(p);
+            if (b < 0 || b == '\r') {
+                break;
+            }
+            p++;
+        }
+        return p;
+    }
+    
+    /**
+     * Turn "\r\n" and '\r' into '\n' in place
+     * @param from Index of the first '\r'
+     * @param to End of the chars to normalize
+     * @return New end of the chars
+     */
+    private int normalize(char[] cbuf, int from, int to) {
+        int previous = last;
+        int n = from;
+        for (int i = from; i < to; i++) {
+            char c = cbuf[i];
+            if (c == '\r') {
+                cbuf[n++] = '\n';
+            } else if (c != '\n' || previous != '\r') {
+                cbuf[n++] = c;
+            }
+            previous = c;
+        }
+        last = previous;
+        return n;
+    }
+    
+    /**
+     * Get file size in bytes
+     */
+    public long size() {
+        return fileSize;
+    }
+    
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (channel == null) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        int n = off;
+        int end = off + len;
+        CharBuffer out = null;
+        while (n < end) {
+            if (decoded.hasRemaining()) {
+                int count = Math.min(decoded.remaining(), end - n);
+                decoded.get(cbuf, n, count);
+                n += count;
+                continue;
+            }
+            if (!hasRemaining()) {
+                if (last != -1 && last != '\r' && last != '\n') {
+                    cbuf[n++] = '\n';       // The last line has no line ending
+                    last = '\n';
+                }
+                break;
+            }
+            
+            MappedByteBuffer bytes = region;
+            int p = bytes.position();
+            if (last == '\r' && bytes.get(p) == '\n') {
+                bytes.position(p + 1);      // Second half of "\r\n"
+                last = '\n';
+                continue;
+            }
+            
+            int stop = (int) Math.min(bytes.limit(), (long) p + Math.min(end - n, CHUNK_SIZE));
+            int plain = plainRun(bytes, p, stop);
+            if (plain == p && bytes.get(p) < 0) {
+                decodeSequence();
+                continue;
+            }
+            
+            // Widen the ASCII bytes in one bulk decode (it stops at a non-ASCII byte),
+            // then turn line endings into '\n' from the first '\r' on
+            if (out == null) {
+                out = CharBuffer.wrap(cbuf);
+            }
+            bytes.get(p, chunk.array(), 0, stop - p);
+            chunk.clear().limit(stop - p);
+            out.clear().position(n);
+            ascii.decode(chunk, out, false);
+            bytes.position(p + chunk.position());
+            if (plain - p < chunk.position()) {
+                n = normalize(cbuf, n + (plain - p), out.position());
+            } else {
+                n = out.position();
+                last = cbuf[n - 1];
+            }
+        }
+        return n == off ? -1 : n - off;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            region = null;
+        }
+    }
+}
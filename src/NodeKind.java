@@ -0,0 +1,39 @@
+/**
+ * NodeKind Enum
+ * Defines the kinds of syntax tree nodes built by the Parser, with the
+ * children each kind has (in order).
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public enum NodeKind {
+    // Statements
+    PROGRAM,            // Statements ('start' token)
+    BLOCK,              // Statements ('{' or the token that opened the block)
+    DECLARE,            // NAME, value
+    DECLARE_ARRAY,      // NAME, size
+    ASSIGN,             // NAME or INDEX, value (token is '=', '+=', '-=', '*=' or '/=')
+    INCREMENT,          // NAME (token is '++' or '--', before or after the name)
+    OUTPUT,             // Value
+    INPUT,              // NAME
+    CONDITION,          // Condition, BLOCK [, else BLOCK]
+    LOOP,               // Condition, BLOCK
+    FUNCTION,           // NAME, PARAMETERS, BLOCK
+    PARAMETERS,         // NAME...
+    RETURN,             // Value
+    BREAK,
+    CONTINUE,
+    
+    // Expressions
+    BINARY,             // Left, right (token type is the operator)
+    UNARY,              // Operand (token type is '!', '-' or '+')
+    INTEGER,
+    FLOAT,
+    STRING,
+    CHAR,
+    BOOLEAN,
+    NAME,               // Identifier
+    INDEX,              // Index expression (token is the array identifier)
+    CALL,               // Arguments (token is the function identifier)
+    
+    // Placeholder for a construct that could not be parsed
+    ERROR
+}
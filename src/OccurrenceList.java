@@ -0,0 +1,249 @@
+import java.util.*;
+
+/**
+ * OccurrenceList Class
+ * Compact list of source positions (offset, line, column and an optional int
+ * value) in increasing offset order. Entries are delta-encoded as variable-length
+ * ints in a growable byte array; every CHECKPOINT_INTERVAL-th entry is encoded in
+ * full and indexed, so seeking by offset or line is a binary search followed by
+ * decoding at most CHECKPOINT_INTERVAL entries.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class OccurrenceList {
+    
+    private static final int CHECKPOINT_INTERVAL = 16;
+    
+    private final boolean hasValues;
+    private byte[] data;
+    private int length;             // Bytes used in data
+    private int size;
+    
+    // Last entry added
+    private int lastOffset;
+    private int lastLine;
+    
+    // Every CHECKPOINT_INTERVAL-th entry: byte position, offset and line
+    private int[] checkpointPositions;
+    private int[] checkpointOffsets;
+    private int[] checkpointLines;
+    
+    /**
+     * Constructor
+     * @param hasValues Whether entries carry an int value (e.g. a symbol ID)
+     */
+    public OccurrenceList(boolean hasValues) {
+        this.hasValues = hasValues;
+        this.data = new byte[16];
+        this.checkpointPositions = new int[4];
+        this.checkpointOffsets = new int[4];
+        this.checkpointLines = new int[4];
+    }
+    
+    /**
+     * Append an entry
+     * @param offset Source offset, not less than the previous entry's
+     * @param line Line number
+     * @param column Column number
+     * @param value Entry value (ignored unless the list has values)
+     */
+    public void add(int offset, int line, int column, int value) {
+        if (size > 0 && (offset < lastOffset || line < lastLine)) {
+            throw new IllegalArgumentException("Occurrences must be added in source order");
+        }
+        int baseOffset = lastOffset;
+        int baseLine = lastLine;
+        if (size % CHECKPOINT_INTERVAL == 0) {
+            int checkpoint = size / CHECKPOINT_INTERVAL;
+            if (checkpoint == checkpointPositions.length) {
+                checkpointPositions = Arrays.copyOf(checkpointPositions, checkpoint * 2);
+                checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpoint * 2);
+                checkpointLines = Arrays.copyOf(checkpointLines, checkpoint * 2);
+            }
+            checkpointPositions[checkpoint] = length;
+            checkpointOffsets[checkpoint] = offset;
+            checkpointLines[checkpoint] = line;
+            baseOffset = 0;
+            baseLine = 0;
+        }
+        if (length + 20 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 20));
+        }
+        writeVarint(offset - baseOffset);
+        writeVarint(line - baseLine);
+        writeVarint(column);
+        if (hasValues) {
+            writeVarint(value);
+        }
+        lastOffset = offset;
+        lastLine = line;
+        size++;
+    }
+    
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+    
+    /**
+     * Get number of entries
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Get a cursor over all entries
+     */
+    public Cursor cursor() {
+        return new Cursor(0, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Get a cursor over the entries on lines fromLine..toLine (inclusive)
+     */
+    public Cursor cursor(int fromLine, int toLine) {
+        Cursor cursor = new Cursor(lastCheckpointBefore(checkpointLines, fromLine), toLine);
+        while (cursor.peek() && cursor.nextLine < fromLine) {
+            cursor.next();
+        }
+        return cursor;
+    }
+    
+    /**
+     * Find the last entry at or before a source offset
+     * @param offset Source offset
+     * @return Cursor on that entry, or null if every entry comes after offset
+     */
+    public Cursor floor(int offset) {
+        if (size == 0 || checkpointOffsets[0] > offset) {
+            return null;
+        }
+        Cursor cursor = new Cursor(lastCheckpointBefore(checkpointOffsets, offset + 1), Integer.MAX_VALUE);
+        cursor.next();
+        while (cursor.peek() && cursor.nextOffset <= offset) {
+            cursor.next();
+        }
+        return cursor;
+    }
+    
+    /**
+     * Binary search the checkpoints for the last one whose key is below a bound
+     * @return Checkpoint index (0 if there is none)
+     */
+    private int lastCheckpointBefore(int[] keys, int bound) {
+        int lo = 0;
+        int hi = (size + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < bound) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return Math.max(lo - 1, 0);
+    }
+    
+    /**
+     * Cursor-style iteration: next() moves to the following entry
+     */
+    public class Cursor {
+        private int index;          // Index of the next entry to decode
+        private int position;       // Byte position of the next entry
+        private final int toLine;
+        
+        private int offset;
+        private int line;
+        private int column;
+        private int value;
+        
+        // Look-ahead: the next entry, decoded by peek()
+        private boolean peeked;
+        private int nextPosition;
+        private int nextOffset;
+        private int nextLine;
+        private int nextColumn;
+        private int nextValue;
+        
+        Cursor(int checkpoint, int toLine) {
+            this.index = checkpoint * CHECKPOINT_INTERVAL;
+            this.position = size > 0 ? checkpointPositions[checkpoint] : 0;
+            this.toLine = toLine;
+        }
+        
+        /**
+         * Decode the next entry without moving to it
+         * @return false if there is none (or it is past the last line of a range)
+         */
+        private boolean peek() {
+            if (peeked) {
+                return true;
+            }
+            if (index >= size) {
+                return false;
+            }
+            boolean checkpoint = index % CHECKPOINT_INTERVAL == 0;
+            nextPosition = position;
+            nextOffset = (checkpoint ? 0 : offset) + readVarint();
+            nextLine = (checkpoint ? 0 : line) + readVarint();
+            nextColumn = readVarint();
+            nextValue = hasValues ? readVarint() : 0;
+            if (nextLine > toLine) {
+                return false;
+            }
+            peeked = true;
+            return true;
+        }
+        
+        /**
+         * Move to the next entry
+         * @return false when there are no more entries
+         */
+        public boolean next() {
+            if (!peek()) {
+                index = size;
+                return false;
+            }
+            offset = nextOffset;
+            line = nextLine;
+            column = nextColumn;
+            value = nextValue;
+            position = nextPosition;
+            index++;
+            peeked = false;
+            return true;
+        }
+        
+        public int offset() {
+            return offset;
+        }
+        
+        public int line() {
+            return line;
+        }
+        
+        public int column() {
+            return column;
+        }
+        
+        public int value() {
+            return value;
+        }
+        
+        private int readVarint() {
+            int result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[nextPosition++];
+                result |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return result;
+        }
+    }
+    
+}
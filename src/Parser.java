@@ -0,0 +1,838 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Parser Class
+ * Parses the token stream of the scanner into a SyntaxTree following the
+ * grammar in section 7 of docs/LanguageGrammar.txt: recursive descent for
+ * statements and a Pratt (binding power) parser for the precedence levels
+ * of section 8. Blocks are either braced or, as in the sample program, the
+ * statements on the header's line plus the following lines indented past
+ * the statement keyword. Lexical ERROR tokens are skipped; syntax errors are
+ * collected and parsing resumes at the next statement.
+ * Tokens are read through a TokenWindow of LOOKAHEAD tokens, either from a
+ * scanned TokenBuffer or fused with the scanner (no token list is built).
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class Parser {
+    
+    /** Maximum nesting of statements and expressions */
+    public static final int MAX_DEPTH = 1000;
+    
+    /** Tokens visible to the parser (current token plus one) */
+    public static final int LOOKAHEAD = 2;
+    
+    /** Default maximum number of stored syntax errors (no limit; see setMaxErrors()) */
+    public static final int DEFAULT_MAX_ERRORS = Integer.MAX_VALUE;
+    
+    private static final TokenType[] TYPES = TokenType.values();
+    
+    // Infix binding powers by token type ordinal (0 = not an infix operator)
+    private static final byte[] BINDING = new byte[TYPES.length];
+    private static final int ADDITIVE_POWER = 5;
+    private static final int UNARY_POWER = 7;
+    private static final int EXPONENT_POWER = 8;
+    
+    // Token types that can begin a statement
+    private static final boolean[] STATEMENT_START = new boolean[TYPES.length];
+    
+    static {
+        bind(1, TokenType.OP_OR);
+        bind(2, TokenType.OP_AND);
+        bind(3, TokenType.OP_EQUAL, TokenType.OP_NOT_EQUAL);
+        bind(4, TokenType.OP_LESS, TokenType.OP_GREATER, TokenType.OP_LESS_EQUAL, TokenType.OP_GREATER_EQUAL);
+        bind(ADDITIVE_POWER, TokenType.OP_PLUS, TokenType.OP_MINUS);
+        bind(6, TokenType.OP_MULTIPLY, TokenType.OP_DIVIDE, TokenType.OP_MODULO);
+        bind(EXPONENT_POWER, TokenType.OP_EXPONENT);
+        
+        for (TokenType type : new TokenType[] {
+                TokenType.KEYWORD_DECLARE, TokenType.KEYWORD_OUTPUT, TokenType.KEYWORD_INPUT,
+                TokenType.KEYWORD_CONDITION, TokenType.KEYWORD_LOOP, TokenType.KEYWORD_FUNCTION,
+                TokenType.KEYWORD_RETURN, TokenType.KEYWORD_BREAK, TokenType.KEYWORD_CONTINUE,
+                TokenType.IDENTIFIER, TokenType.OP_INCREMENT, TokenType.OP_DECREMENT, TokenType.PUNC_LBRACE}) {
+            STATEMENT_START[type.ordinal()] = true;
+        }
+    }
+    
+    private static void bind(int power, TokenType... types) {
+        for (TokenType type : types) {
+            BINDING[type.ordinal()] = (byte) power;
+        }
+    }
+    
+    /**
+     * Thrown to unwind to the enclosing statement when nesting exceeds MAX_DEPTH
+     */
+    private static final class NestingTooDeep extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        NestingTooDeep() {
+            super(null, null, false, false);
+        }
+    }
+    
+    private static final NestingTooDeep NESTING_TOO_DEEP = new NestingTooDeep();
+    
+    private final TokenWindow window;
+    private final int capacity;     // Expected number of nodes
+    private SyntaxTree tree;
+    
+    private int depth;
+    
+    // Syntax errors (parallel arrays)
+    private long[] errorPositions;  // line << 32 | column
+    private String[] errorLexemes;
+    private String[] errorMessages;
+    private int errorSize;
+    private int errorCount;         // Including errors dropped over the limit
+    private int errorReports;       // Calls to error(), including repeats at one position
+    private int lastErrorLine;      // Line of the last call to error()
+    private int maxErrors;
+    
+    /**
+     * Constructor for a scanned token stream
+     * @param tokens Token stream of a scanner, ending with EOF
+     */
+    public Parser(TokenBuffer tokens) {
+        this(new TokenWindow(tokens, LOOKAHEAD), tokens.size());
+        if (tokens.size() == 0 || tokens.getType(tokens.size() - 1) != TokenType.EOF) {
+            throw new IllegalArgumentException("Token stream does not end with EOF");
+        }
+    }
+    
+    /**
+     * Constructor for fused scanning and parsing: tokens are pulled from the
+     * scanner on demand and no token list is built
+     * @param scanner Scanner that has not been read yet
+     */
+    public Parser(ManualScanner scanner) {
+        this(new TokenWindow(scanner, LOOKAHEAD), 0);
+    }
+    
+    /**
+     * Constructor for tokens scanned on another thread
+     * @param pipe Started token pipe
+     */
+    public Parser(TokenPipe pipe) {
+        this(new TokenWindow(pipe, LOOKAHEAD), 0);
+    }
+    
+    private Parser(TokenWindow window, int capacity) {
+        this.window = window;
+        this.capacity = capacity;
+        this.errorPositions = new long[16];
+        this.errorLexemes = new String[16];
+        this.errorMessages = new String[16];
+        this.maxErrors = DEFAULT_MAX_ERRORS;
+        window.setSkipErrors(true);
+    }
+    
+    /**
+     * Parse the whole token stream
+     * @return Syntax tree with a PROGRAM root
+     */
+    public SyntaxTree parse() {
+        if (tree != null) {
+            throw new IllegalStateException("Token stream has already been parsed");
+        }
+        // Roughly one node per token
+        tree = window.getSource() != null
+            ? new SyntaxTree(window.getSource(), capacity)
+            : new SyntaxTree();
+        depth = 0;
+        try {
+            tree.setRoot(parseProgram());
+        } finally {
+            // Stops a piped scanner if parsing ended before EOF
+            window.cancel();
+        }
+        return tree;
+    }
+    
+    // ==================== Token access ====================
+    
+    private TokenType type() {
+        return window.type();
+    }
+    
+    private boolean at(TokenType type) {
+        return window.type() == type;
+    }
+    
+    private int line() {
+        return window.line();
+    }
+    
+    private int column() {
+        return window.column();
+    }
+    
+    /**
+     * Move to the next token (lexical errors are skipped by the window; stays on EOF)
+     */
+    private void advance() {
+        window.advance();
+    }
+    
+    /**
+     * Consume the current token if it has the given type
+     * @return true if it was consumed
+     */
+    private boolean accept(TokenType type) {
+        if (at(type)) {
+            advance();
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Consume the current token, or report an error if it does not have the given type
+     */
+    private boolean expect(TokenType type, String message) {
+        if (accept(type)) {
+            return true;
+        }
+        error(message);
+        return false;
+    }
+    
+    // ==================== Node construction ====================
+    
+    /**
+     * Add a node for the current token (the token is not consumed). Nodes are
+     * created while their token is current, since earlier tokens have left the window.
+     */
+    private int node(NodeKind kind) {
+        return tree.add(kind, window.type(), window.index(), window.text(), window.start(), window.length(),
+                        line(), column());
+    }
+    
+    /**
+     * Link up to three children to a node (NONE entries are skipped)
+     * @return The node
+     */
+    private int link(int node, int first, int second, int third) {
+        append(node, append(node, append(node, SyntaxTree.NONE, first), second), third);
+        return node;
+    }
+    
+    /**
+     * Link a child after the last child of a node (NONE is skipped)
+     * @return New last child
+     */
+    private int append(int parent, int last, int child) {
+        if (child == SyntaxTree.NONE) {
+            return last;
+        }
+        if (last == SyntaxTree.NONE) {
+            tree.setFirstChild(parent, child);
+        } else {
+            tree.setNextSibling(last, child);
+        }
+        return child;
+    }
+    
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw NESTING_TOO_DEEP;
+        }
+    }
+    
+    // ==================== Statements ====================
+    
+    /**
+     * Program -> start StmtList finish
+     */
+    private int parseProgram() {
+        int program = node(NodeKind.PROGRAM);
+        if (!accept(TokenType.KEYWORD_START)) {
+            error("Expected 'start'");
+        }
+        
+        int last = SyntaxTree.NONE;
+        while (!at(TokenType.KEYWORD_FINISH) && !at(TokenType.EOF)) {
+            if (at(TokenType.PUNC_RBRACE)) {
+                error("Unexpected '}'");
+                advance();
+                continue;
+            }
+            last = append(program, last, parseNextStatement());
+        }
+        
+        if (expect(TokenType.KEYWORD_FINISH, "Expected 'finish'") && !at(TokenType.EOF)) {
+            error("Unexpected input after 'finish'");
+        }
+        // Read the rest, so a fused or piped scanner reports all lexical errors as a full scan does
+        while (!at(TokenType.EOF)) {
+            advance();
+        }
+        return program;
+    }
+    
+    /**
+     * Parse one statement of a statement list, skipping a token if none was
+     * consumed, so that the list's loop always makes progress
+     */
+    private int parseNextStatement() {
+        int before = window.index();
+        int statement = parseStatement();
+        if (window.index() == before && !at(TokenType.PUNC_RBRACE) && !at(TokenType.KEYWORD_FINISH)) {
+            advance();
+        }
+        return statement;
+    }
+    
+    /**
+     * Parse one statement; on a syntax error, skip to the next statement
+     * @return Statement node, or NONE if only separators or invalid input were consumed
+     */
+    private int parseStatement() {
+        while (accept(TokenType.PUNC_SEMICOLON)) {
+            // Empty statement
+        }
+        if (at(TokenType.KEYWORD_FINISH) || at(TokenType.EOF) || at(TokenType.PUNC_RBRACE)) {
+            return SyntaxTree.NONE;
+        }
+        
+        int first = window.index();
+        int reports = errorReports;
+        int savedDepth = depth;
+        int statement;
+        try {
+            statement = parseStatementBody();
+        } catch (NestingTooDeep e) {
+            depth = savedDepth;
+            error("Nesting too deep (limit: " + MAX_DEPTH + ")");
+            statement = SyntaxTree.NONE;
+        }
+        
+        // A repeated error at the same token is not counted, and a statement
+        // that consumed nothing must still move on
+        if (errorReports != reports) {
+            synchronize(first, lastErrorLine);
+        } else if (window.index() == first) {
+            synchronize(first, line());
+        } else {
+            accept(TokenType.PUNC_SEMICOLON);
+        }
+        return statement;
+    }
+    
+    private int parseStatementBody() {
+        switch (type()) {
+            case KEYWORD_DECLARE:
+                return parseDeclare();
+            case KEYWORD_OUTPUT: {
+                int output = node(NodeKind.OUTPUT);
+                advance();
+                return link(output, parseExpression(0), SyntaxTree.NONE, SyntaxTree.NONE);
+            }
+            case KEYWORD_INPUT: {
+                int input = node(NodeKind.INPUT);
+                advance();
+                return link(input, parseName(), SyntaxTree.NONE, SyntaxTree.NONE);
+            }
+            case KEYWORD_CONDITION:
+                return parseCondition();
+            case KEYWORD_LOOP: {
+                int loop = node(NodeKind.LOOP);
+                advance();
+                int condition = parseExpression(0);
+                return link(loop, condition, parseBlock(tree.getLine(loop), tree.getColumn(loop)), SyntaxTree.NONE);
+            }
+            case KEYWORD_FUNCTION:
+                return parseFunction();
+            case KEYWORD_RETURN: {
+                int ret = node(NodeKind.RETURN);
+                advance();
+                return link(ret, parseExpression(0), SyntaxTree.NONE, SyntaxTree.NONE);
+            }
+            case KEYWORD_BREAK: {
+                int node = node(NodeKind.BREAK);
+                advance();
+                return node;
+            }
+            case KEYWORD_CONTINUE: {
+                int node = node(NodeKind.CONTINUE);
+                advance();
+                return node;
+            }
+            case IDENTIFIER:
+                return parseIdentifierStatement();
+            case OP_INCREMENT:
+            case OP_DECREMENT: {
+                int increment = node(NodeKind.INCREMENT);
+                advance();
+                return link(increment, parseName(), SyntaxTree.NONE, SyntaxTree.NONE);
+            }
+            case PUNC_LBRACE:
+                return parseBlock(line(), column());
+            case KEYWORD_ELSE:
+                error("'else' without condition");
+                return SyntaxTree.NONE;
+            default:
+                error("Expected statement");
+                return SyntaxTree.NONE;
+        }
+    }
+    
+    /**
+     * DeclStmt -> declare IDENTIFIER = Expr | declare IDENTIFIER [ Expr ]
+     */
+    private int parseDeclare() {
+        int declare = node(NodeKind.DECLARE);
+        advance();
+        int name = parseName();
+        if (accept(TokenType.PUNC_LBRACKET)) {
+            tree.setKind(declare, NodeKind.DECLARE_ARRAY);
+            int size = parseExpression(0);
+            expect(TokenType.PUNC_RBRACKET, "Expected ']'");
+            return link(declare, name, size, SyntaxTree.NONE);
+        }
+        if (!expect(TokenType.OP_ASSIGN, "Expected '=' or '['")) {
+            return link(declare, name, SyntaxTree.NONE, SyntaxTree.NONE);
+        }
+        return link(declare, name, parseExpression(0), SyntaxTree.NONE);
+    }
+    
+    /**
+     * ConditionStmt -> condition Expr StmtList [else StmtList]
+     */
+    private int parseCondition() {
+        int condition = node(NodeKind.CONDITION);
+        int headerLine = line();
+        int headerColumn = column();
+        advance();
+        int test = parseExpression(0);
+        boolean braced = at(TokenType.PUNC_LBRACE);
+        int then = parseBlock(headerLine, headerColumn);
+        
+        // 'else' belongs to this condition if it is not indented less than the keyword
+        int otherwise = SyntaxTree.NONE;
+        if (at(TokenType.KEYWORD_ELSE) && (braced || line() == headerLine || column() >= headerColumn)) {
+            int elseLine = line();
+            int elseColumn = column();
+            advance();
+            otherwise = parseBlock(elseLine, elseColumn);
+        }
+        return link(condition, test, then, otherwise);
+    }
+    
+    /**
+     * FunctionDef -> function IDENTIFIER ( ParamList ) StmtList
+     */
+    private int parseFunction() {
+        int function = node(NodeKind.FUNCTION);
+        advance();
+        int name = parseName();
+        int parameters = node(NodeKind.PARAMETERS);
+        if (expect(TokenType.PUNC_LPAREN, "Expected '('")) {
+            int last = SyntaxTree.NONE;
+            if (!at(TokenType.PUNC_RPAREN)) {
+                do {
+                    last = append(parameters, last, parseName());
+                } while (accept(TokenType.PUNC_COMMA));
+            }
+            expect(TokenType.PUNC_RPAREN, "Expected ')'");
+        }
+        return link(function, name, parameters, parseBlock(tree.getLine(function), tree.getColumn(function)));
+    }
+    
+    /**
+     * AssignStmt, increment or call statement starting with an identifier
+     */
+    private int parseIdentifierStatement() {
+        TokenType next = window.type(1);
+        if (next == TokenType.PUNC_LPAREN) {
+            return parsePrimary();
+        }
+        
+        int target;
+        if (next == TokenType.PUNC_LBRACKET) {
+            target = parsePrimary();
+        } else {
+            target = node(NodeKind.NAME);
+            advance();
+            if (at(TokenType.OP_INCREMENT) || at(TokenType.OP_DECREMENT)) {
+                int increment = node(NodeKind.INCREMENT);
+                advance();
+                return link(increment, target, SyntaxTree.NONE, SyntaxTree.NONE);
+            }
+        }
+        
+        switch (type()) {
+            case OP_ASSIGN:
+            case OP_PLUS_ASSIGN:
+            case OP_MINUS_ASSIGN:
+            case OP_MULTIPLY_ASSIGN:
+            case OP_DIVIDE_ASSIGN: {
+                int assign = node(NodeKind.ASSIGN);
+                advance();
+                return link(assign, target, parseExpression(0), SyntaxTree.NONE);
+            }
+            default:
+                error(next == TokenType.PUNC_LBRACKET
+                      ? "Expected assignment operator"
+                      : "Expected assignment, '++', '--' or call after '" + tree.getLexeme(target) + "'");
+                return target;
+        }
+    }
+    
+    /**
+     * Parse a block: '{' StmtList '}', or the statements on the header's line
+     * and on following lines indented past the header keyword
+     * @param headerLine Line of the statement keyword that owns the block
+     * @param headerColumn Column of that keyword
+     */
+    private int parseBlock(int headerLine, int headerColumn) {
+        enter();
+        int block = node(NodeKind.BLOCK);
+        int last = SyntaxTree.NONE;
+        if (accept(TokenType.PUNC_LBRACE)) {
+            while (!at(TokenType.PUNC_RBRACE) && !at(TokenType.KEYWORD_FINISH) && !at(TokenType.EOF)) {
+                last = append(block, last, parseNextStatement());
+            }
+            expect(TokenType.PUNC_RBRACE, "Expected '}'");
+        } else {
+            while (!at(TokenType.PUNC_RBRACE) && !at(TokenType.KEYWORD_FINISH) && !at(TokenType.EOF)) {
+                boolean sameLine = line() == headerLine;
+                if (sameLine ? at(TokenType.KEYWORD_ELSE) : column() <= headerColumn) {
+                    break;
+                }
+                last = append(block, last, parseNextStatement());
+            }
+        }
+        depth--;
+        return block;
+    }
+    
+    /**
+     * Skip to the start of the next statement after a syntax error: a
+     * statement keyword on a later line, a block end, or 'finish'
+     * @param first Stream index of the first token of the failed statement
+     * @param errorLine Line of the error (a nested statement may already have skipped past it)
+     */
+    private void synchronize(int first, int errorLine) {
+        if (window.index() == first && !at(TokenType.PUNC_RBRACE) && !at(TokenType.KEYWORD_FINISH)) {
+            advance();
+        }
+        while (!at(TokenType.EOF) && !at(TokenType.KEYWORD_FINISH) && !at(TokenType.PUNC_RBRACE)
+               && !(STATEMENT_START[type().ordinal()] && line() > errorLine)) {
+            advance();
+        }
+    }
+    
+    // ==================== Expressions ====================
+    
+    /**
+     * Parse an expression whose infix operators bind tighter than minPower
+     */
+    private int parseExpression(int minPower) {
+        enter();
+        int left = parseInfix(parsePrefix(), minPower);
+        depth--;
+        return left;
+    }
+    
+    /**
+     * Parse infix operators following an operand while they bind tighter than minPower
+     */
+    private int parseInfix(int left, int minPower) {
+        while (true) {
+            TokenType type = type();
+            int power = BINDING[type.ordinal()];
+            if (power == 0 && isSignedNumber()) {
+                // "N-1" is scanned as N and the literal -1: the sign is the operator
+                if (ADDITIVE_POWER <= minPower) {
+                    return left;
+                }
+                left = parseSignedOperand(left);
+                continue;
+            }
+            if (power <= minPower) {
+                return left;
+            }
+            int binary = node(NodeKind.BINARY);
+            advance();
+            // ** is right-associative: its right side may contain ** again
+            int right = parseExpression(type == TokenType.OP_EXPONENT ? power - 1 : power);
+            left = link(binary, left, right, SyntaxTree.NONE);
+        }
+    }
+    
+    private boolean isSignedNumber() {
+        if (!at(TokenType.INTEGER_LITERAL) && !at(TokenType.FLOAT_LITERAL)) {
+            return false;
+        }
+        char sign = window.text().charAt(window.start());
+        return sign == '+' || sign == '-';
+    }
+    
+    /**
+     * Split a signed literal in infix position into an additive operator and
+     * the unsigned literal, and parse the rest of the right operand
+     */
+    private int parseSignedOperand(int left) {
+        int binary = splitSignedLiteral(NodeKind.BINARY);
+        enter();
+        int right = parseInfix(binary + 1, ADDITIVE_POWER);
+        depth--;
+        return link(binary, left, right, SyntaxTree.NONE);
+    }
+    
+    /**
+     * Split a signed literal followed by ** into a unary sign and the unsigned
+     * literal, so that "-2 ** 2" is -(2 ** 2) as with a separate sign
+     */
+    private int parseSignedPower() {
+        int unary = splitSignedLiteral(NodeKind.UNARY);
+        enter();
+        int operand = parseInfix(unary + 1, UNARY_POWER);
+        depth--;
+        return link(unary, operand, SyntaxTree.NONE, SyntaxTree.NONE);
+    }
+    
+    /**
+     * Add a node of the given kind for the sign of the current signed literal,
+     * then the unsigned literal (the next node index), and advance past it
+     * @return The sign node
+     */
+    private int splitSignedLiteral(NodeKind kind) {
+        CharSequence text = window.text();
+        int start = window.start();
+        int line = line();
+        int column = column();
+        TokenType operator = text.charAt(start) == '+' ? TokenType.OP_PLUS : TokenType.OP_MINUS;
+        NodeKind literal = at(TokenType.INTEGER_LITERAL) ? NodeKind.INTEGER : NodeKind.FLOAT;
+        int sign = tree.add(kind, operator, window.index(), text, start, 1, line, column);
+        tree.add(literal, type(), window.index(), text, start + 1, window.length() - 1, line, column + 1);
+        advance();
+        return sign;
+    }
+    
+    /**
+     * UnaryExpr -> ! UnaryExpr | - UnaryExpr | + UnaryExpr | PrimaryExpr
+     */
+    private int parsePrefix() {
+        if (isSignedNumber() && window.type(1) == TokenType.OP_EXPONENT) {
+            return parseSignedPower();
+        }
+        switch (type()) {
+            case OP_NOT:
+            case OP_MINUS:
+            case OP_PLUS: {
+                int unary = node(NodeKind.UNARY);
+                advance();
+                return link(unary, parseExpression(UNARY_POWER), SyntaxTree.NONE, SyntaxTree.NONE);
+            }
+            default:
+                return parsePrimary();
+        }
+    }
+    
+    /**
+     * PrimaryExpr -> literal | IDENTIFIER | IDENTIFIER [ Expr ] | IDENTIFIER ( ArgList ) | ( Expr )
+     */
+    private int parsePrimary() {
+        NodeKind kind;
+        switch (type()) {
+            case INTEGER_LITERAL:
+                kind = NodeKind.INTEGER;
+                break;
+            case FLOAT_LITERAL:
+                kind = NodeKind.FLOAT;
+                break;
+            case STRING_LITERAL:
+                kind = NodeKind.STRING;
+                break;
+            case CHAR_LITERAL:
+                kind = NodeKind.CHAR;
+                break;
+            case BOOLEAN_LITERAL:
+                kind = NodeKind.BOOLEAN;
+                break;
+            case IDENTIFIER:
+                return parseIdentifier();
+            case PUNC_LPAREN: {
+                advance();
+                int inner = parseExpression(0);
+                expect(TokenType.PUNC_RPAREN, "Expected ')'");
+                return inner;
+            }
+            default:
+                error("Expected expression");
+                return node(NodeKind.ERROR);
+        }
+        int literal = node(kind);
+        advance();
+        return literal;
+    }
+    
+    /**
+     * IDENTIFIER, IDENTIFIER [ Expr ] or IDENTIFIER ( ArgList )
+     */
+    private int parseIdentifier() {
+        TokenType next = window.type(1);
+        if (next == TokenType.PUNC_LBRACKET) {
+            int index = node(NodeKind.INDEX);
+            advance();
+            advance();
+            int subscript = parseExpression(0);
+            expect(TokenType.PUNC_RBRACKET, "Expected ']'");
+            return link(index, subscript, SyntaxTree.NONE, SyntaxTree.NONE);
+        }
+        if (next == TokenType.PUNC_LPAREN) {
+            int call = node(NodeKind.CALL);
+            advance();
+            advance();
+            int last = SyntaxTree.NONE;
+            if (!at(TokenType.PUNC_RPAREN)) {
+                do {
+                    last = append(call, last, parseExpression(0));
+                } while (accept(TokenType.PUNC_COMMA));
+            }
+            expect(TokenType.PUNC_RPAREN, "Expected ')'");
+            return call;
+        }
+        int name = node(NodeKind.NAME);
+        advance();
+        return name;
+    }
+    
+    /**
+     * Parse an identifier used as a name
+     */
+    private int parseName() {
+        if (!at(TokenType.IDENTIFIER)) {
+            error("Expected identifier");
+            return node(NodeKind.ERROR);
+        }
+        int name = node(NodeKind.NAME);
+        advance();
+        return name;
+    }
+    
+    // ==================== Errors ====================
+    
+    /**
+     * Report a syntax error at the current token (only the first error per token is kept)
+     */
+    private void error(String message) {
+        errorReports++;
+        lastErrorLine = line();
+        long position = ((long) line() << 32) | (column() & 0xFFFFFFFFL);
+        if (errorSize > 0 && errorPositions[errorSize - 1] == position) {
+            return;
+        }
+        errorCount++;
+        if (errorSize == maxErrors) {
+            return;
+        }
+        if (errorSize == errorPositions.length) {
+            int capacity = errorSize * 2;
+            errorPositions = Arrays.copyOf(errorPositions, capacity);
+            errorLexemes = Arrays.copyOf(errorLexemes, capacity);
+            errorMessages = Arrays.copyOf(errorMessages, capacity);
+        }
+        errorPositions[errorSize] = position;
+        errorLexemes[errorSize] = at(TokenType.EOF) ? "EOF" : window.getLexeme();
+        errorMessages[errorSize] = message;
+        errorSize++;
+    }
+    
+    /**
+     * Set the maximum number of stored syntax errors (later errors are only counted)
+     */
+    public void setMaxErrors(int maxErrors) {
+        if (maxErrors < 0) {
+            throw new IllegalArgumentException("Negative error limit: " + maxErrors);
+        }
+        this.maxErrors = maxErrors;
+    }
+    
+    /**
+     * Get total number of syntax errors (stored and dropped)
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+    
+    /**
+     * Get all stored syntax errors as a list
+     * @return List of error strings
+     */
+    public List<String> getErrors() {
+        List<String> errors = new ArrayList<>(errorSize);
+        for (int i = 0; i < errorSize; i++) {
+            errors.add("[SYNTAX ERROR] at Line " + (int) (errorPositions[i] >>> 32)
+                       + ", Col " + (int) errorPositions[i]
+                       + ": '" + errorLexemes[i] + "' - " + errorMessages[i]);
+        }
+        return errors;
+    }
+    
+    /**
+     * Print all syntax errors
+     */
+    public void printErrors() {
+        if (errorCount == 0) {
+            return;
+        }
+        
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("SYNTAX ERRORS DETECTED: " + errorCount);
+        System.out.println("=".repeat(80));
+        
+        for (String error : getErrors()) {
+            System.out.println(error);
+        }
+        if (errorCount > errorSize) {
+            System.out.println("... " + (errorCount - errorSize) + " more errors not shown (limit: " + maxErrors + ")");
+        }
+        
+        System.out.println("=".repeat(80));
+    }
+    
+    /**
+     * Main method for testing
+     */
+    public static void main(String[] args) {
+        String mode = args.length > 0 && args[0].startsWith("--") ? args[0] : null;
+        if (args.length != (mode != null ? 2 : 1)
+            || (mode != null && !mode.equals("--fused") && !mode.equals("--pipe"))) {
+            System.out.println("Usage: java Parser [--fused | --pipe] <input-file>");
+            return;
+        }
+        
+        try {
+            String filename = args[mode != null ? 1 : 0];
+            ManualScanner scanner;
+            Parser parser;
+            
+            if (mode != null) {
+                // Stream the file through the scanner; tokens go straight to the parser
+                try (Reader reader = ManualScanner.openSource(filename)) {
+                    scanner = new ManualScanner(reader);
+                    parser = mode.equals("--pipe")
+                        ? new Parser(new TokenPipe(scanner).start())
+                        : new Parser(scanner);
+                    parser.parse().printTree();
+                }
+            } else {
+                scanner = new ManualScanner(ManualScanner.readSource(filename));
+                scanner.scan();
+                parser = new Parser(scanner.getTokenBuffer());
+                parser.parse().printTree();
+            }
+            
+            scanner.getErrorHandler().printErrors();
+            parser.printErrors();
+            
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+        } catch (UncheckedIOException e) {
+            System.err.println("Error reading file: " + e.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,742 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.*;
+
+/**
+ * ReportWriter Class
+ * Buffered sink for the scanner reports (token list, symbol table,
+ * statistics and errors). Every record is rendered into one reused
+ * StringBuilder, with numbers appended and padded directly instead of going
+ * through String.format, and the characters are encoded into a 64 KB byte
+ * buffer that is written to the stream or channel when it fills up.
+ * Three formats are supported:
+ * - TEXT: the layout printed by ManualScanner (byte for byte)
+ * - NDJSON: one JSON object per line with a "record" field
+ * - CSV: one table with the columns record,type,text,line,column,value,detail
+ * Record kinds in NDJSON and CSV are token, symbol, statistic, count (token
+ * count by type), error and dropped-errors (errors counted but not stored).
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public abstract class ReportWriter implements Closeable, Flushable {
+    
+    /**
+     * Output format
+     */
+    public enum Format {
+        TEXT, NDJSON, CSV;
+        
+        /**
+         * Parse a format name (case insensitive)
+         * @throws IllegalArgumentException if the name is not a format
+         */
+        public static Format parse(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown report format: " + name);
+        }
+    }
+    
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CHUNK_SIZE = 1 << 13;      // Characters rendered before they are encoded
+    private static final String RULE = "=".repeat(80);
+    private static final String LINE = "-".repeat(80);
+    
+    protected final StringBuilder out;
+    private final String newline;
+    private final OutputStream stream;
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final byte[] bytes;
+    private final ByteBuffer byteBuffer;
+    private char[] chars;
+    private int byteCount;
+    
+    /**
+     * Constructor
+     * @param stream Destination stream, or null if channel is set
+     * @param channel Destination channel, or null if stream is set
+     * @param charset Character encoding
+     * @param newline Line separator
+     */
+    protected ReportWriter(OutputStream stream, WritableByteChannel channel, Charset charset, String newline) {
+        this.stream = stream;
+        this.channel = channel;
+        this.newline = newline;
+        this.out = new StringBuilder(CHUNK_SIZE + 256);
+        this.encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = new byte[BUFFER_SIZE];
+        this.byteBuffer = ByteBuffer.wrap(bytes);
+        this.chars = new char[CHUNK_SIZE + 256];
+    }
+    
+    /**
+     * Create a report writer on a stream (the stream is closed by close())
+     * @param format Output format
+     * @param stream Destination
+     */
+    public static ReportWriter create(Format format, OutputStream stream) {
+        return create(format, stream, null);
+    }
+    
+    /**
+     * Create a report writer on a channel (the channel is closed by close())
+     * @param format Output format
+     * @param channel Destination
+     */
+    public static ReportWriter create(Format format, WritableByteChannel channel) {
+        return create(format, null, channel);
+    }
+    
+    private static ReportWriter create(Format format, OutputStream stream, WritableByteChannel channel) {
+        switch (format) {
+            case NDJSON:
+                return new NdjsonReportWriter(stream, channel);
+            case CSV:
+                return new CsvReportWriter(stream, channel);
+            default:
+                return new TextReportWriter(stream, channel);
+        }
+    }
+    
+    /**
+     * Create a text report writer on System.out (as used by the print methods)
+     */
+    static ReportWriter text() {
+        return create(Format.TEXT, System.out);
+    }
+    
+    // ==================== Records ====================
+    
+    /**
+     * Start the token list
+     */
+    public abstract void beginTokens();
+    
+    /**
+     * Write one token
+     * @param type Token type
+     * @param text Text the lexeme is a slice of (unused for fixed-spelling tokens)
+     * @param start Offset of the lexeme in text
+     * @param length Number of characters
+     * @param line Line number
+     * @param column Column number
+     */
+    public abstract void token(TokenType type, CharSequence text, int start, int length, int line, int column);
+    
+    /**
+     * End the token list
+     */
+    public abstract void endTokens();
+    
+    /**
+     * Write a token object
+     */
+    public void token(Token token) {
+        String lexeme = token.getLexeme();
+        token(token.getType(), lexeme, 0, lexeme.length(), token.getLine(), token.getColumn());
+    }
+    
+    /**
+     * Write a complete token list
+     */
+    public void tokens(TokenBuffer tokens) {
+        beginTokens();
+        CharSequence source = tokens.getSource();
+        for (int i = 0; i < tokens.size(); i++) {
+            token(tokens.getType(i), source, tokens.getStart(i), tokens.getLength(i), tokens.getLine(i),
+                  tokens.getColumn(i));
+        }
+        endTokens();
+    }
+    
+    /**
+     * Write a symbol table (symbols in insertion order)
+     */
+    public abstract void symbolTable(SymbolTable symbols);
+    
+    /**
+     * Start a statistics section
+     * @param title Section title
+     */
+    public abstract void beginStatistics(String title);
+    
+    /**
+     * Write one statistic
+     * @param label Label (e.g. "Total Tokens")
+     * @param value Value
+     */
+    public abstract void statistic(String label, long value);
+    
+    /**
+     * Write token counts by type, most frequent first (ties in TokenType order)
+     * @param counts Counts indexed by TokenType.ordinal()
+     */
+    public abstract void tokenCounts(long[] counts);
+    
+    /**
+     * Write token counts by type from int counters
+     */
+    public void tokenCounts(int[] counts) {
+        long[] values = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            values[i] = counts[i];
+        }
+        tokenCounts(values);
+    }
+    
+    /**
+     * End a statistics section
+     */
+    public abstract void endStatistics();
+    
+    /**
+     * Write the stored errors of an error handler (nothing if it has none)
+     */
+    public abstract void errors(ErrorHandler errors);
+    
+    // ==================== Rendering ====================
+    
+    /**
+     * Append the lexeme of a token
+     */
+    protected void appendLexeme(TokenType type, CharSequence text, int start, int length) {
+        String fixed = type.fixedLexeme(length);
+        if (fixed != null) {
+            out.append(fixed);
+        } else {
+            out.append(text, start, start + length);
+        }
+    }
+    
+    /**
+     * Pad with spaces to a width counted from a mark (like %-Ns)
+     */
+    protected void padFrom(int mark, int width) {
+        for (int n = width - (out.length() - mark); n > 0; n--) {
+            out.append(' ');
+        }
+    }
+    
+    /**
+     * Append a left-aligned value (like %-Nd)
+     */
+    protected void appendLeft(long value, int width) {
+        int mark = out.length();
+        out.append(value);
+        padFrom(mark, width);
+    }
+    
+    /**
+     * Append a right-aligned value (like %Nd)
+     */
+    protected void appendRight(long value, int width) {
+        for (int n = width - digits(value); n > 0; n--) {
+            out.append(' ');
+        }
+        out.append(value);
+    }
+    
+    private static int digits(long value) {
+        int n = value < 0 ? 2 : 1;
+        for (long v = Math.abs(value / 10); v > 0; v /= 10) {
+            n++;
+        }
+        return n;
+    }
+    
+    /**
+     * End a line; the rendered text is encoded once enough has accumulated
+     */
+    protected void newline() {
+        out.append(newline);
+        if (out.length() >= CHUNK_SIZE) {
+            encode();
+        }
+    }
+    
+    /**
+     * Encode the rendered characters into the byte buffer
+     */
+    private void encode() {
+        int length = out.length();
+        if (chars.length < length) {
+            chars = new char[length];
+        }
+        out.getChars(0, length, chars, 0);
+        out.setLength(0);
+        
+        for (int i = 0; i < length; i++) {
+            char c = chars[i];
+            if (c >= 0x80) {
+                encodeSlow(i, length);
+                return;
+            }
+            if (byteCount == BUFFER_SIZE) {
+                drain();
+            }
+            bytes[byteCount++] = (byte) c;
+        }
+    }
+    
+    /**
+     * Encode the rest of the characters through the charset encoder
+     */
+    private void encodeSlow(int from, int to) {
+        CharBuffer input = CharBuffer.wrap(chars, from, to - from);
+        encoder.reset();
+        CoderResult result;
+        do {
+            byteBuffer.limit(BUFFER_SIZE).position(byteCount);
+            result = encoder.encode(input, byteBuffer, true);
+            byteCount = byteBuffer.position();
+            if (result.isOverflow()) {
+                drain();
+            }
+        } while (result.isOverflow());
+        do {
+            byteBuffer.limit(BUFFER_SIZE).position(byteCount);
+            result = encoder.flush(byteBuffer);
+            byteCount = byteBuffer.position();
+            if (result.isOverflow()) {
+                drain();
+            }
+        } while (result.isOverflow());
+    }
+    
+    /**
+     * Write the byte buffer to the destination
+     */
+    private void drain() {
+        try {
+            if (channel != null) {
+                byteBuffer.limit(byteCount).position(0);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+            } else {
+                stream.write(bytes, 0, byteCount);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byteCount = 0;
+    }
+    
+    /**
+     * Write everything rendered so far and flush the destination stream
+     * @throws UncheckedIOException if the destination fails
+     */
+    @Override
+    public void flush() {
+        encode();
+        drain();
+        if (stream != null) {
+            try {
+                stream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    /**
+     * Flush and close the destination
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (channel != null) {
+            channel.close();
+        } else {
+            stream.close();
+        }
+    }
+    
+    // ==================== Formats ====================
+    
+    /**
+     * Text layout of ManualScanner, SymbolTable and ErrorHandler (default
+     * charset and line separator, like System.out.println)
+     */
+    private static final class TextReportWriter extends ReportWriter {
+        private static final String SYMBOL_HEADER = String.format("%-20s %-15s %-10s %-10s %s",
+                                                                  "Name", "Type", "First Line", "First Col",
+                                                                  "Frequency");
+        
+        TextReportWriter(OutputStream stream, WritableByteChannel channel) {
+            super(stream, channel, Charset.defaultCharset(), System.lineSeparator());
+        }
+        
+        /**
+         * Section header: a blank line, a rule, the title and another rule
+         */
+        private void header(String title) {
+            out.append('\n').append(RULE);
+            newline();
+            out.append(title);
+            newline();
+            out.append(RULE);
+            newline();
+        }
+        
+        private void rule(String rule) {
+            out.append(rule);
+            newline();
+        }
+        
+        @Override
+        public void beginTokens() {
+            header("TOKENS");
+        }
+        
+        @Override
+        public void token(TokenType type, CharSequence text, int start, int length, int line, int column) {
+            out.append('<').append(type.name()).append(", \"");
+            appendLexeme(type, text, start, length);
+            out.append("\", Line: ").append(line).append(", Col: ").append(column).append('>');
+            newline();
+        }
+        
+        @Override
+        public void endTokens() {
+            rule(RULE);
+        }
+        
+        @Override
+        public void symbolTable(SymbolTable symbols) {
+            header("SYMBOL TABLE");
+            int count = symbols.getUniqueIdentifierCount();
+            if (count == 0) {
+                out.append("No identifiers found.");
+                newline();
+            } else {
+                out.append(SYMBOL_HEADER);
+                newline();
+                rule(LINE);
+                for (int i = 0; i < count; i++) {
+                    int id = symbols.getIdAt(i);
+                    int mark = out.length();
+                    out.append(symbols.getName(id));
+                    padFrom(mark, 20);
+                    out.append(" IDENTIFIER      Line: ");
+                    appendLeft(symbols.getFirstLine(id), 4);
+                    out.append(" Col: ");
+                    appendLeft(symbols.getFirstColumn(id), 4);
+                    out.append(" Frequency: ").append(symbols.getFrequency(id));
+                    newline();
+                }
+                rule(LINE);
+                out.append("Total unique identifiers: ").append(count);
+                newline();
+                out.append("Total identifier occurrences: ").append(symbols.getTotalIdentifierOccurrences());
+                newline();
+            }
+            rule(RULE);
+        }
+        
+        @Override
+        public void beginStatistics(String title) {
+            header(title);
+        }
+        
+        @Override
+        public void statistic(String label, long value) {
+            out.append(label).append(": ").append(value);
+            newline();
+        }
+        
+        @Override
+        public void tokenCounts(long[] counts) {
+            out.append("\nToken Count by Type:");
+            newline();
+            rule(LINE);
+            // Each count line ends with '\n' (printed with printf), not the line separator
+            for (int ordinal : ScannerMetrics.orderByCount(counts)) {
+                out.append("  ");
+                int mark = out.length();
+                out.append(TYPES[ordinal].name());
+                padFrom(mark, 30);
+                out.append(" : ");
+                appendRight(counts[ordinal], 5);
+                out.append('\n');
+            }
+        }
+        
+        @Override
+        public void endStatistics() {
+            rule(RULE);
+        }
+        
+        @Override
+        public void errors(ErrorHandler errors) {
+            int errorCount = errors.getErrorCount();
+            if (errorCount == 0) {
+                return;
+            }
+            header("LEXICAL ERRORS DETECTED: " + errorCount);
+            int stored = errors.getStoredErrorCount();
+            for (int i = 0; i < stored; i++) {
+                errors.appendError(out, i);
+                newline();
+            }
+            if (errorCount > stored) {
+                out.append("... ").append(errorCount - stored).append(" more errors not shown (limit: ")
+                   .append(errors.getMaxErrors()).append(')');
+                newline();
+            }
+            rule(RULE);
+        }
+    }
+    
+    /**
+     * Newline-delimited JSON (UTF-8), one object per record
+     */
+    private static final class NdjsonReportWriter extends ReportWriter {
+        private final StringBuilder scratch = new StringBuilder(64);
+        
+        NdjsonReportWriter(OutputStream stream, WritableByteChannel channel) {
+            super(stream, channel, StandardCharsets.UTF_8, "\n");
+        }
+        
+        /**
+         * Append a JSON string literal
+         */
+        private void string(CharSequence text, int start, int end) {
+            out.append('"');
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.append('\\').append(c);
+                } else if (c >= 0x20) {
+                    out.append(c);
+                } else if (c == '\n') {
+                    out.append("\\n");
+                } else if (c == '\t') {
+                    out.append("\\t");
+                } else if (c == '\r') {
+                    out.append("\\r");
+                } else {
+                    out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                }
+            }
+            out.append('"');
+        }
+        
+        private void string(CharSequence text) {
+            string(text, 0, text.length());
+        }
+        
+        @Override
+        public void beginTokens() {
+        }
+        
+        @Override
+        public void token(TokenType type, CharSequence text, int start, int length, int line, int column) {
+            out.append("{\"record\":\"token\",\"type\":\"").append(type.name()).append("\",\"lexeme\":");
+            String fixed = type.fixedLexeme(length);
+            if (fixed != null) {
+                string(fixed);
+            } else {
+                string(text, start, start + length);
+            }
+            out.append(",\"line\":").append(line).append(",\"column\":").append(column).append('}');
+            newline();
+        }
+        
+        @Override
+        public void endTokens() {
+        }
+        
+        @Override
+        public void symbolTable(SymbolTable symbols) {
+            int count = symbols.getUniqueIdentifierCount();
+            for (int i = 0; i < count; i++) {
+                int id = symbols.getIdAt(i);
+                out.append("{\"record\":\"symbol\",\"name\":");
+                string(symbols.getName(id));
+                out.append(",\"type\":\"IDENTIFIER\",\"firstLine\":").append(symbols.getFirstLine(id))
+                   .append(",\"firstColumn\":").append(symbols.getFirstColumn(id))
+                   .append(",\"frequency\":").append(symbols.getFrequency(id)).append('}');
+                newline();
+            }
+        }
+        
+        @Override
+        public void beginStatistics(String title) {
+        }
+        
+        @Override
+        public void statistic(String label, long value) {
+            out.append("{\"record\":\"statistic\",\"name\":");
+            string(label);
+            out.append(",\"value\":").append(value).append('}');
+            newline();
+        }
+        
+        @Override
+        public void tokenCounts(long[] counts) {
+            for (int ordinal : ScannerMetrics.orderByCount(counts)) {
+                out.append("{\"record\":\"count\",\"type\":\"").append(TYPES[ordinal].name())
+                   .append("\",\"count\":").append(counts[ordinal]).append('}');
+                newline();
+            }
+        }
+        
+        @Override
+        public void endStatistics() {
+        }
+        
+        @Override
+        public void errors(ErrorHandler errors) {
+            int stored = errors.getStoredErrorCount();
+            for (int i = 0; i < stored; i++) {
+                out.append("{\"record\":\"error\",\"code\":\"").append(errors.getCode(i).name())
+                   .append("\",\"line\":").append(errors.getLine(i))
+                   .append(",\"column\":").append(errors.getColumn(i)).append(",\"lexeme\":");
+                scratch.setLength(0);
+                errors.appendLexeme(scratch, i);
+                string(scratch);
+                out.append(",\"reason\":");
+                scratch.setLength(0);
+                errors.appendReason(scratch, i);
+                string(scratch);
+                out.append('}');
+                newline();
+            }
+            if (errors.getErrorCount() > stored) {
+                out.append("{\"record\":\"dropped-errors\",\"count\":").append(errors.getErrorCount() - stored)
+                   .append(",\"limit\":").append(errors.getMaxErrors()).append('}');
+                newline();
+            }
+        }
+    }
+    
+    /**
+     * CSV (RFC 4180 quoting, UTF-8, '\n' line endings) with a header row
+     */
+    private static final class CsvReportWriter extends ReportWriter {
+        private final StringBuilder scratch = new StringBuilder(64);
+        
+        CsvReportWriter(OutputStream stream, WritableByteChannel channel) {
+            super(stream, channel, StandardCharsets.UTF_8, "\n");
+            out.append("record,type,text,line,column,value,detail");
+            newline();
+        }
+        
+        /**
+         * Append a field, quoted if it contains a separator, quote or line break
+         */
+        private void field(CharSequence text, int start, int end) {
+            boolean quote = false;
+            for (int i = start; i < end && !quote; i++) {
+                char c = text.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.append(text, start, end);
+                return;
+            }
+            out.append('"');
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    out.append('"');
+                }
+                out.append(c);
+            }
+            out.append('"');
+        }
+        
+        private void field(CharSequence text) {
+            field(text, 0, text.length());
+        }
+        
+        @Override
+        public void beginTokens() {
+        }
+        
+        @Override
+        public void token(TokenType type, CharSequence text, int start, int length, int line, int column) {
+            out.append("token,").append(type.name()).append(',');
+            String fixed = type.fixedLexeme(length);
+            if (fixed != null) {
+                field(fixed);
+            } else {
+                field(text, start, start + length);
+            }
+            out.append(',').append(line).append(',').append(column).append(",,");
+            newline();
+        }
+        
+        @Override
+        public void endTokens() {
+        }
+        
+        @Override
+        public void symbolTable(SymbolTable symbols) {
+            int count = symbols.getUniqueIdentifierCount();
+            for (int i = 0; i < count; i++) {
+                int id = symbols.getIdAt(i);
+                out.append("symbol,IDENTIFIER,");
+                field(symbols.getName(id));
+                out.append(',').append(symbols.getFirstLine(id)).append(',').append(symbols.getFirstColumn(id))
+                   .append(',').append(symbols.getFrequency(id)).append(',');
+                newline();
+            }
+        }
+        
+        @Override
+        public void beginStatistics(String title) {
+        }
+        
+        @Override
+        public void statistic(String label, long value) {
+            out.append("statistic,,");
+            field(label);
+            out.append(",,,").append(value).append(',');
+            newline();
+        }
+        
+        @Override
+        public void tokenCounts(long[] counts) {
+            for (int ordinal : ScannerMetrics.orderByCount(counts)) {
+                out.append("count,").append(TYPES[ordinal].name()).append(",,,,")
+                   .append(counts[ordinal]).append(',');
+                newline();
+            }
+        }
+        
+        @Override
+        public void endStatistics() {
+        }
+        
+        @Override
+        public void errors(ErrorHandler errors) {
+            int stored = errors.getStoredErrorCount();
+            for (int i = 0; i < stored; i++) {
+                out.append("error,").append(errors.getCode(i).name()).append(',');
+                scratch.setLength(0);
+                errors.appendLexeme(scratch, i);
+                field(scratch);
+                out.append(',').append(errors.getLine(i)).append(',').append(errors.getColumn(i)).append(",,");
+                scratch.setLength(0);
+                errors.appendReason(scratch, i);
+                field(scratch);
+                newline();
+            }
+            if (errors.getErrorCount() > stored) {
+                out.append("dropped-errors,,,,,").append(errors.getErrorCount() - stored).append(',')
+                   .append(errors.getMaxErrors());
+                newline();
+            }
+        }
+    }
+}
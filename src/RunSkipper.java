@@ -0,0 +1,83 @@
+/**
+ * RunSkipper Class
+ * Crosses the body of a SKIP_UNTIL run for ManualScanner.skipRun(): finds the
+ * first of up to three stop characters and counts the newlines before it.
+ * This class compares one character at a time. -Dsimplelang.skip picks another
+ * implementation: swar (SwarRunSkipper, four characters per long) or vector
+ * (VectorRunSkipper in vector/, which needs --add-modules jdk.incubator.vector).
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class RunSkipper {
+    
+    public static final String PROPERTY = "simplelang.skip";
+    
+    /** The implementation selected by -Dsimplelang.skip (scalar, swar or vector; default scalar) */
+    public static final RunSkipper INSTANCE = create(System.getProperty(PROPERTY, "scalar"));
+    
+    /**
+     * Create a run skipper
+     * @param kind scalar, swar or vector
+     * @throws IllegalArgumentException for an unknown kind
+     * @throws IllegalStateException if the vector implementation cannot be loaded
+     */
+    public static RunSkipper create(String kind) {
+        switch (kind) {
+            case "scalar":
+                return new RunSkipper();
+            case "swar":
+                return new SwarRunSkipper();
+            case "vector":
+                try {
+                    return (RunSkipper) Class.forName("VectorRunSkipper").getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    throw new IllegalStateException("The vector run skipper needs vector/VectorRunSkipper on the "
+                                                    + "class path and --add-modules jdk.incubator.vector", e);
+                }
+            default:
+                throw new IllegalArgumentException("Unknown run skipper: " + kind);
+        }
+    }
+    
+    /**
+     * Get the implementation name (as passed to create())
+     */
+    public String getName() {
+        return "scalar";
+    }
+    
+    /**
+     * Find the first stop character in buf[from..end)
+     * @param a First stop character
+     * @param b Second stop character (repeat a stop character when there are fewer than three)
+     * @param c Third stop character
+     * @return Index of the stop character (or end) in the low 32 bits, number of
+     *         '\n' characters before it in the high 32 bits
+     */
+    public long skipUntil(char[] buf, int from, int end, char a, char b, char c) {
+        int p = from;
+        int newlines = 0;
+        if (a == c) {
+            // One stop character (comment bodies): a single compare per character
+            for (; p < end; p++) {
+                char ch = buf[p];
+                if (ch == a) {
+                    break;
+                }
+                if (ch == '\n') {
+                    newlines++;
+                }
+            }
+        } else {
+            for (; p < end; p++) {
+                char ch = buf[p];
+                if (ch == a || ch == b || ch == c) {
+                    break;
+                }
+                if (ch == '\n') {
+                    newlines++;
+                }
+            }
+        }
+        return (long) newlines << 32 | p;
+    }
+}
@@ -0,0 +1,577 @@
+import java.util.*;
+
+/**
+ * ScannerDFA Class
+ * Minimized DFA transition table for all SimpleLang tokens.
+ * The automaton is built from the lexical rules in LanguageGrammar.txt (section 1),
+ * minimized once at class-load time, and stored as an int[state][charClass] table
+ * together with an accepting-state -> TokenType map.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public final class ScannerDFA {
+    
+    // Character classes shared by every rule
+    static final int CC_OTHER = 0;
+    static final int CC_NEWLINE = 1;
+    static final int CC_SPACE = 2;          // Whitespace other than '\n'
+    static final int CC_UPPER = 3;
+    static final int CC_LOWER = 4;          // Lowercase letters not used by any keyword
+    static final int CC_DIGIT = 5;
+    static final int CC_UNDERSCORE = 6;
+    static final int CC_DOT = 7;
+    static final int CC_DQUOTE = 8;
+    static final int CC_SQUOTE = 9;
+    static final int CC_BACKSLASH = 10;
+    static final int CC_HASH = 11;
+    private static final int FIRST_FREE_CLASS = 12;
+    
+    /** Dead transition */
+    public static final int DEAD = -1;
+    
+    /** Start state of the minimized automaton */
+    public static final int START = 0;
+    
+    // Trap kinds: a scan that stops in one of these states is resolved by the scanner
+    // instead of falling back to the last accepting state
+    public static final byte TRAP_NONE = 0;
+    public static final byte TRAP_UNCLOSED_COMMENT = 1;
+    public static final byte TRAP_UNTERMINATED_STRING = 2;
+    public static final byte TRAP_UNTERMINATED_CHAR = 3;
+    public static final byte TRAP_WORD = 4;               // Lowercase run that is not a keyword
+    
+    // Actions performed when a state is entered
+    public static final byte ACTION_NONE = 0;
+    public static final byte ACTION_INVALID_ESCAPE = 1;
+    
+    // Bulk skipping of a state that loops on itself (see skip())
+    public static final byte SKIP_NONE = 0;
+    public static final byte SKIP_UNTIL = 1;              // Loops on every character but a few ASCII stop characters
+    public static final byte SKIP_WHILE = 2;              // Loops on a set of ASCII characters only
+    private static final int MAX_STOPS = 3;
+    
+    /** Most characters a scan reads past the end of the token it returns (outside lowercase runs) */
+    public static final int MAX_LOOKAHEAD;
+    
+    // Fixed spellings taken from TokenType: lowercase words and operator/punctuator symbols
+    private static final List<String> WORDS = new ArrayList<>();
+    private static final List<TokenType> WORD_TYPES = new ArrayList<>();
+    private static final List<String> OPERATORS = new ArrayList<>();
+    private static final List<TokenType> OPERATOR_TYPES = new ArrayList<>();
+    
+    private static final byte[] ASCII_CLASS = new byte[128];
+    private static final int CLASS_COUNT;
+    
+    private static final int[][] TRANSITIONS;
+    private static final TokenType[] ACCEPTING;
+    private static final byte[] TRAPS;
+    private static final byte[] ACTIONS;
+    private static final byte[] SKIPS;
+    private static final char[][] STOPS;          // SKIP_UNTIL: stop characters, padded to MAX_STOPS
+    private static final boolean[][] LOOPS;       // SKIP_WHILE: ASCII characters the state loops on
+    
+    static {
+        for (TokenType type : TokenType.values()) {
+            for (String spelling : type.getSpellings()) {
+                if (spelling.isEmpty()) {
+                    continue;
+                }
+                boolean word = Character.isLowerCase(spelling.charAt(0));
+                (word ? WORDS : OPERATORS).add(spelling);
+                (word ? WORD_TYPES : OPERATOR_TYPES).add(type);
+            }
+        }
+        CLASS_COUNT = initCharClasses();
+        Builder builder = new Builder();
+        builder.build();
+        Builder minimized = builder.minimize();
+        TRANSITIONS = minimized.transitionTable();
+        ACCEPTING = minimized.accepting.toArray(new TokenType[0]);
+        TRAPS = minimized.byteArray(minimized.traps);
+        ACTIONS = minimized.byteArray(minimized.actions);
+        MAX_LOOKAHEAD = minimized.lookahead();
+        
+        int states = TRANSITIONS.length;
+        SKIPS = new byte[states];
+        STOPS = new char[states][];
+        LOOPS = new boolean[states][];
+        for (int state = 0; state < states; state++) {
+            initSkip(state);
+        }
+    }
+    
+    private ScannerDFA() {
+    }
+    
+    /**
+     * Assign a character class to every ASCII character.
+     * Each operator character and each letter used by a keyword gets its own class.
+     * @return Number of character classes
+     */
+    private static int initCharClasses() {
+        int next = FIRST_FREE_CLASS;
+        for (int c = 0; c < 128; c++) {
+            ASCII_CLASS[c] = (byte) classifyUnicode((char) c);
+        }
+        ASCII_CLASS['\n'] = CC_NEWLINE;
+        ASCII_CLASS['_'] = CC_UNDERSCORE;
+        ASCII_CLASS['.'] = CC_DOT;
+        ASCII_CLASS['"'] = CC_DQUOTE;
+        ASCII_CLASS['\''] = CC_SQUOTE;
+        ASCII_CLASS['\\'] = CC_BACKSLASH;
+        ASCII_CLASS['#'] = CC_HASH;
+        
+        for (String op : OPERATORS) {
+            for (char ch : op.toCharArray()) {
+                if (ASCII_CLASS[ch] == CC_OTHER) {
+                    ASCII_CLASS[ch] = (byte) next++;
+                }
+            }
+        }
+        for (String word : WORDS) {
+            for (char ch : word.toCharArray()) {
+                if (ASCII_CLASS[ch] == CC_LOWER) {
+                    ASCII_CLASS[ch] = (byte) next++;
+                }
+            }
+        }
+        return next;
+    }
+    
+    /**
+     * Find how a state can be skipped in bulk. Only self-loops without an entry
+     * action qualify, so skipping a run leaves the state, the accepted type and
+     * the reported errors exactly as stepping through it would.
+     */
+    private static void initSkip(int state) {
+        int[] row = TRANSITIONS[state];
+        if (ACTIONS[state] != ACTION_NONE) {
+            return;
+        }
+        boolean[] loops = new boolean[128];
+        int stopCount = 0;
+        for (int c = 0; c < 128; c++) {
+            loops[c] = row[ASCII_CLASS[c]] == state;
+            if (!loops[c]) {
+                stopCount++;
+            }
+        }
+        if (stopCount == 128) {
+            return;
+        }
+        
+        boolean nonAsciiLoops = true;
+        for (int cls : new int[] {CC_OTHER, CC_SPACE, CC_LOWER, CC_UPPER, CC_DIGIT}) {
+            nonAsciiLoops &= row[cls] == state;
+        }
+        if (nonAsciiLoops && stopCount <= MAX_STOPS) {
+            char[] stops = new char[MAX_STOPS];
+            int n = 0;
+            for (int c = 0; c < 128; c++) {
+                if (!loops[c]) {
+                    stops[n++] = (char) c;
+                }
+            }
+            // Repeat the last stop character so the scanner can always compare against all of them
+            while (n > 0 && n < MAX_STOPS) {
+                stops[n] = stops[n - 1];
+                n++;
+            }
+            SKIPS[state] = SKIP_UNTIL;
+            STOPS[state] = stops;
+        } else {
+            SKIPS[state] = SKIP_WHILE;
+            LOOPS[state] = loops;
+        }
+    }
+    
+    /**
+     * Classify a character outside the dedicated ASCII classes
+     * (mirrors the Character.isXxx checks of the original recognizers)
+     */
+    private static int classifyUnicode(char ch) {
+        if (ch == '\n') return CC_NEWLINE;
+        if (Character.isWhitespace(ch)) return CC_SPACE;
+        if (Character.isLowerCase(ch)) return CC_LOWER;
+        if (Character.isUpperCase(ch)) return CC_UPPER;
+        if (Character.isDigit(ch)) return CC_DIGIT;
+        return CC_OTHER;
+    }
+    
+    /**
+     * Get the character class of a character
+     * @param ch Input character
+     * @return Character class index
+     */
+    public static int charClass(char ch) {
+        return ch < 128 ? ASCII_CLASS[ch] : classifyUnicode(ch);
+    }
+    
+    /**
+     * Get the next state
+     * @param state Current state
+     * @param ch Input character
+     * @return Next state or DEAD
+     */
+    public static int next(int state, char ch) {
+        return TRANSITIONS[state][charClass(ch)];
+    }
+    
+    /**
+     * Get the token type accepted by a state
+     * @param state DFA state
+     * @return Token type or null if the state is not accepting
+     */
+    public static TokenType accepting(int state) {
+        return ACCEPTING[state];
+    }
+    
+    /**
+     * Get the trap kind of a state
+     */
+    public static byte trap(int state) {
+        return TRAPS[state];
+    }
+    
+    /**
+     * Get the action performed when a state is entered
+     */
+    public static byte action(int state) {
+        return ACTIONS[state];
+    }
+    
+    /**
+     * Get how a run of characters that keeps the automaton in a state can be skipped:
+     * SKIP_UNTIL (comment and string bodies) stops only at stopCharacters(state),
+     * SKIP_WHILE (whitespace, identifier and number tails) continues while
+     * loopCharacters(state) marks the character; anything else needs next().
+     */
+    public static byte skip(int state) {
+        return SKIPS[state];
+    }
+    
+    /**
+     * Get the stop characters of a SKIP_UNTIL state (shared array, always MAX_STOPS long)
+     */
+    static char[] stopCharacters(int state) {
+        return STOPS[state];
+    }
+    
+    /**
+     * Get the ASCII characters a SKIP_WHILE state loops on (shared array, indexed by character)
+     */
+    static boolean[] loopCharacters(int state) {
+        return LOOPS[state];
+    }
+    
+    /**
+     * Get number of states in the minimized automaton
+     */
+    public static int stateCount() {
+        return TRANSITIONS.length;
+    }
+    
+    /**
+     * Get number of character classes
+     */
+    public static int classCount() {
+        return CLASS_COUNT;
+    }
+    
+    /**
+     * Check if the text of a partially scanned token in this state can be dropped:
+     * whitespace and comments are never emitted and never retracted.
+     */
+    public static boolean isDiscardable(int state) {
+        TokenType type = ACCEPTING[state];
+        return type == TokenType.WHITESPACE || type == TokenType.COMMENT_SINGLE
+            || type == TokenType.COMMENT_MULTI || TRAPS[state] == TRAP_UNCLOSED_COMMENT;
+    }
+    
+    /**
+     * Mutable automaton used while constructing and minimizing the table
+     */
+    private static class Builder {
+        List<int[]> rows = new ArrayList<>();
+        List<TokenType> accepting = new ArrayList<>();
+        List<Byte> traps = new ArrayList<>();
+        List<Byte> actions = new ArrayList<>();
+        
+        int newState(TokenType accept, byte trap, byte action) {
+            int[] row = new int[CLASS_COUNT];
+            Arrays.fill(row, DEAD);
+            rows.add(row);
+            accepting.add(accept);
+            traps.add(trap);
+            actions.add(action);
+            return rows.size() - 1;
+        }
+        
+        int newState(TokenType accept) {
+            return newState(accept, TRAP_NONE, ACTION_NONE);
+        }
+        
+        void set(int from, int cls, int to) {
+            rows.get(from)[cls] = to;
+        }
+        
+        void setAll(int from, int to) {
+            Arrays.fill(rows.get(from), to);
+        }
+        
+        void setLowercase(int from, int to) {
+            set(from, CC_LOWER, to);
+            for (String word : WORDS) {
+                for (char ch : word.toCharArray()) {
+                    set(from, ASCII_CLASS[ch], to);
+                }
+            }
+        }
+        
+        /**
+         * Follow (or create) the transition on a literal character
+         */
+        int step(int from, char ch, TokenType accept, byte trap) {
+            int cls = ASCII_CLASS[ch];
+            int to = rows.get(from)[cls];
+            if (to == DEAD) {
+                to = newState(accept, trap, ACTION_NONE);
+                set(from, cls, to);
+            }
+            return to;
+        }
+        
+        /**
+         * Build the (unminimized) automaton, rule by rule
+         */
+        void build() {
+            int start = newState(null);
+            
+            // 1.16 Whitespace: [ \t\r\n]+
+            int ws = newState(TokenType.WHITESPACE);
+            set(start, CC_SPACE, ws);
+            set(start, CC_NEWLINE, ws);
+            set(ws, CC_SPACE, ws);
+            set(ws, CC_NEWLINE, ws);
+            
+            // 1.14 / 1.15 Comments: ##[^\n]*  and  #\*([^*]|\*+[^*#])*\*+#
+            int hash = newState(null);
+            set(start, CC_HASH, hash);
+            int lineComment = newState(TokenType.COMMENT_SINGLE);
+            set(hash, CC_HASH, lineComment);
+            setAll(lineComment, lineComment);
+            set(lineComment, CC_NEWLINE, DEAD);
+            
+            int star = ASCII_CLASS['*'];
+            int block = newState(null, TRAP_UNCLOSED_COMMENT, ACTION_NONE);
+            int blockStar = newState(null, TRAP_UNCLOSED_COMMENT, ACTION_NONE);
+            int blockEnd = newState(TokenType.COMMENT_MULTI);
+            set(hash, star, block);
+            setAll(block, block);
+            set(block, star, blockStar);
+            setAll(blockStar, block);
+            set(blockStar, star, blockStar);
+            set(blockStar, CC_HASH, blockEnd);
+            
+            // 1.8 - 1.13 Operators and punctuators (maximal munch covers priority 3 vs 11)
+            for (int i = 0; i < OPERATORS.size(); i++) {
+                String op = OPERATORS.get(i);
+                int state = start;
+                for (int j = 0; j < op.length(); j++) {
+                    state = step(state, op.charAt(j), null, TRAP_NONE);
+                }
+                accepting.set(state, OPERATOR_TYPES.get(i));
+            }
+            
+            // 1.3 / 1.4 Integer and floating-point literals: [+-]?[0-9]+(\.[0-9]+)?
+            int integer = newState(TokenType.INTEGER_LITERAL);
+            int fractionStart = newState(null);
+            int fraction = newState(TokenType.FLOAT_LITERAL);
+            set(start, CC_DIGIT, integer);
+            set(rows.get(start)[ASCII_CLASS['+']], CC_DIGIT, integer);
+            set(rows.get(start)[ASCII_CLASS['-']], CC_DIGIT, integer);
+            set(integer, CC_DIGIT, integer);
+            set(integer, CC_DOT, fractionStart);
+            set(fractionStart, CC_DIGIT, fraction);
+            set(fraction, CC_DIGIT, fraction);
+            
+            // 1.2 Identifiers: [A-Z][a-z0-9_]*  (length is checked by the scanner)
+            int identifier = newState(TokenType.IDENTIFIER);
+            set(start, CC_UPPER, identifier);
+            setLowercase(identifier, identifier);
+            set(identifier, CC_DIGIT, identifier);
+            set(identifier, CC_UNDERSCORE, identifier);
+            
+            // 1.1 / 1.7 Keywords and booleans: a keyword only when it is the whole lowercase run
+            int lowerRun = newState(null, TRAP_WORD, ACTION_NONE);
+            setLowercase(lowerRun, lowerRun);
+            setLowercase(start, lowerRun);
+            for (int i = 0; i < WORDS.size(); i++) {
+                String word = WORDS.get(i);
+                int state = start;
+                for (int j = 0; j < word.length(); j++) {
+                    int cls = ASCII_CLASS[word.charAt(j)];
+                    int to = rows.get(state)[cls];
+                    if (to == DEAD || to == lowerRun) {
+                        to = newState(null, TRAP_WORD, ACTION_NONE);
+                        setLowercase(to, lowerRun);
+                        set(state, cls, to);
+                    }
+                    state = to;
+                }
+                accepting.set(state, WORD_TYPES.get(i));
+                traps.set(state, TRAP_NONE);
+            }
+            
+            // 1.5 String literals: "([^"\\\n]|\\["\\ntr])*"
+            int string = newState(null, TRAP_UNTERMINATED_STRING, ACTION_NONE);
+            int stringEscape = newState(null, TRAP_UNTERMINATED_STRING, ACTION_NONE);
+            int stringBadEscape = newState(null, TRAP_UNTERMINATED_STRING, ACTION_INVALID_ESCAPE);
+            int stringEnd = newState(TokenType.STRING_LITERAL);
+            set(start, CC_DQUOTE, string);
+            for (int body : new int[] {string, stringBadEscape}) {
+                setAll(body, string);
+                set(body, CC_DQUOTE, stringEnd);
+                set(body, CC_BACKSLASH, stringEscape);
+                set(body, CC_NEWLINE, DEAD);
+            }
+            setAll(stringEscape, stringBadEscape);
+            for (char ch : "\"\\ntr".toCharArray()) {
+                set(stringEscape, ASCII_CLASS[ch], string);
+            }
+            
+            // 1.6 Character literals: '([^'\\\n]|\\['\\ntr])'
+            int charOpen = newState(null, TRAP_UNTERMINATED_CHAR, ACTION_NONE);
+            int charEscape = newState(null, TRAP_UNTERMINATED_CHAR, ACTION_NONE);
+            int charBody = newState(null, TRAP_UNTERMINATED_CHAR, ACTION_NONE);
+            int charBadEscape = newState(null, TRAP_UNTERMINATED_CHAR, ACTION_INVALID_ESCAPE);
+            int charEmpty = newState(TokenType.CHAR_LITERAL);
+            int charEnd = newState(TokenType.CHAR_LITERAL);
+            set(start, CC_SQUOTE, charOpen);
+            setAll(charOpen, charBody);
+            set(charOpen, CC_SQUOTE, charEmpty);
+            set(charOpen, CC_BACKSLASH, charEscape);
+            set(charOpen, CC_NEWLINE, DEAD);
+            setAll(charEscape, charBadEscape);
+            for (char ch : "'\\ntr".toCharArray()) {
+                set(charEscape, ASCII_CLASS[ch], charBody);
+            }
+            set(charBody, CC_SQUOTE, charEnd);
+            set(charBadEscape, CC_SQUOTE, charEnd);
+            set(charEmpty, CC_SQUOTE, charEnd);
+        }
+        
+        /**
+         * Moore partition refinement. States are equivalent when they accept the
+         * same token type, share trap kind and entry action, and agree on every transition.
+         * @return Minimized automaton with the start state kept at index 0
+         */
+        Builder minimize() {
+            int n = rows.size();
+            int[] block = new int[n];
+            Map<List<Object>, Integer> ids = new HashMap<>();
+            for (int s = 0; s < n; s++) {
+                List<Object> key = Arrays.asList(accepting.get(s), traps.get(s), actions.get(s), s == START);
+                block[s] = ids.computeIfAbsent(key, k -> ids.size());
+            }
+            
+            int blockCount = ids.size();
+            while (true) {
+                Map<List<Integer>, Integer> refined = new HashMap<>();
+                int[] nextBlock = new int[n];
+                for (int s = 0; s < n; s++) {
+                    List<Integer> key = new ArrayList<>(CLASS_COUNT + 1);
+                    key.add(block[s]);
+                    for (int to : rows.get(s)) {
+                        key.add(to == DEAD ? DEAD : block[to]);
+                    }
+                    nextBlock[s] = refined.computeIfAbsent(key, k -> refined.size());
+                }
+                block = nextBlock;
+                if (refined.size() == blockCount) {
+                    break;
+                }
+                blockCount = refined.size();
+            }
+            
+            // Renumber blocks so that the start state stays at index 0
+            int[] renumber = new int[blockCount];
+            Arrays.fill(renumber, DEAD);
+            int[] representative = new int[blockCount];
+            int count = 0;
+            for (int s = 0; s < n; s++) {
+                if (renumber[block[s]] == DEAD) {
+                    renumber[block[s]] = count;
+                    representative[count++] = s;
+                }
+            }
+            
+            Builder result = new Builder();
+            for (int b = 0; b < count; b++) {
+                int s = representative[b];
+                int state = result.newState(accepting.get(s), traps.get(s), actions.get(s));
+                int[] row = rows.get(s);
+                for (int cls = 0; cls < CLASS_COUNT; cls++) {
+                    result.set(state, cls, row[cls] == DEAD ? DEAD : renumber[block[row[cls]]]);
+                }
+            }
+            return result;
+        }
+        
+        /**
+         * Longest look-ahead of a scan: after the last accepting state (or the start
+         * state, for an invalid character) the scan passes through non-accepting,
+         * non-trap states and then reads the character that leads to DEAD.
+         * Trap states resolve the token up to the last character read instead.
+         */
+        int lookahead() {
+            int n = rows.size();
+            int[] longest = new int[n];     // Longest path from a state, in states; -1 while visiting
+            int max = 0;
+            for (int s = 0; s < n; s++) {
+                if (retracting(s)) {
+                    max = Math.max(max, longestPath(s, longest));
+                } else if (traps.get(s) != TRAP_NONE) {
+                    for (int to : rows.get(s)) {
+                        if (to != DEAD && retracting(to)) {
+                            throw new IllegalStateException("Trap state " + s + " leads to a retracting state");
+                        }
+                    }
+                }
+            }
+            return max + 1;
+        }
+        
+        private boolean retracting(int state) {
+            return accepting.get(state) == null && traps.get(state) == TRAP_NONE;
+        }
+        
+        private int longestPath(int state, int[] longest) {
+            if (longest[state] < 0) {
+                throw new IllegalStateException("Unbounded look-ahead through state " + state);
+            }
+            if (longest[state] == 0) {
+                longest[state] = -1;
+                int best = 0;
+                for (int to : rows.get(state)) {
+                    if (to != DEAD && retracting(to)) {
+                        best = Math.max(best, longestPath(to, longest));
+                    }
+                }
+                longest[state] = best + 1;
+            }
+            return longest[state];
+        }
+        
+        int[][] transitionTable() {
+            return rows.toArray(new int[0][]);
+        }
+        
+        byte[] byteArray(List<Byte> values) {
+            byte[] result = new byte[values.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = values.get(i);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.*;
+
+/**
+ * ScannerMetrics Class
+ * Thread-safe running totals of finished scans: token counts by type (a
+ * primitive array indexed by TokenType.ordinal()), bytes, lines, comments,
+ * errors and scanning time. Scanners add their results when they finish, so
+ * the totals can be read (or polled as an MXBean) while other scans run.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class ScannerMetrics implements ScannerMetricsMXBean {
+    
+    private static final TokenType[] TYPES = TokenType.values();
+    
+    private final AtomicLongArray tokenCounts;
+    private final LongAdder files;
+    private final LongAdder tokens;
+    private final LongAdder bytes;
+    private final LongAdder lines;
+    private final LongAdder comments;
+    private final LongAdder errors;
+    private final LongAdder nanos;
+    
+    /**
+     * Constructor
+     */
+    public ScannerMetrics() {
+        tokenCounts = new AtomicLongArray(TYPES.length);
+        files = new LongAdder();
+        tokens = new LongAdder();
+        bytes = new LongAdder();
+        lines = new LongAdder();
+        comments = new LongAdder();
+        errors = new LongAdder();
+        nanos = new LongAdder();
+    }
+    
+    /**
+     * Add the results of a finished scan (one byte per character scanned)
+     * @param scanner Scanner that has finished
+     */
+    public void add(ManualScanner scanner) {
+        add(scanner, scanner.getCharactersScanned());
+    }
+    
+    /**
+     * Add the results of a finished scan
+     * @param scanner Scanner that has finished
+     * @param size Size of the scanned source in bytes
+     */
+    public void add(ManualScanner scanner, long size) {
+        for (TokenType type : TYPES) {
+            int count = scanner.getTokenCount(type);
+            if (count > 0) {
+                tokenCounts.addAndGet(type.ordinal(), count);
+            }
+        }
+        files.increment();
+        tokens.add(scanner.getTotalTokens());
+        bytes.add(size);
+        lines.add(scanner.getLinesProcessed());
+        comments.add(scanner.getCommentsRemoved());
+        errors.add(scanner.getErrorHandler().getErrorCount());
+        nanos.add(scanner.getScanNanos());
+    }
+    
+    /**
+     * Add the results of a scan loaded from a TokenCache
+     * @param entry Cached scan results
+     * @param size Size of the source in bytes
+     * @param nanos Time spent loading the results
+     */
+    public void add(TokenCache.Entry entry, long size, long nanos) {
+        for (TokenType type : TYPES) {
+            int count = entry.getTokenCount(type);
+            if (count > 0) {
+                tokenCounts.addAndGet(type.ordinal(), count);
+            }
+        }
+        files.increment();
+        tokens.add(entry.getTotalTokens());
+        bytes.add(size);
+        lines.add(entry.getLinesProcessed());
+        comments.add(entry.getCommentsRemoved());
+        errors.add(entry.getErrorHandler().getErrorCount());
+        this.nanos.add(nanos);
+    }
+    
+    /**
+     * Get the number of tokens of a type
+     */
+    public long getTokenCount(TokenType type) {
+        return tokenCounts.get(type.ordinal());
+    }
+    
+    @Override
+    public long getFilesScanned() {
+        return files.sum();
+    }
+    
+    @Override
+    public long getTotalTokens() {
+        return tokens.sum();
+    }
+    
+    @Override
+    public long getBytesScanned() {
+        return bytes.sum();
+    }
+    
+    @Override
+    public long getLinesProcessed() {
+        return lines.sum();
+    }
+    
+    @Override
+    public long getCommentsRemoved() {
+        return comments.sum();
+    }
+    
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+    
+    /**
+     * Get scanning time summed over all scans (more than wall-clock time when
+     * scans run concurrently)
+     */
+    @Override
+    public long getScanNanos() {
+        return nanos.sum();
+    }
+    
+    @Override
+    public double getTokensPerSecond() {
+        return getTotalTokens() / (Math.max(getScanNanos(), 1) / 1e9);
+    }
+    
+    @Override
+    public double getMegabytesPerSecond() {
+        return getBytesScanned() / (1024.0 * 1024.0) / (Math.max(getScanNanos(), 1) / 1e9);
+    }
+    
+    @Override
+    public Map<String, Long> getTokenCounts() {
+        long[] snapshot = snapshot();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int ordinal : orderByCount(snapshot)) {
+            counts.put(TYPES[ordinal].name(), snapshot[ordinal]);
+        }
+        return counts;
+    }
+    
+    @Override
+    public void reset() {
+        for (int i = 0; i < TYPES.length; i++) {
+            tokenCounts.set(i, 0);
+        }
+        files.reset();
+        tokens.reset();
+        bytes.reset();
+        lines.reset();
+        comments.reset();
+        errors.reset();
+        nanos.reset();
+    }
+    
+    /**
+     * Register these metrics with the platform MBean server
+     * @param name Value of the name key of the object name
+     * @return Object name the metrics are registered under
+     * @throws JMException if registration fails (e.g. the name is taken)
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("SimpleLang:type=ScannerMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+    
+    /**
+     * Print token counts by type, most frequent first (ties in TokenType order)
+     * @param counts Counts indexed by TokenType.ordinal()
+     */
+    public static void printTokenCounts(int[] counts) {
+        long[] values = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            values[i] = counts[i];
+        }
+        printTokenCounts(values);
+    }
+    
+    /**
+     * Print token counts by type, most frequent first (ties in TokenType order)
+     * @param counts Counts indexed by TokenType.ordinal()
+     */
+    public static void printTokenCounts(long[] counts) {
+        for (int ordinal : orderByCount(counts)) {
+            System.out.printf("  %-30s : %5d\n", TYPES[ordinal], counts[ordinal]);
+        }
+    }
+    
+    /**
+     * Print aggregate token counts by type, most frequent first
+     */
+    public void printTokenCounts() {
+        printTokenCounts(snapshot());
+    }
+    
+    long[] snapshot() {
+        long[] counts = new long[TYPES.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = tokenCounts.get(i);
+        }
+        return counts;
+    }
+    
+    /**
+     * Get the ordinals of the types that occurred, sorted by count (descending)
+     */
+    static int[] orderByCount(long[] counts) {
+        int n = 0;
+        for (long count : counts) {
+            if (count > 0) {
+                n++;
+            }
+        }
+        int[] order = new int[n];
+        n = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                // Insertion sort: stable, and there are only a few dozen types
+                int j = n++;
+                while (j > 0 && counts[order[j - 1]] < counts[i]) {
+                    order[j] = order[j - 1];
+                    j--;
+                }
+                order[j] = i;
+            }
+        }
+        return order;
+    }
+}
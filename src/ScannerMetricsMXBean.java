@@ -0,0 +1,35 @@
+import java.util.Map;
+
+/**
+ * ScannerMetricsMXBean Interface
+ * Management interface of ScannerMetrics, polled through JMX
+ * (e.g. jconsole) while a batch scan is running.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public interface ScannerMetricsMXBean {
+    
+    long getFilesScanned();
+    
+    long getTotalTokens();
+    
+    long getBytesScanned();
+    
+    long getLinesProcessed();
+    
+    long getCommentsRemoved();
+    
+    long getErrors();
+    
+    long getScanNanos();
+    
+    double getTokensPerSecond();
+    
+    double getMegabytesPerSecond();
+    
+    /**
+     * Get token counts by type name (types that occurred)
+     */
+    Map<String, Long> getTokenCounts();
+    
+    void reset();
+}
@@ -0,0 +1,221 @@
+import jdk.jfr.*;
+
+/**
+ * ScannerProfile Class
+ * Opt-in hot-path profile of ManualScanner (run with -Dsimplelang.profile=true).
+ * The DFA engine has no separate scanX() recognizers, so every pass is
+ * attributed to the recognizer of the original priority order that its result
+ * belongs to (or, for a failed pass, would have belonged to). Per recognizer it
+ * records attempts, successes, characters consumed, characters read and then
+ * rolled back (look-ahead retraction, lowercase runs that were not a keyword),
+ * and cumulative time. Results are printed as a text report and committed as
+ * JFR events.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class ScannerProfile {
+    
+    /** Whether profiling is on; a constant, so the scanner's checks compile away when off */
+    public static final boolean ENABLED = Boolean.getBoolean("simplelang.profile");
+    
+    /**
+     * Recognizers in the pattern matching priority order of LanguageGrammar.txt section 2
+     */
+    public enum Recognizer {
+        MULTI_LINE_COMMENT,
+        SINGLE_LINE_COMMENT,
+        MULTI_CHAR_OPERATOR,
+        KEYWORD,
+        BOOLEAN_LITERAL,
+        IDENTIFIER,
+        FLOAT_LITERAL,
+        INTEGER_LITERAL,
+        STRING_LITERAL,
+        CHAR_LITERAL,
+        SINGLE_CHAR_TOKEN,
+        WHITESPACE,
+        WORD_RUN,               // Resolution of a lowercase run that is not one keyword
+        INVALID_CHARACTER
+    }
+    
+    private static final Recognizer[] RECOGNIZERS = Recognizer.values();
+    
+    private final long[] attempts;
+    private final long[] successes;
+    private final long[] consumed;
+    private final long[] rolledBack;
+    private final long[] nanos;
+    
+    /**
+     * Constructor
+     */
+    public ScannerProfile() {
+        attempts = new long[RECOGNIZERS.length];
+        successes = new long[RECOGNIZERS.length];
+        consumed = new long[RECOGNIZERS.length];
+        rolledBack = new long[RECOGNIZERS.length];
+        nanos = new long[RECOGNIZERS.length];
+    }
+    
+    /**
+     * Get the recognizer of a token type
+     * @param type Token type of a scanned token
+     * @param length Token length (separates multi- and single-character operators)
+     */
+    public static Recognizer recognizerOf(TokenType type, int length) {
+        switch (type) {
+            case COMMENT_MULTI:
+                return Recognizer.MULTI_LINE_COMMENT;
+            case COMMENT_SINGLE:
+                return Recognizer.SINGLE_LINE_COMMENT;
+            case BOOLEAN_LITERAL:
+                return Recognizer.BOOLEAN_LITERAL;
+            case IDENTIFIER:
+                return Recognizer.IDENTIFIER;
+            case FLOAT_LITERAL:
+                return Recognizer.FLOAT_LITERAL;
+            case INTEGER_LITERAL:
+                return Recognizer.INTEGER_LITERAL;
+            case STRING_LITERAL:
+                return Recognizer.STRING_LITERAL;
+            case CHAR_LITERAL:
+                return Recognizer.CHAR_LITERAL;
+            case WHITESPACE:
+                return Recognizer.WHITESPACE;
+            case ERROR:
+                return Recognizer.INVALID_CHARACTER;
+            default:
+                if (type.name().startsWith("KEYWORD_")) {
+                    return Recognizer.KEYWORD;
+                }
+                return length > 1 ? Recognizer.MULTI_CHAR_OPERATOR : Recognizer.SINGLE_CHAR_TOKEN;
+        }
+    }
+    
+    /**
+     * Record one pass of a recognizer
+     * @param recognizer Recognizer
+     * @param success true if it produced a valid token
+     * @param length Characters consumed
+     * @param rollback Characters read past the end of what was consumed
+     * @param time Nanoseconds spent
+     */
+    public void record(Recognizer recognizer, boolean success, int length, int rollback, long time) {
+        int i = recognizer.ordinal();
+        attempts[i]++;
+        if (success) {
+            successes[i]++;
+        }
+        consumed[i] += length;
+        rolledBack[i] += rollback;
+        nanos[i] += time;
+    }
+    
+    /**
+     * Add the counts of another profile (e.g. of a parallel chunk)
+     */
+    public void merge(ScannerProfile other) {
+        for (int i = 0; i < RECOGNIZERS.length; i++) {
+            attempts[i] += other.attempts[i];
+            successes[i] += other.successes[i];
+            consumed[i] += other.consumed[i];
+            rolledBack[i] += other.rolledBack[i];
+            nanos[i] += other.nanos[i];
+        }
+    }
+    
+    public long getAttempts(Recognizer recognizer) {
+        return attempts[recognizer.ordinal()];
+    }
+    
+    public long getSuccesses(Recognizer recognizer) {
+        return successes[recognizer.ordinal()];
+    }
+    
+    public long getConsumed(Recognizer recognizer) {
+        return consumed[recognizer.ordinal()];
+    }
+    
+    public long getRolledBack(Recognizer recognizer) {
+        return rolledBack[recognizer.ordinal()];
+    }
+    
+    public long getNanos(Recognizer recognizer) {
+        return nanos[recognizer.ordinal()];
+    }
+    
+    /**
+     * Print the profile, one line per recognizer that was attempted
+     */
+    public void printReport() {
+        long totalNanos = 0;
+        for (long time : nanos) {
+            totalNanos += time;
+        }
+        
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("RECOGNIZER PROFILE");
+        System.out.println("=".repeat(80));
+        System.out.println(String.format("%-20s %10s %10s %11s %9s %9s %6s",
+                                       "Recognizer", "Attempts", "Successes", "Consumed", "Rollback",
+                                       "Time(ms)", "Time%"));
+        System.out.println("-".repeat(80));
+        for (Recognizer recognizer : RECOGNIZERS) {
+            int i = recognizer.ordinal();
+            if (attempts[i] == 0) {
+                continue;
+            }
+            System.out.println(String.format("%-20s %10d %10d %11d %9d %9.2f %5.1f%%", recognizer,
+                                           attempts[i], successes[i], consumed[i], rolledBack[i],
+                                           nanos[i] / 1e6, 100.0 * nanos[i] / Math.max(totalNanos, 1)));
+        }
+        System.out.println("=".repeat(80));
+    }
+    
+    /**
+     * Commit one JFR event per attempted recognizer (no-op unless a recording is running)
+     */
+    public void commitEvents() {
+        for (Recognizer recognizer : RECOGNIZERS) {
+            int i = recognizer.ordinal();
+            RecognizerEvent event = new RecognizerEvent();
+            if (attempts[i] == 0 || !event.shouldCommit()) {
+                continue;
+            }
+            event.recognizer = recognizer.name();
+            event.attempts = attempts[i];
+            event.successes = successes[i];
+            event.consumed = consumed[i];
+            event.rolledBack = rolledBack[i];
+            event.nanos = nanos[i];
+            event.commit();
+        }
+    }
+    
+    /**
+     * JFR event with the profile of one recognizer for one scan
+     */
+    @Name("simplelang.Recognizer")
+    @Label("Recognizer Profile")
+    @Category("SimpleLang")
+    @StackTrace(false)
+    static class RecognizerEvent extends Event {
+        @Label("Recognizer")
+        String recognizer;
+        
+        @Label("Attempts")
+        long attempts;
+        
+        @Label("Successes")
+        long successes;
+        
+        @Label("Characters Consumed")
+        long consumed;
+        
+        @Label("Characters Rolled Back")
+        long rolledBack;
+        
+        @Label("Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+}
@@ -0,0 +1,394 @@
+import java.util.*;
+
+/**
+ * ScopedSymbolTable Class
+ * Scope-aware view of the identifiers of a token stream. Scopes open on '{' and
+ * on 'function' and close on '}'; a function body without braces ends at the
+ * first later line that is not indented past the 'function' keyword. Declarations
+ * come from 'declare X', function names and function parameters, and every
+ * identifier token is resolved to the declaration visible at that point.
+ * Scopes and declarations live in arenas of parallel int arrays. For lookup,
+ * each symbol ID maps to its innermost visible declaration and each declaration
+ * remembers the one it shadows. So entering a scope is O(1), resolving a name is
+ * one array read, and leaving a scope only undoes that scope's own declarations.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class ScopedSymbolTable {
+    
+    /**
+     * Kinds of scope
+     */
+    public enum ScopeKind {
+        GLOBAL, FUNCTION, BLOCK
+    }
+    
+    /**
+     * Kinds of declaration
+     */
+    public enum DeclarationKind {
+        VARIABLE, ARRAY, FUNCTION, PARAMETER
+    }
+    
+    private static final ScopeKind[] SCOPE_KINDS = ScopeKind.values();
+    private static final DeclarationKind[] DECLARATION_KINDS = DeclarationKind.values();
+    
+    // Parser states between tokens
+    private static final int NONE = 0;
+    private static final int FUNCTION_NAME = 1;     // After 'function'
+    private static final int PARAMETER_LIST = 2;    // Expecting '('
+    private static final int PARAMETERS = 3;        // Inside '( ... )'
+    private static final int FUNCTION_BODY = 4;     // After ')', a '{' makes the body braced
+    private static final int DECLARED_NAME = 5;     // After 'declare'
+    
+    private final TokenBuffer tokens;
+    private final SymbolTable symbols;
+    
+    // Scope arena (scope 0 is the global scope)
+    private byte[] scopeKinds;
+    private int[] scopeParents;
+    private int[] scopeDepths;
+    private int[] scopeStarts;          // Token index that opened the scope
+    private int[] scopeEnds;            // Token index that closed it (exclusive), or tokens.size()
+    private int[] scopeLastDeclarations;
+    private boolean[] scopeBraced;      // Closed by '}' rather than by indentation
+    private int scopeCount;
+    
+    // Declaration arena
+    private byte[] declarationKinds;
+    private int[] declarationSymbols;
+    private int[] declarationScopes;
+    private int[] declarationTokens;
+    private int[] shadowed;             // Declaration visible before this one, or -1
+    private int[] previousInScope;      // Earlier declaration of the same scope, or -1
+    private int declarationCount;
+    
+    private int[] visible;              // Innermost visible declaration by symbol ID, or -1
+    private final int[] resolutions;    // Declaration of each identifier token, or -1
+    private int unresolved;
+    private int maxDepth;
+    
+    /**
+     * Constructor: builds the scopes and resolves every identifier
+     * @param tokens Token stream of one source
+     * @param symbols Symbol table the identifier tokens were added to
+     */
+    public ScopedSymbolTable(TokenBuffer tokens, SymbolTable symbols) {
+        this.tokens = tokens;
+        this.symbols = symbols;
+        this.scopeKinds = new byte[16];
+        this.scopeParents = new int[16];
+        this.scopeDepths = new int[16];
+        this.scopeStarts = new int[16];
+        this.scopeEnds = new int[16];
+        this.scopeLastDeclarations = new int[16];
+        this.scopeBraced = new boolean[16];
+        this.declarationKinds = new byte[16];
+        this.declarationSymbols = new int[16];
+        this.declarationScopes = new int[16];
+        this.declarationTokens = new int[16];
+        this.shadowed = new int[16];
+        this.previousInScope = new int[16];
+        this.visible = new int[Math.max(symbols.getUniqueIdentifierCount(), 16)];
+        Arrays.fill(visible, -1);
+        this.resolutions = new int[tokens.size()];
+        Arrays.fill(resolutions, -1);
+        build();
+    }
+    
+    /**
+     * Walk the token stream once, opening and closing scopes
+     */
+    private void build() {
+        int scope = openScope(ScopeKind.GLOBAL, -1, 0);
+        int state = NONE;
+        int size = tokens.size();
+        
+        for (int i = 0; i < size; i++) {
+            TokenType type = tokens.getType(i);
+            
+            // Close function bodies that end by indentation
+            while (scopeKinds[scope] == ScopeKind.FUNCTION.ordinal() && !scopeBraced[scope]
+                   && state != FUNCTION_NAME && tokens.getLine(i) > tokens.getLine(scopeStarts[scope])
+                   && tokens.getColumn(i) <= tokens.getColumn(scopeStarts[scope])) {
+                scope = closeScope(scope, i);
+                state = NONE;
+            }
+            
+            switch (state) {
+                case FUNCTION_NAME:
+                    state = PARAMETER_LIST;
+                    if (type == TokenType.IDENTIFIER) {
+                        declare(DeclarationKind.FUNCTION, scopeParents[scope], i);
+                        continue;
+                    }
+                    break;
+                case PARAMETER_LIST:
+                    state = type == TokenType.PUNC_LPAREN ? PARAMETERS : NONE;
+                    if (state == PARAMETERS) {
+                        continue;
+                    }
+                    break;
+                case PARAMETERS:
+                    if (type == TokenType.IDENTIFIER) {
+                        declare(DeclarationKind.PARAMETER, scope, i);
+                        continue;
+                    } else if (type == TokenType.PUNC_COMMA) {
+                        continue;
+                    }
+                    state = type == TokenType.PUNC_RPAREN ? FUNCTION_BODY : NONE;
+                    if (state == FUNCTION_BODY) {
+                        continue;
+                    }
+                    break;
+                case FUNCTION_BODY:
+                    state = NONE;
+                    if (type == TokenType.PUNC_LBRACE) {
+                        scopeBraced[scope] = true;
+                        continue;
+                    }
+                    break;
+                case DECLARED_NAME:
+                    state = NONE;
+                    if (type == TokenType.IDENTIFIER) {
+                        boolean array = i + 1 < size && tokens.getType(i + 1) == TokenType.PUNC_LBRACKET;
+                        declare(array ? DeclarationKind.ARRAY : DeclarationKind.VARIABLE, scope, i);
+                        continue;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            
+            switch (type) {
+                case KEYWORD_FUNCTION:
+                    scope = openScope(ScopeKind.FUNCTION, scope, i);
+                    state = FUNCTION_NAME;
+                    break;
+                case KEYWORD_DECLARE:
+                    state = DECLARED_NAME;
+                    break;
+                case PUNC_LBRACE:
+                    scope = openScope(ScopeKind.BLOCK, scope, i);
+                    scopeBraced[scope] = true;
+                    break;
+                case PUNC_RBRACE:
+                    // Unbraced function bodies end with the enclosing block
+                    while (scope != 0 && !scopeBraced[scope]) {
+                        scope = closeScope(scope, i);
+                    }
+                    if (scope != 0) {
+                        scope = closeScope(scope, i + 1);
+                    }
+                    break;
+                case IDENTIFIER:
+                    int symbol = symbolOf(i);
+                    resolutions[i] = symbol >= 0 && symbol < visible.length ? visible[symbol] : -1;
+                    if (resolutions[i] < 0) {
+                        unresolved++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        while (scope >= 0) {
+            scope = closeScope(scope, size);
+        }
+    }
+    
+    private int symbolOf(int index) {
+        int symbol = tokens.getSymbol(index);
+        return symbol >= 0 ? symbol : symbols.getId(tokens.getLexeme(index));
+    }
+    
+    private int openScope(ScopeKind kind, int parent, int start) {
+        if (scopeCount == scopeKinds.length) {
+            int capacity = scopeCount * 2;
+            scopeKinds = Arrays.copyOf(scopeKinds, capacity);
+            scopeParents = Arrays.copyOf(scopeParents, capacity);
+            scopeDepths = Arrays.copyOf(scopeDepths, capacity);
+            scopeStarts = Arrays.copyOf(scopeStarts, capacity);
+            scopeEnds = Arrays.copyOf(scopeEnds, capacity);
+            scopeLastDeclarations = Arrays.copyOf(scopeLastDeclarations, capacity);
+            scopeBraced = Arrays.copyOf(scopeBraced, capacity);
+        }
+        int scope = scopeCount++;
+        scopeKinds[scope] = (byte) kind.ordinal();
+        scopeParents[scope] = parent;
+        scopeDepths[scope] = parent >= 0 ? scopeDepths[parent] + 1 : 0;
+        scopeStarts[scope] = start;
+        scopeEnds[scope] = -1;
+        scopeLastDeclarations[scope] = -1;
+        maxDepth = Math.max(maxDepth, scopeDepths[scope]);
+        return scope;
+    }
+    
+    /**
+     * Close a scope, making the declarations it shadowed visible again
+     * @return Parent scope
+     */
+    private int closeScope(int scope, int end) {
+        for (int d = scopeLastDeclarations[scope]; d >= 0; d = previousInScope[d]) {
+            visible[declarationSymbols[d]] = shadowed[d];
+        }
+        scopeEnds[scope] = end;
+        return scopeParents[scope];
+    }
+    
+    private void declare(DeclarationKind kind, int scope, int index) {
+        int symbol = symbolOf(index);
+        if (symbol < 0) {
+            return;
+        }
+        if (symbol >= visible.length) {
+            int length = visible.length;
+            visible = Arrays.copyOf(visible, Math.max(symbol + 1, length * 2));
+            Arrays.fill(visible, length, visible.length, -1);
+        }
+        if (declarationCount == declarationKinds.length) {
+            int capacity = declarationCount * 2;
+            declarationKinds = Arrays.copyOf(declarationKinds, capacity);
+            declarationSymbols = Arrays.copyOf(declarationSymbols, capacity);
+            declarationScopes = Arrays.copyOf(declarationScopes, capacity);
+            declarationTokens = Arrays.copyOf(declarationTokens, capacity);
+            shadowed = Arrays.copyOf(shadowed, capacity);
+            previousInScope = Arrays.copyOf(previousInScope, capacity);
+        }
+        int d = declarationCount++;
+        declarationKinds[d] = (byte) kind.ordinal();
+        declarationSymbols[d] = symbol;
+        declarationScopes[d] = scope;
+        declarationTokens[d] = index;
+        shadowed[d] = visible[symbol];
+        previousInScope[d] = scopeLastDeclarations[scope];
+        scopeLastDeclarations[scope] = d;
+        visible[symbol] = d;
+        resolutions[index] = d;
+    }
+    
+    /**
+     * Get the declaration an identifier token refers to
+     * @param index Token index
+     * @return Declaration index (a declaring token refers to its own
+     *         declaration), or -1 if the token is not a declared identifier
+     */
+    public int getDeclaration(int index) {
+        return resolutions[index];
+    }
+    
+    /**
+     * Get number of identifier uses with no visible declaration
+     */
+    public int getUnresolvedCount() {
+        return unresolved;
+    }
+    
+    public int getScopeCount() {
+        return scopeCount;
+    }
+    
+    public ScopeKind getScopeKind(int scope) {
+        return SCOPE_KINDS[scopeKinds[checkScope(scope)]];
+    }
+    
+    /**
+     * Get the enclosing scope
+     * @return Parent scope, or -1 for the global scope
+     */
+    public int getScopeParent(int scope) {
+        return scopeParents[checkScope(scope)];
+    }
+    
+    public int getScopeDepth(int scope) {
+        return scopeDepths[checkScope(scope)];
+    }
+    
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+    
+    /**
+     * Get the token range [start, end) a scope covers
+     */
+    public int getScopeStart(int scope) {
+        return scopeStarts[checkScope(scope)];
+    }
+    
+    public int getScopeEnd(int scope) {
+        return scopeEnds[checkScope(scope)];
+    }
+    
+    public int getDeclarationCount() {
+        return declarationCount;
+    }
+    
+    public DeclarationKind getDeclarationKind(int declaration) {
+        return DECLARATION_KINDS[declarationKinds[checkDeclaration(declaration)]];
+    }
+    
+    public int getDeclarationSymbol(int declaration) {
+        return declarationSymbols[checkDeclaration(declaration)];
+    }
+    
+    public String getDeclarationName(int declaration) {
+        return symbols.getName(declarationSymbols[checkDeclaration(declaration)]);
+    }
+    
+    public int getDeclarationScope(int declaration) {
+        return declarationScopes[checkDeclaration(declaration)];
+    }
+    
+    /**
+     * Get the token index of the declared name
+     */
+    public int getDeclarationToken(int declaration) {
+        return declarationTokens[checkDeclaration(declaration)];
+    }
+    
+    private int checkScope(int scope) {
+        if (scope < 0 || scope >= scopeCount) {
+            throw new IndexOutOfBoundsException("Scope " + scope + ", count " + scopeCount);
+        }
+        return scope;
+    }
+    
+    private int checkDeclaration(int declaration) {
+        if (declaration < 0 || declaration >= declarationCount) {
+            throw new IndexOutOfBoundsException("Declaration " + declaration + ", count " + declarationCount);
+        }
+        return declaration;
+    }
+    
+    /**
+     * Print the declarations in source order with their scopes
+     */
+    public void printScopes() {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("SCOPES");
+        System.out.println("=".repeat(80));
+        
+        if (declarationCount == 0) {
+            System.out.println("No declarations found.");
+        } else {
+            System.out.println(String.format("%-20s %-15s %-10s %-10s %-10s %s",
+                                           "Name", "Kind", "Line", "Col", "Scope", "Depth"));
+            System.out.println("-".repeat(80));
+            
+            for (int d = 0; d < declarationCount; d++) {
+                int token = declarationTokens[d];
+                int scope = declarationScopes[d];
+                System.out.println(String.format("%-20s %-15s %-10d %-10d %-10s %d",
+                                               getDeclarationName(d), getDeclarationKind(d),
+                                               tokens.getLine(token), tokens.getColumn(token),
+                                               getScopeKind(scope) + "#" + scope, scopeDepths[scope]));
+            }
+            
+            System.out.println("-".repeat(80));
+            System.out.println("Total scopes: " + scopeCount + " (max depth " + maxDepth + ")");
+            System.out.println("Total declarations: " + declarationCount);
+            System.out.println("Unresolved identifier uses: " + unresolved);
+        }
+        System.out.println("=".repeat(80));
+    }
+}
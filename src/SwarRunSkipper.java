@@ -0,0 +1,50 @@
+/**
+ * SwarRunSkipper Class
+ * RunSkipper that packs four characters into a long and tests them against
+ * the stop characters and '\n' at once (SIMD within a register); a word with
+ * a match is finished one character at a time. Java has no long view of a
+ * char[], so each word still costs four loads.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class SwarRunSkipper extends RunSkipper {
+    
+    private static final long LANE_ONES = 0x0001000100010001L;
+    private static final long LANE_HIGH_BITS = 0x8000800080008000L;
+    private static final long LANE_LOW_BITS = 0x7FFF7FFF7FFF7FFFL;
+    private static final long NEWLINES = LANE_ONES * '\n';
+    
+    @Override
+    public String getName() {
+        return "swar";
+    }
+    
+    /**
+     * High bit of every 16-bit lane that is zero (only existence is exact:
+     * a borrow can also mark a lane above a zero lane)
+     */
+    private static long zeroLanes(long word) {
+        return (word - LANE_ONES) & ~word & LANE_HIGH_BITS;
+    }
+    
+    @Override
+    public long skipUntil(char[] buf, int from, int end, char a, char b, char c) {
+        long stopsA = LANE_ONES * a;
+        long stopsB = LANE_ONES * b;
+        long stopsC = LANE_ONES * c;
+        int p = from;
+        long newlines = 0;
+        for (; p + 4 <= end; p += 4) {
+            long word = buf[p] | (long) buf[p + 1] << 16 | (long) buf[p + 2] << 32 | (long) buf[p + 3] << 48;
+            if ((zeroLanes(word ^ stopsA) | zeroLanes(word ^ stopsB) | zeroLanes(word ^ stopsC)) != 0) {
+                break;
+            }
+            long lines = word ^ NEWLINES;
+            if (zeroLanes(lines) != 0) {
+                // Exact count: the high bit of a lane is set unless the lane is zero
+                newlines += 4 - Long.bitCount(((lines & LANE_LOW_BITS) + LANE_LOW_BITS | lines) & LANE_HIGH_BITS);
+            }
+        }
+        long rest = super.skipUntil(buf, p, end, a, b, c);
+        return rest + (newlines << 32);
+    }
+}
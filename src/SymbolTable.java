@@ -4,62 +4,499 @@ import java.util.*;
  * SymbolTable Class
  * Manages symbol table for identifiers.
  * Stores: identifier name, type, first occurrence, frequency
+ * Names are interned once and get a dense int symbol ID; lookups hash the
+ * identifier characters straight from the source buffer in a primitive
+ * open-addressing table, so recording an occurrence allocates nothing.
+ * Optionally every occurrence is kept in a compact index (see OccurrenceList)
+ * for find-references and symbol-at-offset queries.
+ * Incremental rescans keep the symbol order in a gap buffer (see TokenBuffer)
+ * whose gap sits at the last edit; first lines after it get a shared delta.
  * CS4031 - Compiler Construction - Assignment 01
  */
 public class SymbolTable {
     
+    private static final String TYPE = "IDENTIFIER";     // For now, every symbol is an identifier
+    private static final int INITIAL_CAPACITY = 64;
+    
+    private int[] slots;            // Linear probing table: symbol ID + 1, 0 = empty
+    
+    // Symbol information by ID
+    private String[] names;
+    private int[] hashes;
+    private int[] firstLines;       // 0 while the first occurrence is unknown
+    private int[] firstColumns;
+    private int[] frequencies;      // 0 for a name that no longer occurs
+    private int count;
+    
+    private int[] order;            // IDs of the symbols that occur, in order of first occurrence
+    private int orderSize;
+    private int totalOccurrences;
+    
+    // Symbols [orderGap, orderSize) of the order are stored at the end of the array,
+    // and their first lines lack firstLineShift
+    private int orderGap;
+    private int firstLineShift;
+    private boolean[] shifted;      // By symbol ID: after the order gap; null until the gap first moves back
+    
+    // Occurrence index (null unless enabled)
+    private OccurrenceList[] occurrences;       // By symbol ID
+    private OccurrenceList allOccurrences;      // All symbols, value = symbol ID
+    
+    /**
+     * Constructor
+     */
+    public SymbolTable() {
+        slots = new int[INITIAL_CAPACITY * 2];
+        names = new String[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        firstLines = new int[INITIAL_CAPACITY];
+        firstColumns = new int[INITIAL_CAPACITY];
+        frequencies = new int[INITIAL_CAPACITY];
+        order = new int[INITIAL_CAPACITY];
+        count = 0;
+        orderSize = 0;
+        orderGap = 0;
+        totalOccurrences = 0;
+    }
+    
     /**
-     * Inner class to store symbol information
+     * Add or update an identifier in the symbol table
+     * @param name Identifier name
+     * @param line Line number of occurrence
+     * @param column Column number of occurrence
+     * @return Symbol ID
      */
-    private static class SymbolInfo {
-        String name;
-        String type;        // For now, we'll use "IDENTIFIER"
-        int firstLine;
-        int firstColumn;
-        int frequency;
-        
-        SymbolInfo(String name, int line, int column) {
-            this.name = name;
-            this.type = "IDENTIFIER";
-            this.firstLine = line;
-            this.firstColumn = column;
-            this.frequency = 1;
+    public int addIdentifier(String name, int line, int column) {
+        if (occurrences != null) {
+            throw new IllegalStateException("The occurrence index needs source offsets");
         }
-        
-        void incrementFrequency() {
-            frequency++;
+        int hash = hash(name, 0, name.length());
+        int found = find(name, 0, name.length(), hash);
+        int id = found >= 0 ? found : insert(name, hash, ~found);
+        return occur(id, line, column);
+    }
+    
+    /**
+     * Add or update an identifier given by a slice of the source.
+     * Allocates only when the name is seen for the first time.
+     * @param text Source characters
+     * @param start Offset of the identifier
+     * @param length Number of characters
+     * @param line Line number of occurrence
+     * @param column Column number of occurrence
+     * @return Symbol ID
+     */
+    public int addIdentifier(char[] text, int start, int length, int line, int column) {
+        return addIdentifier(text, start, length, start, line, column);
+    }
+    
+    /**
+     * Add or update an identifier given by a slice of a buffer that holds part
+     * of the source (streaming)
+     * @param text Buffer characters
+     * @param start Offset of the identifier in the buffer
+     * @param length Number of characters
+     * @param offset Offset of the identifier in the source (for the occurrence index)
+     * @param line Line number of occurrence
+     * @param column Column number of occurrence
+     * @return Symbol ID
+     */
+    public int addIdentifier(char[] text, int start, int length, int offset, int line, int column) {
+        int hash = hash(text, start, length);
+        int found = find(text, start, length, hash);
+        int id = found >= 0 ? found : insert(new String(text, start, length), hash, ~found);
+        occur(id, line, column);
+        if (occurrences != null) {
+            index(id, offset, line, column);
         }
-        
-        @Override
-        public String toString() {
-            return String.format("%-20s %-15s Line: %-4d Col: %-4d Frequency: %d", 
-                               name, type, firstLine, firstColumn, frequency);
+        return id;
+    }
+    
+    /**
+     * Keep an index of every occurrence from now on
+     * (must be enabled before any identifier is added)
+     */
+    public void indexOccurrences() {
+        if (count > 0) {
+            throw new IllegalStateException("The occurrence index must be enabled on an empty table");
         }
+        occurrences = new OccurrenceList[names.length];
+        allOccurrences = new OccurrenceList(true);
     }
     
-    private Map<String, SymbolInfo> symbols;
+    /**
+     * Check whether occurrences are indexed
+     */
+    public boolean hasOccurrenceIndex() {
+        return occurrences != null;
+    }
+    
+    private void index(int id, int offset, int line, int column) {
+        if (occurrences[id] == null) {
+            occurrences[id] = new OccurrenceList(false);
+        }
+        occurrences[id].add(offset, line, column, 0);
+        allOccurrences.add(offset, line, column, id);
+    }
     
     /**
-     * Constructor
+     * Count an occurrence of a symbol; the first one becomes its first occurrence
      */
-    public SymbolTable() {
-        symbols = new LinkedHashMap<>(); // Preserve insertion order
+    private int occur(int id, int line, int column) {
+        if (frequencies[id]++ == 0) {
+            firstLines[id] = line;
+            firstColumns[id] = column;
+            if (orderGap != orderSize) {
+                moveOrderGap(orderSize);
+            }
+            if (orderSize == order.length) {
+                order = Arrays.copyOf(order, orderSize * 2);
+            }
+            order[orderSize++] = id;
+            orderGap++;
+        }
+        totalOccurrences++;
+        return id;
+    }
+    
+    // Polynomial hash (as String.hashCode) with the high bits spread
+    private static int hash(CharSequence text, int start, int length) {
+        int h = 0;
+        for (int i = start; i < start + length; i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+    
+    private static int hash(char[] text, int start, int length) {
+        int h = 0;
+        for (int i = start; i < start + length; i++) {
+            h = 31 * h + text[i];
+        }
+        return h ^ (h >>> 16);
     }
     
     /**
-     * Add or update an identifier in the symbol table
+     * Probe for a name
+     * @return Symbol ID, or ~slot of the empty slot where it would go
+     */
+    private int find(CharSequence text, int start, int length, int hash) {
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return ~slot;
+            }
+            if (hashes[id] == hash && names[id].length() == length) {
+                String name = names[id];
+                int i = 0;
+                while (i < length && name.charAt(i) == text.charAt(start + i)) {
+                    i++;
+                }
+                if (i == length) {
+                    return id;
+                }
+            }
+        }
+    }
+    
+    private int find(char[] text, int start, int length, int hash) {
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return ~slot;
+            }
+            if (hashes[id] == hash && names[id].length() == length) {
+                String name = names[id];
+                int i = 0;
+                while (i < length && name.charAt(i) == text[start + i]) {
+                    i++;
+                }
+                if (i == length) {
+                    return id;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Intern a new name in an empty slot (frequency 0)
+     */
+    private int insert(String name, int hash, int slot) {
+        if (count == names.length) {
+            int capacity = count * 2;
+            names = Arrays.copyOf(names, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            firstLines = Arrays.copyOf(firstLines, capacity);
+            firstColumns = Arrays.copyOf(firstColumns, capacity);
+            frequencies = Arrays.copyOf(frequencies, capacity);
+            if (occurrences != null) {
+                occurrences = Arrays.copyOf(occurrences, capacity);
+            }
+            if (shifted != null) {
+                shifted = Arrays.copyOf(shifted, capacity);
+            }
+        }
+        int id = count++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (count * 2 > slots.length) {
+            // Keep the load factor at most 1/2
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int other = 0; other < count; other++) {
+                int s = hashes[other] & mask;
+                while (slots[s] != 0) {
+                    s = (s + 1) & mask;
+                }
+                slots[s] = other + 1;
+            }
+        }
+        return id;
+    }
+    
+    /**
+     * Merge the symbols of a table built from a later part of the source.
+     * First occurrences already present here win; frequencies are added.
+     * With an occurrence index, the other table must have one too and come
+     * later in the same source.
+     * @param other Symbol table of the later part
+     * @param lineOffset Number added to the other table's line numbers
+     * @return Symbol ID here for every symbol ID of the other table (-1 if it does not occur)
+     */
+    public int[] merge(SymbolTable other, int lineOffset) {
+        if (occurrences != null && other.occurrences == null) {
+            throw new IllegalArgumentException("Merged table has no occurrence index");
+        }
+        int[] ids = new int[other.count];
+        Arrays.fill(ids, -1);
+        OccurrenceList[] indexed = occurrences;
+        occurrences = null;
+        for (int i = 0; i < other.orderSize; i++) {
+            int otherId = other.getIdAt(i);
+            ids[otherId] = addSymbol(other.names[otherId], other.getFirstLine(otherId) + lineOffset,
+                                     other.firstColumns[otherId], other.frequencies[otherId]);
+        }
+        occurrences = indexed;
+        if (occurrences != null) {
+            if (occurrences.length < names.length) {
+                occurrences = Arrays.copyOf(occurrences, names.length);
+            }
+            OccurrenceList.Cursor cursor = other.allOccurrences.cursor();
+            while (cursor.next()) {
+                index(ids[cursor.value()], cursor.offset(), cursor.line() + lineOffset, cursor.column());
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Add several occurrences of an identifier at once. The given first
+     * occurrence is only used if the identifier is not in the table yet.
      * @param name Identifier name
+     * @param firstLine Line number of the first occurrence
+     * @param firstColumn Column number of the first occurrence
+     * @param frequency Number of occurrences (at least 1)
+     * @return Symbol ID
+     */
+    public int addSymbol(String name, int firstLine, int firstColumn, int frequency) {
+        int id = addIdentifier(name, firstLine, firstColumn);
+        frequencies[id] += frequency - 1;
+        totalOccurrences += frequency - 1;
+        return id;
+    }
+    
+    /**
+     * Add an occurrence anywhere in the source (incremental rescan).
+     * It becomes the first occurrence if it comes before the current one.
+     * @param text Source characters
+     * @param start Offset of the identifier
+     * @param length Number of characters
      * @param line Line number of occurrence
      * @param column Column number of occurrence
+     * @return Symbol ID
      */
-    public void addIdentifier(String name, int line, int column) {
-        if (symbols.containsKey(name)) {
-            // Identifier already exists, increment frequency
-            symbols.get(name).incrementFrequency();
-        } else {
-            // New identifier
-            symbols.put(name, new SymbolInfo(name, line, column));
+    public int addOccurrence(char[] text, int start, int length, int line, int column) {
+        checkNotIndexed();
+        int hash = hash(text, start, length);
+        int found = find(text, start, length, hash);
+        int id = found >= 0 ? found : insert(new String(text, start, length), hash, ~found);
+        totalOccurrences++;
+        if (frequencies[id]++ == 0 || firstColumns[id] == 0) {
+            placeFirstOccurrence(id, line, column);
+        } else if (position(line, column) < firstPosition(id)) {
+            removeFromOrder(id);
+            placeFirstOccurrence(id, line, column);
         }
+        return id;
+    }
+    
+    /**
+     * Remove one occurrence (incremental rescan). A symbol without occurrences
+     * leaves the table (its ID stays reserved for the name); if its first
+     * occurrence is removed, the first occurrence is unknown until set again.
+     * @param id Symbol ID
+     * @param line Line number of occurrence
+     * @param column Column number of occurrence
+     * @return true if the first occurrence was removed and others remain
+     */
+    public boolean removeOccurrence(int id, int line, int column) {
+        checkNotIndexed();
+        if (frequencies[checkId(id)] == 0) {
+            return false;
+        }
+        totalOccurrences--;
+        boolean known = firstColumns[id] != 0;
+        boolean first = known && firstPosition(id) == position(line, column);
+        if (--frequencies[id] == 0) {
+            if (known) {
+                removeFromOrder(id);
+            }
+            return false;
+        }
+        if (first) {
+            removeFromOrder(id);
+            firstLines[id] = 0;
+            firstColumns[id] = 0;
+            return true;
+        }
+        return false;
+    }
+    
+    private void checkNotIndexed() {
+        if (occurrences != null) {
+            throw new IllegalStateException("The occurrence index does not support incremental updates");
+        }
+    }
+    
+    /**
+     * Set the first occurrence of a symbol that occurs
+     * @param id Symbol ID
+     * @param line Line number of occurrence
+     * @param column Column number of occurrence
+     */
+    public void setFirstOccurrence(int id, int line, int column) {
+        if (frequencies[checkId(id)] == 0) {
+            throw new IllegalArgumentException("Symbol " + names[id] + " does not occur");
+        }
+        if (firstColumns[id] != 0) {
+            removeFromOrder(id);
+        }
+        placeFirstOccurrence(id, line, column);
+    }
+    
+    /**
+     * Move first occurrences at or after a position after an edit of the source.
+     * Occurrences on the line where the edit ended also move by a column delta.
+     * The order gap moves to the position, and only the first occurrences on
+     * that line are updated now.
+     * @param fromLine Line of the first position to move
+     * @param fromColumn Column of the first position to move
+     * @param line Line on which the edit ended
+     * @param lineDelta Number added to line numbers
+     * @param columnDelta Number added to the column of occurrences on that line
+     */
+    public void shiftOccurrences(int fromLine, int fromColumn, int line, int lineDelta, int columnDelta) {
+        checkNotIndexed();
+        moveOrderGap(orderIndex(position(fromLine, fromColumn)));
+        int tail = order.length - orderSize;
+        for (int i = orderGap; i < orderSize && getFirstLine(order[i + tail]) == line; i++) {
+            firstColumns[order[i + tail]] += columnDelta;
+        }
+        if (orderGap < orderSize) {
+            firstLineShift += lineDelta;
+        }
+    }
+    
+    /**
+     * Set the first occurrence of a symbol that is not in the order, and insert it there
+     */
+    private void placeFirstOccurrence(int id, int line, int column) {
+        firstLines[id] = line;
+        firstColumns[id] = column;
+        moveOrderGap(orderIndex(position(line, column)));
+        if (orderSize == order.length) {
+            int[] grown = new int[orderSize * 2];
+            System.arraycopy(order, 0, grown, 0, orderGap);
+            System.arraycopy(order, orderGap, grown, grown.length - (orderSize - orderGap), orderSize - orderGap);
+            order = grown;
+        }
+        order[orderGap++] = id;
+        orderSize++;
+    }
+    
+    /**
+     * Take a symbol out of the order (its first occurrence must be known)
+     */
+    private void removeFromOrder(int id) {
+        int index = orderIndex(firstPosition(id));
+        moveOrderGap(index);
+        if (orderSize == index || order[index + order.length - orderSize] != id) {
+            throw new IllegalStateException("Symbol " + names[id] + " is not in the order");
+        }
+        if (shifted != null && shifted[id]) {
+            firstLines[id] += firstLineShift;
+            shifted[id] = false;
+        }
+        orderSize--;
+        if (orderGap == orderSize) {
+            firstLineShift = 0;
+        }
+    }
+    
+    /**
+     * Binary search the order for the first symbol whose first occurrence is at or after a position
+     */
+    private int orderIndex(long position) {
+        int lo = 0;
+        int hi = orderSize;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (firstPosition(getIdAt(mid)) < position) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /**
+     * Move the order gap, applying firstLineShift to the symbols that move in
+     * front of it and taking it off those that move behind it
+     */
+    private void moveOrderGap(int index) {
+        int tail = order.length - orderSize;
+        if (index < orderGap) {
+            if (shifted == null) {
+                shifted = new boolean[names.length];
+            }
+            System.arraycopy(order, index, order, index + tail, orderGap - index);
+            for (int i = index + tail; i < orderGap + tail; i++) {
+                firstLines[order[i]] -= firstLineShift;
+                shifted[order[i]] = true;
+            }
+        } else if (index > orderGap) {
+            System.arraycopy(order, orderGap + tail, order, orderGap, index - orderGap);
+            for (int i = orderGap; i < index; i++) {
+                firstLines[order[i]] += firstLineShift;
+                shifted[order[i]] = false;
+            }
+        }
+        orderGap = index;
+        if (orderGap == orderSize) {
+            firstLineShift = 0;
+        }
+    }
+    
+    private static long position(int line, int column) {
+        return ((long) line << 32) | column;
+    }
+    
+    private long firstPosition(int id) {
+        return position(getFirstLine(id), firstColumns[id]);
     }
     
     /**
@@ -68,17 +505,112 @@ public class SymbolTable {
      * @return true if identifier exists
      */
     public boolean contains(String name) {
-        return symbols.containsKey(name);
+        return getId(name) >= 0;
+    }
+    
+    /**
+     * Get the symbol ID of an identifier
+     * @param name Identifier name
+     * @return Symbol ID, or -1 if the identifier does not occur
+     */
+    public int getId(String name) {
+        int id = find(name, 0, name.length(), hash(name, 0, name.length()));
+        return id >= 0 && frequencies[id] > 0 ? id : -1;
     }
     
     /**
      * Get symbol information
      * @param name Identifier name
-     * @return SymbolInfo object or null if not found
+     * @return Formatted symbol information, or null if not found
      */
     public String getSymbolInfo(String name) {
-        SymbolInfo info = symbols.get(name);
-        return info != null ? info.toString() : null;
+        int id = getId(name);
+        return id >= 0 ? format(id) : null;
+    }
+    
+    private String format(int id) {
+        return String.format("%-20s %-15s Line: %-4d Col: %-4d Frequency: %d",
+                           names[id], TYPE, getFirstLine(id), firstColumns[id], frequencies[id]);
+    }
+    
+    /**
+     * Get all occurrences of an identifier (needs the occurrence index)
+     * @param name Identifier name
+     * @return Cursor over the occurrences in source order
+     */
+    public OccurrenceList.Cursor getOccurrences(String name) {
+        return getOccurrences(name, 1, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Get the occurrences of an identifier on lines fromLine..toLine (needs the occurrence index)
+     * @param name Identifier name
+     * @param fromLine First line
+     * @param toLine Last line (inclusive)
+     * @return Cursor over the occurrences in source order
+     */
+    public OccurrenceList.Cursor getOccurrences(String name, int fromLine, int toLine) {
+        checkIndexed();
+        int id = getId(name);
+        OccurrenceList list = id >= 0 ? occurrences[id] : null;
+        return (list != null ? list : new OccurrenceList(false)).cursor(fromLine, toLine);
+    }
+    
+    /**
+     * Find the identifier occurrence covering a source offset (needs the occurrence index)
+     * @param offset Source offset
+     * @return Symbol ID, or -1 if no identifier covers the offset
+     */
+    public int symbolAt(int offset) {
+        checkIndexed();
+        OccurrenceList.Cursor cursor = allOccurrences.floor(offset);
+        if (cursor == null || offset >= cursor.offset() + names[cursor.value()].length()) {
+            return -1;
+        }
+        return cursor.value();
+    }
+    
+    private void checkIndexed() {
+        if (occurrences == null) {
+            throw new IllegalStateException("Occurrences are not indexed");
+        }
+    }
+    
+    /**
+     * Get the ID of the symbol at a position in insertion order
+     * @param index Position, from 0 to getUniqueIdentifierCount() - 1
+     * @return Symbol ID
+     */
+    public int getIdAt(int index) {
+        if (index < 0 || index >= orderSize) {
+            throw new IndexOutOfBoundsException("Symbol index " + index + " out of bounds for " + orderSize + " symbols");
+        }
+        return order[index < orderGap ? index : index + order.length - orderSize];
+    }
+    
+    // Symbol information by ID
+    public String getName(int id) {
+        return names[checkId(id)];
+    }
+    
+    public int getFirstLine(int id) {
+        checkId(id);
+        return shifted != null && shifted[id] ? firstLines[id] + firstLineShift : firstLines[id];
+    }
+    
+    public int getFirstColumn(int id) {
+        return firstColumns[checkId(id)];
+    }
+    
+    public int getFrequency(int id) {
+        return frequencies[checkId(id)];
+    }
+    
+    private int checkId(int id) {
+        if (id < 0 || id >= count) {
+            throw new IndexOutOfBoundsException("Symbol ID " + id + " out of bounds for " + count + " symbols");
+        }
+        return id;
     }
     
     /**
@@ -86,7 +618,7 @@ public class SymbolTable {
      * @return Number of unique identifiers
      */
     public int getUniqueIdentifierCount() {
-        return symbols.size();
+        return orderSize;
     }
     
     /**
@@ -94,43 +626,33 @@ public class SymbolTable {
      * @return Total frequency of all identifiers
      */
     public int getTotalIdentifierOccurrences() {
-        int total = 0;
-        for (SymbolInfo info : symbols.values()) {
-            total += info.frequency;
-        }
-        return total;
+        return totalOccurrences;
     }
     
     /**
      * Print the symbol table
      */
     public void printSymbolTable() {
-        System.out.println("\n" + "=".repeat(80));
-        System.out.println("SYMBOL TABLE");
-        System.out.println("=".repeat(80));
-        
-        if (symbols.isEmpty()) {
-            System.out.println("No identifiers found.");
-        } else {
-            System.out.println(String.format("%-20s %-15s %-10s %-10s %s", 
-                                           "Name", "Type", "First Line", "First Col", "Frequency"));
-            System.out.println("-".repeat(80));
-            
-            for (SymbolInfo info : symbols.values()) {
-                System.out.println(info);
-            }
-            
-            System.out.println("-".repeat(80));
-            System.out.println("Total unique identifiers: " + getUniqueIdentifierCount());
-            System.out.println("Total identifier occurrences: " + getTotalIdentifierOccurrences());
-        }
-        System.out.println("=".repeat(80));
+        ReportWriter report = ReportWriter.text();
+        report.symbolTable(this);
+        report.flush();
     }
     
     /**
      * Clear the symbol table
      */
     public void clear() {
-        symbols.clear();
+        Arrays.fill(slots, 0);
+        Arrays.fill(names, 0, count, null);
+        Arrays.fill(frequencies, 0, count, 0);
+        count = 0;
+        orderSize = 0;
+        orderGap = 0;
+        firstLineShift = 0;
+        shifted = null;
+        totalOccurrences = 0;
+        if (occurrences != null) {
+            indexOccurrences();
+        }
     }
 }
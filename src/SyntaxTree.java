@@ -0,0 +1,293 @@
+import java.util.*;
+
+/**
+ * SyntaxTree Class
+ * Abstract syntax tree stored in an arena of parallel primitive arrays instead
+ * of one object per node. A node is an int index; each node has a kind, the
+ * index and type of the token it was built from, that token's source slice and
+ * position, and its children as a first-child / next-sibling list.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class SyntaxTree {
+    
+    /** Missing node */
+    public static final int NONE = -1;
+    
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final TokenType[] TYPES = TokenType.values();
+    
+    private final CharSequence source;
+    private final StringBuilder text;   // Own lexeme storage when there is no shared source
+    
+    private byte[] kinds;
+    private byte[] types;           // Token type ordinal
+    private int[] tokens;           // Token index in the token stream
+    private int[] starts;           // Token text in source
+    private int[] lengths;
+    private long[] positions;       // line << 32 | column
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int size;
+    private int root;
+    
+    /**
+     * Constructor
+     * @param source Text the token offsets point into (null: lexemes are copied into the tree)
+     * @param capacity Initial number of nodes
+     */
+    public SyntaxTree(CharSequence source, int capacity) {
+        this.source = source != null ? source : new StringBuilder();
+        this.text = source != null ? null : (StringBuilder) this.source;
+        capacity = Math.max(capacity, 16);
+        this.kinds = new byte[capacity];
+        this.types = new byte[capacity];
+        this.tokens = new int[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.positions = new long[capacity];
+        this.firstChildren = new int[capacity];
+        this.nextSiblings = new int[capacity];
+        this.size = 0;
+        this.root = NONE;
+    }
+    
+    /**
+     * Constructor
+     * @param source Text the token offsets point into
+     */
+    public SyntaxTree(CharSequence source) {
+        this(source, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor for a tree without a shared source (e.g. built while
+     * streaming). Variable-spelling lexemes are copied into an internal text store.
+     */
+    public SyntaxTree() {
+        this(null, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Add a node without children
+     * @param kind Node kind
+     * @param type Token type
+     * @param token Token index
+     * @param start Offset of the token text in the source
+     * @param length Length of the token text
+     * @param line Line number
+     * @param column Column number
+     * @return Node index
+     */
+    public int add(NodeKind kind, TokenType type, int token, int start, int length, int line, int column) {
+        if (size == kinds.length) {
+            grow(size + 1);
+        }
+        kinds[size] = (byte) kind.ordinal();
+        types[size] = (byte) type.ordinal();
+        tokens[size] = token;
+        starts[size] = start;
+        lengths[size] = length;
+        positions[size] = ((long) line << 32) | (column & 0xFFFFFFFFL);
+        firstChildren[size] = NONE;
+        nextSiblings[size] = NONE;
+        return size++;
+    }
+    
+    /**
+     * Add a node without children whose token text is given by a slice of text
+     * (copied unless text is the tree's shared source or the spelling is fixed)
+     * @param text Text holding the token
+     * @param start Offset of the token in text
+     * @return Node index
+     */
+    public int add(NodeKind kind, TokenType type, int token, CharSequence text, int start, int length,
+                   int line, int column) {
+        if (text != source) {
+            if (this.text == null) {
+                throw new IllegalStateException("Tree is backed by a shared source; add nodes by offset");
+            }
+            int offset = this.text.length();
+            if (type.fixedLexeme(length) == null) {
+                this.text.append(text, start, start + length);
+            }
+            start = offset;
+        }
+        return add(kind, type, token, start, length, line, column);
+    }
+    
+    private void grow(int minCapacity) {
+        int capacity = Math.max(kinds.length * 2, minCapacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        types = Arrays.copyOf(types, capacity);
+        tokens = Arrays.copyOf(tokens, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+    }
+    
+    /**
+     * Change the kind of a node (when it is only known after its children are parsed)
+     */
+    public void setKind(int node, NodeKind kind) {
+        kinds[node] = (byte) kind.ordinal();
+    }
+    
+    /**
+     * Set the first child of a node (later children are linked with setNextSibling)
+     */
+    public void setFirstChild(int node, int child) {
+        firstChildren[node] = child;
+    }
+    
+    /**
+     * Link a node to the next child of the same parent
+     */
+    public void setNextSibling(int node, int sibling) {
+        nextSiblings[node] = sibling;
+    }
+    
+    /**
+     * Set the root node
+     */
+    public void setRoot(int node) {
+        root = node;
+    }
+    
+    /**
+     * Get the root node (PROGRAM), or NONE for an empty tree
+     */
+    public int getRoot() {
+        return root;
+    }
+    
+    /**
+     * Get number of nodes
+     */
+    public int size() {
+        return size;
+    }
+    
+    public NodeKind getKind(int node) {
+        return KINDS[kinds[node]];
+    }
+    
+    public TokenType getTokenType(int node) {
+        return TYPES[types[node]];
+    }
+    
+    public int getToken(int node) {
+        return tokens[node];
+    }
+    
+    public int getStart(int node) {
+        return starts[node];
+    }
+    
+    public int getLength(int node) {
+        return lengths[node];
+    }
+    
+    public int getLine(int node) {
+        return (int) (positions[node] >>> 32);
+    }
+    
+    public int getColumn(int node) {
+        return (int) positions[node];
+    }
+    
+    /**
+     * Get the first child of a node, or NONE
+     */
+    public int getFirstChild(int node) {
+        return firstChildren[node];
+    }
+    
+    /**
+     * Get the next child of a node's parent, or NONE
+     */
+    public int getNextSibling(int node) {
+        return nextSiblings[node];
+    }
+    
+    /**
+     * Get a child by position
+     * @return Child node, or NONE if the node has fewer children
+     */
+    public int getChild(int node, int index) {
+        int child = firstChildren[node];
+        for (int i = 0; i < index && child != NONE; i++) {
+            child = nextSiblings[child];
+        }
+        return child;
+    }
+    
+    /**
+     * Get the number of children of a node
+     */
+    public int getChildCount(int node) {
+        int count = 0;
+        for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+            count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Get the text of a node's token (shared constant for fixed spellings)
+     */
+    public String getLexeme(int node) {
+        String fixed = TYPES[types[node]].fixedLexeme(lengths[node]);
+        if (fixed != null) {
+            return fixed;
+        }
+        return source.subSequence(starts[node], starts[node] + lengths[node]).toString();
+    }
+    
+    /**
+     * Print the tree, one node per line, indented by depth
+     */
+    public void printTree() {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("SYNTAX TREE");
+        System.out.println("=".repeat(80));
+        
+        if (root != NONE) {
+            // Iterative pre-order walk, so deep trees do not overflow the stack
+            int[] stack = new int[16];
+            int[] depths = new int[16];
+            int top = 0;
+            stack[0] = root;
+            depths[0] = 0;
+            StringBuilder line = new StringBuilder();
+            while (top >= 0) {
+                int node = stack[top];
+                int depth = depths[top--];
+                line.setLength(0);
+                for (int i = 0; i < depth; i++) {
+                    line.append("  ");
+                }
+                line.append(getKind(node)).append(" \"").append(getLexeme(node)).append("\" (Line: ")
+                    .append(getLine(node)).append(", Col: ").append(getColumn(node)).append(')');
+                System.out.println(line);
+                
+                int count = getChildCount(node);
+                if (top + 1 + count > stack.length) {
+                    stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + 1 + count));
+                    depths = Arrays.copyOf(depths, stack.length);
+                }
+                // Push children in reverse so the first child is printed first
+                int at = top + count;
+                for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+                    stack[at] = child;
+                    depths[at--] = depth + 1;
+                }
+                top += count;
+            }
+        }
+        
+        System.out.println("=".repeat(80));
+    }
+}
@@ -1,13 +1,18 @@
 /**
  * Token Class
  * Represents a single token identified by the lexical analyzer.
+ * A token only records its position in the shared source buffer; the lexeme
+ * is materialized on demand (fixed spellings come from TokenType constants).
  * CS4031 - Compiler Construction - Assignment 01
  */
 public class Token {
     private TokenType type;
-    private String lexeme;
+    private CharSequence source;
+    private int start;
+    private int length;
     private int line;
     private int column;
+    private String lexeme;      // Materialized lazily by getLexeme()
     
     /**
      * Constructor
@@ -17,8 +22,37 @@ public class Token {
      * @param column Column number where token starts
      */
     public Token(TokenType type, String lexeme, int line, int column) {
-        this.type = type;
+        this(type, lexeme, 0, lexeme.length(), line, column);
         this.lexeme = lexeme;
+    }
+    
+    /**
+     * Constructor for a token whose lexeme has already been copied out of the source
+     * @param type The type of the token
+     * @param lexeme The actual string value of the token
+     * @param start Offset of the first character in the source
+     * @param line Line number where token appears
+     * @param column Column number where token starts
+     */
+    public Token(TokenType type, String lexeme, int start, int line, int column) {
+        this(type, lexeme, line, column);
+        this.start = start;
+    }
+    
+    /**
+     * Constructor for a token that refers to a slice of the source
+     * @param type The type of the token
+     * @param source Shared source buffer
+     * @param start Offset of the first character in the source
+     * @param length Number of characters in the token
+     * @param line Line number where token appears
+     * @param column Column number where token starts
+     */
+    public Token(TokenType type, CharSequence source, int start, int length, int line, int column) {
+        this.type = type;
+        this.source = source;
+        this.start = start;
+        this.length = length;
         this.line = line;
         this.column = column;
     }
@@ -29,9 +63,23 @@ public class Token {
     }
     
     public String getLexeme() {
+        if (lexeme == null) {
+            lexeme = type.fixedLexeme(length);
+            if (lexeme == null) {
+                lexeme = source.subSequence(start, start + length).toString();
+            }
+        }
         return lexeme;
     }
     
+    public int getStart() {
+        return start;
+    }
+    
+    public int getLength() {
+        return length;
+    }
+    
     public int getLine() {
         return line;
     }
@@ -46,14 +94,14 @@ public class Token {
      */
     @Override
     public String toString() {
-        return String.format("<%s, \"%s\", Line: %d, Col: %d>", 
-                           type, lexeme, line, column);
+        return String.format("<%s, \"%s\", Line: %d, Col: %d>",
+                           type, getLexeme(), line, column);
     }
     
     /**
      * Returns simple string for debugging
      */
     public String toSimpleString() {
-        return String.format("%s(\"%s\")", type, lexeme);
+        return String.format("%s(\"%s\")", type, getLexeme());
     }
 }
@@ -0,0 +1,516 @@
+import java.util.*;
+
+/**
+ * TokenBuffer Class
+ * Stores a token stream as parallel primitive arrays (struct-of-arrays) instead
+ * of one Token object per token: a byte type ordinal, int start offset, int length
+ * and a packed line/column per token, plus the symbol ID of identifiers.
+ * Token objects are only created on request.
+ * The unused capacity is a gap that normally sits at the end. Editing the
+ * middle of the stream (replace/shift) moves it to the edit instead, and
+ * tokens after it keep their old offsets and lines plus a shared delta, so
+ * an edit costs the size of the edit and the distance from the previous one.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class TokenBuffer implements Iterable<Token> {
+    
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final TokenType[] TYPES = TokenType.values();
+    
+    private CharSequence source;
+    private StringBuilder text;     // Own lexeme storage when filled from lexemes (JFlex)
+    
+    private byte[] types;
+    private int[] starts;
+    private int[] lengths;
+    private long[] positions;       // line << 32 | column
+    private int[] symbols;          // Symbol ID + 1 of identifiers (0 = none); null until first set
+    private int size;
+    
+    // Tokens [gap, size) are stored at the end of the arrays, with these deltas still to add
+    private int gap;
+    private int startShift;
+    private long lineShift;         // lineDelta << 32
+    
+    /**
+     * Constructor for tokens that refer to slices of a shared source
+     * @param source Source code the offsets point into
+     */
+    public TokenBuffer(CharSequence source) {
+        this(source, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor for tokens that refer to slices of a shared source
+     * @param source Source code the offsets point into
+     * @param capacity Initial number of tokens
+     */
+    public TokenBuffer(CharSequence source, int capacity) {
+        this.source = source;
+        capacity = Math.max(capacity, 16);
+        this.types = new byte[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.positions = new long[capacity];
+        this.size = 0;
+        this.gap = 0;
+    }
+    
+    /**
+     * Constructor for tokens given by lexeme (e.g. from the JFlex scanner).
+     * Variable-spelling lexemes are copied into an internal text store.
+     */
+    public TokenBuffer() {
+        this(new StringBuilder());
+        this.text = (StringBuilder) source;
+    }
+    
+    /**
+     * Add a token that refers to a slice of the source
+     * @param type Token type
+     * @param start Offset of the first character in the source
+     * @param length Number of characters
+     * @param line Line number
+     * @param column Column number
+     */
+    public void add(TokenType type, int start, int length, int line, int column) {
+        if (gap != size) {
+            moveGap(size);
+        }
+        if (size == types.length) {
+            grow(size + 1);
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        positions[size] = ((long) line << 32) | (column & 0xFFFFFFFFL);
+        if (symbols != null) {
+            symbols[size] = 0;
+        }
+        size++;
+        gap++;
+    }
+    
+    /**
+     * Add a token given by its lexeme
+     * @param type Token type
+     * @param lexeme Token text
+     * @param line Line number
+     * @param column Column number
+     */
+    public void add(TokenType type, String lexeme, int line, int column) {
+        if (text == null) {
+            throw new IllegalStateException("Buffer is backed by a shared source; add tokens by offset");
+        }
+        int start = text.length();
+        if (type.fixedLexeme(lexeme.length()) == null) {
+            text.append(lexeme);
+        }
+        add(type, start, lexeme.length(), line, column);
+    }
+    
+    /**
+     * Add a token object
+     * @param token Token to copy
+     */
+    public void add(Token token) {
+        if (text == null) {
+            add(token.getType(), token.getStart(), token.getLength(), token.getLine(), token.getColumn());
+        } else {
+            add(token.getType(), token.getLexeme(), token.getLine(), token.getColumn());
+        }
+    }
+    
+    /**
+     * Append tokens [from, to) of another buffer over the same source
+     * @param other Buffer to copy from
+     * @param from First token index
+     * @param to End token index (exclusive)
+     * @param lineOffset Number added to every line number
+     */
+    public void addAll(TokenBuffer other, int from, int to, int lineOffset) {
+        if (other.source != source || text != null) {
+            throw new IllegalArgumentException("Buffers must refer to the same shared source");
+        }
+        moveGap(size);
+        other.moveGap(other.size);
+        int count = to - from;
+        if (size + count > types.length) {
+            grow(size + count);
+        }
+        System.arraycopy(other.types, from, types, size, count);
+        System.arraycopy(other.starts, from, starts, size, count);
+        System.arraycopy(other.lengths, from, lengths, size, count);
+        copySymbols(other, from, size, count);
+        long shift = (long) lineOffset << 32;
+        for (int i = 0; i < count; i++) {
+            positions[size + i] = other.positions[from + i] + shift;
+        }
+        size += count;
+        gap = size;
+    }
+    
+    /**
+     * Replace tokens [from, to) with all tokens of another buffer over the same source.
+     * The gap moves to just after the new tokens.
+     * @param from First token index
+     * @param to End token index (exclusive)
+     * @param other Buffer to copy from
+     */
+    public void replace(int from, int to, TokenBuffer other) {
+        if (other.source != source || text != null) {
+            throw new IllegalArgumentException("Buffers must refer to the same shared source");
+        }
+        if (from < 0 || from > to || to > size) {
+            throw new IndexOutOfBoundsException("Token range [" + from + ", " + to + ") out of bounds for size " + size);
+        }
+        other.moveGap(other.size);
+        int count = other.size;
+        moveGap(from);
+        size -= to - from;          // Tokens [from, to) now follow the gap: drop them into it
+        if (size + count > types.length) {
+            grow(size + count);
+        }
+        System.arraycopy(other.types, 0, types, from, count);
+        System.arraycopy(other.starts, 0, starts, from, count);
+        System.arraycopy(other.lengths, 0, lengths, from, count);
+        System.arraycopy(other.positions, 0, positions, from, count);
+        copySymbols(other, 0, from, count);
+        size += count;
+        gap += count;
+        if (gap == size) {
+            startShift = 0;
+            lineShift = 0;
+        }
+    }
+    
+    /**
+     * Move tokens from an index on after an edit of the source. Tokens on the
+     * line where the edit ended also move by a column delta. The gap moves to
+     * the index, and only the tokens on that line are updated now.
+     * @param from First token index (all later tokens start after the edit)
+     * @param startDelta Number added to every start offset
+     * @param line Line on which the edit ended
+     * @param lineDelta Number added to every line number
+     * @param columnDelta Number added to the column of tokens on that line
+     */
+    public void shift(int from, int startDelta, int line, int lineDelta, int columnDelta) {
+        moveGap(from);
+        int tail = types.length - size;
+        for (int i = from; i < size && getLine(i) == line; i++) {
+            positions[i + tail] += columnDelta;
+        }
+        if (gap < size) {
+            startShift += startDelta;
+            lineShift += (long) lineDelta << 32;
+        }
+    }
+    
+    /**
+     * Move the gap to a token index, applying the deltas to the tokens that
+     * move in front of it and taking them off those that move behind it
+     */
+    private void moveGap(int index) {
+        int tail = types.length - size;
+        if (index < gap) {
+            int count = gap - index;
+            System.arraycopy(types, index, types, index + tail, count);
+            System.arraycopy(starts, index, starts, index + tail, count);
+            System.arraycopy(lengths, index, lengths, index + tail, count);
+            System.arraycopy(positions, index, positions, index + tail, count);
+            if (symbols != null) {
+                System.arraycopy(symbols, index, symbols, index + tail, count);
+            }
+            for (int i = index + tail; i < gap + tail; i++) {
+                starts[i] -= startShift;
+                positions[i] -= lineShift;
+            }
+        } else if (index > gap) {
+            int count = index - gap;
+            System.arraycopy(types, gap + tail, types, gap, count);
+            System.arraycopy(starts, gap + tail, starts, gap, count);
+            System.arraycopy(lengths, gap + tail, lengths, gap, count);
+            System.arraycopy(positions, gap + tail, positions, gap, count);
+            if (symbols != null) {
+                System.arraycopy(symbols, gap + tail, symbols, gap, count);
+            }
+            for (int i = gap; i < index; i++) {
+                starts[i] += startShift;
+                positions[i] += lineShift;
+            }
+        }
+        gap = index;
+        if (gap == size) {
+            startShift = 0;
+            lineShift = 0;
+        }
+    }
+    
+    private void copySymbols(TokenBuffer other, int from, int at, int count) {
+        if (other.symbols != null) {
+            if (symbols == null) {
+                symbols = new int[types.length];
+            }
+            System.arraycopy(other.symbols, from, symbols, at, count);
+        } else if (symbols != null) {
+            Arrays.fill(symbols, at, at + count, 0);
+        }
+    }
+    
+    /**
+     * Attach a symbol table ID to an identifier token
+     * @param index Token index
+     * @param id Symbol ID
+     */
+    public void setSymbol(int index, int id) {
+        int slot = slot(index);
+        if (symbols == null) {
+            symbols = new int[types.length];
+        }
+        symbols[slot] = id + 1;
+    }
+    
+    /**
+     * Translate the symbol IDs of tokens [from, to) after their symbol table was merged
+     * @param from First token index
+     * @param to End token index (exclusive)
+     * @param ids New ID for every old ID (see SymbolTable.merge)
+     */
+    public void remapSymbols(int from, int to, int[] ids) {
+        if (symbols == null) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            int slot = slot(i);
+            if (symbols[slot] != 0) {
+                symbols[slot] = ids[symbols[slot] - 1] + 1;
+            }
+        }
+    }
+    
+    private void grow(int minCapacity) {
+        int capacity = Math.max(types.length + (types.length >> 1), minCapacity);
+        int tail = size - gap;
+        int from = types.length - tail;
+        int to = capacity - tail;
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        System.arraycopy(types, from, types, to, tail);
+        System.arraycopy(starts, from, starts, to, tail);
+        System.arraycopy(lengths, from, lengths, to, tail);
+        System.arraycopy(positions, from, positions, to, tail);
+        if (symbols != null) {
+            symbols = Arrays.copyOf(symbols, capacity);
+            System.arraycopy(symbols, from, symbols, to, tail);
+        }
+    }
+    
+    // Random access by index
+    public int size() {
+        return size;
+    }
+    
+    public TokenType getType(int index) {
+        return TYPES[types[slot(index)]];
+    }
+    
+    public int getStart(int index) {
+        int slot = slot(index);
+        return index < gap ? starts[slot] : starts[slot] + startShift;
+    }
+    
+    public int getLength(int index) {
+        return lengths[slot(index)];
+    }
+    
+    public int getLine(int index) {
+        return (int) (position(index) >>> 32);
+    }
+    
+    public int getColumn(int index) {
+        return (int) position(index);
+    }
+    
+    private long position(int index) {
+        int slot = slot(index);
+        return index < gap ? positions[slot] : positions[slot] + lineShift;
+    }
+    
+    /**
+     * Get the symbol table ID of an identifier token
+     * @param index Token index
+     * @return Symbol ID, or -1 if none is attached
+     */
+    public int getSymbol(int index) {
+        int slot = slot(index);
+        return symbols != null ? symbols[slot] - 1 : -1;
+    }
+    
+    /**
+     * Materialize the lexeme of a token
+     * @param index Token index
+     * @return Lexeme (shared constant for fixed-spelling tokens)
+     */
+    public String getLexeme(int index) {
+        TokenType type = getType(index);
+        int length = getLength(index);
+        String fixed = type.fixedLexeme(length);
+        if (fixed != null) {
+            return fixed;
+        }
+        int start = getStart(index);
+        return source.subSequence(start, start + length).toString();
+    }
+    
+    /**
+     * Create a Token object for one entry
+     * @param index Token index
+     * @return New Token referring to the shared source
+     */
+    public Token get(int index) {
+        return new Token(getType(index), source, getStart(index), getLength(index),
+                         getLine(index), getColumn(index));
+    }
+    
+    /**
+     * Find the first token starting at or after a source offset (binary search;
+     * tokens are stored in source order)
+     * @param offset Source offset
+     * @return Token index, or size() if there is none
+     */
+    public int firstAtOrAfter(int offset) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (getStart(mid) < offset) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /**
+     * Check a token index and get the array slot that holds the token
+     */
+    private int slot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for size " + size);
+        }
+        return index < gap ? index : index + types.length - size;
+    }
+    
+    /**
+     * Get the source the token offsets refer to
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+    
+    /**
+     * Remove all tokens (capacity is kept)
+     */
+    public void clear() {
+        size = 0;
+        gap = 0;
+        startShift = 0;
+        lineShift = 0;
+        if (text != null) {
+            text.setLength(0);
+        }
+    }
+    
+    /**
+     * Get a cursor positioned before the first token
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+    
+    /**
+     * Get a read-only List view; each element access creates a Token object
+     */
+    public List<Token> asList() {
+        return new ListView();
+    }
+    
+    @Override
+    public Iterator<Token> iterator() {
+        return asList().iterator();
+    }
+    
+    /**
+     * Cursor-style iteration without creating Token objects
+     */
+    public class Cursor {
+        private int index = -1;
+        
+        /**
+         * Move to the next token
+         * @return false when the end of the buffer is reached
+         */
+        public boolean next() {
+            if (index + 1 >= size) {
+                index = size;
+                return false;
+            }
+            index++;
+            return true;
+        }
+        
+        public int index() {
+            return index;
+        }
+        
+        public TokenType type() {
+            return getType(index);
+        }
+        
+        public int start() {
+            return getStart(index);
+        }
+        
+        public int length() {
+            return getLength(index);
+        }
+        
+        public int line() {
+            return getLine(index);
+        }
+        
+        public int column() {
+            return getColumn(index);
+        }
+        
+        public int symbol() {
+            return getSymbol(index);
+        }
+        
+        public String lexeme() {
+            return getLexeme(index);
+        }
+        
+        public Token token() {
+            return get(index);
+        }
+    }
+    
+    /**
+     * List<Token> compatibility view
+     */
+    private class ListView extends AbstractList<Token> implements RandomAccess {
+        @Override
+        public Token get(int index) {
+            return TokenBuffer.this.get(index);
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
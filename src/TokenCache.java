@@ -0,0 +1,645 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * TokenCache Class
+ * Persistent cache of scan results, so unchanged files need not be scanned
+ * again. An entry is keyed by a 64-bit hash (xxHash64) of the file's bytes,
+ * seeded with ManualScanner.VERSION, and holds the token stream, symbol table,
+ * errors and statistics in a fixed-width binary format that is read through
+ * a memory mapping. Each entry ends with a CRC32C of its contents; an entry
+ * that fails any check is deleted and treated as a miss. Entries are written
+ * to a temporary file and renamed into place, so readers never see partial
+ * entries. The least recently used entries are deleted when the cache grows
+ * beyond its size limit (recency is kept in the files' modification times).
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class TokenCache {
+    
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+    
+    private static final int MAGIC = 0x534C5443;        // "SLTC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int TRAILER_SIZE = 8;          // CRC32C of everything before it
+    private static final String EXTENSION = ".tok";
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final ErrorCode[] CODES = ErrorCode.values();
+    
+    // xxHash64 primes
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    
+    /**
+     * Scan results loaded from the cache. Tokens are decoded from the mapped
+     * entry only when getTokenBuffer() is called.
+     */
+    public static final class Entry {
+        private final int[] tokenCounts;
+        private final int totalTokens;
+        private final int linesProcessed;
+        private final int commentsRemoved;
+        private final SymbolTable symbolTable;
+        private final ErrorHandler errorHandler;
+        private final ByteBuffer tokens;        // Token section of the entry
+        private final int tokenCount;
+        private final boolean hasSymbols;
+        
+        private Entry(ByteBuffer data) {
+            tokenCounts = new int[TYPES.length];
+            totalTokens = count(data.getInt());
+            linesProcessed = count(data.getInt());
+            commentsRemoved = count(data.getInt());
+            data.asIntBuffer().get(tokenCounts);
+            data.position(data.position() + 4 * tokenCounts.length);
+            
+            tokenCount = count(data.getInt());
+            hasSymbols = data.get() != 0;
+            int tokenBytes = Math.multiplyExact(tokenCount, hasSymbols ? 21 : 17);
+            if (tokenBytes > data.remaining()) {
+                throw new IllegalStateException("Token section exceeds entry");
+            }
+            tokens = data.slice(data.position(), tokenBytes).order(data.order());
+            data.position(data.position() + tokenBytes);
+            
+            symbolTable = new SymbolTable();
+            int symbols = count(data.getInt());
+            for (int i = 0; i < symbols; i++) {
+                int line = data.getInt();
+                int column = data.getInt();
+                int frequency = data.getInt();
+                String name = readString(data);
+                if (frequency < 1 || name == null || symbolTable.contains(name)) {
+                    throw new IllegalStateException("Invalid symbol entry");
+                }
+                symbolTable.addSymbol(name, line, column, frequency);
+            }
+            
+            errorHandler = new ErrorHandler();
+            errorHandler.setMaxErrors(count(data.getInt()));
+            int errorCount = count(data.getInt());
+            int stored = count(data.getInt());
+            if (stored > errorCount) {
+                throw new IllegalStateException("Invalid error counts");
+            }
+            for (int i = 0; i < stored; i++) {
+                int code = data.get();
+                if (code < 0 || code >= CODES.length) {
+                    throw new IllegalStateException("Invalid error code " + code);
+                }
+                int line = data.getInt();
+                int column = data.getInt();
+                String lexeme = readString(data);
+                String reason = readString(data);
+                errorHandler.addStoredError(CODES[code], line, column, lexeme != null ? lexeme : "", reason);
+            }
+            errorHandler.addDroppedErrors(errorCount - stored);
+            if (data.hasRemaining()) {
+                throw new IllegalStateException("Unexpected data at end of entry");
+            }
+        }
+        
+        private static int count(int value) {
+            if (value < 0) {
+                throw new IllegalStateException("Negative count " + value);
+            }
+            return value;
+        }
+        
+        /**
+         * Decode the token stream
+         * @param source Source the tokens were scanned from (as read by ManualScanner.readSource())
+         * @return Tokens referring to the source
+         */
+        public TokenBuffer getTokenBuffer(CharSequence source) {
+            int n = tokenCount;
+            long[] positions = new long[n];
+            int[] starts = new int[n];
+            int[] lengths = new int[n];
+            int[] symbols = new int[hasSymbols ? n : 0];
+            byte[] types = new byte[n];
+            ByteBuffer data = tokens.duplicate().order(tokens.order());
+            data.asLongBuffer().get(positions);
+            data.position(data.position() + 8 * n);
+            data.asIntBuffer().get(starts);
+            data.position(data.position() + 4 * n);
+            data.asIntBuffer().get(lengths);
+            data.position(data.position() + 4 * n);
+            data.asIntBuffer().get(symbols);
+            data.position(data.position() + 4 * symbols.length);
+            data.get(types);
+            
+            TokenBuffer buffer = new TokenBuffer(source, Math.max(n, 1));
+            for (int i = 0; i < n; i++) {
+                if (types[i] < 0 || types[i] >= TYPES.length || starts[i] < 0 || lengths[i] < 0
+                    || starts[i] > source.length() - lengths[i]) {
+                    throw new IllegalStateException("Cached token " + i + " does not match the source");
+                }
+                buffer.add(TYPES[types[i]], starts[i], lengths[i], (int) (positions[i] >>> 32), (int) positions[i]);
+                if (hasSymbols && symbols[i] >= 0) {
+                    buffer.setSymbol(i, symbols[i]);
+                }
+            }
+            return buffer;
+        }
+        
+        public int getTokenCount(TokenType type) {
+            return tokenCounts[type.ordinal()];
+        }
+        
+        public int getTotalTokens() {
+            return totalTokens;
+        }
+        
+        public int getLinesProcessed() {
+            return linesProcessed;
+        }
+        
+        public int getCommentsRemoved() {
+            return commentsRemoved;
+        }
+        
+        public SymbolTable getSymbolTable() {
+            return symbolTable;
+        }
+        
+        public ErrorHandler getErrorHandler() {
+            return errorHandler;
+        }
+    }
+    
+    private final Path directory;
+    private final long maxBytes;
+    
+    // Entry sizes by key, least recently used first
+    private final LinkedHashMap<Long, Long> index;
+    private long totalBytes;
+    
+    // Statistics
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder invalid;
+    private final LongAdder evictions;
+    
+    /**
+     * Constructor
+     * @param directory Cache directory (created if missing)
+     * @param maxBytes Size limit of all entries together
+     * @throws IOException if the directory cannot be created or listed
+     */
+    public TokenCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Negative cache size: " + maxBytes);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        this.index = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.invalid = new LongAdder();
+        this.evictions = new LongAdder();
+        
+        // Rebuild the recency order from modification times
+        List<Object[]> entries = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) list::iterator) {
+                String name = file.getFileName().toString();
+                if (name.length() == 16 + EXTENSION.length() && name.endsWith(EXTENSION)) {
+                    try {
+                        long key = Long.parseUnsignedLong(name.substring(0, 16), 16);
+                        entries.add(new Object[] {key, Files.size(file), Files.getLastModifiedTime(file)});
+                    } catch (NumberFormatException | NoSuchFileException e) {
+                        // Not an entry, or deleted meanwhile
+                    }
+                }
+            }
+        }
+        entries.sort((a, b) -> ((FileTime) a[2]).compareTo((FileTime) b[2]));
+        for (Object[] entry : entries) {
+            index.put((Long) entry[0], (Long) entry[1]);
+            totalBytes += (Long) entry[1];
+        }
+        evict();
+    }
+    
+    /**
+     * Constructor with the default size limit
+     * @param directory Cache directory (created if missing)
+     * @throws IOException if the directory cannot be created or listed
+     */
+    public TokenCache(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_BYTES);
+    }
+    
+    // ==================== Keys ====================
+    
+    /**
+     * Compute the cache key of a source file: the hash of its bytes, seeded
+     * with the scanner version
+     * @param file Source file
+     * @return Key
+     * @throws IOException if the file cannot be read
+     */
+    public static long key(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to cache: " + file);
+            }
+            return hash(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), ManualScanner.VERSION);
+        }
+    }
+    
+    /**
+     * xxHash64 of the remaining bytes of a buffer
+     * @param data Bytes (position and limit are not changed)
+     * @param seed Seed
+     * @return Hash
+     */
+    public static long hash(ByteBuffer data, long seed) {
+        ByteBuffer in = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int p = in.position();
+        int end = in.limit();
+        long length = end - p;
+        long h;
+        if (length >= 32) {
+            long v1 = seed + PRIME1 + PRIME2;
+            long v2 = seed + PRIME2;
+            long v3 = seed;
+            long v4 = seed - PRIME1;
+            for (; p <= end - 32; p += 32) {
+                v1 = round(v1, in.getLong(p));
+                v2 = round(v2, in.getLong(p + 8));
+                v3 = round(v3, in.getLong(p + 16));
+                v4 = round(v4, in.getLong(p + 24));
+            }
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = mergeRound(h, v1);
+            h = mergeRound(h, v2);
+            h = mergeRound(h, v3);
+            h = mergeRound(h, v4);
+        } else {
+            h = seed + PRIME5;
+        }
+        h += length;
+        for (; p <= end - 8; p += 8) {
+            h ^= round(0, in.getLong(p));
+            h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+        }
+        if (p <= end - 4) {
+            h ^= (in.getInt(p) & 0xFFFFFFFFL) * PRIME1;
+            h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+            p += 4;
+        }
+        for (; p < end; p++) {
+            h ^= (in.get(p) & 0xFFL) * PRIME5;
+            h = Long.rotateLeft(h, 11) * PRIME1;
+        }
+        h ^= h >>> 33;
+        h *= PRIME2;
+        h ^= h >>> 29;
+        h *= PRIME3;
+        h ^= h >>> 32;
+        return h;
+    }
+    
+    private static long round(long acc, long input) {
+        acc += input * PRIME2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME1;
+    }
+    
+    private static long mergeRound(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * PRIME1 + PRIME4;
+    }
+    
+    private Path entryPath(long key) {
+        return directory.resolve(String.format("%016x", key) + EXTENSION);
+    }
+    
+    // ==================== Lookup ====================
+    
+    /**
+     * Load the scan results of a source file
+     * @param key Key of the file (see key())
+     * @return Cached results, or null if there is no valid entry
+     */
+    public Entry get(long key) {
+        Path file = entryPath(key);
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            misses.increment();
+            forget(key);
+            return null;
+        }
+        
+        Entry entry;
+        try {
+            entry = read(data, key);
+        } catch (IllegalStateException | BufferUnderflowException | IndexOutOfBoundsException
+                 | ArithmeticException e) {
+            // Corrupt, truncated or written by another scanner version
+            invalid.increment();
+            misses.increment();
+            remove(key);
+            return null;
+        }
+        
+        hits.increment();
+        synchronized (this) {
+            index.get(key);
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Recency is only lost for the next run
+        }
+        return entry;
+    }
+    
+    /**
+     * Check an entry and decode everything but its tokens
+     */
+    private static Entry read(ByteBuffer data, long key) {
+        data.order(ByteOrder.LITTLE_ENDIAN);
+        int size = data.limit();
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+            throw new IllegalStateException("Entry too short");
+        }
+        if (data.getInt(0) != MAGIC || data.getInt(4) != FORMAT_VERSION
+            || data.getInt(8) != ManualScanner.VERSION || data.getInt(12) != TYPES.length
+            || data.getLong(16) != key) {
+            throw new IllegalStateException("Entry header does not match");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(data.duplicate().position(0).limit(size - TRAILER_SIZE));
+        if (crc.getValue() != data.getLong(size - TRAILER_SIZE)) {
+            throw new IllegalStateException("Entry checksum does not match");
+        }
+        ByteBuffer body = data.slice(HEADER_SIZE, size - HEADER_SIZE - TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        return new Entry(body);
+    }
+    
+    private static String readString(ByteBuffer data) {
+        int length = data.getInt();
+        if (length < 0) {
+            if (length != -1) {
+                throw new IllegalStateException("Invalid string length " + length);
+            }
+            return null;
+        }
+        if (length > data.remaining() / 2) {
+            throw new IllegalStateException("String exceeds entry");
+        }
+        char[] chars = new char[length];
+        data.asCharBuffer().get(chars);
+        data.position(data.position() + 2 * length);
+        return new String(chars);
+    }
+    
+    // ==================== Storage ====================
+    
+    /**
+     * Store the results of a finished scan
+     * @param key Key of the scanned file (see key())
+     * @param scanner Scanner that has scanned the whole file with scan()
+     * @throws IOException if the entry cannot be written
+     */
+    public void put(long key, ManualScanner scanner) throws IOException {
+        Path temp = Files.createTempFile(directory, "entry", ".tmp");
+        try {
+            EntryOutput out = new EntryOutput(HEADER_SIZE + TRAILER_SIZE + 32 * scanner.getTokenBuffer().size());
+            write(out, key, scanner);
+            ByteBuffer data = out.finish();
+            long size = data.remaining();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+            Path target = entryPath(key);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                Long old = index.put(key, size);
+                totalBytes += size - (old != null ? old : 0);
+            }
+            evict();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private static void write(EntryOutput out, long key, ManualScanner scanner) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(ManualScanner.VERSION);
+        out.writeInt(TYPES.length);
+        out.writeLong(key);
+        
+        out.writeInt(scanner.getTotalTokens());
+        out.writeInt(scanner.getLinesProcessed());
+        out.writeInt(scanner.getCommentsRemoved());
+        for (TokenType type : TYPES) {
+            out.writeInt(scanner.getTokenCount(type));
+        }
+        
+        // Symbol IDs are written as positions in the symbol table's insertion order
+        SymbolTable symbols = scanner.getSymbolTable();
+        int symbolCount = symbols.getUniqueIdentifierCount();
+        int[] positions = new int[0];
+        for (int i = 0; i < symbolCount; i++) {
+            int id = symbols.getIdAt(i);
+            if (id >= positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(id + 1, positions.length * 2));
+            }
+            positions[id] = i;
+        }
+        
+        TokenBuffer tokens = scanner.getTokenBuffer();
+        int n = tokens.size();
+        boolean hasSymbols = n > 0 && symbolCount > 0;
+        out.writeInt(n);
+        out.writeByte(hasSymbols ? 1 : 0);
+        for (int i = 0; i < n; i++) {
+            out.writeLong(((long) tokens.getLine(i) << 32) | (tokens.getColumn(i) & 0xFFFFFFFFL));
+        }
+        for (int i = 0; i < n; i++) {
+            out.writeInt(tokens.getStart(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.writeInt(tokens.getLength(i));
+        }
+        if (hasSymbols) {
+            for (int i = 0; i < n; i++) {
+                int id = tokens.getSymbol(i);
+                out.writeInt(id >= 0 ? positions[id] : -1);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            out.writeByte(tokens.getType(i).ordinal());
+        }
+        
+        out.writeInt(symbolCount);
+        for (int i = 0; i < symbolCount; i++) {
+            int id = symbols.getIdAt(i);
+            out.writeInt(symbols.getFirstLine(id));
+            out.writeInt(symbols.getFirstColumn(id));
+            out.writeInt(symbols.getFrequency(id));
+            out.writeString(symbols.getName(id));
+        }
+        
+        ErrorHandler errors = scanner.getErrorHandler();
+        out.writeInt(errors.getMaxErrors());
+        out.writeInt(errors.getErrorCount());
+        out.writeInt(errors.getStoredErrorCount());
+        for (int i = 0; i < errors.getStoredErrorCount(); i++) {
+            ErrorCode code = errors.getCode(i);
+            out.writeByte(code.ordinal());
+            out.writeInt(errors.getLine(i));
+            out.writeInt(errors.getColumn(i));
+            out.writeString(code.getFixedLexeme() == null ? errors.getLexeme(i) : null);
+            out.writeString(code.getFixedReason() == null ? errors.getReason(i) : null);
+        }
+    }
+    
+    /**
+     * Growable little-endian buffer an entry is assembled in
+     */
+    private static final class EntryOutput {
+        private ByteBuffer buffer;
+        
+        EntryOutput(int capacity) {
+            buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        
+        private ByteBuffer reserve(int bytes) {
+            if (buffer.remaining() < bytes) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.flip();
+                buffer = grown.put(buffer);
+            }
+            return buffer;
+        }
+        
+        void writeByte(int value) {
+            reserve(1).put((byte) value);
+        }
+        
+        void writeInt(int value) {
+            reserve(4).putInt(value);
+        }
+        
+        void writeLong(long value) {
+            reserve(8).putLong(value);
+        }
+        
+        void writeString(String value) {
+            if (value == null) {
+                writeInt(-1);
+                return;
+            }
+            reserve(4 + 2 * value.length()).putInt(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                buffer.putChar(value.charAt(i));
+            }
+        }
+        
+        /**
+         * Append the checksum trailer
+         * @return The complete entry
+         */
+        ByteBuffer finish() {
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.array(), 0, buffer.position());
+            writeLong(crc.getValue());
+            return buffer.flip();
+        }
+    }
+    
+    // ==================== Eviction ====================
+    
+    private synchronized void forget(long key) {
+        Long size = index.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+    
+    /**
+     * Delete an entry
+     */
+    private void remove(long key) {
+        forget(key);
+        try {
+            Files.deleteIfExists(entryPath(key));
+        } catch (IOException e) {
+            // Rewritten or deleted on a later miss
+        }
+    }
+    
+    /**
+     * Delete least recently used entries until the cache fits its size limit
+     */
+    private void evict() {
+        while (true) {
+            long key;
+            synchronized (this) {
+                if (totalBytes <= maxBytes || index.isEmpty()) {
+                    return;
+                }
+                Map.Entry<Long, Long> eldest = index.entrySet().iterator().next();
+                key = eldest.getKey();
+            }
+            remove(key);
+            evictions.increment();
+        }
+    }
+    
+    // ==================== Statistics ====================
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    /**
+     * Get the number of entries deleted because they were corrupt or stale
+     */
+    public long getInvalidEntries() {
+        return invalid.sum();
+    }
+    
+    public long getEvictions() {
+        return evictions.sum();
+    }
+    
+    /**
+     * Get the total size of all entries in bytes
+     */
+    public synchronized long getSize() {
+        return totalBytes;
+    }
+    
+    public synchronized int getEntryCount() {
+        return index.size();
+    }
+}
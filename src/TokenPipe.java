@@ -0,0 +1,209 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TokenPipe Class
+ * Runs a ManualScanner on its own thread and hands its tokens to a single
+ * consumer thread in batches, through a lock-free single-producer /
+ * single-consumer ring of reusable batches. Each side only publishes its
+ * batch counter (an ordered store), so there are no locks and, once running,
+ * no allocation per token or per batch. Read it through a TokenWindow.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class TokenPipe {
+    
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_BATCHES = 8;
+    
+    // Busy-wait this many times before parking while the other side catches up
+    private static final int SPIN_LIMIT = 200;
+    private static final long PARK_NANOS = 20_000;
+    
+    /**
+     * A batch of tokens in parallel arrays. Starts are source offsets, or
+     * offsets into text when the scanner is streaming.
+     */
+    static final class Batch {
+        final byte[] types;
+        final int[] starts;
+        final int[] lengths;
+        final long[] positions;     // line << 32 | column
+        final StringBuilder text;   // Copied lexemes (streaming only)
+        int size;
+        
+        Batch(int capacity) {
+            this.types = new byte[capacity];
+            this.starts = new int[capacity];
+            this.lengths = new int[capacity];
+            this.positions = new long[capacity];
+            this.text = new StringBuilder();
+        }
+    }
+    
+    private final ManualScanner scanner;
+    private final CharSequence source;
+    private final Batch[] batches;
+    
+    // Batches filled by the producer and released by the consumer (each written by one side only)
+    private final AtomicLong published;
+    private final AtomicLong released;
+    private long knownReleased;     // Producer's copy of released
+    private long knownPublished;    // Consumer's copy of published
+    private long taken;             // Consumer: batches taken and released
+    
+    private volatile boolean done;  // Producer has stopped
+    private volatile boolean cancelled;
+    private volatile RuntimeException failure;
+    private Thread thread;
+    
+    /**
+     * Constructor
+     * @param scanner Scanner that has not been read yet
+     */
+    public TokenPipe(ManualScanner scanner) {
+        this(scanner, DEFAULT_BATCH_SIZE, DEFAULT_BATCHES);
+    }
+    
+    /**
+     * Constructor
+     * @param scanner Scanner that has not been read yet
+     * @param batchSize Tokens per batch
+     * @param batchCount Number of batches in the ring
+     */
+    public TokenPipe(ManualScanner scanner, int batchSize, int batchCount) {
+        if (batchSize < 1 || batchCount < 2) {
+            throw new IllegalArgumentException("Invalid pipe size: " + batchCount + " batches of " + batchSize);
+        }
+        this.scanner = scanner;
+        this.source = scanner.getSource();
+        this.batches = new Batch[batchCount];
+        for (int i = 0; i < batchCount; i++) {
+            batches[i] = new Batch(batchSize);
+        }
+        this.published = new AtomicLong();
+        this.released = new AtomicLong();
+    }
+    
+    /**
+     * Start scanning on a new (daemon) thread
+     * @return this pipe
+     */
+    public TokenPipe start() {
+        if (thread != null) {
+            throw new IllegalStateException("Token pipe already started");
+        }
+        thread = new Thread(this::produce, "TokenPipe-scanner");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+    
+    /**
+     * Stop the scanner thread early (the consumer must not read any more)
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    /**
+     * Get the source that token offsets point into
+     * @return Shared source, or null if lexemes are copied into the batches
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+    
+    /**
+     * Producer loop: fill free batches until EOF
+     */
+    private void produce() {
+        try {
+            boolean copyText = source == null;
+            TokenType type = null;
+            long index = 0;
+            while (type != TokenType.EOF) {
+                int spins = 0;
+                while (index - knownReleased == batches.length) {
+                    knownReleased = released.get();
+                    if (index - knownReleased == batches.length) {
+                        if (cancelled) {
+                            return;
+                        }
+                        pause(spins++);
+                    }
+                }
+                
+                Batch batch = batches[(int) (index % batches.length)];
+                batch.size = 0;
+                batch.text.setLength(0);
+                while (batch.size < batch.types.length) {
+                    type = scanner.nextTokenType();
+                    if (type == null) {
+                        throw new IllegalStateException("Scanner has already been read to the end");
+                    }
+                    add(batch, type, copyText);
+                    if (type == TokenType.EOF) {
+                        break;
+                    }
+                }
+                published.lazySet(++index);
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            done = true;
+        }
+    }
+    
+    private void add(Batch batch, TokenType type, boolean copyText) {
+        int i = batch.size++;
+        int length = scanner.getTokenLength();
+        batch.types[i] = (byte) type.ordinal();
+        batch.lengths[i] = length;
+        batch.positions[i] = ((long) scanner.getTokenLine() << 32) | (scanner.getTokenColumn() & 0xFFFFFFFFL);
+        if (!copyText) {
+            batch.starts[i] = scanner.getTokenStart();
+        } else {
+            batch.starts[i] = batch.text.length();
+            if (type.fixedLexeme(length) == null) {
+                scanner.appendTokenText(batch.text);
+            }
+        }
+    }
+    
+    /**
+     * Wait for the next filled batch (consumer side)
+     * @return Batch, valid until release()
+     */
+    Batch take() {
+        int spins = 0;
+        while (taken == knownPublished) {
+            knownPublished = published.get();
+            if (taken == knownPublished) {
+                if (done && (knownPublished = published.get()) == taken) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    throw new IllegalStateException("Token pipe closed before EOF");
+                }
+                pause(spins++);
+            }
+        }
+        return batches[(int) (taken % batches.length)];
+    }
+    
+    /**
+     * Hand the batch returned by take() back to the producer (consumer side)
+     */
+    void release() {
+        released.lazySet(++taken);
+    }
+    
+    private static void pause(int spins) {
+        if (spins < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
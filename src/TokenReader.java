@@ -0,0 +1,312 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * TokenReader Class
+ * Reader of the binary token format written by TokenWriter. It decodes the
+ * tokens in place from a ByteBuffer (heap, direct or memory-mapped) without
+ * copying it; a lexeme is only decoded when lexeme() or token() asks for it,
+ * and identifier names are decoded once per symbol.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class TokenReader {
+    
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int IDENTIFIER = TokenType.IDENTIFIER.ordinal();
+    
+    private final ByteBuffer data;
+    private int position;               // Offset of the next token in data
+    private boolean ended;
+    
+    // Current token
+    private int type = -1;
+    private long start;
+    private int length;
+    private int line;
+    private int column;
+    private int symbol;                 // Symbol index of an identifier, -1 otherwise
+    private int lexemePosition;         // Offset of the lexeme characters, -1 for fixed spellings
+    private String lexeme;
+    
+    // Previous token
+    private long previousEnd;
+    private int previousLine;
+    private int previousEndColumn;
+    
+    // Symbols by index: offset of the name's characters, and the name once decoded
+    private int[] symbolPositions;
+    private String[] symbolNames;
+    private int symbolCount;
+    
+    /**
+     * Constructor: checks the stream header
+     * @param data Token stream from its position to its limit (not modified)
+     * @throws IllegalStateException if the header does not match this format
+     */
+    public TokenReader(ByteBuffer data) {
+        this.data = data;
+        this.position = data.position();
+        this.previousLine = 1;
+        this.previousEndColumn = 1;
+        this.symbolPositions = new int[64];
+        this.symbolNames = new String[64];
+        
+        if (data.remaining() < 4 || data.getInt(position) != TokenWriter.MAGIC) {
+            throw new IllegalStateException("Not a token stream");
+        }
+        position += 4;
+        long version = readVarint();
+        if (version != TokenWriter.FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported token stream version " + version);
+        }
+        long types = readVarint();
+        if (types != TYPES.length) {
+            throw new IllegalStateException("Token stream has " + types + " token types, expected " + TYPES.length);
+        }
+    }
+    
+    /**
+     * Move to the next token
+     * @return false at the end of the stream
+     * @throws IllegalStateException if the stream is truncated or corrupt
+     */
+    public boolean next() {
+        if (ended) {
+            return false;
+        }
+        int ordinal = readByte() & 0xFF;
+        if (ordinal == TokenWriter.END) {
+            ended = true;
+            type = -1;
+            return false;
+        }
+        if (ordinal >= TYPES.length) {
+            throw new IllegalStateException("Invalid token type " + ordinal + " at offset " + (position - 1));
+        }
+        type = ordinal;
+        start = previousEnd + unzigzag(readVarint());
+        int lineDelta = (int) unzigzag(readVarint());
+        line = previousLine + lineDelta;
+        int columnValue = (int) unzigzag(readVarint());
+        column = lineDelta == 0 ? previousEndColumn + columnValue : columnValue;
+        int implied = TokenWriter.IMPLIED_LENGTHS[ordinal];
+        length = implied >= 0 ? implied : (int) readVarint();
+        if (length < 0) {
+            throw new IllegalStateException("Invalid token length at offset " + position);
+        }
+        
+        symbol = -1;
+        lexemePosition = -1;
+        lexeme = null;
+        if (TYPES[ordinal].fixedLexeme(length) == null) {
+            if (ordinal == IDENTIFIER) {
+                long reference = readVarint();
+                if (reference == 0) {
+                    symbol = defineSymbol(position);
+                    lexemePosition = position;
+                    skipChars(length);
+                } else if (reference > symbolCount) {
+                    throw new IllegalStateException("Undefined symbol " + (reference - 1) + " at offset " + position);
+                } else {
+                    symbol = (int) reference - 1;
+                    lexemePosition = symbolPositions[symbol];
+                }
+            } else {
+                lexemePosition = position;
+                skipChars(length);
+            }
+        }
+        
+        previousEnd = start + length;
+        previousLine = line;
+        previousEndColumn = column + length;
+        return true;
+    }
+    
+    private int defineSymbol(int namePosition) {
+        if (symbolCount == symbolPositions.length) {
+            symbolPositions = Arrays.copyOf(symbolPositions, symbolCount * 2);
+            symbolNames = Arrays.copyOf(symbolNames, symbolCount * 2);
+        }
+        symbolPositions[symbolCount] = namePosition;
+        return symbolCount++;
+    }
+    
+    private byte readByte() {
+        if (position >= data.limit()) {
+            throw new IllegalStateException("Token stream ends without end marker");
+        }
+        return data.get(position++);
+    }
+    
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint too long at offset " + position);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    /**
+     * Skip the varint-encoded characters of a lexeme
+     */
+    private void skipChars(int count) {
+        while (count > 0) {
+            if (readByte() >= 0) {
+                count--;
+            }
+        }
+    }
+    
+    private String decodeChars(int at, int count) {
+        char[] chars = new char[count];
+        int p = at;
+        for (int i = 0; i < count; i++) {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data.get(p++);
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            chars[i] = (char) value;
+        }
+        return new String(chars);
+    }
+    
+    // ==================== Current token ====================
+    
+    private void checkToken() {
+        if (type < 0) {
+            throw new IllegalStateException(ended ? "End of token stream" : "next() has not been called");
+        }
+    }
+    
+    public TokenType type() {
+        checkToken();
+        return TYPES[type];
+    }
+    
+    /**
+     * Get the offset of the current token in its source
+     */
+    public long start() {
+        checkToken();
+        return start;
+    }
+    
+    public int length() {
+        checkToken();
+        return length;
+    }
+    
+    public int line() {
+        checkToken();
+        return line;
+    }
+    
+    public int column() {
+        checkToken();
+        return column;
+    }
+    
+    /**
+     * Get the symbol index of the current identifier (order of first occurrence in the stream)
+     * @return Index, or -1 if the token is not an identifier
+     */
+    public int symbol() {
+        checkToken();
+        return symbol;
+    }
+    
+    /**
+     * Get the lexeme of the current token
+     * @return Lexeme (shared constant for fixed-spelling tokens)
+     */
+    public String lexeme() {
+        checkToken();
+        if (lexeme == null) {
+            if (lexemePosition < 0) {
+                lexeme = TYPES[type].fixedLexeme(length);
+            } else if (symbol >= 0) {
+                if (symbolNames[symbol] == null) {
+                    symbolNames[symbol] = decodeChars(lexemePosition, length);
+                }
+                lexeme = symbolNames[symbol];
+            } else {
+                lexeme = decodeChars(lexemePosition, length);
+            }
+        }
+        return lexeme;
+    }
+    
+    /**
+     * Create a Token object for the current token
+     * @throws IllegalStateException if the token starts past 2 GB (Token offsets are ints; use start())
+     */
+    public Token token() {
+        if (start() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Token offset " + start + " exceeds the int offsets of Token");
+        }
+        return new Token(type(), lexeme(), (int) start, line, column);
+    }
+    
+    /**
+     * Get the number of symbols defined so far
+     */
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+    
+    /**
+     * Read all remaining tokens
+     * @return Tokens in stream order
+     */
+    public List<Token> readAll() {
+        List<Token> tokens = new ArrayList<>();
+        while (next()) {
+            tokens.add(token());
+        }
+        return tokens;
+    }
+    
+    /**
+     * Main method: print the tokens of a binary token file like ManualScanner does
+     * Usage: java TokenReader <token-file>
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: java TokenReader <token-file>");
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(Paths.get(args[0]), StandardOpenOption.READ)) {
+            TokenReader reader = new TokenReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), false);
+            out.println("\n" + "=".repeat(80));
+            out.println("TOKENS");
+            out.println("=".repeat(80));
+            while (reader.next()) {
+                out.println(reader.token());
+            }
+            out.println("=".repeat(80));
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            System.err.println("Invalid token file: " + e.getMessage());
+        }
+    }
+}
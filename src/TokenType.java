@@ -5,18 +5,18 @@
  */
 public enum TokenType {
     // Keywords (case-sensitive)
-    KEYWORD_START,
-    KEYWORD_FINISH,
-    KEYWORD_LOOP,
-    KEYWORD_CONDITION,
-    KEYWORD_DECLARE,
-    KEYWORD_OUTPUT,
-    KEYWORD_INPUT,
-    KEYWORD_FUNCTION,
-    KEYWORD_RETURN,
-    KEYWORD_BREAK,
-    KEYWORD_CONTINUE,
-    KEYWORD_ELSE,
+    KEYWORD_START("start"),
+    KEYWORD_FINISH("finish"),
+    KEYWORD_LOOP("loop"),
+    KEYWORD_CONDITION("condition"),
+    KEYWORD_DECLARE("declare"),
+    KEYWORD_OUTPUT("output"),
+    KEYWORD_INPUT("input"),
+    KEYWORD_FUNCTION("function"),
+    KEYWORD_RETURN("return"),
+    KEYWORD_BREAK("break"),
+    KEYWORD_CONTINUE("continue"),
+    KEYWORD_ELSE("else"),
     
     // Identifiers
     IDENTIFIER,
@@ -26,50 +26,50 @@ public enum TokenType {
     FLOAT_LITERAL,
     STRING_LITERAL,
     CHAR_LITERAL,
-    BOOLEAN_LITERAL,
+    BOOLEAN_LITERAL("true", "false"),
     
     // Arithmetic Operators
-    OP_PLUS,              // +
-    OP_MINUS,             // -
-    OP_MULTIPLY,          // *
-    OP_DIVIDE,            // /
-    OP_MODULO,            // %
-    OP_EXPONENT,          // **
+    OP_PLUS("+"),
+    OP_MINUS("-"),
+    OP_MULTIPLY("*"),
+    OP_DIVIDE("/"),
+    OP_MODULO("%"),
+    OP_EXPONENT("**"),
     
     // Relational Operators
-    OP_EQUAL,             // ==
-    OP_NOT_EQUAL,         // !=
-    OP_LESS_EQUAL,        // <=
-    OP_GREATER_EQUAL,     // >=
-    OP_LESS,              // <
-    OP_GREATER,           // >
+    OP_EQUAL("=="),
+    OP_NOT_EQUAL("!="),
+    OP_LESS_EQUAL("<="),
+    OP_GREATER_EQUAL(">="),
+    OP_LESS("<"),
+    OP_GREATER(">"),
     
     // Logical Operators
-    OP_AND,               // &&
-    OP_OR,                // ||
-    OP_NOT,               // !
+    OP_AND("&&"),
+    OP_OR("||"),
+    OP_NOT("!"),
     
     // Assignment Operators
-    OP_ASSIGN,            // =
-    OP_PLUS_ASSIGN,       // +=
-    OP_MINUS_ASSIGN,      // -=
-    OP_MULTIPLY_ASSIGN,   // *=
-    OP_DIVIDE_ASSIGN,     // /=
+    OP_ASSIGN("="),
+    OP_PLUS_ASSIGN("+="),
+    OP_MINUS_ASSIGN("-="),
+    OP_MULTIPLY_ASSIGN("*="),
+    OP_DIVIDE_ASSIGN("/="),
     
     // Increment/Decrement
-    OP_INCREMENT,         // ++
-    OP_DECREMENT,         // --
+    OP_INCREMENT("++"),
+    OP_DECREMENT("--"),
     
     // Punctuators
-    PUNC_LPAREN,          // (
-    PUNC_RPAREN,          // )
-    PUNC_LBRACE,          // {
-    PUNC_RBRACE,          // }
-    PUNC_LBRACKET,        // [
-    PUNC_RBRACKET,        // ]
-    PUNC_COMMA,           // ,
-    PUNC_SEMICOLON,       // ;
-    PUNC_COLON,           // :
+    PUNC_LPAREN("("),
+    PUNC_RPAREN(")"),
+    PUNC_LBRACE("{"),
+    PUNC_RBRACE("}"),
+    PUNC_LBRACKET("["),
+    PUNC_RBRACKET("]"),
+    PUNC_COMMA(","),
+    PUNC_SEMICOLON(";"),
+    PUNC_COLON(":"),
     
     // Comments (for tracking purposes)
     COMMENT_SINGLE,
@@ -77,6 +77,46 @@ public enum TokenType {
     
     // Special
     WHITESPACE,
-    EOF,
-    ERROR
+    EOF(""),
+    ERROR;
+    
+    private final String[] spellings;
+    
+    /**
+     * Constructor
+     * @param spellings Fixed lexemes of this token type (empty for variable-spelling types)
+     */
+    TokenType(String... spellings) {
+        this.spellings = spellings;
+    }
+    
+    /**
+     * Check if every token of this type has one of a fixed set of lexemes
+     * @return true for keywords, operators, punctuators, booleans and EOF
+     */
+    public boolean hasFixedSpelling() {
+        return spellings.length > 0;
+    }
+    
+    /**
+     * Get the fixed lexemes of this token type
+     * @return Copy of the spellings (empty for variable-spelling types)
+     */
+    public String[] getSpellings() {
+        return spellings.clone();
+    }
+    
+    /**
+     * Get the interned lexeme of a fixed-spelling token
+     * @param length Length of the token in the source
+     * @return Shared lexeme constant, or null if the type has no spelling of that length
+     */
+    public String fixedLexeme(int length) {
+        for (String spelling : spellings) {
+            if (spelling.length() == length) {
+                return spelling;
+            }
+        }
+        return null;
+    }
 }
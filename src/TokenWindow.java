@@ -0,0 +1,284 @@
+/**
+ * TokenWindow Class
+ * Ring buffer holding the current token and a bounded lookahead, filled on
+ * demand from a ManualScanner (fused scanning and parsing), a TokenPipe
+ * (scanner on another thread) or a TokenBuffer. Tokens are forgotten once
+ * they leave the window, so memory does not grow with the token count.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class TokenWindow {
+    
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final byte EOF = (byte) TokenType.EOF.ordinal();
+    private static final byte ERROR = (byte) TokenType.ERROR.ordinal();
+    
+    // Token source (exactly one is set)
+    private final ManualScanner scanner;
+    private final TokenPipe pipe;
+    private final TokenBuffer buffer;
+    private final CharSequence source;      // Shared text, or null if lexemes are copied into the slots
+    
+    // Slots (ring of a power-of-two size)
+    private final int lookahead;
+    private final int mask;
+    private final byte[] types;
+    private final int[] indexes;            // Position in the token stream
+    private final int[] starts;             // Offset into source, or into the slot text
+    private final int[] lengths;
+    private final long[] positions;         // line << 32 | column
+    private final StringBuilder[] texts;    // Copied lexemes (streaming only)
+    
+    private int head;                       // Slot of the current token
+    private int count;                      // Filled slots from head on
+    private int next;                       // Stream index of the next token to read
+    private boolean ended;                  // EOF has been read
+    private boolean skipErrors;
+    
+    // Pipe batch being read
+    private TokenPipe.Batch batch;
+    private int batchPos;
+    
+    /**
+     * Constructor for fused scanning: tokens are scanned when first looked at
+     * @param scanner Scanner that has not been read yet
+     * @param lookahead Number of visible tokens, including the current one
+     */
+    public TokenWindow(ManualScanner scanner, int lookahead) {
+        this(scanner, null, null, scanner.getSource(), lookahead);
+    }
+    
+    /**
+     * Constructor for tokens scanned on another thread
+     * @param pipe Started token pipe
+     * @param lookahead Number of visible tokens, including the current one
+     */
+    public TokenWindow(TokenPipe pipe, int lookahead) {
+        this(null, pipe, null, pipe.getSource(), lookahead);
+    }
+    
+    /**
+     * Constructor for an already scanned token stream
+     * @param buffer Tokens, ending with EOF
+     * @param lookahead Number of visible tokens, including the current one
+     */
+    public TokenWindow(TokenBuffer buffer, int lookahead) {
+        this(null, null, buffer, buffer.getSource(), lookahead);
+    }
+    
+    private TokenWindow(ManualScanner scanner, TokenPipe pipe, TokenBuffer buffer, CharSequence source,
+                        int lookahead) {
+        if (lookahead < 1) {
+            throw new IllegalArgumentException("Lookahead must be at least 1: " + lookahead);
+        }
+        this.scanner = scanner;
+        this.pipe = pipe;
+        this.buffer = buffer;
+        this.source = source;
+        this.lookahead = lookahead;
+        
+        int capacity = Integer.highestOneBit(lookahead);
+        if (capacity < lookahead) {
+            capacity <<= 1;
+        }
+        this.mask = capacity - 1;
+        this.types = new byte[capacity];
+        this.indexes = new int[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.positions = new long[capacity];
+        this.texts = new StringBuilder[source == null ? capacity : 0];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = new StringBuilder();
+        }
+    }
+    
+    /**
+     * Drop lexical ERROR tokens from the window (set before the first token is read)
+     */
+    public void setSkipErrors(boolean skipErrors) {
+        this.skipErrors = skipErrors;
+    }
+    
+    /**
+     * Stop reading before EOF: a pipe's scanner thread is cancelled, since it
+     * would otherwise wait forever for free batches (no effect once EOF has been read)
+     */
+    public void cancel() {
+        if (pipe != null && !ended) {
+            pipe.cancel();
+        }
+    }
+    
+    /**
+     * Get the slot of the k-th visible token, reading tokens as needed
+     */
+    private int slot(int k) {
+        if (k >= count) {
+            if (k >= lookahead || k < 0) {
+                throw new IndexOutOfBoundsException("Lookahead " + k + " out of bounds for window size " + lookahead);
+            }
+            while (count <= k) {
+                fill((head + count) & mask);
+                count++;
+            }
+        }
+        return (head + k) & mask;
+    }
+    
+    /**
+     * Read the next token into a slot (after EOF, the slot repeats EOF)
+     */
+    private void fill(int slot) {
+        if (ended) {
+            int last = (slot - 1) & mask;
+            types[slot] = EOF;
+            indexes[slot] = indexes[last];
+            starts[slot] = starts[last];
+            lengths[slot] = lengths[last];
+            positions[slot] = positions[last];
+            return;
+        }
+        do {
+            read(slot);
+        } while (skipErrors && types[slot] == ERROR);
+        ended = types[slot] == EOF;
+    }
+    
+    private void read(int slot) {
+        indexes[slot] = next++;
+        if (scanner != null) {
+            TokenType type = scanner.nextTokenType();
+            if (type == null) {
+                throw new IllegalStateException("Scanner has already been read to the end");
+            }
+            types[slot] = (byte) type.ordinal();
+            lengths[slot] = scanner.getTokenLength();
+            positions[slot] = ((long) scanner.getTokenLine() << 32) | (scanner.getTokenColumn() & 0xFFFFFFFFL);
+            if (source != null) {
+                starts[slot] = scanner.getTokenStart();
+            } else {
+                starts[slot] = 0;
+                texts[slot].setLength(0);
+                if (type.fixedLexeme(lengths[slot]) == null) {
+                    scanner.appendTokenText(texts[slot]);
+                }
+            }
+        } else if (pipe != null) {
+            if (batch == null || batchPos == batch.size) {
+                if (batch != null) {
+                    pipe.release();
+                }
+                batch = pipe.take();
+                batchPos = 0;
+            }
+            types[slot] = batch.types[batchPos];
+            lengths[slot] = batch.lengths[batchPos];
+            positions[slot] = batch.positions[batchPos];
+            if (source != null) {
+                starts[slot] = batch.starts[batchPos];
+            } else {
+                int start = batch.starts[batchPos];
+                starts[slot] = 0;
+                texts[slot].setLength(0);
+                if (TYPES[types[slot]].fixedLexeme(lengths[slot]) == null) {
+                    texts[slot].append(batch.text, start, start + lengths[slot]);
+                }
+            }
+            batchPos++;
+            if (types[slot] == EOF) {
+                pipe.release();
+                batch = null;
+            }
+        } else {
+            int index = indexes[slot];
+            if (index >= buffer.size()) {
+                throw new IllegalStateException("Token stream does not end with EOF");
+            }
+            types[slot] = (byte) buffer.getType(index).ordinal();
+            starts[slot] = buffer.getStart(index);
+            lengths[slot] = buffer.getLength(index);
+            positions[slot] = ((long) buffer.getLine(index) << 32) | (buffer.getColumn(index) & 0xFFFFFFFFL);
+        }
+    }
+    
+    /**
+     * Move to the next token (the window stays on EOF at the end)
+     */
+    public void advance() {
+        if (types[slot(0)] != EOF) {
+            head = (head + 1) & mask;
+            count--;
+        }
+    }
+    
+    /**
+     * Get the type of the current token
+     */
+    public TokenType type() {
+        return TYPES[types[slot(0)]];
+    }
+    
+    /**
+     * Get the type of the k-th token after the current one
+     * @param k 0 for the current token, up to lookahead - 1
+     */
+    public TokenType type(int k) {
+        return TYPES[types[slot(k)]];
+    }
+    
+    /**
+     * Get the position of the current token in the token stream
+     */
+    public int index() {
+        return indexes[slot(0)];
+    }
+    
+    /**
+     * Get the offset of the current token in text()
+     */
+    public int start() {
+        return starts[slot(0)];
+    }
+    
+    public int length() {
+        return lengths[slot(0)];
+    }
+    
+    public int line() {
+        return (int) (positions[slot(0)] >>> 32);
+    }
+    
+    public int column() {
+        return (int) positions[slot(0)];
+    }
+    
+    /**
+     * Get the text that start() points into: the shared source, or a copy of
+     * the current lexeme (valid until advance()) when the scanner is streaming
+     */
+    public CharSequence text() {
+        return source != null ? source : texts[slot(0)];
+    }
+    
+    /**
+     * Get the shared source all tokens point into
+     * @return Source, or null if lexemes are copied
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+    
+    /**
+     * Materialize the lexeme of the current token
+     * @return Lexeme (shared constant for fixed-spelling tokens)
+     */
+    public String getLexeme() {
+        int slot = slot(0);
+        String fixed = TYPES[types[slot]].fixedLexeme(lengths[slot]);
+        if (fixed != null) {
+            return fixed;
+        }
+        CharSequence text = source != null ? source : texts[slot];
+        return text.subSequence(starts[slot], starts[slot] + lengths[slot]).toString();
+    }
+}
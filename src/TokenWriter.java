@@ -0,0 +1,300 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * TokenWriter Class
+ * Streaming writer of the binary token format read by TokenReader.
+ * A stream starts with a header (magic "SLTK", format version and the number
+ * of token types) and ends with an end marker. Each token is a type ordinal
+ * byte followed by varints: the gap to the previous token's end offset, the
+ * line delta and the column (relative to the end of the previous token on
+ * the same line), all zigzag encoded; the length unless the type has a single
+ * spelling; and the lexeme unless the type has a fixed spelling of that
+ * length. An identifier's name is written at its first occurrence only;
+ * later occurrences refer to it by symbol index (order of first occurrence).
+ * Lexeme characters are written as one varint each (one byte for ASCII).
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class TokenWriter implements Closeable, Flushable {
+    
+    public static final int MAGIC = 0x534C544B;     // "SLTK"
+    public static final int FORMAT_VERSION = 1;
+    static final int END = 0xFF;                    // End marker in place of a type ordinal
+    
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int IDENTIFIER = TokenType.IDENTIFIER.ordinal();
+    
+    // Length of every token of a type (-1 if it must be written)
+    static final int[] IMPLIED_LENGTHS = new int[TYPES.length];
+    
+    static {
+        for (TokenType type : TYPES) {
+            String[] spellings = type.getSpellings();
+            IMPLIED_LENGTHS[type.ordinal()] = spellings.length == 1 ? spellings[0].length() : -1;
+        }
+    }
+    
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int size;
+    private boolean closed;
+    
+    // Previous token
+    private long previousEnd;
+    private int previousLine;
+    private int previousEndColumn;
+    private long tokens;
+    private long bytesWritten;
+    
+    // Symbol index of each identifier already written, by scanner symbol ID or by name
+    private int[] symbolIndexes;        // Symbol ID -> index + 1 (0 = not written yet)
+    private final Map<String, Integer> symbolsByName;
+    private int symbolCount;
+    private final StringBuilder scratch;
+    
+    /**
+     * Constructor: writes the stream header
+     * @param out Destination (closed by close())
+     * @throws IOException if the header cannot be written
+     */
+    public TokenWriter(OutputStream out) throws IOException {
+        this.out = out;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.previousLine = 1;
+        this.previousEndColumn = 1;
+        this.symbolIndexes = new int[64];
+        this.symbolsByName = new HashMap<>();
+        this.scratch = new StringBuilder();
+        
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (MAGIC >>> shift);
+        }
+        writeVarint(FORMAT_VERSION);
+        writeVarint(TYPES.length);
+    }
+    
+    /**
+     * Write one token
+     * @param type Token type
+     * @param text Text the lexeme is a slice of (unused for fixed-spelling tokens)
+     * @param start Offset of the token in the source
+     * @param textStart Offset of the lexeme in text
+     * @param length Number of characters
+     * @param line Line number
+     * @param column Column number
+     * @param symbol Symbol table ID of an identifier, or -1 to look the name up
+     * @throws IOException if the destination fails
+     */
+    public void write(TokenType type, CharSequence text, long start, int textStart, int length, int line,
+                      int column, int symbol) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Token writer is closed");
+        }
+        int ordinal = type.ordinal();
+        int implied = IMPLIED_LENGTHS[ordinal];
+        if (implied >= 0 && length != implied) {
+            throw new IllegalArgumentException(type + " token of length " + length);
+        }
+        // Type, three varints of at most 10 bytes each and the length
+        if (size > BUFFER_SIZE - 64) {
+            flushBuffer();
+        }
+        buffer[size++] = (byte) ordinal;
+        writeVarint(zigzag(start - previousEnd));
+        writeVarint(zigzag(line - previousLine));
+        writeVarint(zigzag(line == previousLine ? column - previousEndColumn : column));
+        if (implied < 0) {
+            writeVarint(length);
+        }
+        
+        if (type.fixedLexeme(length) == null) {
+            if (ordinal == IDENTIFIER) {
+                int index = symbolIndex(text, textStart, length, symbol);
+                writeVarint(index < 0 ? 0 : index + 1);
+                if (index < 0) {
+                    writeChars(text, textStart, length);
+                }
+            } else {
+                writeChars(text, textStart, length);
+            }
+        }
+        
+        previousEnd = start + length;
+        previousLine = line;
+        previousEndColumn = column + length;
+        tokens++;
+    }
+    
+    /**
+     * Find the symbol index of an identifier, registering it if it is new
+     * @return Index, or -1 if this is the first occurrence
+     */
+    private int symbolIndex(CharSequence text, int start, int length, int symbol) {
+        if (symbol >= 0) {
+            if (symbol >= symbolIndexes.length) {
+                symbolIndexes = Arrays.copyOf(symbolIndexes, Math.max(symbol + 1, symbolIndexes.length * 2));
+            }
+            int index = symbolIndexes[symbol] - 1;
+            if (index < 0) {
+                symbolIndexes[symbol] = ++symbolCount;
+            }
+            return index;
+        }
+        String name = text.subSequence(start, start + length).toString();
+        Integer index = symbolsByName.putIfAbsent(name, symbolCount);
+        if (index == null) {
+            symbolCount++;
+            return -1;
+        }
+        return index;
+    }
+    
+    /**
+     * Write a token object
+     * @param token Token (its lexeme is materialized if it has no fixed spelling)
+     * @throws IOException if the destination fails
+     */
+    public void write(Token token) throws IOException {
+        String lexeme = token.getLexeme();
+        write(token.getType(), lexeme, token.getStart(), 0, lexeme.length(), token.getLine(), token.getColumn(), -1);
+    }
+    
+    /**
+     * Write the token the scanner has just read with nextTokenType() (streaming)
+     * @param scanner Scanner positioned after a token
+     * @param type Type returned by nextTokenType()
+     * @throws IOException if the destination fails
+     */
+    public void write(ManualScanner scanner, TokenType type) throws IOException {
+        int length = scanner.getTokenLength();
+        scratch.setLength(0);
+        if (type.fixedLexeme(length) == null) {
+            scanner.appendTokenText(scratch);
+        }
+        write(type, scratch, scanner.getTokenOffset(), 0, length, scanner.getTokenLine(), scanner.getTokenColumn(), -1);
+    }
+    
+    /**
+     * Write all tokens of a buffer (identifiers are matched by their symbol IDs when attached)
+     * @param tokens Tokens
+     * @throws IOException if the destination fails
+     */
+    public void writeAll(TokenBuffer tokens) throws IOException {
+        CharSequence source = tokens.getSource();
+        for (int i = 0; i < tokens.size(); i++) {
+            TokenType type = tokens.getType(i);
+            int length = tokens.getLength(i);
+            int start = tokens.getStart(i);
+            write(type, source, start, start, length, tokens.getLine(i), tokens.getColumn(i), tokens.getSymbol(i));
+        }
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+    
+    private void writeChars(CharSequence text, int start, int length) throws IOException {
+        for (int i = start; i < start + length; i++) {
+            if (size > BUFFER_SIZE - 3) {
+                flushBuffer();
+            }
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer[size++] = (byte) c;
+            } else {
+                writeVarint(c);
+            }
+        }
+    }
+    
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, size);
+        bytesWritten += size;
+        size = 0;
+    }
+    
+    /**
+     * Get the number of tokens written
+     */
+    public long getTokenCount() {
+        return tokens;
+    }
+    
+    /**
+     * Get the number of bytes written, including buffered bytes
+     */
+    public long getBytesWritten() {
+        return bytesWritten + size;
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+    
+    /**
+     * Write the end marker and close the destination
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (size == BUFFER_SIZE) {
+            flushBuffer();
+        }
+        buffer[size++] = (byte) END;
+        flushBuffer();
+        out.close();
+    }
+    
+    /**
+     * Main method: write the tokens of a source file in binary form
+     * Usage: java TokenWriter [--stream] <input-file> <output-file>
+     */
+    public static void main(String[] args) {
+        boolean stream = args.length == 3 && args[0].equals("--stream");
+        if (args.length != (stream ? 3 : 2)) {
+            System.out.println("Usage: java TokenWriter [--stream] <input-file> <output-file>");
+            return;
+        }
+        String input = args[stream ? 1 : 0];
+        String output = args[stream ? 2 : 1];
+        
+        try {
+            TokenWriter writer = new TokenWriter(new BufferedOutputStream(new FileOutputStream(output)));
+            try {
+                if (stream) {
+                    try (Reader reader = ManualScanner.openSource(input)) {
+                        ManualScanner scanner = new ManualScanner(reader);
+                        TokenType type;
+                        while ((type = scanner.nextTokenType()) != null) {
+                            writer.write(scanner, type);
+                        }
+                    }
+                } else {
+                    ManualScanner scanner = new ManualScanner(ManualScanner.readSource(input));
+                    scanner.scan();
+                    writer.writeAll(scanner.getTokenBuffer());
+                }
+            } finally {
+                writer.close();
+            }
+            System.out.println("Wrote " + writer.getTokenCount() + " tokens (" + writer.getBytesWritten()
+                               + " bytes) to " + output);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+}
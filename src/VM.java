@@ -0,0 +1,700 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * VM Class
+ * Register-based virtual machine for compiled SimpleLang programs. Every
+ * register is a type tag plus an unboxed long slot (integers, booleans and
+ * characters directly, floats as their IEEE bits); strings and arrays use a
+ * parallel reference slot. The dispatch loop switches over the int[] code
+ * array and handles integer operands inline; other operand types take a
+ * slower generic path. A call's arguments are the first registers of the
+ * callee's frame, so no values are copied.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class VM {
+    
+    /** Maximum call depth */
+    public static final int MAX_CALL_DEPTH = 10_000;
+    
+    // Register type tags
+    static final byte NONE = 0;
+    static final byte INT = 1;
+    static final byte FLOAT = 2;
+    static final byte BOOL = 3;
+    static final byte CHAR = 4;
+    static final byte STRING = 5;
+    static final byte ARRAY = 6;
+    
+    private static final String[] TAG_NAMES = {"none", "integer", "float", "boolean", "character", "string", "array"};
+    
+    /**
+     * Error raised while running a program
+     */
+    public static class RuntimeError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int line;
+        
+        RuntimeError(int line, String message) {
+            super(message);
+            this.line = line;
+        }
+        
+        public int getLine() {
+            return line;
+        }
+        
+        @Override
+        public String toString() {
+            return "[RUNTIME ERROR] at Line " + line + ": " + getMessage();
+        }
+    }
+    
+    /**
+     * Array value: elements are stored like registers
+     */
+    private static final class Array {
+        final byte[] tags;
+        final long[] values;
+        final Object[] refs;
+        
+        Array(int length) {
+            tags = new byte[length];
+            values = new long[length];
+            refs = new Object[length];
+            Arrays.fill(tags, INT);
+        }
+    }
+    
+    private final Bytecode program;
+    private final PrintStream out;
+    private final BufferedReader in;
+    
+    // Register file: all frames, main program at 0 (its registers are the globals)
+    private byte[] tags;
+    private long[] values;
+    private Object[] refs;
+    
+    // Call stack: return address, caller frame base and destination register
+    private final int[] returnAddresses;
+    private final int[] returnBases;
+    private final int[] returnTargets;
+    
+    private long instructions;
+    
+    /**
+     * Constructor
+     * @param program Compiled program
+     * @param out Destination of output statements
+     * @param in Source of input statements
+     */
+    public VM(Bytecode program, PrintStream out, Reader in) {
+        this.program = program;
+        this.out = out;
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        int registers = Math.max(program.registerCounts[0], 64);
+        this.tags = new byte[registers];
+        this.values = new long[registers];
+        this.refs = new Object[registers];
+        this.returnAddresses = new int[MAX_CALL_DEPTH];
+        this.returnBases = new int[MAX_CALL_DEPTH];
+        this.returnTargets = new int[MAX_CALL_DEPTH];
+    }
+    
+    /**
+     * Get the number of instructions executed by run() (counted per backward jump and call)
+     */
+    public long getInstructions() {
+        return instructions;
+    }
+    
+    /**
+     * Run the program from the start of the main program
+     * @throws RuntimeError on a runtime error
+     */
+    public void run() {
+        final int[] code = program.code;
+        final long[] integers = program.integers;
+        byte[] tags = this.tags;
+        long[] values = this.values;
+        Object[] refs = this.refs;
+        int pc = program.entries[0];
+        int base = 0;
+        int depth = 0;
+        long branches = 0;
+        
+        try {
+            while (true) {
+                int opcode = code[pc];
+                switch (opcode) {
+                    case Bytecode.HALT:
+                        return;
+                    case Bytecode.LOAD_INT: {
+                        int d = base + code[pc + 1];
+                        tags[d] = INT;
+                        values[d] = integers[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    }
+                    case Bytecode.LOAD_FLOAT: {
+                        int d = base + code[pc + 1];
+                        tags[d] = FLOAT;
+                        values[d] = Double.doubleToRawLongBits(program.floats[code[pc + 2]]);
+                        pc += 3;
+                        break;
+                    }
+                    case Bytecode.LOAD_STRING: {
+                        int d = base + code[pc + 1];
+                        tags[d] = STRING;
+                        refs[d] = program.strings[code[pc + 2]];
+                        pc += 3;
+                        break;
+                    }
+                    case Bytecode.LOAD_CHAR:
+                    case Bytecode.LOAD_BOOL: {
+                        int d = base + code[pc + 1];
+                        tags[d] = opcode == Bytecode.LOAD_CHAR ? CHAR : BOOL;
+                        values[d] = code[pc + 2];
+                        pc += 3;
+                        break;
+                    }
+                    case Bytecode.MOVE:
+                        copy(base + code[pc + 1], base + code[pc + 2]);
+                        pc += 3;
+                        break;
+                    case Bytecode.GET_GLOBAL:
+                        copy(base + code[pc + 1], code[pc + 2]);
+                        pc += 3;
+                        break;
+                    case Bytecode.SET_GLOBAL:
+                        copy(code[pc + 1], base + code[pc + 2]);
+                        pc += 3;
+                        break;
+                    case Bytecode.ADD:
+                    case Bytecode.SUB:
+                    case Bytecode.MUL: {
+                        int d = base + code[pc + 1];
+                        int a = base + code[pc + 2];
+                        int b = base + code[pc + 3];
+                        if (tags[a] == INT && tags[b] == INT) {
+                            long x = values[a];
+                            long y = values[b];
+                            values[d] = opcode == Bytecode.ADD ? x + y : opcode == Bytecode.SUB ? x - y : x * y;
+                            tags[d] = INT;
+                        } else {
+                            arithmetic(opcode, d, a, b, pc);
+                        }
+                        pc += 4;
+                        break;
+                    }
+                    case Bytecode.DIV:
+                    case Bytecode.MOD:
+                    case Bytecode.POW:
+                        arithmetic(opcode, base + code[pc + 1], base + code[pc + 2], base + code[pc + 3], pc);
+                        pc += 4;
+                        break;
+                    case Bytecode.EQ:
+                    case Bytecode.NE:
+                    case Bytecode.LT:
+                    case Bytecode.LE:
+                    case Bytecode.GT:
+                    case Bytecode.GE: {
+                        int d = base + code[pc + 1];
+                        boolean result = compare(opcode, base + code[pc + 2], base + code[pc + 3], pc);
+                        tags[d] = BOOL;
+                        values[d] = result ? 1 : 0;
+                        pc += 4;
+                        break;
+                    }
+                    case Bytecode.NOT: {
+                        int d = base + code[pc + 1];
+                        boolean result = !truth(base + code[pc + 2]);
+                        tags[d] = BOOL;
+                        values[d] = result ? 1 : 0;
+                        pc += 3;
+                        break;
+                    }
+                    case Bytecode.NEG:
+                    case Bytecode.POS:
+                        negate(opcode, base + code[pc + 1], base + code[pc + 2], pc);
+                        pc += 3;
+                        break;
+                    case Bytecode.INC:
+                    case Bytecode.DEC: {
+                        int r = base + code[pc + 1];
+                        if (tags[r] == INT) {
+                            values[r] += opcode == Bytecode.INC ? 1 : -1;
+                        } else {
+                            addImmediate(r, opcode == Bytecode.INC ? 1 : -1, opcode == Bytecode.INC, pc);
+                        }
+                        pc += 2;
+                        break;
+                    }
+                    case Bytecode.ADDI: {
+                        int r = base + code[pc + 1];
+                        if (tags[r] == INT) {
+                            values[r] += code[pc + 2];
+                        } else {
+                            addImmediate(r, code[pc + 2], true, pc);
+                        }
+                        pc += 3;
+                        break;
+                    }
+                    case Bytecode.JUMP: {
+                        int target = code[pc + 1];
+                        if (target <= pc) {
+                            branches++;
+                        }
+                        pc = target;
+                        break;
+                    }
+                    case Bytecode.JUMP_IF_FALSE:
+                        pc = truth(base + code[pc + 1]) ? pc + 3 : code[pc + 2];
+                        break;
+                    case Bytecode.JUMP_IF_NOT_EQ:
+                    case Bytecode.JUMP_IF_NOT_NE:
+                    case Bytecode.JUMP_IF_NOT_LT:
+                    case Bytecode.JUMP_IF_NOT_LE:
+                    case Bytecode.JUMP_IF_NOT_GT:
+                    case Bytecode.JUMP_IF_NOT_GE: {
+                        int a = base + code[pc + 1];
+                        int b = base + code[pc + 2];
+                        boolean result;
+                        if (tags[a] == INT && tags[b] == INT) {
+                            long x = values[a];
+                            long y = values[b];
+                            switch (opcode) {
+                                case Bytecode.JUMP_IF_NOT_EQ:
+                                    result = x == y;
+                                    break;
+                                case Bytecode.JUMP_IF_NOT_NE:
+                                    result = x != y;
+                                    break;
+                                case Bytecode.JUMP_IF_NOT_LT:
+                                    result = x < y;
+                                    break;
+                                case Bytecode.JUMP_IF_NOT_LE:
+                                    result = x <= y;
+                                    break;
+                                case Bytecode.JUMP_IF_NOT_GT:
+                                    result = x > y;
+                                    break;
+                                default:
+                                    result = x >= y;
+                                    break;
+                            }
+                        } else {
+                            result = compare(opcode - Bytecode.JUMP_IF_NOT_EQ + Bytecode.EQ, a, b, pc);
+                        }
+                        pc = result ? pc + 4 : code[pc + 3];
+                        break;
+                    }
+                    case Bytecode.NEW_ARRAY: {
+                        int d = base + code[pc + 1];
+                        int n = base + code[pc + 2];
+                        if (tags[n] != INT || values[n] < 0 || values[n] > Integer.MAX_VALUE - 8) {
+                            throw error(pc, "Invalid array size " + display(n));
+                        }
+                        refs[d] = new Array((int) values[n]);
+                        tags[d] = ARRAY;
+                        pc += 3;
+                        break;
+                    }
+                    case Bytecode.GET_INDEX: {
+                        int d = base + code[pc + 1];
+                        Array array = array(base + code[pc + 2], pc);
+                        int i = index(array, base + code[pc + 3], pc);
+                        tags[d] = array.tags[i];
+                        values[d] = array.values[i];
+                        refs[d] = array.refs[i];
+                        pc += 4;
+                        break;
+                    }
+                    case Bytecode.SET_INDEX: {
+                        Array array = array(base + code[pc + 1], pc);
+                        int i = index(array, base + code[pc + 2], pc);
+                        int s = base + code[pc + 3];
+                        array.tags[i] = tags[s];
+                        array.values[i] = values[s];
+                        array.refs[i] = refs[s];
+                        pc += 4;
+                        break;
+                    }
+                    case Bytecode.CALL: {
+                        int function = code[pc + 2];
+                        if (depth == MAX_CALL_DEPTH) {
+                            throw error(pc, "Call stack overflow (depth " + MAX_CALL_DEPTH + ")");
+                        }
+                        returnAddresses[depth] = pc + 5;
+                        returnBases[depth] = base;
+                        returnTargets[depth] = base + code[pc + 1];
+                        depth++;
+                        branches++;
+                        base += code[pc + 3];
+                        int end = base + program.registerCounts[function];
+                        if (end > tags.length) {
+                            grow(end);
+                            tags = this.tags;
+                            values = this.values;
+                            refs = this.refs;
+                        }
+                        // Variables start out uninitialized
+                        Arrays.fill(tags, base + code[pc + 4], end, NONE);
+                        pc = program.entries[function];
+                        break;
+                    }
+                    case Bytecode.RETURN:
+                    case Bytecode.RETURN_NONE: {
+                        depth--;
+                        int target = returnTargets[depth];
+                        if (opcode == Bytecode.RETURN) {
+                            copy(target, base + code[pc + 1]);
+                        } else {
+                            tags[target] = NONE;
+                        }
+                        pc = returnAddresses[depth];
+                        base = returnBases[depth];
+                        break;
+                    }
+                    case Bytecode.OUTPUT:
+                        out.println(display(base + code[pc + 1]));
+                        pc += 2;
+                        break;
+                    case Bytecode.INPUT:
+                        input(base + code[pc + 1], pc);
+                        pc += 2;
+                        break;
+                    default:
+                        throw error(pc, "Invalid opcode " + opcode);
+                }
+            }
+        } finally {
+            instructions = branches;
+        }
+    }
+    
+    private void grow(int minCapacity) {
+        int capacity = Math.max(tags.length * 2, minCapacity);
+        tags = Arrays.copyOf(tags, capacity);
+        values = Arrays.copyOf(values, capacity);
+        refs = Arrays.copyOf(refs, capacity);
+    }
+    
+    private void copy(int d, int s) {
+        tags[d] = tags[s];
+        values[d] = values[s];
+        refs[d] = refs[s];
+    }
+    
+    // ==================== Generic operations ====================
+    
+    private boolean isNumber(int r) {
+        return tags[r] == INT || tags[r] == FLOAT || tags[r] == CHAR;
+    }
+    
+    private double number(int r) {
+        return tags[r] == FLOAT ? Double.longBitsToDouble(values[r]) : values[r];
+    }
+    
+    /**
+     * Arithmetic on any operand types: integers (and characters) stay
+     * integral, a float operand makes the result a float, and + with a
+     * string operand concatenates
+     */
+    private void arithmetic(int opcode, int d, int a, int b, int pc) {
+        if (opcode == Bytecode.ADD && (tags[a] == STRING || tags[b] == STRING)) {
+            String result = display(a) + display(b);
+            tags[d] = STRING;
+            refs[d] = result;
+            return;
+        }
+        if (!isNumber(a) || !isNumber(b)) {
+            throw error(pc, "Invalid operands " + TAG_NAMES[tags[a]] + " and " + TAG_NAMES[tags[b]]);
+        }
+        if (tags[a] != FLOAT && tags[b] != FLOAT) {
+            long x = values[a];
+            long y = values[b];
+            long result;
+            switch (opcode) {
+                case Bytecode.ADD:
+                    result = x + y;
+                    break;
+                case Bytecode.SUB:
+                    result = x - y;
+                    break;
+                case Bytecode.MUL:
+                    result = x * y;
+                    break;
+                case Bytecode.DIV:
+                case Bytecode.MOD:
+                    if (y == 0) {
+                        throw error(pc, "Division by zero");
+                    }
+                    result = opcode == Bytecode.DIV ? x / y : x % y;
+                    break;
+                default:
+                    if (y < 0) {
+                        setFloat(d, Math.pow(x, y));
+                        return;
+                    }
+                    result = power(x, y);
+                    break;
+            }
+            tags[d] = INT;
+            values[d] = result;
+            return;
+        }
+        double x = number(a);
+        double y = number(b);
+        double result;
+        switch (opcode) {
+            case Bytecode.ADD:
+                result = x + y;
+                break;
+            case Bytecode.SUB:
+                result = x - y;
+                break;
+            case Bytecode.MUL:
+                result = x * y;
+                break;
+            case Bytecode.DIV:
+                result = x / y;
+                break;
+            case Bytecode.MOD:
+                result = x % y;
+                break;
+            default:
+                result = Math.pow(x, y);
+                break;
+        }
+        setFloat(d, result);
+    }
+    
+    /**
+     * Integer power by repeated squaring (wraps around on overflow)
+     */
+    static long power(long base, long exponent) {
+        long result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+            exponent >>= 1;
+        }
+        return result;
+    }
+    
+    private void setFloat(int d, double value) {
+        tags[d] = FLOAT;
+        values[d] = Double.doubleToRawLongBits(value);
+    }
+    
+    /**
+     * Slow path of INC, DEC and ADDI
+     * @param add True for INC and ADDI, which concatenate to a string like ADD
+     */
+    private void addImmediate(int r, int delta, boolean add, int pc) {
+        if (tags[r] == FLOAT) {
+            setFloat(r, Double.longBitsToDouble(values[r]) + delta);
+        } else if (tags[r] == CHAR) {
+            tags[r] = INT;
+            values[r] += delta;
+        } else if (tags[r] == STRING && add) {
+            refs[r] = refs[r] + Integer.toString(delta);
+        } else {
+            throw error(pc, "Invalid operand " + TAG_NAMES[tags[r]]);
+        }
+    }
+    
+    private void negate(int opcode, int d, int a, int pc) {
+        if (!isNumber(a)) {
+            throw error(pc, "Invalid operand " + TAG_NAMES[tags[a]]);
+        }
+        if (tags[a] == FLOAT) {
+            setFloat(d, opcode == Bytecode.NEG ? -Double.longBitsToDouble(values[a]) : Double.longBitsToDouble(values[a]));
+        } else {
+            tags[d] = INT;
+            values[d] = opcode == Bytecode.NEG ? -values[a] : values[a];
+        }
+    }
+    
+    /**
+     * Compare two registers: numbers (and characters) by value, strings by
+     * content (ordered lexicographically), booleans only for equality
+     * @param opcode EQ, NE, LT, LE, GT or GE
+     */
+    private boolean compare(int opcode, int a, int b, int pc) {
+        int order;
+        if (isNumber(a) && isNumber(b)) {
+            if (tags[a] != FLOAT && tags[b] != FLOAT) {
+                order = Long.compare(values[a], values[b]);
+            } else {
+                double x = number(a);
+                double y = number(b);
+                // NaN is unordered: only != holds
+                if (x != x || y != y) {
+                    return opcode == Bytecode.NE;
+                }
+                order = Double.compare(x == 0.0 ? 0.0 : x, y == 0.0 ? 0.0 : y);
+            }
+        } else if (tags[a] == STRING && tags[b] == STRING) {
+            order = ((String) refs[a]).compareTo((String) refs[b]);
+        } else if (opcode == Bytecode.EQ || opcode == Bytecode.NE) {
+            boolean equal = tags[a] == tags[b]
+                && (tags[a] == ARRAY ? refs[a] == refs[b] : values[a] == values[b]);
+            return equal == (opcode == Bytecode.EQ);
+        } else {
+            throw error(pc, "Cannot order " + TAG_NAMES[tags[a]] + " and " + TAG_NAMES[tags[b]]);
+        }
+        switch (opcode) {
+            case Bytecode.EQ:
+                return order == 0;
+            case Bytecode.NE:
+                return order != 0;
+            case Bytecode.LT:
+                return order < 0;
+            case Bytecode.LE:
+                return order <= 0;
+            case Bytecode.GT:
+                return order > 0;
+            default:
+                return order >= 0;
+        }
+    }
+    
+    /**
+     * Truth value of a register: false, 0, 0.0, '\0', "" and none are false
+     */
+    private boolean truth(int r) {
+        switch (tags[r]) {
+            case FLOAT:
+                return Double.longBitsToDouble(values[r]) != 0.0;
+            case STRING:
+                return !((String) refs[r]).isEmpty();
+            case ARRAY:
+                return true;
+            case NONE:
+                return false;
+            default:
+                return values[r] != 0;
+        }
+    }
+    
+    private Array array(int r, int pc) {
+        if (tags[r] != ARRAY) {
+            throw error(pc, "Not an array: " + TAG_NAMES[tags[r]]);
+        }
+        return (Array) refs[r];
+    }
+    
+    private int index(Array array, int r, int pc) {
+        if (tags[r] != INT && tags[r] != CHAR) {
+            throw error(pc, "Invalid array index " + display(r));
+        }
+        long i = values[r];
+        if (i < 0 || i >= array.tags.length) {
+            throw error(pc, "Array index " + i + " out of bounds for length " + array.tags.length);
+        }
+        return (int) i;
+    }
+    
+    /**
+     * Read a line for an input statement: an integer, a float, or else a string
+     */
+    private void input(int d, int pc) {
+        String text;
+        try {
+            text = in.readLine();
+        } catch (IOException e) {
+            throw error(pc, "Input failed: " + e.getMessage());
+        }
+        if (text == null) {
+            throw error(pc, "No more input");
+        }
+        text = text.trim();
+        try {
+            tags[d] = INT;
+            values[d] = Long.parseLong(text);
+            return;
+        } catch (NumberFormatException e) {
+            // Not an integer
+        }
+        try {
+            setFloat(d, Double.parseDouble(text));
+        } catch (NumberFormatException e) {
+            tags[d] = STRING;
+            refs[d] = text;
+        }
+    }
+    
+    /**
+     * Render a register for output and string concatenation
+     */
+    String display(int r) {
+        switch (tags[r]) {
+            case INT:
+                return Long.toString(values[r]);
+            case FLOAT:
+                return Double.toString(Double.longBitsToDouble(values[r]));
+            case BOOL:
+                return values[r] != 0 ? "true" : "false";
+            case CHAR:
+                return String.valueOf((char) values[r]);
+            case STRING:
+                return (String) refs[r];
+            case ARRAY:
+                return "array[" + ((Array) refs[r]).tags.length + "]";
+            default:
+                return "none";
+        }
+    }
+    
+    private RuntimeError error(int pc, String message) {
+        return new RuntimeError(program.lines[pc], message);
+    }
+    
+    /**
+     * Main method: scan, parse, compile and run a program
+     */
+    public static void main(String[] args) {
+        boolean disassemble = args.length == 2 && args[0].equals("--disassemble");
+        if (args.length != (disassemble ? 2 : 1)) {
+            System.out.println("Usage: java VM [--disassemble] <input-file>");
+            return;
+        }
+        
+        try {
+            ManualScanner scanner = new ManualScanner(ManualScanner.readSource(args[disassemble ? 1 : 0]));
+            Parser parser = new Parser(scanner);
+            SyntaxTree tree = parser.parse();
+            if (scanner.getErrorHandler().getErrorCount() > 0 || parser.getErrorCount() > 0) {
+                scanner.getErrorHandler().printErrors();
+                parser.printErrors();
+                return;
+            }
+            
+            Compiler compiler = new Compiler(tree);
+            Bytecode program = compiler.compile();
+            if (program == null) {
+                compiler.printErrors();
+                return;
+            }
+            if (disassemble) {
+                program.disassemble();
+            }
+            
+            PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), false);
+            try {
+                new VM(program, out, new InputStreamReader(System.in)).run();
+            } catch (RuntimeError e) {
+                out.flush();
+                System.out.println(e);
+            }
+            out.flush();
+            
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ErrorLimitTest Class
+ * Checks that lexical and syntax errors are all stored unless a limit is set,
+ * that a set limit only drops the stored copies (the count stays exact), and
+ * that input skipped by scanner recovery keeps only its first character.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+class ErrorLimitTest {
+    
+    private static final int ERRORS = 12_000;
+    
+    private static String lines(String line) {
+        return "start\n" + line.repeat(ERRORS) + "finish\n";
+    }
+    
+    @Test
+    void storesEveryLexicalErrorByDefault() {
+        ManualScanner scanner = new ManualScanner(lines("@\n"));
+        scanner.scan();
+        ErrorHandler errors = scanner.getErrorHandler();
+        
+        assertEquals(ERRORS, errors.getErrorCount());
+        assertEquals(ERRORS, errors.getStoredErrorCount());
+        
+        errors.clear();
+        errors.setMaxErrors(10);
+        for (int i = 0; i < ERRORS; i++) {
+            errors.reportInvalidCharacter('@', i + 1, 1);
+        }
+        assertEquals(ERRORS, errors.getErrorCount());
+        assertEquals(10, errors.getStoredErrorCount());
+    }
+    
+    @Test
+    void storesEverySyntaxErrorByDefault() {
+        ManualScanner scanner = new ManualScanner(lines("declare = 1\n"));
+        scanner.scan();
+        Parser parser = new Parser(scanner.getTokenBuffer());
+        parser.parse();
+        
+        assertEquals(ERRORS, parser.getErrorCount());
+        assertEquals(ERRORS, parser.getErrors().size());
+        
+        parser = new Parser(scanner.getTokenBuffer());
+        parser.setMaxErrors(10);
+        parser.parse();
+        assertEquals(ERRORS, parser.getErrorCount());
+        assertEquals(10, parser.getErrors().size());
+    }
+    
+    @Test
+    void keepsOnlyTheFirstCharacterOfSkippedInput() {
+        String garbage = "@" + "x$".repeat(5000);
+        ManualScanner scanner = new ManualScanner("start\n    " + garbage + " declare X = 1\nfinish\n");
+        scanner.setRecoveryMode(true);
+        scanner.scan();
+        ErrorHandler errors = scanner.getErrorHandler();
+        
+        assertEquals(1, errors.getStoredErrorCount());
+        assertEquals(ErrorCode.SKIPPED_INPUT, errors.getCode(0));
+        assertEquals("@", errors.getLexeme(0));
+        assertEquals("Invalid character '@' (ASCII: 64), skipped " + garbage.length()
+                     + " characters to the next token boundary", errors.getReason(0));
+    }
+}
@@ -0,0 +1,133 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * IncrementalScannerTest Class
+ * Checks that after every edit the tokens, errors and symbol table of an
+ * IncrementalScanner match a full rescan of the edited text, for edits that
+ * open and close comments and strings and for random edits.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+class IncrementalScannerTest {
+    
+    private static final String ALPHABET = "#*#*\n\n  \t\"\"\\nAbZ_09.'+-=<>!&|%/(){}[],;:@$`~ #*\"tx";
+    private static final String[] WORDS = {"Abc ", "Xyz", "declare ", "start\n", "##c\n", "#* x *#", "\"s\""};
+    
+    private static final String PROGRAM = "start\n    declare Total = 0\n    loop Total < 3 {\n        Total += 1\n"
+                                          + "    }\n    output \"done\"\n    output Total\nfinish\n";
+    
+    /**
+     * Apply an edit to both the scanner and a copy of its text, then compare with a full rescan
+     */
+    private static String edit(IncrementalScanner document, String text, int offset, int removed, String inserted) {
+        document.edit(offset, removed, inserted);
+        String edited = text.substring(0, offset) + inserted + text.substring(offset + removed);
+        assertMatchesRescan(edited, document);
+        return edited;
+    }
+    
+    private static void assertMatchesRescan(String text, IncrementalScanner document) {
+        ManualScanner expected = new ManualScanner(text);
+        expected.scan();
+        assertEquals(text, document.getText().toString());
+        
+        TokenBuffer a = expected.getTokenBuffer();
+        TokenBuffer b = document.getTokenBuffer();
+        assertEquals(a.size(), b.size(), "token count");
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.get(i).toString(), b.get(i).toString(), "token " + i);
+            assertEquals(a.getStart(i), b.getStart(i), "start of token " + i);
+        }
+        
+        assertEquals(expected.getErrorHandler().getErrors(), document.getErrorHandler().getErrors());
+        
+        SymbolTable symbolsA = expected.getSymbolTable();
+        SymbolTable symbolsB = document.getSymbolTable();
+        assertEquals(symbolsA.getUniqueIdentifierCount(), symbolsB.getUniqueIdentifierCount());
+        assertEquals(symbolsA.getTotalIdentifierOccurrences(), symbolsB.getTotalIdentifierOccurrences());
+        for (int i = 0; i < symbolsA.getUniqueIdentifierCount(); i++) {
+            int idA = symbolsA.getIdAt(i);
+            int idB = symbolsB.getIdAt(i);
+            assertEquals(symbolsA.getName(idA), symbolsB.getName(idB), "symbol " + i);
+            assertEquals(symbolsA.getFirstLine(idA), symbolsB.getFirstLine(idB), "first line of symbol " + i);
+            assertEquals(symbolsA.getFirstColumn(idA), symbolsB.getFirstColumn(idB), "first column of symbol " + i);
+            assertEquals(symbolsA.getFrequency(idA), symbolsB.getFrequency(idB), "frequency of symbol " + i);
+        }
+    }
+    
+    @Test
+    void typesAndDeletesALine() {
+        String text = PROGRAM;
+        IncrementalScanner document = new IncrementalScanner(text);
+        String line = "    declare Count = Total ** 2\n";
+        int offset = text.indexOf("    output \"done\"");
+        for (int i = 0; i < line.length(); i++) {
+            text = edit(document, text, offset + i, 0, line.substring(i, i + 1));
+        }
+        for (int i = line.length(); i > 0; i--) {
+            text = edit(document, text, offset + i - 1, 1, "");
+        }
+        assertEquals(PROGRAM, text);
+    }
+    
+    @Test
+    void opensAndClosesAMultiLineComment() {
+        String text = PROGRAM;
+        IncrementalScanner document = new IncrementalScanner(text);
+        int open = text.indexOf("    loop");
+        text = edit(document, text, open, 0, "#*");
+        text = edit(document, text, text.indexOf("    output Total"), 0, "*#");
+        text = edit(document, text, open, 2, "");
+        edit(document, text, text.indexOf("*#"), 2, "");
+    }
+    
+    @Test
+    void opensAndClosesAString() {
+        String text = PROGRAM;
+        IncrementalScanner document = new IncrementalScanner(text);
+        int quote = text.indexOf("\"done\"");
+        text = edit(document, text, quote + 5, 1, "");
+        text = edit(document, text, quote + 5, 0, "\\");
+        text = edit(document, text, quote + 5, 1, "\"");
+        assertEquals(PROGRAM, text);
+    }
+    
+    @Test
+    void renamesTheFirstOccurrenceOfASymbol() {
+        String text = PROGRAM;
+        IncrementalScanner document = new IncrementalScanner(text);
+        int first = text.indexOf("Total");
+        text = edit(document, text, first, 5, "Sum");
+        text = edit(document, text, first, 3, "Total");
+        assertEquals(PROGRAM, text);
+    }
+    
+    @Test
+    void randomEditsMatchAFullRescan() {
+        Random random = new Random(9);
+        for (int doc = 0; doc < 300; doc++) {
+            String text = randomText(random, random.nextInt(400));
+            IncrementalScanner document = new IncrementalScanner(text);
+            for (int i = 0; i < 40; i++) {
+                int offset = random.nextInt(text.length() + 1);
+                int removed = random.nextInt(Math.min(8, text.length() - offset) + 1);
+                text = edit(document, text, offset, removed, randomText(random, random.nextInt(8)));
+            }
+        }
+    }
+    
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (random.nextInt(6) == 0) {
+                text.append(WORDS[random.nextInt(WORDS.length)]);
+            } else {
+                text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+        }
+        return text.toString();
+    }
+}
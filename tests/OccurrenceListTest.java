@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * OccurrenceListTest Class
+ * Checks floor() and line-range cursors of OccurrenceList against a linear
+ * search, on lists long enough to span many checkpoints and with repeated
+ * offsets and lines on both sides of checkpoint boundaries.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+class OccurrenceListTest {
+    
+    /**
+     * Build a list and the same entries as arrays: offsets and lines grow by
+     * 0 to 3 per entry, so runs of equal keys cross checkpoints
+     */
+    private static OccurrenceList build(int size, long seed, int[] offsets, int[] lines, int[] columns) {
+        Random random = new Random(seed);
+        OccurrenceList list = new OccurrenceList(true);
+        int offset = random.nextInt(5);
+        int line = 1;
+        for (int i = 0; i < size; i++) {
+            offset += random.nextInt(4);
+            line += random.nextInt(4) == 0 ? random.nextInt(3) : 0;
+            offsets[i] = offset;
+            lines[i] = line;
+            columns[i] = 1 + random.nextInt(80);
+            list.add(offset, line, columns[i], i);
+        }
+        return list;
+    }
+    
+    @Test
+    void floorFindsTheLastEntryAtOrBeforeAnOffset() {
+        for (int size : new int[] {0, 1, 15, 16, 17, 31, 32, 33, 500}) {
+            int[] offsets = new int[size];
+            int[] lines = new int[size];
+            int[] columns = new int[size];
+            OccurrenceList list = build(size, size, offsets, lines, columns);
+            int last = size > 0 ? offsets[size - 1] : 0;
+            for (int offset = -1; offset <= last + 2; offset++) {
+                int expected = -1;
+                for (int i = 0; i < size && offsets[i] <= offset; i++) {
+                    expected = i;
+                }
+                OccurrenceList.Cursor cursor = list.floor(offset);
+                if (expected < 0) {
+                    assertNull(cursor, "floor(" + offset + ")");
+                    continue;
+                }
+                assertNotNull(cursor, "floor(" + offset + ")");
+                assertEquals(expected, cursor.value(), "floor(" + offset + ") of " + size + " entries");
+                assertEquals(offsets[expected], cursor.offset());
+                assertEquals(lines[expected], cursor.line());
+                assertEquals(columns[expected], cursor.column());
+                
+                // The cursor continues with the following entries
+                for (int i = expected + 1; i < size; i++) {
+                    assertTrue(cursor.next());
+                    assertEquals(i, cursor.value());
+                    assertEquals(offsets[i], cursor.offset());
+                }
+                assertFalse(cursor.next());
+            }
+        }
+    }
+    
+    @Test
+    void cursorVisitsExactlyTheEntriesInALineRange() {
+        for (int size : new int[] {0, 1, 16, 17, 48, 500}) {
+            int[] offsets = new int[size];
+            int[] lines = new int[size];
+            int[] columns = new int[size];
+            OccurrenceList list = build(size, 31L * size, offsets, lines, columns);
+            int lastLine = size > 0 ? lines[size - 1] : 1;
+            for (int from = 0; from <= lastLine + 1; from++) {
+                for (int to = from - 1; to <= lastLine + 1; to += 1 + to / 8) {
+                    List<Integer> expected = new ArrayList<>();
+                    for (int i = 0; i < size; i++) {
+                        if (lines[i] >= from && lines[i] <= to) {
+                            expected.add(i);
+                        }
+                    }
+                    List<Integer> actual = new ArrayList<>();
+                    OccurrenceList.Cursor cursor = list.cursor(from, to);
+                    while (cursor.next()) {
+                        assertEquals(offsets[cursor.value()], cursor.offset());
+                        assertEquals(lines[cursor.value()], cursor.line());
+                        actual.add(cursor.value());
+                    }
+                    assertEquals(expected, actual, "lines " + from + ".." + to + " of " + size + " entries");
+                }
+            }
+        }
+    }
+    
+    @Test
+    void cursorVisitsEveryEntryInOrder() {
+        int[] offsets = new int[100];
+        int[] lines = new int[100];
+        int[] columns = new int[100];
+        OccurrenceList list = build(100, 7, offsets, lines, columns);
+        OccurrenceList.Cursor cursor = list.cursor();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(cursor.next());
+            assertEquals(i, cursor.value());
+            assertEquals(columns[i], cursor.column());
+        }
+        assertFalse(cursor.next());
+        assertEquals(100, list.size());
+    }
+    
+    @Test
+    void rejectsEntriesOutOfSourceOrder() {
+        OccurrenceList list = new OccurrenceList(false);
+        list.add(10, 2, 1, 0);
+        assertThrows(IllegalArgumentException.class, () -> list.add(9, 2, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> list.add(11, 1, 1, 0));
+    }
+}
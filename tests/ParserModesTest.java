@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ParserModesTest Class
+ * Checks that java Parser prints the same tree and errors whether the tokens
+ * come from a full scan (default), straight from a streaming scanner (--fused)
+ * or through a TokenPipe on another thread (--pipe), on the test files and on
+ * random statement sequences.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+class ParserModesTest {
+    
+    private static final String[] STATEMENTS = {
+        "declare X = 1", "declare Y = X ** 2 + 1", "output X", "input Y", "X += 1", "X++",
+        "loop X < 10 {", "condition X == 1 {", "} else {", "}", "function F(A, B) {", "return A + B",
+        "break", "continue", "## comment", "#* multi\nline *#", "output \"s\\n\"", "output 'c'",
+        "declare = 1", "loop )", "output ]", "@", "declare Z[3]", "Z[1] = F(1, 2)"
+    };
+    
+    @TempDir
+    Path directory;
+    
+    /**
+     * Run Parser.main and capture what it prints
+     */
+    private static String run(String... args) {
+        PrintStream out = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        try (PrintStream capture = new PrintStream(captured, true)) {
+            System.setOut(capture);
+            Parser.main(args);
+        } finally {
+            System.setOut(out);
+        }
+        return captured.toString();
+    }
+    
+    private static void assertModesAgree(Path file) {
+        String expected = run(file.toString());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, run("--fused", file.toString()), "--fused on " + file);
+        assertEquals(expected, run("--pipe", file.toString()), "--pipe on " + file);
+    }
+    
+    @Test
+    void modesAgreeOnTheTestFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get("tests"), "*.lang")) {
+            for (Path file : files) {
+                assertModesAgree(file);
+            }
+        }
+    }
+    
+    @Test
+    void modesAgreeOnRandomPrograms() throws IOException {
+        Random random = new Random(13);
+        for (int i = 0; i < 200; i++) {
+            StringBuilder source = new StringBuilder(random.nextInt(8) > 0 ? "start\n" : "");
+            for (int n = random.nextInt(40); n > 0; n--) {
+                source.append("    ").append(STATEMENTS[random.nextInt(STATEMENTS.length)]).append('\n');
+            }
+            if (random.nextInt(8) > 0) {
+                source.append("finish\n");
+            }
+            Path file = directory.resolve("random" + i + ".lang");
+            Files.writeString(file, source);
+            assertModesAgree(file);
+        }
+    }
+}
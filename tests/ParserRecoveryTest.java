@@ -0,0 +1,106 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ParserRecoveryTest Class
+ * Checks that the parser reports errors, resynchronizes and parses the
+ * statements that follow, and that no input makes it stall: every statement
+ * either consumes a token or is skipped.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+class ParserRecoveryTest {
+    
+    private static final String[] WORDS = {
+        "start", "finish", "declare", "output", "input", "condition", "else", "loop", "function", "return",
+        "break", "continue", "X", "Y", "Abc", "1", "2.5", "\"s\"", "'c'", "true", "(", ")", "{", "}", "[", "]",
+        ",", ";", "=", "+=", "+", "-", "*", "/", "**", "==", "<", "&&", "||", "!", "++", "--",
+        "\n", "\n", "\n  ", "\n    ", "@", "x"
+    };
+    
+    private static Parser parser(String source) {
+        ManualScanner scanner = new ManualScanner(source);
+        scanner.scan();
+        return new Parser(scanner.getTokenBuffer());
+    }
+    
+    private static List<NodeKind> statements(SyntaxTree tree) {
+        List<NodeKind> kinds = new ArrayList<>();
+        for (int node = tree.getFirstChild(tree.getRoot()); node != SyntaxTree.NONE; node = tree.getNextSibling(node)) {
+            kinds.add(tree.getKind(node));
+        }
+        return kinds;
+    }
+    
+    @Test
+    void parsesStatementsAfterErrors() throws IOException {
+        Parser parser = parser(ManualScanner.readSource("tests/test6.lang"));
+        SyntaxTree tree = parser.parse();
+        List<NodeKind> kinds = statements(tree);
+        
+        assertTrue(parser.getErrorCount() > 0);
+        assertEquals(List.of(NodeKind.DECLARE, NodeKind.LOOP, NodeKind.OUTPUT), kinds.subList(kinds.size() - 3,
+                                                                                           kinds.size()));
+    }
+    
+    @Test
+    void resynchronizesAtTheNextLine() {
+        Parser parser = parser("start\n    declare = 1\n    declare X = 1\n    output X\nfinish\n");
+        List<NodeKind> kinds = statements(parser.parse());
+        
+        assertEquals(1, parser.getErrorCount());
+        assertTrue(parser.getErrors().get(0).startsWith("[SYNTAX ERROR] at Line 2"));
+        assertEquals(List.of(NodeKind.DECLARE, NodeKind.OUTPUT), kinds.subList(kinds.size() - 2, kinds.size()));
+    }
+    
+    @Test
+    void recoversInsideNestedBlocks() {
+        Parser parser = parser("start\n    loop X < 1 {\n        output )\n        X += 1\n    }\n"
+                               + "    output X\nfinish\n");
+        SyntaxTree tree = parser.parse();
+        List<NodeKind> kinds = statements(tree);
+        
+        assertEquals(1, parser.getErrorCount());
+        assertEquals(List.of(NodeKind.LOOP, NodeKind.OUTPUT), kinds);
+        int loop = tree.getFirstChild(tree.getRoot());
+        int block = tree.getChild(loop, 1);
+        assertEquals(NodeKind.ASSIGN, tree.getKind(tree.getChild(block, tree.getChildCount(block) - 1)));
+    }
+    
+    @Test
+    void reportsErrorsInSourceOrder() {
+        Parser parser = parser("start\n    declare = 1\n    loop )\n    output ]\n    condition * X = 1\nfinish\n");
+        parser.parse();
+        
+        List<Integer> lines = new ArrayList<>();
+        for (String error : parser.getErrors()) {
+            int line = Integer.parseInt(error.replaceAll("^\\[SYNTAX ERROR\\] at Line (\\d+),.*$", "$1"));
+            assertTrue(lines.isEmpty() || line >= lines.get(lines.size() - 1), error);
+            if (!lines.contains(line)) {
+                lines.add(line);
+            }
+        }
+        assertEquals(List.of(2, 3, 4, 5), lines);
+    }
+    
+    @Test
+    void terminatesOnRandomTokenSequences() {
+        Random random = new Random(19);
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            for (int i = 0; i < 20000; i++) {
+                StringBuilder source = new StringBuilder(random.nextBoolean() ? "start\n" : "");
+                for (int n = random.nextInt(60); n > 0; n--) {
+                    source.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                }
+                if (random.nextBoolean()) {
+                    source.append("\nfinish\n");
+                }
+                parser(source.toString()).parse();
+            }
+        });
+    }
+}
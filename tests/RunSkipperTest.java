@@ -0,0 +1,78 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * RunSkipperTest Class
+ * Checks the swar and (when it loads) vector run skippers against the scalar
+ * one on random buffers of every length around the word and register sizes,
+ * with one and three stop characters, stops at any position and runs without
+ * a stop; and that create() rejects unknown kinds.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+class RunSkipperTest {
+    
+    private static final char[] ALPHABET = {'a', 'Z', ' ', '\n', '\n', '*', '#', '"', '\\', '\r', '\u00e9', '\uffff'};
+    
+    private static List<RunSkipper> alternatives() {
+        List<RunSkipper> skippers = new ArrayList<>();
+        skippers.add(RunSkipper.create("swar"));
+        try {
+            skippers.add(RunSkipper.create("vector"));
+        } catch (IllegalStateException e) {
+            // Not compiled in or the JVM lacks jdk.incubator.vector: test the rest
+        }
+        return skippers;
+    }
+    
+    private static void check(RunSkipper scalar, List<RunSkipper> skippers, char[] buf, int from, int end,
+                              char a, char b, char c) {
+        long expected = scalar.skipUntil(buf, from, end, a, b, c);
+        for (RunSkipper skipper : skippers) {
+            assertEquals(expected, skipper.skipUntil(buf, from, end, a, b, c),
+                         () -> skipper.getName() + " skipper on [" + from + ", " + end + ") of "
+                               + Arrays.toString(buf) + " with stops " + a + b + c);
+        }
+    }
+    
+    @Test
+    void skippersAgreeWithScalarOnRandomBuffers() {
+        RunSkipper scalar = RunSkipper.create("scalar");
+        List<RunSkipper> skippers = alternatives();
+        Random random = new Random(25);
+        for (int i = 0; i < 20000; i++) {
+            char[] buf = new char[random.nextInt(200)];
+            // Mostly letters, so that runs cross several words and registers
+            for (int k = 0; k < buf.length; k++) {
+                buf[k] = random.nextInt(8) == 0 ? ALPHABET[random.nextInt(ALPHABET.length)] : 'x';
+            }
+            int from = buf.length == 0 ? 0 : random.nextInt(buf.length);
+            int end = from + random.nextInt(buf.length - from + 1);
+            check(scalar, skippers, buf, from, end, '*', '*', '*');
+            check(scalar, skippers, buf, from, end, '"', '\\', '\n');
+            check(scalar, skippers, buf, from, end, '\uffff', '\r', '\u00e9');
+        }
+    }
+    
+    @Test
+    void skippersCountNewlinesOverLongRuns() {
+        RunSkipper scalar = RunSkipper.create("scalar");
+        List<RunSkipper> skippers = alternatives();
+        char[] buf = new char[1 << 21];
+        Arrays.fill(buf, '\n');
+        buf[buf.length - 3] = '*';
+        check(scalar, skippers, buf, 0, buf.length, '*', '*', '*');
+        check(scalar, skippers, buf, 1, buf.length - 4, '*', '*', '*');
+        assertEquals((long) (buf.length - 3) << 32 | buf.length - 3,
+                     scalar.skipUntil(buf, 0, buf.length, '*', '*', '*'));
+    }
+    
+    @Test
+    void createRejectsUnknownKinds() {
+        assertEquals("scalar", RunSkipper.create("scalar").getName());
+        assertEquals("swar", RunSkipper.create("swar").getName());
+        assertThrows(IllegalArgumentException.class, () -> RunSkipper.create("simd"));
+    }
+}
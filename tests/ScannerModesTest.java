@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ScannerModesTest Class
+ * Checks that java ManualScanner prints the same report by default (whole
+ * file), with --stream and with --mmap on files with '\r', "\r\n" and mixed
+ * line endings, without a final newline, and with UTF-8 and malformed bytes;
+ * and that both streaming readers return exactly the chars readSource() does.
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+class ScannerModesTest {
+    
+    private static final String PROGRAM = "start\n    declare X = 1\n    ## comment\n    output \"a b\"\n"
+                                          + "    #* multi\n    line *#\n    X += 'c'\nfinish";
+    
+    @TempDir
+    Path directory;
+    
+    /**
+     * Run ManualScanner.main and capture what it prints
+     */
+    private static String run(String... args) {
+        PrintStream out = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        try (PrintStream capture = new PrintStream(captured, true)) {
+            System.setOut(capture);
+            ManualScanner.main(args);
+        } finally {
+            System.setOut(out);
+        }
+        return captured.toString();
+    }
+    
+    private void assertModesAgree(String name, byte[] content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, content);
+        String expected = run(file.toString());
+        assertTrue(expected.contains("TOKENS"), name);
+        assertEquals(expected, run("--stream", file.toString()), "--stream on " + name);
+        assertEquals(expected, run("--mmap", file.toString()), "--mmap on " + name);
+    }
+    
+    private static String read(Reader reader, Random random) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[16];
+        int n;
+        while ((n = reader.read(buffer, 0, 1 + random.nextInt(buffer.length))) != -1) {
+            text.append(buffer, 0, n);
+        }
+        return text.toString();
+    }
+    
+    @Test
+    void modesAgreeOnLineEndings() throws IOException {
+        assertModesAgree("lf.lang", (PROGRAM + "\n").getBytes(StandardCharsets.US_ASCII));
+        assertModesAgree("no-final-newline.lang", PROGRAM.getBytes(StandardCharsets.US_ASCII));
+        assertModesAgree("crlf.lang", (PROGRAM.replace("\n", "\r\n") + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        assertModesAgree("crlf-no-final-newline.lang",
+                         PROGRAM.replace("\n", "\r\n").getBytes(StandardCharsets.US_ASCII));
+        assertModesAgree("cr.lang", (PROGRAM.replace("\n", "\r") + "\r").getBytes(StandardCharsets.US_ASCII));
+        assertModesAgree("cr-no-final-newline.lang", PROGRAM.replace("\n", "\r").getBytes(StandardCharsets.US_ASCII));
+        assertModesAgree("mixed.lang", "X\r\n\r\nY\r\r\nZ\n\rW".getBytes(StandardCharsets.US_ASCII));
+        assertModesAgree("empty.lang", new byte[0]);
+    }
+    
+    @Test
+    void modesAgreeOnNonAsciiInput() throws IOException {
+        assertModesAgree("utf8.lang", "declare Caf\u00e9 = \"\u20ac \ud83d\ude00\"\r\n## \u00fc\r\n@\u00e9"
+                                      .getBytes(StandardCharsets.UTF_8));
+        assertModesAgree("malformed.lang", new byte[] {'X', ' ', (byte) 0xC3, '\r', (byte) 0xE2, (byte) 0x82, '\n',
+                                                       (byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0xFF, 'Y'});
+    }
+    
+    @Test
+    void readersMatchReadSourceOnRandomBytes() throws IOException {
+        byte[] alphabet = {'a', 'B', ' ', '#', '"', '\r', '\n', '\r', '\n', (byte) 0xC3, (byte) 0xA9, (byte) 0xE2,
+                           (byte) 0x82, (byte) 0xAC, (byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80, (byte) 0xBF,
+                           (byte) 0xC0, (byte) 0xED, (byte) 0xA0, (byte) 0xF4, (byte) 0x90, (byte) 0xFF, (byte) 0xE0};
+        Random random = new Random(5);
+        Path file = directory.resolve("random.lang");
+        for (int i = 0; i < 5000; i++) {
+            byte[] content = new byte[random.nextInt(200)];
+            for (int k = 0; k < content.length; k++) {
+                content[k] = alphabet[random.nextInt(alphabet.length)];
+            }
+            Files.write(file, content);
+            String expected = ManualScanner.readSource(file.toString());
+            try (Reader reader = new MappedFileReader(file)) {
+                assertEquals(expected, read(reader, random), "MappedFileReader on " + Arrays.toString(content));
+            }
+            try (Reader reader = ManualScanner.openSource(file.toString())) {
+                assertEquals(expected, read(reader, random), "openSource() on " + Arrays.toString(content));
+            }
+        }
+    }
+}
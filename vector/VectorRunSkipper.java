@@ -0,0 +1,52 @@
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorRunSkipper Class
+ * RunSkipper on the incubating Vector API: loads a whole register of
+ * characters, compares it with the stop characters, and adds the '\n' lanes
+ * to per-lane newline counts; the vector that holds the stop is finished by
+ * the scalar loop. Kept out of src/ so that the default build does not need
+ * the incubator module.
+ * Build: javac --add-modules jdk.incubator.vector -cp out -d out vector/VectorRunSkipper.java
+ * Run:   java --add-modules jdk.incubator.vector -Dsimplelang.skip=vector -cp out ...
+ * CS4031 - Compiler Construction - Assignment 01
+ */
+public class VectorRunSkipper extends RunSkipper {
+    
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    
+    @Override
+    public String getName() {
+        return "vector";
+    }
+    
+    @Override
+    public long skipUntil(char[] buf, int from, int end, char a, char b, char c) {
+        int lanes = SPECIES.length();
+        int flushSteps = Short.MAX_VALUE / lanes;
+        ShortVector zero = ShortVector.zero(SPECIES);
+        ShortVector one = ShortVector.broadcast(SPECIES, (short) 1);
+        ShortVector lineCounts = zero;
+        int p = from;
+        long newlines = 0;
+        int steps = 0;
+        for (; p + lanes <= end; p += lanes) {
+            ShortVector chars = ShortVector.fromCharArray(SPECIES, buf, p);
+            if (chars.eq((short) a).or(chars.eq((short) b)).or(chars.eq((short) c)).anyTrue()) {
+                break;                  // The scalar loop finds the stop in this vector
+            }
+            lineCounts = lineCounts.add(one, chars.eq((short) '\n'));
+            if (++steps == flushSteps) {
+                // Flush while the sum over all lanes still fits in a short
+                newlines += lineCounts.reduceLanes(VectorOperators.ADD);
+                lineCounts = zero;
+                steps = 0;
+            }
+        }
+        newlines += lineCounts.reduceLanes(VectorOperators.ADD);
+        long rest = super.skipUntil(buf, p, end, a, b, c);
+        return rest + (newlines << 32);
+    }
+}